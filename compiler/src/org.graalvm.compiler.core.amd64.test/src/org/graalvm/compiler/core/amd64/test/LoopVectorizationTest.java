@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.amd64.test;
+
+import static org.junit.Assume.assumeTrue;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.java.ElementwiseArrayOpNode;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Before;
+import org.junit.Test;
+
+import jdk.vm.ci.amd64.AMD64;
+
+public class LoopVectorizationTest extends GraalCompilerTest {
+
+    @Before
+    public void checkAMD64() {
+        assumeTrue("skipping AMD64 specific test", getTarget().arch instanceof AMD64);
+    }
+
+    /**
+     * Expected number of vectorized loops or -1 if the graph is not checked.
+     */
+    private int expectedVectorizedLoops = -1;
+
+    @Override
+    protected void checkHighTierGraph(StructuredGraph graph) {
+        if (expectedVectorizedLoops >= 0) {
+            assertDeepEquals(expectedVectorizedLoops, graph.getNodes().filter(ElementwiseArrayOpNode.class).count());
+        }
+    }
+
+    private void testVectorized(String name, Object... args) {
+        expectedVectorizedLoops = 1;
+        testWithVectorization(name, args);
+    }
+
+    private void testNotVectorized(String name, Object... args) {
+        expectedVectorizedLoops = 0;
+        testWithVectorization(name, args);
+    }
+
+    private void testWithVectorization(String name, Object... args) {
+        // loop vectorization is disabled by default
+        OptionValues options = new OptionValues(getInitialOptions(), GraalOptions.LoopVectorization, true);
+        test(options, name, args);
+    }
+
+    /**
+     * Exceptions change the profile and therefore the shape of recompiled graphs, so only the
+     * results are compared.
+     */
+    private void testException(String name, Object... args) {
+        expectedVectorizedLoops = -1;
+        testWithVectorization(name, args);
+    }
+
+    private static int[] ints(int length) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 31 - 7;
+        }
+        return result;
+    }
+
+    private static long[] longs(int length) {
+        long[] result = new long[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 0x1_0000_0001L - 3;
+        }
+        return result;
+    }
+
+    private static float[] floats(int length) {
+        float[] result = new float[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 0.5f - 3;
+        }
+        return result;
+    }
+
+    private static double[] doubles(int length) {
+        double[] result = new double[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 0.25 + 1;
+        }
+        return result;
+    }
+
+    public static int[] addIntsSnippet(int[] a, int[] b) {
+        int[] result = new int[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] + b[i];
+        }
+        return result;
+    }
+
+    @Test
+    public void testAddInts() {
+        for (int length : new int[]{0, 1, 7, 8, 9, 15, 16, 17, 31, 32, 33, 100, 1023}) {
+            testVectorized("addIntsSnippet", ints(length), ints(length));
+        }
+    }
+
+    public static int[] mulIntsRangeSnippet(int[] a, int[] b, int from, int to) {
+        int[] result = new int[a.length];
+        for (int i = from; i < to; i++) {
+            result[i] = a[i] * b[i];
+        }
+        return result;
+    }
+
+    @Test
+    public void testMulIntsRange() {
+        testVectorized("mulIntsRangeSnippet", ints(100), ints(100), 3, 97);
+        testVectorized("mulIntsRangeSnippet", ints(100), ints(100), 50, 10);
+    }
+
+    public static int[] mulIntsCheckedSnippet(int[] a, int[] b, int from, int to) {
+        int[] result = new int[a.length];
+        try {
+            for (int i = from; i < to; i++) {
+                result[i] = a[i] * b[i];
+            }
+        } catch (ArrayIndexOutOfBoundsException | NullPointerException e) {
+            // all elements before the failing iteration must have been written
+            result[result.length - 1] = e instanceof NullPointerException ? 1 : 2;
+        }
+        return result;
+    }
+
+    @Test
+    public void testMulIntsChecked() {
+        testException("mulIntsCheckedSnippet", ints(100), ints(100), 0, 100);
+        testException("mulIntsCheckedSnippet", ints(100), ints(50), 0, 100);
+        testException("mulIntsCheckedSnippet", ints(100), ints(100), -1, 10);
+        testException("mulIntsCheckedSnippet", ints(100), null, 0, 10);
+    }
+
+    public static int[] xorInPlaceSnippet(int[] a, int key) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] = a[i] ^ key;
+        }
+        return a;
+    }
+
+    @Test
+    public void testXorInPlace() {
+        testVectorized("xorInPlaceSnippet", ints(77), 0x5a5a5a5a);
+    }
+
+    public static long[] subLongsSnippet(long[] a, long[] b) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] - b[i];
+        }
+        return result;
+    }
+
+    @Test
+    public void testSubLongs() {
+        testVectorized("subLongsSnippet", longs(45), longs(45));
+    }
+
+    public static long[] mulLongsSnippet(long[] a, long[] b) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] * b[i];
+        }
+        return result;
+    }
+
+    @Test
+    public void testMulLongs() {
+        testNotVectorized("mulLongsSnippet", longs(45), longs(45));
+    }
+
+    public static float[] scaleFloatsSnippet(float[] a, float factor) {
+        float[] result = new float[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] * factor;
+        }
+        return result;
+    }
+
+    @Test
+    public void testScaleFloats() {
+        testVectorized("scaleFloatsSnippet", floats(33), 1.5f);
+        testVectorized("scaleFloatsSnippet", floats(33), Float.NaN);
+    }
+
+    public static double[] divDoublesSnippet(double divisor, double[] a) {
+        double[] result = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = divisor / a[i];
+        }
+        return result;
+    }
+
+    @Test
+    public void testDivDoubles() {
+        testVectorized("divDoublesSnippet", 3.0, doubles(19));
+        testVectorized("divDoublesSnippet", 3.0, new double[]{0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, 1.0, 2.0});
+    }
+
+    public static int[] dependentSnippet(int[] a) {
+        for (int i = 1; i < a.length; i++) {
+            a[i] = a[i - 1] + a[i];
+        }
+        return a;
+    }
+
+    @Test
+    public void testDependent() {
+        testNotVectorized("dependentSnippet", ints(40));
+    }
+}
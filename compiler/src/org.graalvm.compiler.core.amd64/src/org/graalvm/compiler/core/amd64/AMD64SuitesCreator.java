@@ -24,12 +24,24 @@
  */
 package org.graalvm.compiler.core.amd64;
 
+import static org.graalvm.compiler.core.common.GraalOptions.ImmutableCode;
+import static org.graalvm.compiler.core.common.GraalOptions.LoopVectorization;
+
+import java.util.ListIterator;
+
 import org.graalvm.compiler.java.DefaultSuitesCreator;
 import org.graalvm.compiler.lir.amd64.phases.StackMoveOptimizationPhase;
 import org.graalvm.compiler.lir.phases.LIRSuites;
+import org.graalvm.compiler.loop.phases.LoopFullUnrollPhase;
+import org.graalvm.compiler.loop.phases.LoopVectorizationPhase;
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration.Plugins;
 import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.LoweringPhase;
 import org.graalvm.compiler.phases.tiers.CompilerConfiguration;
+import org.graalvm.compiler.phases.tiers.HighTierContext;
+import org.graalvm.compiler.phases.tiers.Suites;
 
 public class AMD64SuitesCreator extends DefaultSuitesCreator {
 
@@ -41,6 +53,22 @@ public class AMD64SuitesCreator extends DefaultSuitesCreator {
         super(compilerConfiguration);
     }
 
+    @Override
+    public Suites createSuites(OptionValues options) {
+        Suites suites = super.createSuites(options);
+        if (LoopVectorization.getValue(options) && suites.getHighTier().findPhase(LoopFullUnrollPhase.class) != null) {
+            // Only configurations that optimize loops at all get vectorized loops. The phase must
+            // see the array accesses before they are lowered.
+            ListIterator<BasePhase<? super HighTierContext>> highTierLowering = suites.getHighTier().findPhase(LoweringPhase.class);
+            if (highTierLowering != null) {
+                highTierLowering.previous();
+                CanonicalizerPhase canonicalizer = ImmutableCode.getValue(options) ? CanonicalizerPhase.createWithoutReadCanonicalization() : CanonicalizerPhase.create();
+                highTierLowering.add(new LoopVectorizationPhase(canonicalizer));
+            }
+        }
+        return suites;
+    }
+
     @Override
     public LIRSuites createLIRSuites(OptionValues options) {
         LIRSuites lirSuites = super.createLIRSuites(options);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2009, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2009, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -53,6 +53,18 @@ public final class GraalOptions {
     @Option(help = "Minimum probability for methods to be inlined for megamorphic type profiles.", type = OptionType.Expert)
     public static final OptionKey<Double> MegamorphicInliningMinMethodProbability = new OptionKey<>(0.33D);
 
+    @Option(help = "Inline megamorphic calls whose type profile is dominated by a few types behind a multi-way type switch.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> MegamorphicTypeSwitchInlining = new OptionKey<>(false);
+
+    @Option(help = "Maximum probability of types not recorded in the profile for a megamorphic call to be inlined behind a multi-way type switch.", type = OptionType.Expert)
+    public static final OptionKey<Double> MegamorphicTypeSwitchMaxNotRecordedProbability = new OptionKey<>(0.1D);
+
+    @Option(help = "Minimum probability for methods to be inlined behind a multi-way type switch.", type = OptionType.Expert)
+    public static final OptionKey<Double> MegamorphicTypeSwitchMinMethodProbability = new OptionKey<>(0.05D);
+
+    @Option(help = "Maximum accumulated bytecode size of the methods inlined behind a multi-way type switch.", type = OptionType.Expert)
+    public static final OptionKey<Integer> MegamorphicTypeSwitchMaxCodeSize = new OptionKey<>(500);
+
     @Option(help = "Maximum level of recursive inlining.", type = OptionType.Expert)
     public static final OptionKey<Integer> MaximumRecursiveInlining = new OptionKey<>(5);
 
@@ -105,6 +117,18 @@ public final class GraalOptions {
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<Boolean> PartialUnroll = new OptionKey<>(true);
 
+    @Option(help = "Replace simple counted loops over primitive arrays with vectorized array operations where the target supports them.", type = OptionType.Debug)
+    public static final OptionKey<Boolean> LoopVectorization = new OptionKey<>(false);
+
+    @Option(help = "Replace bounds and null checks inside counted loops by a single speculative check in front of the loop.", type = OptionType.Debug)
+    public static final OptionKey<Boolean> LoopPredication = new OptionKey<>(false);
+
+    @Option(help = "Split counted loops that poll for safepoints on every iteration into an outer loop that polls and an inner loop that does not.", type = OptionType.Debug)
+    public static final OptionKey<Boolean> LoopStripMining = new OptionKey<>(false);
+
+    @Option(help = "Maximum number of iterations of a strip mined inner loop between two safepoint polls.", type = OptionType.Expert)
+    public static final OptionKey<Integer> LoopStripMiningIterations = new OptionKey<>(1000);
+
     @Option(help = "", type = OptionType.Expert)
     public static final OptionKey<Float> MinimumPeelFrequency = new OptionKey<>(0.35f);
 
@@ -217,6 +241,9 @@ public final class GraalOptions {
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<Boolean> OptDeoptimizationGrouping = new OptionKey<>(true);
 
+    @Option(help = "Maximum number of fixed nodes between a monitor exit and a monitor enter on the same object that are moved into a single coarsened lock region.", type = OptionType.Expert)
+    public static final OptionKey<Integer> LockCoarseningMaxGap = new OptionKey<>(16);
+
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<Boolean> OptScheduleOutOfLoops = new OptionKey<>(true);
 
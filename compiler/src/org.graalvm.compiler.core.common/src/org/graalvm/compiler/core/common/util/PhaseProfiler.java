@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.common.util;
+
+import java.util.Arrays;
+
+import org.graalvm.compiler.core.common.CompilationIdentifier;
+import org.graalvm.compiler.core.common.CompilationIdentifier.Verbosity;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.serviceprovider.GraalServices;
+
+/**
+ * Records the wall time, the allocated bytes and the graph size change of every phase applied
+ * during a compilation. The profiles of the most recent compilations are kept in a bounded ring
+ * buffer that can be {@linkplain #dumpJSON() dumped} as JSON, e.g., through the management
+ * interface of the compiler.
+ *
+ * The per phase data is stored in parallel arrays so that recording a phase does not allocate
+ * unless the arrays need to grow, which keeps the overhead low enough to leave the profiler enabled
+ * in production.
+ */
+public final class PhaseProfiler implements AutoCloseable {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Record the time, allocated bytes and graph size change of every phase of a compilation. " +
+                       "The profiles of the most recent compilations can be dumped as JSON through the management interface.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> ProfileCompilationPhases = new OptionKey<>(false);
+        @Option(help = "Number of compilations for which phase profiles are retained.", type = OptionType.Expert)
+        public static final OptionKey<Integer> ProfileCompilationPhasesHistory = new OptionKey<>(64);
+        // @formatter:on
+    }
+
+    /**
+     * Value of the node count arguments if a phase does not operate on a graph.
+     */
+    public static final int NO_GRAPH = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Thread local storage for the profiler of the active compilation.
+     */
+    private static final ThreadLocal<PhaseProfiler> currentProfiler = new ThreadLocal<>();
+
+    /**
+     * Ring buffer of the profiles of finished compilations. Guarded by the class lock.
+     */
+    private static PhaseProfiler[] history;
+
+    /**
+     * Index of the next slot in {@link #history} to write. Guarded by the class lock.
+     */
+    private static int historyNext;
+
+    /*
+     * The identifier is only kept as strings so that retained profiles do not keep the compiled
+     * method, e.g., a Truffle call target, alive.
+     */
+    private final String id;
+    private final String method;
+    private final int historySize;
+    private final boolean measureAllocation;
+    private final long startMillis;
+    private final long startNanos;
+    private final long startBytes;
+
+    private CharSequence[] names = new CharSequence[INITIAL_CAPACITY];
+    private int[] depths = new int[INITIAL_CAPACITY];
+    private long[] nanos = new long[INITIAL_CAPACITY];
+    private long[] bytes = new long[INITIAL_CAPACITY];
+    private int[] nodesBefore = new int[INITIAL_CAPACITY];
+    private int[] nodesAfter = new int[INITIAL_CAPACITY];
+    private boolean[] exited = new boolean[INITIAL_CAPACITY];
+    private int count;
+    private int depth;
+
+    /*
+     * Fields set when the compilation is finished.
+     */
+    private long totalNanos;
+    private long totalBytes;
+
+    private PhaseProfiler(CompilationIdentifier compilationId, int historySize) {
+        this.id = compilationId.toString(Verbosity.ID);
+        this.method = compilationId.toString(Verbosity.NAME);
+        this.historySize = historySize;
+        this.measureAllocation = GraalServices.isThreadAllocatedMemorySupported();
+        this.startMillis = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+        this.startBytes = allocatedBytes();
+    }
+
+    /**
+     * Starts profiling the phases of a compilation if {@link Options#ProfileCompilationPhases} is
+     * enabled and there is no active profiler for the current thread. The returned value can be
+     * used in a try-with-resource statement to publish the profile once the compilation is
+     * finished.
+     *
+     * @return a new {@link PhaseProfiler} or {@code null} if no new profiling was started
+     */
+    public static PhaseProfiler trackCompilation(OptionValues options, CompilationIdentifier compilationId) {
+        if (Options.ProfileCompilationPhases.getValue(options) && currentProfiler.get() == null) {
+            int historySize = Options.ProfileCompilationPhasesHistory.getValue(options);
+            if (historySize > 0) {
+                PhaseProfiler profiler = new PhaseProfiler(compilationId, historySize);
+                currentProfiler.set(profiler);
+                return profiler;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the profiler of the compilation running on the current thread or {@code null} if the
+     * current compilation is not profiled.
+     */
+    public static PhaseProfiler current() {
+        return currentProfiler.get();
+    }
+
+    private long allocatedBytes() {
+        return measureAllocation ? GraalServices.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    /**
+     * Records the start of a phase.
+     *
+     * @param nodeCount the number of nodes in the graph before the phase or {@link #NO_GRAPH}
+     * @return the handle to pass to {@link #exitPhase}
+     */
+    public int enterPhase(CharSequence name, int nodeCount) {
+        if (count == names.length) {
+            int newLength = count * 2;
+            names = Arrays.copyOf(names, newLength);
+            depths = Arrays.copyOf(depths, newLength);
+            nanos = Arrays.copyOf(nanos, newLength);
+            bytes = Arrays.copyOf(bytes, newLength);
+            nodesBefore = Arrays.copyOf(nodesBefore, newLength);
+            nodesAfter = Arrays.copyOf(nodesAfter, newLength);
+            exited = Arrays.copyOf(exited, newLength);
+        }
+        int index = count++;
+        names[index] = name;
+        depths[index] = depth++;
+        nodesBefore[index] = nodeCount;
+        nodesAfter[index] = NO_GRAPH;
+        exited[index] = false;
+        bytes[index] = allocatedBytes();
+        nanos[index] = System.nanoTime();
+        return index;
+    }
+
+    /**
+     * Records the end of the phase started by {@link #enterPhase}. The end of a phase that
+     * completes abruptly is not recorded, its time and allocation are attributed to the enclosing
+     * phase.
+     *
+     * @param nodeCount the number of nodes in the graph after the phase or {@link #NO_GRAPH}
+     */
+    public void exitPhase(int handle, int nodeCount) {
+        nanos[handle] = System.nanoTime() - nanos[handle];
+        bytes[handle] = allocatedBytes() - bytes[handle];
+        nodesAfter[handle] = nodeCount;
+        exited[handle] = true;
+        depth = depths[handle];
+    }
+
+    /**
+     * Publishes this profile to the ring buffer of finished compilations.
+     */
+    @Override
+    public void close() {
+        totalNanos = System.nanoTime() - startNanos;
+        totalBytes = allocatedBytes() - startBytes;
+        for (int i = 0; i < count; i++) {
+            // do not retain phase name objects
+            names[i] = names[i].toString();
+        }
+        currentProfiler.set(null);
+        publish(this);
+    }
+
+    private static synchronized void publish(PhaseProfiler profiler) {
+        int size = profiler.historySize;
+        if (history == null || history.length != size) {
+            PhaseProfiler[] old = snapshot();
+            history = new PhaseProfiler[size];
+            historyNext = 0;
+            for (int i = Math.max(0, old.length - size); i < old.length; i++) {
+                history[historyNext++ % size] = old[i];
+            }
+            historyNext %= size;
+        }
+        history[historyNext] = profiler;
+        historyNext = (historyNext + 1) % size;
+    }
+
+    /**
+     * Gets the retained profiles, oldest first.
+     */
+    private static synchronized PhaseProfiler[] snapshot() {
+        if (history == null) {
+            return new PhaseProfiler[0];
+        }
+        int size = history.length;
+        PhaseProfiler[] result = new PhaseProfiler[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            PhaseProfiler p = history[(historyNext + i) % size];
+            if (p != null) {
+                result[n++] = p;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Discards all retained profiles.
+     */
+    public static synchronized void clear() {
+        history = null;
+        historyNext = 0;
+    }
+
+    /**
+     * Formats the retained profiles, oldest first, as a JSON object of the form:
+     *
+     * <pre>
+     * {"compilations": [
+     *   {"id": ..., "method": ..., "startMillis": ..., "timeNanos": ..., "allocatedBytes": ...,
+     *    "phases": [{"name": ..., "depth": ..., "timeNanos": ..., "allocatedBytes": ...,
+     *                "nodesBefore": ..., "nodesAfter": ...}, ...]},
+     *   ...]}
+     * </pre>
+     *
+     * The phases are listed in the order they were entered, {@code depth} is the nesting level of a
+     * phase. The node counts are omitted for phases that do not operate on a graph and the
+     * measurements are omitted for phases that completed abruptly.
+     */
+    public static String dumpJSON() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"compilations\":[");
+        String sep = "";
+        for (PhaseProfiler p : snapshot()) {
+            sb.append(sep);
+            p.appendJSON(sb);
+            sep = ",";
+        }
+        return sb.append("]}").toString();
+    }
+
+    private void appendJSON(StringBuilder sb) {
+        sb.append("{\"id\":");
+        appendString(sb, id);
+        sb.append(",\"method\":");
+        appendString(sb, method);
+        sb.append(",\"startMillis\":").append(startMillis);
+        sb.append(",\"timeNanos\":").append(totalNanos);
+        if (measureAllocation) {
+            sb.append(",\"allocatedBytes\":").append(totalBytes);
+        }
+        sb.append(",\"phases\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"name\":");
+            appendString(sb, names[i].toString());
+            sb.append(",\"depth\":").append(depths[i]);
+            if (exited[i]) {
+                sb.append(",\"timeNanos\":").append(nanos[i]);
+                if (measureAllocation) {
+                    sb.append(",\"allocatedBytes\":").append(bytes[i]);
+                }
+            }
+            if (nodesBefore[i] != NO_GRAPH) {
+                sb.append(",\"nodesBefore\":").append(nodesBefore[i]);
+            }
+            if (nodesAfter[i] != NO_GRAPH) {
+                sb.append(",\"nodesAfter\":").append(nodesAfter[i]);
+            }
+            sb.append('}');
+        }
+        sb.append("]}");
+    }
+
+    private static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                case '\\':
+                    sb.append('\\').append(c);
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
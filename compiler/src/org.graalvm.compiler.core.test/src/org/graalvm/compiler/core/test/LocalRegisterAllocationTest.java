@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import org.graalvm.compiler.lir.alloc.local.LocalRegisterAllocationPhase;
+import org.graalvm.compiler.lir.phases.EconomyAllocationStage;
+import org.graalvm.compiler.lir.phases.LIRSuites;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+public class LocalRegisterAllocationTest extends GraalCompilerTest {
+
+    @Override
+    protected LIRSuites createLIRSuites(OptionValues opts) {
+        LIRSuites suites = super.createLIRSuites(opts);
+        OptionValues options = new OptionValues(opts, LocalRegisterAllocationPhase.Options.LIREconomyLocalRegisterAllocation, true);
+        return new LIRSuites(suites.getPreAllocationOptimizationStage(), new EconomyAllocationStage(options), suites.getPostAllocationOptimizationStage());
+    }
+
+    public static int pressureSnippet(int a, int b, int c, int d) {
+        int x0 = a + b;
+        int x1 = a - b;
+        int x2 = c * d;
+        int x3 = c - d;
+        int x4 = a * c;
+        int x5 = b * d;
+        int x6 = a ^ d;
+        int x7 = b | c;
+        int x8 = x0 + x3;
+        int x9 = x1 * x2;
+        int x10 = x4 - x5;
+        int x11 = x6 & x7;
+        int x12 = x0 * x7;
+        int x13 = x1 + x6;
+        int x14 = x2 ^ x5;
+        int x15 = x3 - x4;
+        int x16 = x8 * x12;
+        return x0 + x1 + x2 + x3 + x4 + x5 + x6 + x7 + x8 + x9 + x10 + x11 + x12 + x13 + x14 + x15 + x16;
+    }
+
+    @Test
+    public void pressure() {
+        test("pressureSnippet", 1, 2, 3, 4);
+        test("pressureSnippet", -7, 13, 1 << 20, 0);
+    }
+
+    public static int swapSnippet(int n) {
+        int x = 1;
+        int y = 2;
+        for (int i = 0; i < n; i++) {
+            int t = x;
+            x = y;
+            y = t + i;
+        }
+        return x * 31 + y;
+    }
+
+    @Test
+    public void swap() {
+        test("swapSnippet", 0);
+        test("swapSnippet", 1);
+        test("swapSnippet", 10);
+    }
+
+    public static double mixedSnippet(double[] values, long scale) {
+        double sum = 0;
+        long count = 0;
+        for (double v : values) {
+            sum += v * scale;
+            count++;
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    @Test
+    public void mixed() {
+        test("mixedSnippet", new double[0], 2L);
+        test("mixedSnippet", new double[]{1.5, 2.5, -3}, 3L);
+    }
+
+    public static String callSnippet(int a, Object b, long c) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(a);
+        sb.append(b);
+        sb.append(c);
+        return sb.toString() + a + c;
+    }
+
+    @Test
+    public void call() {
+        test("callSnippet", 42, "x", -1L);
+        test("callSnippet", 0, null, Long.MAX_VALUE);
+    }
+
+    @BytecodeParserNeverInline
+    public static int callee(int n) {
+        return n * 7;
+    }
+
+    public static int loopPhiStateSnippet(int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            if ((n & i) != 0) {
+                // the state of the call refers to the phis of sum and i, which are not used before
+                sum += callee(n);
+            }
+        }
+        return sum;
+    }
+
+    @Test
+    public void loopPhiState() {
+        test("loopPhiStateSnippet", 0);
+        test("loopPhiStateSnippet", 5);
+        test("loopPhiStateSnippet", 100);
+    }
+
+    public static int exceptionSnippet(int[] array, int index) {
+        int base = index * 3;
+        try {
+            return array[index] + base;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            return base - 1;
+        }
+    }
+
+    @Test
+    public void exception() {
+        test("exceptionSnippet", new int[]{1, 2, 3}, 1);
+        test("exceptionSnippet", new int[]{1, 2, 3}, 5);
+        test("exceptionSnippet", null, 0);
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -24,8 +24,14 @@
  */
 package org.graalvm.compiler.core.test;
 
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.java.ComputeLoopFrequenciesClosure;
 import org.graalvm.compiler.loop.DefaultLoopPolicies;
 import org.graalvm.compiler.loop.phases.LoopFullUnrollPhase;
+import org.graalvm.compiler.loop.phases.LoopPartialUnrollPhase;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.FrameState;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
 import org.graalvm.compiler.nodes.java.MonitorExitNode;
@@ -33,9 +39,14 @@ import org.graalvm.compiler.nodes.java.RawMonitorEnterNode;
 import org.graalvm.compiler.nodes.spi.LoweringTool;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
 import org.graalvm.compiler.phases.common.DeadCodeEliminationPhase;
+import org.graalvm.compiler.phases.common.FloatingReadPhase;
+import org.graalvm.compiler.phases.common.FrameStateAssignmentPhase;
+import org.graalvm.compiler.phases.common.GuardLoweringPhase;
 import org.graalvm.compiler.phases.common.LockEliminationPhase;
 import org.graalvm.compiler.phases.common.LoweringPhase;
+import org.graalvm.compiler.phases.common.RemoveValueProxyPhase;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
+import org.graalvm.compiler.phases.tiers.MidTierContext;
 import org.graalvm.compiler.virtual.phases.ea.PartialEscapePhase;
 import org.junit.Test;
 
@@ -75,6 +86,47 @@ public class LockEliminationTest extends GraalCompilerTest {
         assertDeepEquals(1, graph.getNodes().filter(MonitorExitNode.class).count());
     }
 
+    public static void testCoarseningSnippet(A x) {
+        synchronized (x) {
+            field1 = x.value;
+        }
+        int value = field2;
+        synchronized (x) {
+            x.value = value;
+        }
+    }
+
+    @Test
+    public void testCoarsening() {
+        test("testCoarseningSnippet", new A());
+
+        StructuredGraph graph = getGraph("testCoarseningSnippet", false);
+        new LockEliminationPhase().apply(graph);
+        assertDeepEquals(1, graph.getNodes().filter(RawMonitorEnterNode.class).count());
+        assertDeepEquals(1, graph.getNodes().filter(MonitorExitNode.class).count());
+    }
+
+    public static void testNoCoarseningAcrossCallSnippet(A x) {
+        synchronized (x) {
+            field1 = x.value;
+        }
+        Thread.yield();
+        synchronized (x) {
+            field2 = x.value;
+        }
+    }
+
+    @Test
+    public void testNoCoarseningAcrossCall() {
+        test("testNoCoarseningAcrossCallSnippet", new A());
+
+        StructuredGraph graph = getGraph("testNoCoarseningAcrossCallSnippet", false);
+        new LockEliminationPhase().apply(graph);
+        // the call has a frame state in which the lock is released
+        assertDeepEquals(2, graph.getNodes().filter(RawMonitorEnterNode.class).count());
+        assertDeepEquals(2, graph.getNodes().filter(MonitorExitNode.class).count());
+    }
+
     public static void testSynchronizedMethodSnippet(A x) {
         int value1 = x.getValue();
         int value2 = x.getValue();
@@ -113,6 +165,82 @@ public class LockEliminationTest extends GraalCompilerTest {
         assertDeepEquals(1, graph.getNodes().filter(MonitorExitNode.class).count());
     }
 
+    static final Object LOCK = new Object();
+
+    public static int testPartialUnrollSyncSnippet(int n) {
+        int sum = 0;
+        for (int i = 0; iterationCount(100, i < n); i++) {
+            synchronized (LOCK) {
+                sum += field1;
+            }
+        }
+        return sum;
+    }
+
+    @Test
+    public void testPartialUnrollSync() {
+        for (int n = 0; n < 10; n++) {
+            test("testPartialUnrollSyncSnippet", n);
+        }
+
+        ResolvedJavaMethod method = getResolvedJavaMethod("testPartialUnrollSyncSnippet");
+        StructuredGraph graph = parseEager(method, AllowAssumptions.YES);
+        HighTierContext highTierContext = getDefaultHighTierContext();
+        MidTierContext midTierContext = getDefaultMidTierContext();
+        CanonicalizerPhase canonicalizer = createCanonicalizerPhase();
+        canonicalizer.apply(graph, highTierContext);
+        new LoweringPhase(canonicalizer, LoweringTool.StandardLoweringStage.HIGH_TIER).apply(graph, highTierContext);
+        new FloatingReadPhase().apply(graph);
+        ComputeLoopFrequenciesClosure.compute(graph);
+        new GuardLoweringPhase().apply(graph, midTierContext);
+        new RemoveValueProxyPhase().apply(graph);
+        new LoweringPhase(canonicalizer, LoweringTool.StandardLoweringStage.MID_TIER).apply(graph, midTierContext);
+        new FrameStateAssignmentPhase().apply(graph);
+        new LoopPartialUnrollPhase(new DefaultLoopPolicies(), canonicalizer).apply(graph, midTierContext);
+
+        int enters = graph.getNodes().filter(RawMonitorEnterNode.class).count();
+        int exits = graph.getNodes().filter(MonitorExitNode.class).count();
+        // pre loop, main loop with at least two iterations, post loop
+        assertTrue("loop was not partially unrolled", enters > 3);
+        assertDeepEquals(enters, exits);
+
+        new LockEliminationPhase().apply(graph);
+        graph.verify();
+        int coarsenedEnters = graph.getNodes().filter(RawMonitorEnterNode.class).count();
+        assertTrue("unrolled iterations were not coarsened", coarsenedEnters < enters);
+        assertDeepEquals(coarsenedEnters, graph.getNodes().filter(MonitorExitNode.class).count());
+        checkLockedFrameStates(graph);
+    }
+
+    /**
+     * Checks that the frame states used to deoptimize between a monitor enter and its monitor exit
+     * describe the lock as held, also in a region that was coarsened after frame state assignment.
+     */
+    private static void checkLockedFrameStates(StructuredGraph graph) {
+        for (RawMonitorEnterNode enter : graph.getNodes().filter(RawMonitorEnterNode.class)) {
+            int lockDepth = enter.getMonitorId().getLockDepth();
+            FixedNode node = enter.next();
+            while (node instanceof FixedWithNextNode) {
+                if (node instanceof MonitorExitNode && ((MonitorExitNode) node).getMonitorId() == enter.getMonitorId()) {
+                    checkLocked(node, ((MonitorExitNode) node).stateBefore(), lockDepth);
+                    break;
+                }
+                for (Node input : node.inputs()) {
+                    if (input instanceof FrameState) {
+                        checkLocked(node, (FrameState) input, lockDepth);
+                    }
+                }
+                node = ((FixedWithNextNode) node).next();
+            }
+        }
+    }
+
+    private static void checkLocked(FixedNode node, FrameState state, int lockDepth) {
+        if (state != null) {
+            assertTrue(node + " deoptimizes to a state that does not hold the lock: " + state, state.nestedLockDepth() > lockDepth);
+        }
+    }
+
     private StructuredGraph getGraph(String snippet, boolean doEscapeAnalysis) {
         ResolvedJavaMethod method = getResolvedJavaMethod(snippet);
         StructuredGraph graph = parseEager(method, AllowAssumptions.YES);
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.DebugDumpScope;
+import org.graalvm.compiler.loop.phases.LoopPredicationPhase;
+import org.graalvm.compiler.nodes.GuardNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.nodes.cfg.Block;
+import org.graalvm.compiler.nodes.cfg.ControlFlowGraph;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.common.FloatingReadPhase;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.SpeculationLog;
+
+public class LoopPredicationTest extends GraalCompilerTest {
+
+    @Override
+    protected SpeculationLog getSpeculationLog() {
+        return getCodeCache().createSpeculationLog();
+    }
+
+    public static int sumRangeSnippet(int[] array, int from, int to) {
+        int sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += array[i];
+        }
+        return sum;
+    }
+
+    @Test
+    public void sumRange() {
+        checkPredicated("sumRangeSnippet", 0);
+        int[] array = {1, 2, 3, 4, 5, 6, 7, 8};
+        testPredicated("sumRangeSnippet", array, 0, 8);
+        testPredicated("sumRangeSnippet", array, 2, 5);
+        testPredicated("sumRangeSnippet", array, 5, 2);
+        testPredicated("sumRangeSnippet", array, 3, 9);
+        testPredicated("sumRangeSnippet", array, -1, 4);
+        testPredicated("sumRangeSnippet", null, 0, 0);
+        testPredicated("sumRangeSnippet", null, 0, 1);
+    }
+
+    public static int sumOffsetSnippet(int[] array, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += array[i + 1] - array[i];
+        }
+        return sum;
+    }
+
+    @Test
+    public void sumOffset() {
+        checkPredicated("sumOffsetSnippet", 0);
+        int[] array = {1, 3, 6, 10, 15};
+        testPredicated("sumOffsetSnippet", array, 4);
+        testPredicated("sumOffsetSnippet", array, 5);
+        testPredicated("sumOffsetSnippet", array, 0);
+    }
+
+    public static int sumEvenSnippet(int[] array, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += array[2 * i];
+        }
+        return sum;
+    }
+
+    @Test
+    public void sumEven() {
+        checkPredicated("sumEvenSnippet", 0);
+        int[] array = {1, 2, 3, 4, 5, 6, 7};
+        testPredicated("sumEvenSnippet", array, 4);
+        testPredicated("sumEvenSnippet", array, 5);
+        testPredicated("sumEvenSnippet", array, Integer.MAX_VALUE);
+    }
+
+    public static void reverseCopySnippet(int[] src, int[] dst, int n) {
+        for (int i = n - 1; i >= 0; i--) {
+            dst[i] = src[i];
+        }
+    }
+
+    @Test
+    public void reverseCopy() {
+        checkPredicated("reverseCopySnippet", 0);
+        testPredicated("reverseCopySnippet", new int[]{1, 2, 3, 4}, new int[4], 4);
+        testPredicated("reverseCopySnippet", new int[]{1, 2, 3, 4}, new int[3], 4);
+        testPredicated("reverseCopySnippet", new int[]{1, 2, 3, 4}, null, 0);
+        testPredicated("reverseCopySnippet", new int[]{1, 2, 3, 4}, null, 2);
+    }
+
+    public static int searchSnippet(int[] array, int n, int key) {
+        for (int i = 0; i < n; i++) {
+            if (array[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void search() {
+        checkPredicated("searchSnippet", 0);
+        int[] array = {4, 8, 15, 16, 23, 42};
+        testPredicated("searchSnippet", array, 6, 23);
+        testPredicated("searchSnippet", array, 6, 7);
+        // the key is found before the index gets out of bounds
+        testPredicated("searchSnippet", array, 10, 15);
+        testPredicated("searchSnippet", array, 10, 7);
+    }
+
+    public static int variantArraySnippet(int[][] arrays, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += arrays[i][0];
+        }
+        return sum;
+    }
+
+    @Test
+    public void variantArray() {
+        // only the bounds check of the outer array can be hoisted
+        checkPredicated("variantArraySnippet", 1);
+        testPredicated("variantArraySnippet", new int[][]{{1}, {2}, {3}}, 3);
+        testPredicated("variantArraySnippet", new int[][]{{1}, {}, {3}}, 3);
+    }
+
+    private void testPredicated(String snippet, Object... args) {
+        // loop predication is disabled by default
+        test(new OptionValues(getInitialOptions(), GraalOptions.LoopPredication, true), snippet, args);
+    }
+
+    @SuppressWarnings("try")
+    private void checkPredicated(String snippet, int remainingBoundsChecks) {
+        DebugContext debug = getDebugContext();
+        try (DebugContext.Scope s = debug.scope(getClass().getSimpleName(), new DebugDumpScope(snippet))) {
+            StructuredGraph graph = parseEager(snippet, AllowAssumptions.NO, debug);
+            createSuites(graph.getOptions()).getHighTier().apply(graph, getDefaultHighTierContext());
+            new FloatingReadPhase().apply(graph);
+            new LoopPredicationPhase().apply(graph, getProviders());
+
+            // checks of a peeled first iteration are outside of the loop and not counted
+            ControlFlowGraph cfg = ControlFlowGraph.compute(graph, true, true, true, false);
+            int remaining = 0;
+            for (GuardNode guard : graph.getNodes(GuardNode.TYPE)) {
+                Block block = cfg.blockFor(guard.getAnchor().asNode());
+                if (guard.getReason() == DeoptimizationReason.BoundsCheckException && guard.getSpeculation().equals(SpeculationLog.NO_SPECULATION) && block.getLoop() != null) {
+                    remaining++;
+                }
+            }
+            assertDeepEquals("bounds checks remaining in loops", remainingBoundsChecks, remaining);
+        } catch (Throwable e) {
+            throw debug.handle(e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.SafepointNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+public class LoopStripMiningTest extends GraalCompilerTest {
+
+    private int expectedLoops;
+    private int expectedSafepoints;
+
+    @Override
+    protected void checkMidTierGraph(StructuredGraph graph) {
+        assertDeepEquals("loops", expectedLoops, graph.getNodes(LoopBeginNode.TYPE).count());
+        assertDeepEquals("safepoints", expectedSafepoints, graph.getNodes().filter(SafepointNode.class).count());
+    }
+
+    private void test(int loops, int safepoints, String snippet, Object... args) {
+        expectedLoops = loops;
+        expectedSafepoints = safepoints;
+        // use short strips so that the tests cross many strip boundaries
+        OptionValues options = new OptionValues(getInitialOptions(), GraalOptions.LoopStripMining, true, GraalOptions.LoopStripMiningIterations, 3, GraalOptions.PartialUnroll, false);
+        test(options, snippet, args);
+    }
+
+    public static long sumSnippet(long from, long to) {
+        long sum = 0;
+        for (long i = from; i < to; i++) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    @Test
+    public void sum() {
+        test(2, 1, "sumSnippet", 0L, 100L);
+        test(2, 1, "sumSnippet", 0L, 3L);
+        test(2, 1, "sumSnippet", 5L, 5L);
+        test(2, 1, "sumSnippet", 7L, 2L);
+        test(2, 1, "sumSnippet", Long.MAX_VALUE - 10, Long.MAX_VALUE);
+        test(2, 1, "sumSnippet", Long.MIN_VALUE, Long.MIN_VALUE + 10);
+    }
+
+    public static long sumInclusiveSnippet(long from, long to) {
+        long sum = 0;
+        for (long i = from; i <= to; i++) {
+            sum += i * 3;
+        }
+        return sum;
+    }
+
+    @Test
+    public void sumInclusive() {
+        test(2, 1, "sumInclusiveSnippet", 0L, 100L);
+        test(2, 1, "sumInclusiveSnippet", 4L, 4L);
+        test(2, 1, "sumInclusiveSnippet", 4L, 3L);
+        test(2, 1, "sumInclusiveSnippet", Long.MAX_VALUE - 10, Long.MAX_VALUE - 1);
+    }
+
+    public static long sumDownSnippet(long n) {
+        long sum = 0;
+        for (long i = n; i > 0; i--) {
+            sum += i ^ sum;
+        }
+        return sum;
+    }
+
+    @Test
+    public void sumDown() {
+        test(2, 1, "sumDownSnippet", 100L);
+        test(2, 1, "sumDownSnippet", 1L);
+        test(2, 1, "sumDownSnippet", -5L);
+    }
+
+    public static long strideSnippet(long n) {
+        long sum = 0;
+        for (long i = 0; i < n; i += 5) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    @Test
+    public void stride() {
+        test(2, 1, "strideSnippet", 100L);
+        test(2, 1, "strideSnippet", 101L);
+        test(2, 1, "strideSnippet", 14L);
+    }
+
+    public static long searchSnippet(int[] array, long n, int key) {
+        for (long i = 0; i < n; i++) {
+            if (array[(int) i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void search() {
+        int[] array = {4, 8, 15, 16, 23, 42, 7};
+        test(2, 1, "searchSnippet", array, 7L, 23);
+        test(2, 1, "searchSnippet", array, 7L, 5);
+        test(2, 1, "searchSnippet", array, 4L, 42);
+    }
+
+    public static int intSumSnippet(int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    @Test
+    public void intSum() {
+        // int counted loops do not poll at all
+        test(1, 0, "intSumSnippet", 100);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import static org.graalvm.compiler.core.common.util.PhaseProfiler.Options.ProfileCompilationPhases;
+import static org.graalvm.compiler.core.common.util.PhaseProfiler.Options.ProfileCompilationPhasesHistory;
+
+import org.graalvm.compiler.core.LIRGenerationPhase;
+import org.graalvm.compiler.core.common.util.PhaseProfiler;
+import org.graalvm.compiler.lir.phases.LIRPhase;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.common.LoweringPhase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+public class PhaseProfilerTest extends GraalCompilerTest {
+
+    public static int snippet(int[] array) {
+        int sum = 0;
+        for (int i = 0; i < array.length; i++) {
+            sum += array[i];
+        }
+        return sum;
+    }
+
+    @After
+    public void clearProfiles() {
+        PhaseProfiler.clear();
+    }
+
+    private static int occurrences(String s, String pattern) {
+        int n = 0;
+        for (int i = s.indexOf(pattern); i >= 0; i = s.indexOf(pattern, i + 1)) {
+            n++;
+        }
+        return n;
+    }
+
+    private void compile(OptionValues options) {
+        ResolvedJavaMethod method = getResolvedJavaMethod("snippet");
+        getCode(method, parseEager(method, AllowAssumptions.YES, options), true, false, options);
+    }
+
+    @Test
+    public void testPhasesRecorded() {
+        PhaseProfiler.clear();
+        compile(new OptionValues(getInitialOptions(), ProfileCompilationPhases, true));
+        String json = PhaseProfiler.dumpJSON();
+        Assert.assertEquals(json, 1, occurrences(json, "\"id\":"));
+        Assert.assertTrue(json, json.contains("snippet"));
+        // a graph phase and an LIR phase, named as in debug dumps
+        Assert.assertTrue(json, json.contains("\"name\":\"" + LoweringPhase.class.getName() + "\""));
+        Assert.assertTrue(json, json.contains("\"name\":\"" + LIRPhase.createName(LIRGenerationPhase.class) + "\""));
+        Assert.assertTrue(json, json.contains("\"nodesBefore\":"));
+    }
+
+    @Test
+    public void testDisabled() {
+        PhaseProfiler.clear();
+        compile(new OptionValues(getInitialOptions(), ProfileCompilationPhases, false));
+        Assert.assertEquals("{\"compilations\":[]}", PhaseProfiler.dumpJSON());
+    }
+
+    @Test
+    public void testHistoryBound() {
+        PhaseProfiler.clear();
+        OptionValues options = new OptionValues(getInitialOptions(), ProfileCompilationPhases, true, ProfileCompilationPhasesHistory, 2);
+        for (int i = 0; i < 3; i++) {
+            compile(options);
+        }
+        String json = PhaseProfiler.dumpJSON();
+        Assert.assertEquals(json, 2, occurrences(json, "\"id\":"));
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2014, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2014, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -31,6 +31,11 @@ import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_IGNORED;
 import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_IGNORED;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.Test;
 
@@ -453,4 +458,36 @@ public class NodeUsagesTests extends GraphTest {
 
         assertThat(def1.usages(), isNotEmpty());
     }
+
+    @Test
+    public void testCompressionTrimsUsages() throws ReflectiveOperationException {
+        OptionValues options = getOptions();
+        Graph graph = new Graph(options, getDebug(options));
+        Def def = graph.add(new Def());
+        List<Use> uses = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            uses.add(graph.add(new Use(def, null, null)));
+        }
+        assertTrue(usageCapacity(def) >= 100);
+
+        for (Use use : uses.subList(10, 100)) {
+            use.safeDelete();
+        }
+        assertEquals(10, def.getUsageCount());
+        assertTrue(graph.maybeCompress());
+        assertEquals(10, usageCapacity(def));
+        assertEquals(10, def.getUsageCount());
+        for (Use use : uses.subList(0, 10)) {
+            assertThat(def.usages(), contains(use));
+        }
+    }
+
+    /**
+     * Returns the number of usages {@code node} can hold without growing its usage list.
+     */
+    private static int usageCapacity(Node node) throws ReflectiveOperationException {
+        Field extraUsages = Node.class.getDeclaredField("extraUsages");
+        extraUsages.setAccessible(true);
+        return 2 + ((Node[]) extraUsages.get(node)).length;
+    }
 }
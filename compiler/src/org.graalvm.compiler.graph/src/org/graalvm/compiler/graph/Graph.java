@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -34,6 +34,7 @@ import java.util.Iterator;
 import java.util.function.Consumer;
 
 import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.EconomicSet;
 import org.graalvm.collections.Equivalence;
 import org.graalvm.collections.UnmodifiableEconomicMap;
 import org.graalvm.compiler.core.common.GraalOptions;
@@ -117,6 +118,13 @@ public class Graph {
      */
     int compressions;
 
+    /**
+     * Nodes whose usage list grew since the last compression. Only their usage lists can have
+     * capacity left unused by deleted usages. A node is recorded once, regardless of how often its
+     * usage list grew.
+     */
+    private EconomicSet<Node> grownUsageLists;
+
     NodeEventListener nodeEventListener;
 
     /**
@@ -927,12 +935,43 @@ public class Graph {
             Arrays.fill(nodeUsageModCounts, 0);
         }
         nodesSize = nextId;
+        trimToSize();
         compressions++;
         nodesDeletedBeforeLastCompression += nodesDeletedSinceLastCompression;
         nodesDeletedSinceLastCompression = 0;
         return true;
     }
 
+    /**
+     * Releases the capacity of the node list and of the usage lists that was left unused by the
+     * nodes deleted since the last compression.
+     */
+    private void trimToSize() {
+        int length = Math.max(nodesSize + (nodesSize >> 2), INITIAL_NODES_SIZE);
+        if (length < nodes.length) {
+            nodes = Arrays.copyOf(nodes, length);
+        }
+        if (grownUsageLists != null) {
+            for (Node node : grownUsageLists) {
+                if (!node.isDeleted()) {
+                    node.trimUsages();
+                }
+            }
+            grownUsageLists = null;
+        }
+    }
+
+    /**
+     * Records that the usage list of {@code node} had to grow, so that {@link #trimToSize()} can
+     * release its unused capacity later.
+     */
+    void usageListGrown(Node node) {
+        if (grownUsageLists == null) {
+            grownUsageLists = EconomicSet.create(Equivalence.IDENTITY);
+        }
+        grownUsageLists.add(node);
+    }
+
     /**
      * Returns an {@link Iterable} providing all the live nodes whose type is compatible with
      * {@code type}.
@@ -1075,6 +1114,16 @@ public class Graph {
         nodes = newNodes;
     }
 
+    /**
+     * Ensures that {@code count} more nodes can be added to this graph without growing the node
+     * list.
+     */
+    private void ensureNodeCapacity(int count) {
+        if (count > 0 && nodesSize + count > nodes.length) {
+            nodes = Arrays.copyOf(nodes, nodesSize + count);
+        }
+    }
+
     @SuppressWarnings("unused")
     protected void afterRegister(Node node) {
 
@@ -1235,6 +1284,7 @@ public class Graph {
     @SuppressWarnings({"all", "try"})
     public EconomicMap<Node, Node> addDuplicates(Iterable<? extends Node> newNodes, final Graph oldGraph, int estimatedNodeCount, DuplicationReplacement replacements) {
         try (DebugCloseable s = DuplicateGraph.start(getDebug())) {
+            ensureNodeCapacity(estimatedNodeCount);
             return NodeClass.addGraphDuplicate(this, oldGraph, estimatedNodeCount, newNodes, replacements);
         }
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -449,14 +449,28 @@ public abstract class Node implements Cloneable, Formattable, NodeInterface {
             if (length == 0) {
                 extraUsages = new Node[4];
             } else if (extraUsagesCount == length) {
-                Node[] newExtraUsages = new Node[length * 2 + 1];
+                Node[] newExtraUsages = new Node[length + (length >> 1) + 1];
                 System.arraycopy(extraUsages, 0, newExtraUsages, 0, length);
                 extraUsages = newExtraUsages;
+                if (graph != null) {
+                    graph.usageListGrown(this);
+                }
             }
             extraUsages[extraUsagesCount++] = node;
         }
     }
 
+    /**
+     * Releases the unused capacity of this node's usage list.
+     */
+    void trimUsages() {
+        if (extraUsagesCount == 0) {
+            extraUsages = NO_NODES;
+        } else if (extraUsagesCount < extraUsages.length) {
+            extraUsages = Arrays.copyOf(extraUsages, extraUsagesCount);
+        }
+    }
+
     private void movUsageFromEndTo(int destIndex) {
         if (destIndex >= INLINE_USAGE_COUNT) {
             movUsageFromEndToExtraUsages(destIndex - INLINE_USAGE_COUNT);
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.management;
+
+import java.util.Collection;
+
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+
+import org.graalvm.compiler.core.common.util.PhaseProfiler;
+import org.graalvm.compiler.phases.common.jmx.HotSpotMBeanOperationProvider;
+import org.graalvm.compiler.serviceprovider.ServiceProvider;
+
+/**
+ * Exposes the compilation phase profiles recorded by {@link PhaseProfiler} as operations of the
+ * {@link HotSpotGraalRuntimeMBean}. Profiling is enabled by setting the
+ * {@link PhaseProfiler.Options#ProfileCompilationPhases} attribute of the bean.
+ */
+@ServiceProvider(HotSpotMBeanOperationProvider.class)
+public final class PhaseProfilerOperations implements HotSpotMBeanOperationProvider {
+
+    private static final String DUMP_PHASE_PROFILES = "dumpPhaseProfiles";
+    private static final String CLEAR_PHASE_PROFILES = "clearPhaseProfiles";
+
+    @Override
+    public <T> void registerOperations(Class<T> clazz, Collection<? super T> ops) {
+        ops.add(clazz.cast(new MBeanOperationInfo(DUMP_PHASE_PROFILES, "Returns the phase profiles of the most recent compilations as JSON",
+                        new MBeanParameterInfo[0], "java.lang.String", MBeanOperationInfo.INFO)));
+        ops.add(clazz.cast(new MBeanOperationInfo(CLEAR_PHASE_PROFILES, "Discards the retained phase profiles",
+                        new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION)));
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        switch (actionName) {
+            case DUMP_PHASE_PROFILES:
+                return PhaseProfiler.dumpJSON();
+            case CLEAR_PHASE_PROFILES:
+                PhaseProfiler.clear();
+                return null;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + actionName);
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -24,6 +24,7 @@
  */
 package org.graalvm.compiler.hotspot.test;
 
+import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.core.test.GraalCompilerTest;
 import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.java.BytecodeParserOptions;
@@ -51,6 +52,8 @@ public class PolymorphicInliningTest extends GraalCompilerTest {
         // Resolve classes
         new A().foo();
         new B().foo();
+        new C().foo();
+        new D().foo();
         new NotInlinableSubClass().foo();
     }
 
@@ -135,6 +138,83 @@ public class PolymorphicInliningTest extends GraalCompilerTest {
         assertTrue(getNodeCount(graph, AbstractDeoptimizeNode.class) == 0);
     }
 
+    private StructuredGraph inlineMegamorphicTypeSwitch(OptionValues options) {
+        MetaAccessProvider metaAccess = getMetaAccess();
+        ProfiledType[] injectedProfile = {
+                        new ProfiledType(metaAccess.lookupJavaType(A.class), 0.3D),
+                        new ProfiledType(metaAccess.lookupJavaType(B.class), 0.3D),
+                        new ProfiledType(metaAccess.lookupJavaType(C.class), 0.2D),
+                        new ProfiledType(metaAccess.lookupJavaType(D.class), 0.15D)};
+        return inlineMegamorphicTypeSwitch(options, injectedProfile);
+    }
+
+    private StructuredGraph inlineMegamorphicTypeSwitch(OptionValues options, ProfiledType[] injectedProfile) {
+        ResolvedJavaMethod method = getResolvedJavaMethod("snippet");
+        StructuredGraph graph = parseForCompile(method, options);
+
+        injectTypeProfile(graph, "PolymorphicInliningTest$SuperClass.foo", new JavaTypeProfile(TriState.FALSE, 0.05D, injectedProfile));
+
+        createInliningPhase().apply(graph, getDefaultHighTierContext());
+        return graph;
+    }
+
+    @Test
+    public void testMegamorphicTypeSwitchInlined() {
+        OptionValues options = new OptionValues(disableInlineDuringParsing(), GraalOptions.MegamorphicTypeSwitchInlining, true);
+        StructuredGraph graph = inlineMegamorphicTypeSwitch(options);
+
+        // All four types are dispatched by the type switch, the not recorded types fall back to
+        // the virtual call.
+        assertTrue(getNodeCount(graph, InvokeNode.class) == 1);
+        assertTrue(getNodeCount(graph, TypeSwitchNode.class) == 1);
+        assertTrue(getNodeCount(graph, AbstractDeoptimizeNode.class) == 0);
+        assertTrue(graph.getNodes().filter(TypeSwitchNode.class).first().keyCount() == 4);
+    }
+
+    @Test
+    public void testMegamorphicTypeSwitchCodeSizeBudget() {
+        int codeSize = getResolvedJavaMethod(A.class, "foo").getCodeSize();
+        OptionValues options = new OptionValues(disableInlineDuringParsing(), GraalOptions.MegamorphicTypeSwitchInlining, true, GraalOptions.MegamorphicTypeSwitchMaxCodeSize, 2 * codeSize);
+        StructuredGraph graph = inlineMegamorphicTypeSwitch(options);
+
+        // Only the two most frequent types fit into the code size budget.
+        assertTrue(getNodeCount(graph, InvokeNode.class) == 1);
+        assertTrue(getNodeCount(graph, TypeSwitchNode.class) == 1);
+        assertTrue(graph.getNodes().filter(TypeSwitchNode.class).first().keyCount() == 2);
+    }
+
+    @Test
+    public void testMegamorphicTypeSwitchSkipsLargeMethod() {
+        int codeSize = getResolvedJavaMethod(A.class, "foo").getCodeSize();
+        assertTrue(getResolvedJavaMethod(Large.class, "foo").getCodeSize() > 2 * codeSize);
+        OptionValues options = new OptionValues(disableInlineDuringParsing(), GraalOptions.MegamorphicTypeSwitchInlining, true, GraalOptions.MegamorphicTypeSwitchMaxCodeSize, 2 * codeSize);
+        MetaAccessProvider metaAccess = getMetaAccess();
+        ProfiledType[] injectedProfile = {
+                        new ProfiledType(metaAccess.lookupJavaType(Large.class), 0.4D),
+                        new ProfiledType(metaAccess.lookupJavaType(A.class), 0.3D),
+                        new ProfiledType(metaAccess.lookupJavaType(B.class), 0.15D),
+                        new ProfiledType(metaAccess.lookupJavaType(D.class), 0.1D)};
+        StructuredGraph graph = inlineMegamorphicTypeSwitch(options, injectedProfile);
+
+        // The most frequent method exceeds the code size budget on its own and is skipped, the
+        // next two still fit.
+        assertTrue(getNodeCount(graph, InvokeNode.class) == 1);
+        assertTrue(getNodeCount(graph, TypeSwitchNode.class) == 1);
+        assertTrue(graph.getNodes().filter(TypeSwitchNode.class).first().keyCount() == 2);
+    }
+
+    @Test
+    public void testMegamorphicTypeSwitchTooManyNotRecorded() {
+        OptionValues options = new OptionValues(disableInlineDuringParsing(), GraalOptions.MegamorphicTypeSwitchInlining, true, GraalOptions.MegamorphicTypeSwitchMaxNotRecordedProbability,
+                        0.01D);
+        StructuredGraph graph = inlineMegamorphicTypeSwitch(options);
+
+        // The profile is not dominated by the recorded types, so the regular megamorphic
+        // heuristic applies and no type is frequent enough.
+        assertTrue(getNodeCount(graph, InvokeNode.class) == 1);
+        assertTrue(getNodeCount(graph, TypeSwitchNode.class) == 0);
+    }
+
     private static OptionValues disableInlineDuringParsing() {
         return new OptionValues(getInitialOptions(), BytecodeParserOptions.InlineDuringParsing, false, BytecodeParserOptions.InlineIntrinsicsDuringParsing, false);
     }
@@ -169,6 +249,29 @@ public class PolymorphicInliningTest extends GraalCompilerTest {
         }
     }
 
+    private static class C extends SuperClass {
+        @Override
+        public int foo() {
+            return 'C';
+        }
+    }
+
+    private static class D extends SuperClass {
+        @Override
+        public int foo() {
+            return 'D';
+        }
+    }
+
+    private static class Large extends SuperClass {
+        int value;
+
+        @Override
+        public int foo() {
+            return value * 31 + (value >>> 7) + (value ^ 'L');
+        }
+    }
+
     private static class NotInlinableSubClass extends SuperClass {
         @Override
         public int foo() {
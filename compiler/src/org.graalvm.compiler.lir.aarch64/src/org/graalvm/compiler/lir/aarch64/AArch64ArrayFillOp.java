@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.aarch64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.aarch64.AArch64Address;
+import org.graalvm.compiler.asm.aarch64.AArch64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.aarch64.AArch64Assembler.ShiftType;
+import org.graalvm.compiler.asm.aarch64.AArch64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.core.common.NumUtil;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.code.CodeUtil;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits code which stores a value into the elements {@code [fromIndex, toIndex)} of a primitive
+ * array. The value is replicated into a 64-bit pattern which is stored 16 bytes at a time with
+ * pair stores, followed by stores of decreasing width for the remaining bytes.
+ */
+@Opcode("ARRAY_FILL")
+public final class AArch64ArrayFillOp extends AArch64LIRInstruction {
+    public static final LIRInstructionClass<AArch64ArrayFillOp> TYPE = LIRInstructionClass.create(AArch64ArrayFillOp.class);
+
+    private final JavaKind kind;
+    private final int arrayBaseOffset;
+    private final int log2IndexScale;
+
+    @Alive({REG}) protected Value arrayValue;
+    @Alive({REG}) protected Value fromValue;
+    @Alive({REG}) protected Value toValue;
+    @Alive({REG}) protected Value valueValue;
+    @Temp({REG}) protected Value pointer;
+    @Temp({REG}) protected Value byteCount;
+    @Temp({REG}) protected Value pattern;
+
+    public AArch64ArrayFillOp(LIRGeneratorTool tool, JavaKind kind, Value array, Value from, Value to, Value value) {
+        super(TYPE);
+        assert kind.isPrimitive() && kind != JavaKind.Void : kind;
+        this.kind = kind;
+        this.arrayBaseOffset = tool.getProviders().getMetaAccess().getArrayBaseOffset(kind);
+        this.log2IndexScale = CodeUtil.log2(tool.getProviders().getMetaAccess().getArrayIndexScale(kind));
+
+        this.arrayValue = array;
+        this.fromValue = from;
+        this.toValue = to;
+        this.valueValue = value;
+
+        this.pointer = tool.newVariable(LIRKind.unknownReference(tool.target().arch.getWordKind()));
+        this.byteCount = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.pattern = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AArch64MacroAssembler masm) {
+        Register ptr = asRegister(pointer);
+        Register count = asRegister(byteCount);
+        Register pat = asRegister(pattern);
+        Label done = new Label();
+
+        masm.subs(32, count, asRegister(toValue), asRegister(fromValue));
+        masm.branchConditionally(ConditionFlag.LE, done);
+
+        // Compute the address of the first element and the number of bytes to fill.
+        masm.sxt(64, 32, pat, asRegister(fromValue));
+        masm.add(64, ptr, asRegister(arrayValue), pat, ShiftType.LSL, log2IndexScale);
+        assert NumUtil.isInt(arrayBaseOffset);
+        masm.add(64, ptr, ptr, arrayBaseOffset);
+        masm.shl(64, count, count, log2IndexScale);
+
+        emitPattern(masm, pat);
+        emitPairStores(masm, ptr, count, pat);
+        emitTailStores(masm, ptr, count, pat);
+        masm.bind(done);
+    }
+
+    /**
+     * Replicates the value into all bytes of {@code pat}.
+     */
+    private void emitPattern(AArch64MacroAssembler masm, Register pat) {
+        Register value = asRegister(valueValue);
+        switch (kind) {
+            case Boolean:
+            case Byte:
+                masm.and(32, pat, value, 0xFF);
+                masm.or(32, pat, pat, pat, ShiftType.LSL, 8);
+                masm.or(32, pat, pat, pat, ShiftType.LSL, 16);
+                masm.or(64, pat, pat, pat, ShiftType.LSL, 32);
+                break;
+            case Short:
+            case Char:
+                masm.and(32, pat, value, 0xFFFF);
+                masm.or(32, pat, pat, pat, ShiftType.LSL, 16);
+                masm.or(64, pat, pat, pat, ShiftType.LSL, 32);
+                break;
+            case Int:
+            case Float:
+                masm.mov(32, pat, value);
+                masm.or(64, pat, pat, pat, ShiftType.LSL, 32);
+                break;
+            case Long:
+            case Double:
+                masm.mov(64, pat, value);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere("unsupported element kind " + kind);
+        }
+    }
+
+    private static void emitPairStores(AArch64MacroAssembler masm, Register ptr, Register count, Register pat) {
+        Label loop = new Label();
+        Label tail = new Label();
+
+        masm.bind(loop);
+        masm.cmp(64, count, 16);
+        masm.branchConditionally(ConditionFlag.LT, tail);
+        masm.stp(64, pat, pat, AArch64Address.createPostIndexedImmediateAddress(ptr, 2));
+        masm.sub(64, count, count, 16);
+        masm.jmp(loop);
+        masm.bind(tail);
+    }
+
+    /**
+     * Emits code to store the remaining 0 to 15 bytes.
+     */
+    private void emitTailStores(AArch64MacroAssembler masm, Register ptr, Register count, Register pat) {
+        Label store4Bytes = new Label();
+        Label store2Bytes = new Label();
+        Label store1Byte = new Label();
+        Label end = new Label();
+
+        masm.tbz(count, 3, store4Bytes);
+        masm.str(64, pat, AArch64Address.createPostIndexedImmediateAddress(ptr, 8));
+        masm.bind(store4Bytes);
+        if (kind.getByteCount() <= 4) {
+            masm.tbz(count, 2, store2Bytes);
+            masm.str(32, pat, AArch64Address.createPostIndexedImmediateAddress(ptr, 4));
+            masm.bind(store2Bytes);
+            if (kind.getByteCount() <= 2) {
+                masm.tbz(count, 1, store1Byte);
+                masm.str(16, pat, AArch64Address.createPostIndexedImmediateAddress(ptr, 2));
+                masm.bind(store1Byte);
+                if (kind.getByteCount() <= 1) {
+                    masm.tbz(count, 0, end);
+                    masm.str(8, pat, AArch64Address.createBaseRegisterOnlyAddress(ptr));
+                }
+            }
+        }
+        masm.bind(end);
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.aarch64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.aarch64.AArch64Address;
+import org.graalvm.compiler.asm.aarch64.AArch64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.aarch64.AArch64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.aarch64.AArch64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits code computing the hash code of the first {@code length} elements of an array as defined
+ * by {@link java.util.Arrays#hashCode(int[])}. The main loop processes 4 elements per iteration
+ * as {@code h = h * 31^4 + a[i] * 31^3 + a[i + 1] * 31^2 + a[i + 2] * 31 + a[i + 3]}, which
+ * removes the dependency of each multiplication on the previous element.
+ */
+@Opcode("ARRAY_HASH_CODE")
+public final class AArch64ArrayHashCodeOp extends AArch64LIRInstruction {
+    public static final LIRInstructionClass<AArch64ArrayHashCodeOp> TYPE = LIRInstructionClass.create(AArch64ArrayHashCodeOp.class);
+
+    private static final int UNROLL_FACTOR = 4;
+
+    private final JavaKind kind;
+    private final int arrayBaseOffset;
+
+    @Def({REG}) protected Value resultValue;
+    @Alive({REG}) protected Value arrayValue;
+    @Alive({REG}) protected Value lengthValue;
+    @Temp({REG}) protected Value pointer;
+    @Temp({REG}) protected Value count;
+    @Temp({REG}) protected Value element;
+    @Temp({REG}) protected Value power1;
+    @Temp({REG}) protected Value power2;
+    @Temp({REG}) protected Value power3;
+    @Temp({REG}) protected Value power4;
+
+    public AArch64ArrayHashCodeOp(LIRGeneratorTool tool, JavaKind kind, Value result, Value array, Value length) {
+        super(TYPE);
+        assert kind == JavaKind.Byte || kind == JavaKind.Char || kind == JavaKind.Short || kind == JavaKind.Int : kind;
+        this.kind = kind;
+        this.arrayBaseOffset = tool.getProviders().getMetaAccess().getArrayBaseOffset(kind);
+
+        this.resultValue = result;
+        this.arrayValue = array;
+        this.lengthValue = length;
+
+        this.pointer = tool.newVariable(LIRKind.unknownReference(tool.target().arch.getWordKind()));
+        this.count = tool.newVariable(LIRKind.value(AArch64Kind.DWORD));
+        this.element = tool.newVariable(LIRKind.value(AArch64Kind.DWORD));
+        this.power1 = tool.newVariable(LIRKind.value(AArch64Kind.DWORD));
+        this.power2 = tool.newVariable(LIRKind.value(AArch64Kind.DWORD));
+        this.power3 = tool.newVariable(LIRKind.value(AArch64Kind.DWORD));
+        this.power4 = tool.newVariable(LIRKind.value(AArch64Kind.DWORD));
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AArch64MacroAssembler masm) {
+        Register result = asRegister(resultValue);
+        Register ptr = asRegister(pointer);
+        Register cnt = asRegister(count);
+        Register elem = asRegister(element);
+        Register p1 = asRegister(power1);
+        Register p2 = asRegister(power2);
+        Register p3 = asRegister(power3);
+        Register p4 = asRegister(power4);
+        Label unrolledLoop = new Label();
+        Label tailLoop = new Label();
+        Label done = new Label();
+
+        masm.add(64, ptr, asRegister(arrayValue), arrayBaseOffset);
+        masm.mov(32, cnt, asRegister(lengthValue));
+        masm.mov(result, 1);
+        masm.mov(p1, 31);
+        masm.mov(p2, 31 * 31);
+        masm.mov(p3, 31 * 31 * 31);
+        masm.mov(p4, 31 * 31 * 31 * 31);
+
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(unrolledLoop);
+        masm.cmp(32, cnt, UNROLL_FACTOR);
+        masm.branchConditionally(ConditionFlag.LT, tailLoop);
+        masm.mul(32, result, result, p4);
+        emitLoadElement(masm, elem, ptr);
+        masm.madd(32, result, elem, p3, result);
+        emitLoadElement(masm, elem, ptr);
+        masm.madd(32, result, elem, p2, result);
+        emitLoadElement(masm, elem, ptr);
+        masm.madd(32, result, elem, p1, result);
+        emitLoadElement(masm, elem, ptr);
+        masm.add(32, result, result, elem);
+        masm.sub(32, cnt, cnt, UNROLL_FACTOR);
+        masm.jmp(unrolledLoop);
+
+        masm.bind(tailLoop);
+        masm.cbz(32, cnt, done);
+        emitLoadElement(masm, elem, ptr);
+        masm.madd(32, result, result, p1, elem);
+        masm.sub(32, cnt, cnt, 1);
+        masm.jmp(tailLoop);
+        masm.bind(done);
+    }
+
+    /**
+     * Loads the next element, widens it to {@code int} the same way the Java code does and
+     * advances {@code ptr}.
+     */
+    private void emitLoadElement(AArch64MacroAssembler masm, Register dst, Register ptr) {
+        int byteCount = kind.getByteCount();
+        AArch64Address address = AArch64Address.createPostIndexedImmediateAddress(ptr, byteCount);
+        switch (kind) {
+            case Byte:
+                masm.ldrs(32, 8, dst, address);
+                break;
+            case Short:
+                masm.ldrs(32, 16, dst, address);
+                break;
+            case Char:
+                masm.ldr(16, dst, address);
+                break;
+            case Int:
+                masm.ldr(32, dst, address);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere("unsupported element kind " + kind);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.ILLEGAL;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import java.util.Objects;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexMoveOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRMOp;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.asm.amd64.AVXKind.AVXSize;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64.CPUFeature;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits code storing {@code value} into all elements of {@code array} in {@code [from, to)}. The
+ * value is replicated into a 64-bit pattern that is broadcast into a vector register, so the bulk
+ * of the range is written with 256-bit stores if the CPU supports AVX2 and with 128-bit SSE2
+ * stores otherwise. The remaining bytes are written with scalar stores of decreasing size. The
+ * index range must already be known to be within the bounds of the array.
+ *
+ * Floating point values are passed as their raw bits, i.e., as {@code int} or {@code long}.
+ */
+@Opcode("ARRAY_FILL")
+public final class AMD64ArrayFillOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64ArrayFillOp> TYPE = LIRInstructionClass.create(AMD64ArrayFillOp.class);
+
+    private final JavaKind kind;
+    private final int arrayBaseOffset;
+    private final Scale arrayIndexScale;
+    private final AVXSize vectorSize;
+
+    @Alive({REG}) private Value arrayValue;
+    @Alive({REG}) private Value fromValue;
+    @Alive({REG}) private Value toValue;
+    @Alive({REG}) private Value valueValue;
+
+    @Temp({REG}) private Value pointer;
+    @Temp({REG}) private Value byteCount;
+    @Temp({REG}) private Value pattern;
+    @Temp({REG}) private Value temp;
+    @Temp({REG, ILLEGAL}) private Value vectorTemp;
+
+    public AMD64ArrayFillOp(LIRGeneratorTool tool, JavaKind kind, Value array, Value from, Value to, Value value, int maxVectorSize) {
+        super(TYPE);
+        this.kind = kind;
+        this.arrayBaseOffset = tool.getProviders().getMetaAccess().getArrayBaseOffset(kind);
+        this.arrayIndexScale = Objects.requireNonNull(Scale.fromInt(tool.getProviders().getMetaAccess().getArrayIndexScale(kind)));
+
+        this.arrayValue = array;
+        this.fromValue = from;
+        this.toValue = to;
+        this.valueValue = value;
+
+        LIRKind wordKind = LIRKind.value(tool.target().arch.getWordKind());
+        this.pointer = tool.newVariable(LIRKind.unknownReference(tool.target().arch.getWordKind()));
+        this.byteCount = tool.newVariable(wordKind);
+        this.pattern = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.temp = tool.newVariable(wordKind);
+
+        boolean supportsAVX2 = ((AMD64) tool.target().arch).getFeatures().contains(CPUFeature.AVX2);
+        if (supportsAVX2 && (maxVectorSize < 0 || maxVectorSize >= AVXSize.YMM.getBytes())) {
+            this.vectorSize = AVXSize.YMM;
+            this.vectorTemp = tool.newVariable(LIRKind.value(AMD64Kind.V256_QWORD));
+        } else if (maxVectorSize < 0 || maxVectorSize >= AVXSize.XMM.getBytes()) {
+            // SSE2 is part of the x86-64 baseline
+            this.vectorSize = AVXSize.XMM;
+            this.vectorTemp = tool.newVariable(LIRKind.value(AMD64Kind.V128_QWORD));
+        } else {
+            this.vectorSize = null;
+            this.vectorTemp = Value.ILLEGAL;
+        }
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register ptr = asRegister(pointer);
+        Register count = asRegister(byteCount);
+        Register tmp = asRegister(temp);
+        Label done = new Label();
+
+        // The index range is non-negative, so the zero extension of movl is sufficient.
+        masm.movl(count, asRegister(toValue));
+        masm.subl(count, asRegister(fromValue));
+        masm.jcc(ConditionFlag.LessEqual, done);
+        masm.movl(tmp, asRegister(fromValue));
+        masm.leaq(ptr, new AMD64Address(asRegister(arrayValue), tmp, arrayIndexScale, arrayBaseOffset));
+        if (arrayIndexScale.log2 > 0) {
+            masm.shlq(count, arrayIndexScale.log2);
+        }
+
+        Register pat = asRegister(pattern);
+        emitPattern(masm, pat, asRegister(valueValue), tmp);
+
+        if (vectorSize != null) {
+            emitVectorStores(crb, masm, ptr, count, pat);
+        }
+        emitTailStores(masm, ptr, count, pat);
+        masm.bind(done);
+    }
+
+    /**
+     * Replicates the element value in the low bits of {@code value} into all bytes of
+     * {@code pattern}.
+     */
+    private void emitPattern(AMD64MacroAssembler masm, Register pat, Register value, Register tmp) {
+        int bits = kind.getByteCount() * Byte.SIZE;
+        switch (bits) {
+            case Byte.SIZE:
+                masm.movzbl(pat, value);
+                break;
+            case Short.SIZE:
+                masm.movl(pat, value);
+                masm.andl(pat, 0xFFFF);
+                break;
+            case Integer.SIZE:
+                masm.movl(pat, value);
+                break;
+            default:
+                masm.movq(pat, value);
+                break;
+        }
+        for (; bits < Long.SIZE; bits *= 2) {
+            masm.movq(tmp, pat);
+            masm.shlq(tmp, bits);
+            masm.orq(pat, tmp);
+        }
+    }
+
+    private void emitVectorStores(CompilationResultBuilder crb, AMD64MacroAssembler masm, Register ptr, Register count, Register pat) {
+        int bytesPerVector = vectorSize.getBytes();
+        Register vector = asRegister(vectorTemp);
+        Label loop = new Label();
+        Label end = new Label();
+
+        masm.cmpq(count, bytesPerVector);
+        masm.jcc(ConditionFlag.Less, end);
+        masm.movdq(vector, pat);
+        if (vectorSize == AVXSize.YMM) {
+            VexRMOp.VPBROADCASTQ.emit(masm, AVXSize.YMM, vector, vector);
+        } else {
+            // copy the low quadword into the high quadword
+            masm.pshufd(vector, vector, 0x44);
+        }
+
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(loop);
+        if (vectorSize == AVXSize.YMM) {
+            VexMoveOp.VMOVDQU64.emit(masm, AVXSize.YMM, new AMD64Address(ptr), vector);
+        } else {
+            masm.movdqu(new AMD64Address(ptr), vector);
+        }
+        masm.addq(ptr, bytesPerVector);
+        masm.subq(count, bytesPerVector);
+        masm.cmpq(count, bytesPerVector);
+        masm.jcc(ConditionFlag.GreaterEqual, loop);
+        if (vectorSize == AVXSize.YMM) {
+            masm.vzeroupper();
+        }
+        masm.bind(end);
+    }
+
+    /**
+     * Stores the remaining bytes. The byte count is a multiple of the element size, so every store
+     * starts at an element boundary and writes whole elements of the periodic pattern.
+     */
+    private void emitTailStores(AMD64MacroAssembler masm, Register ptr, Register count, Register pat) {
+        Label loop = new Label();
+        Label end = new Label();
+        masm.bind(loop);
+        masm.cmpq(count, Long.BYTES);
+        masm.jcc(ConditionFlag.Less, end);
+        masm.movq(new AMD64Address(ptr), pat);
+        masm.addq(ptr, Long.BYTES);
+        masm.subq(count, Long.BYTES);
+        masm.jmp(loop);
+        masm.bind(end);
+
+        int elementSize = kind.getByteCount();
+        if (elementSize <= Integer.BYTES) {
+            Label skip = new Label();
+            masm.testl(count, Integer.BYTES);
+            masm.jcc(ConditionFlag.Zero, skip);
+            masm.movl(new AMD64Address(ptr), pat);
+            masm.addq(ptr, Integer.BYTES);
+            masm.bind(skip);
+        }
+        if (elementSize <= Short.BYTES) {
+            Label skip = new Label();
+            masm.testl(count, Short.BYTES);
+            masm.jcc(ConditionFlag.Zero, skip);
+            masm.movw(new AMD64Address(ptr), pat);
+            masm.addq(ptr, Short.BYTES);
+            masm.bind(skip);
+        }
+        if (elementSize == Byte.BYTES) {
+            Label skip = new Label();
+            masm.testl(count, Byte.BYTES);
+            masm.jcc(ConditionFlag.Zero, skip);
+            masm.movb(new AMD64Address(ptr), pat);
+            masm.bind(skip);
+        }
+    }
+}
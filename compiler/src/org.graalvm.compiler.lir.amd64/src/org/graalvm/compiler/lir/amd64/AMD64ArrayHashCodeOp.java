@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.ILLEGAL;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+import static org.graalvm.compiler.lir.amd64.AMD64HotSpotHelper.pointerConstant;
+import static org.graalvm.compiler.lir.amd64.AMD64HotSpotHelper.recordExternalAddress;
+
+import java.util.Objects;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexMRIOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexMoveOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRMIOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRMOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRVMOp;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.asm.amd64.AVXKind.AVXSize;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.ArrayDataPointerConstant;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64.CPUFeature;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits code computing the hash code of the first {@code length} elements of an array as defined
+ * by {@link java.util.Arrays#hashCode(int[])}, i.e.,
+ * {@code 31^n + a[0] * 31^(n-1) + ... + a[n-1]}.
+ *
+ * If the CPU supports AVX2, blocks of 8 elements are widened to {@code int} and accumulated in a
+ * 256-bit register, which is multiplied by {@code 31^8} per block. Afterwards each lane is
+ * multiplied by its remaining power of 31 and the lanes are summed up. The elements that do not
+ * fill a block, as well as all elements on CPUs without AVX2, are handled by a scalar loop.
+ */
+@Opcode("ARRAY_HASH_CODE")
+public final class AMD64ArrayHashCodeOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64ArrayHashCodeOp> TYPE = LIRInstructionClass.create(AMD64ArrayHashCodeOp.class);
+
+    private static final int ELEMENTS_PER_VECTOR = 8;
+
+    /**
+     * Powers of 31 for the lanes of the accumulator, {@code 31^7} for the first lane down to
+     * {@code 31^0} for the last one.
+     */
+    private static final ArrayDataPointerConstant LANE_POWERS = pointerConstant(32, new int[]{
+                    power31(7), power31(6), power31(5), power31(4), power31(3), power31(2), power31(1), power31(0)
+    });
+
+    private final JavaKind kind;
+    private final int arrayBaseOffset;
+    private final Scale arrayIndexScale;
+    private final boolean useAVX2;
+
+    @Def({REG}) private Value resultValue;
+    @Alive({REG}) private Value arrayValue;
+    @Alive({REG}) private Value lengthValue;
+
+    @Temp({REG}) private Value index;
+    @Temp({REG}) private Value temp;
+    @Temp({REG, ILLEGAL}) private Value vectorEnd;
+    @Temp({REG, ILLEGAL}) private Value vectorTemp1;
+    @Temp({REG, ILLEGAL}) private Value vectorTemp2;
+    @Temp({REG, ILLEGAL}) private Value vectorTemp3;
+
+    public AMD64ArrayHashCodeOp(LIRGeneratorTool tool, JavaKind kind, Value result, Value array, Value length, int maxVectorSize) {
+        super(TYPE);
+        assert kind == JavaKind.Byte || kind == JavaKind.Char || kind == JavaKind.Short || kind == JavaKind.Int : kind;
+        this.kind = kind;
+        this.arrayBaseOffset = tool.getProviders().getMetaAccess().getArrayBaseOffset(kind);
+        this.arrayIndexScale = Objects.requireNonNull(Scale.fromInt(tool.getProviders().getMetaAccess().getArrayIndexScale(kind)));
+
+        this.resultValue = result;
+        this.arrayValue = array;
+        this.lengthValue = length;
+
+        this.index = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp = tool.newVariable(LIRKind.value(AMD64Kind.DWORD));
+
+        boolean supportsAVX2 = ((AMD64) tool.target().arch).getFeatures().contains(CPUFeature.AVX2);
+        this.useAVX2 = supportsAVX2 && (maxVectorSize < 0 || maxVectorSize >= AVXSize.YMM.getBytes());
+        if (useAVX2) {
+            this.vectorEnd = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+            this.vectorTemp1 = tool.newVariable(LIRKind.value(AMD64Kind.V256_DWORD));
+            this.vectorTemp2 = tool.newVariable(LIRKind.value(AMD64Kind.V256_DWORD));
+            this.vectorTemp3 = tool.newVariable(LIRKind.value(AMD64Kind.V256_DWORD));
+        } else {
+            this.vectorEnd = Value.ILLEGAL;
+            this.vectorTemp1 = Value.ILLEGAL;
+            this.vectorTemp2 = Value.ILLEGAL;
+            this.vectorTemp3 = Value.ILLEGAL;
+        }
+    }
+
+    private static int power31(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 31;
+        }
+        return result;
+    }
+
+    private AMD64Address elementAddress(Register array, Register idx) {
+        return new AMD64Address(array, idx, arrayIndexScale, arrayBaseOffset);
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register result = asRegister(resultValue);
+        Register idx = asRegister(index);
+        Register length = asRegister(lengthValue);
+
+        masm.movl(result, 1);
+        masm.xorl(idx, idx);
+        if (useAVX2) {
+            emitVectorLoop(crb, masm, result, idx, length);
+        }
+        emitScalarLoop(masm, result, idx, length);
+    }
+
+    private void emitVectorLoop(CompilationResultBuilder crb, AMD64MacroAssembler masm, Register result, Register idx, Register length) {
+        Register end = asRegister(vectorEnd);
+        Register tmp = asRegister(temp);
+        Register accumulator = asRegister(vectorTemp1);
+        Register multiplier = asRegister(vectorTemp2);
+        Register elements = asRegister(vectorTemp3);
+        Label loop = new Label();
+        Label done = new Label();
+
+        masm.movl(end, length);
+        masm.andl(end, -ELEMENTS_PER_VECTOR);
+        masm.jcc(ConditionFlag.Zero, done);
+
+        VexRVMOp.VPXOR.emit(masm, AVXSize.YMM, accumulator, accumulator, accumulator);
+        masm.movl(tmp, power31(ELEMENTS_PER_VECTOR));
+        masm.movdl(multiplier, tmp);
+        VexRMOp.VPBROADCASTD.emit(masm, AVXSize.YMM, multiplier, multiplier);
+
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(loop);
+        VexRVMOp.VPMULLD.emit(masm, AVXSize.YMM, accumulator, accumulator, multiplier);
+        emitLoadElements(masm, elements, elementAddress(asRegister(arrayValue), idx));
+        VexRVMOp.VPADDD.emit(masm, AVXSize.YMM, accumulator, accumulator, elements);
+        // the initial value 1 is scaled along with the accumulator
+        masm.imull(result, result, power31(ELEMENTS_PER_VECTOR));
+        masm.addl(idx, ELEMENTS_PER_VECTOR);
+        masm.cmpl(idx, end);
+        masm.jcc(ConditionFlag.NotEqual, loop);
+
+        // multiply each lane by its power of 31 and sum up the lanes
+        VexRVMOp.VPMULLD.emit(masm, AVXSize.YMM, accumulator, accumulator, recordExternalAddress(crb, LANE_POWERS));
+        VexMRIOp.VEXTRACTI128.emit(masm, AVXSize.YMM, elements, accumulator, 1);
+        VexRVMOp.VPADDD.emit(masm, AVXSize.XMM, accumulator, accumulator, elements);
+        VexRMIOp.VPSHUFD.emit(masm, AVXSize.XMM, elements, accumulator, 0x0E);
+        VexRVMOp.VPADDD.emit(masm, AVXSize.XMM, accumulator, accumulator, elements);
+        VexRMIOp.VPSHUFD.emit(masm, AVXSize.XMM, elements, accumulator, 0x01);
+        VexRVMOp.VPADDD.emit(masm, AVXSize.XMM, accumulator, accumulator, elements);
+        masm.movdl(tmp, accumulator);
+        masm.addl(result, tmp);
+        masm.vzeroupper();
+        masm.bind(done);
+    }
+
+    /**
+     * Loads 8 elements and widens them to {@code int} the same way the Java code does.
+     */
+    private void emitLoadElements(AMD64MacroAssembler masm, Register dst, AMD64Address src) {
+        switch (kind) {
+            case Byte:
+                VexRMOp.VPMOVSXBD.emit(masm, AVXSize.YMM, dst, src);
+                break;
+            case Short:
+                VexRMOp.VPMOVSXWD.emit(masm, AVXSize.YMM, dst, src);
+                break;
+            case Char:
+                VexRMOp.VPMOVZXWD.emit(masm, AVXSize.YMM, dst, src);
+                break;
+            case Int:
+                VexMoveOp.VMOVDQU32.emit(masm, AVXSize.YMM, dst, src);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere("unsupported element kind " + kind);
+        }
+    }
+
+    private void emitScalarLoop(AMD64MacroAssembler masm, Register result, Register idx, Register length) {
+        Register tmp = asRegister(temp);
+        Label loop = new Label();
+        Label done = new Label();
+
+        masm.cmpl(idx, length);
+        masm.jcc(ConditionFlag.GreaterEqual, done);
+        masm.bind(loop);
+        AMD64Address address = elementAddress(asRegister(arrayValue), idx);
+        switch (kind) {
+            case Byte:
+                masm.movsbl(tmp, address);
+                break;
+            case Short:
+                masm.movswl(tmp, address);
+                break;
+            case Char:
+                masm.movzwl(tmp, address);
+                break;
+            case Int:
+                masm.movl(tmp, address);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere("unsupported element kind " + kind);
+        }
+        masm.imull(result, result, 31);
+        masm.addl(result, tmp);
+        masm.incl(idx);
+        masm.cmpl(idx, length);
+        masm.jcc(ConditionFlag.Less, loop);
+        masm.bind(done);
+    }
+}
@@ -0,0 +1,407 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.asm.amd64.AMD64BaseAssembler.OperandSize.DWORD;
+import static org.graalvm.compiler.asm.amd64.AMD64BaseAssembler.OperandSize.QWORD;
+import static org.graalvm.compiler.asm.amd64.AMD64BaseAssembler.OperandSize.SD;
+import static org.graalvm.compiler.asm.amd64.AMD64BaseAssembler.OperandSize.SS;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.ILLEGAL;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import java.util.Objects;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.AMD64BinaryArithmetic;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.AMD64RMOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.SSEOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexMoveOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRMOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRVMOp;
+import org.graalvm.compiler.asm.amd64.AMD64BaseAssembler.OperandSize;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.asm.amd64.AVXKind.AVXSize;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.core.common.calc.ElementwiseOperation;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64.CPUFeature;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits a loop computing {@code dst[i] = x[i] op y[i]} for {@code i} in {@code [from, to)}, where
+ * one of {@code x} and {@code y} may also be a scalar. If the CPU supports AVX2 the bulk of the
+ * range is processed with 256-bit vector instructions and the remaining elements, as well as all
+ * elements on CPUs without AVX2, are handled by a scalar post loop.
+ */
+@Opcode("ELEMENTWISE_ARRAY_OP")
+public final class AMD64ElementwiseArrayOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64ElementwiseArrayOp> TYPE = LIRInstructionClass.create(AMD64ElementwiseArrayOp.class);
+
+    private final ElementwiseOperation op;
+    private final JavaKind kind;
+    private final int arrayBaseOffset;
+    private final Scale arrayIndexScale;
+    private final boolean xIsArray;
+    private final boolean yIsArray;
+    private final VexRVMOp vectorOp;
+
+    @Alive({REG}) private Value dstValue;
+    @Alive({REG}) private Value xValue;
+    @Alive({REG}) private Value yValue;
+    @Alive({REG}) private Value fromValue;
+    @Alive({REG}) private Value toValue;
+
+    @Temp({REG}) private Value index;
+    @Temp({REG}) private Value scalarTemp;
+    @Temp({REG, ILLEGAL}) private Value vectorEnd;
+    @Temp({REG, ILLEGAL}) private Value vectorTemp1;
+    @Temp({REG, ILLEGAL}) private Value vectorTemp2;
+
+    public AMD64ElementwiseArrayOp(LIRGeneratorTool tool, ElementwiseOperation op, JavaKind kind, Value dst, Value x, Value y, Value from, Value to, int maxVectorSize) {
+        super(TYPE);
+        this.op = op;
+        this.kind = kind;
+        this.arrayBaseOffset = tool.getProviders().getMetaAccess().getArrayBaseOffset(kind);
+        this.arrayIndexScale = Objects.requireNonNull(Scale.fromInt(tool.getProviders().getMetaAccess().getArrayIndexScale(kind)));
+        // array operands are references, scalar operands are plain values
+        this.xIsArray = !LIRKind.isValue(x);
+        this.yIsArray = !LIRKind.isValue(y);
+        assert xIsArray || yIsArray;
+
+        this.dstValue = dst;
+        this.xValue = x;
+        this.yValue = y;
+        this.fromValue = from;
+        this.toValue = to;
+
+        this.index = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.scalarTemp = tool.newVariable(LIRKind.value(getScalarKind(kind)));
+
+        boolean supportsAVX2 = ((AMD64) tool.target().arch).getFeatures().contains(CPUFeature.AVX2);
+        this.vectorOp = supportsAVX2 && (maxVectorSize < 0 || maxVectorSize >= 32) ? getVectorOp(op, kind) : null;
+        if (vectorOp != null) {
+            this.vectorEnd = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+            this.vectorTemp1 = tool.newVariable(LIRKind.value(AMD64Kind.V256_BYTE));
+            this.vectorTemp2 = tool.newVariable(LIRKind.value(AMD64Kind.V256_BYTE));
+        } else {
+            this.vectorEnd = Value.ILLEGAL;
+            this.vectorTemp1 = Value.ILLEGAL;
+            this.vectorTemp2 = Value.ILLEGAL;
+        }
+    }
+
+    private static AMD64Kind getScalarKind(JavaKind kind) {
+        switch (kind) {
+            case Int:
+                return AMD64Kind.DWORD;
+            case Long:
+                return AMD64Kind.QWORD;
+            case Float:
+                return AMD64Kind.SINGLE;
+            case Double:
+                return AMD64Kind.DOUBLE;
+            default:
+                throw GraalError.shouldNotReachHere("unsupported element kind " + kind);
+        }
+    }
+
+    /**
+     * Returns the 256-bit instruction implementing {@code op} on elements of {@code kind} or
+     * {@code null} if there is none, in which case only the scalar loop is emitted.
+     */
+    private static VexRVMOp getVectorOp(ElementwiseOperation op, JavaKind kind) {
+        switch (kind) {
+            case Int:
+                switch (op) {
+                    case ADD:
+                        return VexRVMOp.VPADDD;
+                    case SUB:
+                        return VexRVMOp.VPSUBD;
+                    case MUL:
+                        return VexRVMOp.VPMULLD;
+                    case AND:
+                        return VexRVMOp.VPAND;
+                    case OR:
+                        return VexRVMOp.VPOR;
+                    case XOR:
+                        return VexRVMOp.VPXOR;
+                    default:
+                        return null;
+                }
+            case Long:
+                switch (op) {
+                    case ADD:
+                        return VexRVMOp.VPADDQ;
+                    case SUB:
+                        return VexRVMOp.VPSUBQ;
+                    case AND:
+                        return VexRVMOp.VPAND;
+                    case OR:
+                        return VexRVMOp.VPOR;
+                    case XOR:
+                        return VexRVMOp.VPXOR;
+                    default:
+                        // there is no packed 64-bit multiply before AVX-512
+                        return null;
+                }
+            case Float:
+                switch (op) {
+                    case ADD:
+                        return VexRVMOp.VADDPS;
+                    case SUB:
+                        return VexRVMOp.VSUBPS;
+                    case MUL:
+                        return VexRVMOp.VMULPS;
+                    case DIV:
+                        return VexRVMOp.VDIVPS;
+                    default:
+                        return null;
+                }
+            case Double:
+                switch (op) {
+                    case ADD:
+                        return VexRVMOp.VADDPD;
+                    case SUB:
+                        return VexRVMOp.VSUBPD;
+                    case MUL:
+                        return VexRVMOp.VMULPD;
+                    case DIV:
+                        return VexRVMOp.VDIVPD;
+                    default:
+                        return null;
+                }
+            default:
+                return null;
+        }
+    }
+
+    private AMD64Address elementAddress(Register array, Register idx) {
+        return new AMD64Address(array, idx, arrayIndexScale, arrayBaseOffset);
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register idx = asRegister(index);
+        Register to = asRegister(toValue);
+        Label scalarCheck = new Label();
+        Label done = new Label();
+
+        // The index range is non-negative, so the zero extension of movl is sufficient.
+        masm.movl(idx, asRegister(fromValue));
+        if (vectorOp != null) {
+            emitVectorLoop(crb, masm, idx, to, scalarCheck);
+        }
+        masm.bind(scalarCheck);
+        masm.cmpl(idx, to);
+        masm.jcc(ConditionFlag.GreaterEqual, done);
+        emitScalarLoop(masm, idx, to);
+        masm.bind(done);
+    }
+
+    private void emitVectorLoop(CompilationResultBuilder crb, AMD64MacroAssembler masm, Register idx, Register to, Label scalarCheck) {
+        int elementsPerVector = AVXSize.YMM.getBytes() / kind.getByteCount();
+        Register end = asRegister(vectorEnd);
+        Register vector = asRegister(vectorTemp1);
+        Register broadcast = asRegister(vectorTemp2);
+        VexMoveOp move = getVectorMove(kind);
+
+        // end = from + round_down(to - from, elementsPerVector)
+        masm.movl(end, to);
+        masm.subl(end, idx);
+        masm.andl(end, -elementsPerVector);
+        masm.jcc(ConditionFlag.Zero, scalarCheck);
+        masm.addl(end, idx);
+
+        if (!xIsArray) {
+            emitBroadcast(masm, broadcast, asRegister(xValue));
+        } else if (!yIsArray) {
+            emitBroadcast(masm, broadcast, asRegister(yValue));
+        }
+
+        Label loop = new Label();
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(loop);
+        if (xIsArray) {
+            move.emit(masm, AVXSize.YMM, vector, elementAddress(asRegister(xValue), idx));
+            if (yIsArray) {
+                vectorOp.emit(masm, AVXSize.YMM, vector, vector, elementAddress(asRegister(yValue), idx));
+            } else {
+                vectorOp.emit(masm, AVXSize.YMM, vector, vector, broadcast);
+            }
+        } else {
+            vectorOp.emit(masm, AVXSize.YMM, vector, broadcast, elementAddress(asRegister(yValue), idx));
+        }
+        move.emit(masm, AVXSize.YMM, elementAddress(asRegister(dstValue), idx), vector);
+        masm.addl(idx, elementsPerVector);
+        masm.cmpl(idx, end);
+        masm.jcc(ConditionFlag.NotEqual, loop);
+        masm.vzeroupper();
+    }
+
+    private static VexMoveOp getVectorMove(JavaKind kind) {
+        switch (kind) {
+            case Int:
+                return VexMoveOp.VMOVDQU32;
+            case Long:
+                return VexMoveOp.VMOVDQU64;
+            case Float:
+                return VexMoveOp.VMOVUPS;
+            case Double:
+                return VexMoveOp.VMOVUPD;
+            default:
+                throw GraalError.shouldNotReachHere("unsupported element kind " + kind);
+        }
+    }
+
+    private void emitBroadcast(AMD64MacroAssembler masm, Register dst, Register scalar) {
+        switch (kind) {
+            case Int:
+                masm.movdl(dst, scalar);
+                VexRMOp.VPBROADCASTD.emit(masm, AVXSize.YMM, dst, dst);
+                break;
+            case Long:
+                masm.movdq(dst, scalar);
+                VexRMOp.VPBROADCASTQ.emit(masm, AVXSize.YMM, dst, dst);
+                break;
+            case Float:
+                VexRMOp.VBROADCASTSS.emit(masm, AVXSize.YMM, dst, scalar);
+                break;
+            case Double:
+                VexRMOp.VBROADCASTSD.emit(masm, AVXSize.YMM, dst, scalar);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere("unsupported element kind " + kind);
+        }
+    }
+
+    private void emitScalarLoop(AMD64MacroAssembler masm, Register idx, Register to) {
+        Register temp = asRegister(scalarTemp);
+        Label loop = new Label();
+        masm.bind(loop);
+        if (kind.isNumericInteger()) {
+            OperandSize size = kind == JavaKind.Long ? QWORD : DWORD;
+            if (xIsArray) {
+                AMD64RMOp.MOV.emit(masm, size, temp, elementAddress(asRegister(xValue), idx));
+            } else {
+                AMD64RMOp.MOV.emit(masm, size, temp, asRegister(xValue));
+            }
+            AMD64RMOp arithmetic = getScalarIntegerOp(op, size);
+            if (yIsArray) {
+                arithmetic.emit(masm, size, temp, elementAddress(asRegister(yValue), idx));
+            } else {
+                arithmetic.emit(masm, size, temp, asRegister(yValue));
+            }
+            if (size == QWORD) {
+                masm.movq(elementAddress(asRegister(dstValue), idx), temp);
+            } else {
+                masm.movl(elementAddress(asRegister(dstValue), idx), temp);
+            }
+        } else {
+            OperandSize size = kind == JavaKind.Double ? SD : SS;
+            if (xIsArray) {
+                emitFloatMove(masm, temp, elementAddress(asRegister(xValue), idx));
+            } else {
+                emitFloatMove(masm, temp, asRegister(xValue));
+            }
+            SSEOp arithmetic = getScalarFloatOp(op);
+            if (yIsArray) {
+                arithmetic.emit(masm, size, temp, elementAddress(asRegister(yValue), idx));
+            } else {
+                arithmetic.emit(masm, size, temp, asRegister(yValue));
+            }
+            if (size == SD) {
+                masm.movdbl(elementAddress(asRegister(dstValue), idx), temp);
+            } else {
+                masm.movflt(elementAddress(asRegister(dstValue), idx), temp);
+            }
+        }
+        masm.incl(idx);
+        masm.cmpl(idx, to);
+        masm.jcc(ConditionFlag.Less, loop);
+    }
+
+    private void emitFloatMove(AMD64MacroAssembler masm, Register dst, AMD64Address src) {
+        if (kind == JavaKind.Double) {
+            masm.movdbl(dst, src);
+        } else {
+            masm.movflt(dst, src);
+        }
+    }
+
+    private void emitFloatMove(AMD64MacroAssembler masm, Register dst, Register src) {
+        if (kind == JavaKind.Double) {
+            masm.movdbl(dst, src);
+        } else {
+            masm.movflt(dst, src);
+        }
+    }
+
+    private static AMD64RMOp getScalarIntegerOp(ElementwiseOperation op, OperandSize size) {
+        switch (op) {
+            case ADD:
+                return AMD64BinaryArithmetic.ADD.getRMOpcode(size);
+            case SUB:
+                return AMD64BinaryArithmetic.SUB.getRMOpcode(size);
+            case MUL:
+                return AMD64RMOp.IMUL;
+            case AND:
+                return AMD64BinaryArithmetic.AND.getRMOpcode(size);
+            case OR:
+                return AMD64BinaryArithmetic.OR.getRMOpcode(size);
+            case XOR:
+                return AMD64BinaryArithmetic.XOR.getRMOpcode(size);
+            default:
+                throw GraalError.shouldNotReachHere("unsupported integer operation " + op);
+        }
+    }
+
+    private static SSEOp getScalarFloatOp(ElementwiseOperation op) {
+        switch (op) {
+            case ADD:
+                return SSEOp.ADD;
+            case SUB:
+                return SSEOp.SUB;
+            case MUL:
+                return SSEOp.MUL;
+            case DIV:
+                return SSEOp.DIV;
+            default:
+                throw GraalError.shouldNotReachHere("unsupported floating point operation " + op);
+        }
+    }
+}
@@ -0,0 +1,768 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.alloc.local;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static jdk.vm.ci.code.ValueUtil.isRegister;
+import static org.graalvm.compiler.lir.LIRValueUtil.asConstant;
+import static org.graalvm.compiler.lir.LIRValueUtil.asVariable;
+import static org.graalvm.compiler.lir.LIRValueUtil.isConstantValue;
+import static org.graalvm.compiler.lir.LIRValueUtil.isStackSlotValue;
+import static org.graalvm.compiler.lir.LIRValueUtil.isVariable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+
+import org.graalvm.compiler.core.common.alloc.RegisterAllocationConfig;
+import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
+import org.graalvm.compiler.lir.InstructionValueConsumer;
+import org.graalvm.compiler.lir.InstructionValueProcedure;
+import org.graalvm.compiler.lir.LIR;
+import org.graalvm.compiler.lir.LIRInstruction;
+import org.graalvm.compiler.lir.LIRInstruction.OperandFlag;
+import org.graalvm.compiler.lir.LIRInstruction.OperandMode;
+import org.graalvm.compiler.lir.StandardOp.BlockEndOp;
+import org.graalvm.compiler.lir.StandardOp.JumpOp;
+import org.graalvm.compiler.lir.StandardOp.LabelOp;
+import org.graalvm.compiler.lir.StandardOp.LoadConstantOp;
+import org.graalvm.compiler.lir.StandardOp.ValueMoveOp;
+import org.graalvm.compiler.lir.Variable;
+import org.graalvm.compiler.lir.framemap.FrameMapBuilder;
+import org.graalvm.compiler.lir.gen.LIRGenerationResult;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool.MoveFactory;
+
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.AllocatableValue;
+import jdk.vm.ci.meta.Constant;
+import jdk.vm.ci.meta.PlatformKind;
+import jdk.vm.ci.meta.Value;
+import jdk.vm.ci.meta.ValueKind;
+
+/**
+ * A register allocator that makes a single forward pass over each basic block.
+ * <p>
+ * Variables that are used outside of the block that defines them, including all phis, live in a
+ * home stack slot. Within a block, variables are loaded into a register on demand and stay cached
+ * there until the register is needed for something else. Variables that never leave their
+ * defining block are only written to a stack slot if their register is taken away while they are
+ * still live, either by another value, a fixed register operand or a call. Phis are resolved with
+ * stack moves in front of each {@link JumpOp}.
+ * <p>
+ * The first pass decides all locations and spill moves without modifying the LIR, so that the
+ * caller can fall back to another allocator if an instruction needs more registers than are
+ * available. Stack slots are only allocated from the frame map and moves are only created by the
+ * second pass, which rewrites the instructions.
+ */
+final class LocalRegisterAllocator {
+
+    /**
+     * Thrown if an instruction cannot be satisfied with the available registers.
+     */
+    @SuppressWarnings("serial")
+    private static final class BailoutException extends RuntimeException {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    /**
+     * A stack slot that is allocated from the frame map when the plan is applied.
+     */
+    private static final class PlannedSlot extends AllocatableValue {
+        private AllocatableValue slot;
+
+        PlannedSlot(ValueKind<?> kind) {
+            super(kind);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return this == obj;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+
+        @Override
+        public String toString() {
+            return "planned slot" + getKindSuffix();
+        }
+    }
+
+    /**
+     * A move decided by the first pass.
+     */
+    private static final class Move {
+        private final AllocatableValue result;
+        private final Value input;
+
+        Move(AllocatableValue result, Value input) {
+            this.result = result;
+            this.input = input;
+        }
+    }
+
+    /**
+     * The locations and spill moves decided for a single instruction.
+     */
+    private static final class Plan implements InstructionValueProcedure {
+        private ArrayList<Move> before;
+        private ArrayList<Move> after;
+        private final ArrayList<Value> locations = new ArrayList<>();
+        private int position;
+
+        @Override
+        public Value doValue(LIRInstruction instruction, Value value, OperandMode mode, EnumSet<OperandFlag> flags) {
+            if (isVariable(value)) {
+                return locations.get(position++);
+            }
+            return value;
+        }
+    }
+
+    private final LIR lir;
+    private final FrameMapBuilder frameMapBuilder;
+    private final MoveFactory moveFactory;
+    private final RegisterAllocationConfig registerAllocationConfig;
+
+    /**
+     * Home stack slots of variables, allocated on demand.
+     */
+    private final PlannedSlot[] slots;
+    /**
+     * The id of the block that defines a variable.
+     */
+    private final int[] definingBlock;
+    /**
+     * Variables that are live outside of their defining block.
+     */
+    private final BitSet global = new BitSet();
+    /**
+     * Variables whose home stack slot holds their current value.
+     */
+    private final BitSet stored = new BitSet();
+    /**
+     * The register that caches a variable, or {@code null}.
+     */
+    private final Register[] location;
+    /**
+     * The variable cached in a register, indexed by register number.
+     */
+    private final Variable[] occupant;
+    private final int[] lastUse;
+    private final int[] lastUseBlock;
+    private final BitSet callerSaved = new BitSet();
+
+    /**
+     * Fixed registers that are live at the entry of a block, indexed by block id.
+     */
+    private final BitSet[] fixedLiveIn;
+    private final Plan[][] plans;
+
+    /*
+     * State of the instruction that is currently planned.
+     */
+    private int currentBlock;
+    private int currentIndex;
+    private Plan currentPlan;
+    private final BitSet excluded = new BitSet();
+    private final BitSet pinned = new BitSet();
+    /**
+     * Whether an operand of the current instruction that could also be a register was assigned a
+     * stack slot. Instructions accept at most one such memory operand.
+     */
+    private boolean stackOperand;
+    private final ArrayList<Variable> pendingVariables = new ArrayList<>();
+    private final ArrayList<Register> pendingRegisters = new ArrayList<>();
+
+    LocalRegisterAllocator(LIRGenerationResult lirGenRes, MoveFactory moveFactory, RegisterAllocationConfig registerAllocationConfig) {
+        this.lir = lirGenRes.getLIR();
+        this.frameMapBuilder = lirGenRes.getFrameMapBuilder();
+        this.moveFactory = moveFactory;
+        this.registerAllocationConfig = registerAllocationConfig;
+
+        int numVariables = lir.numVariables();
+        this.slots = new PlannedSlot[numVariables];
+        this.definingBlock = new int[numVariables];
+        Arrays.fill(definingBlock, -1);
+        this.location = new Register[numVariables];
+        this.lastUse = new int[numVariables];
+        this.lastUseBlock = new int[numVariables];
+        Arrays.fill(lastUseBlock, -1);
+
+        int maxRegisterNumber = 0;
+        for (Register register : registerAllocationConfig.getAllocatableRegisters()) {
+            maxRegisterNumber = Math.max(maxRegisterNumber, register.number);
+        }
+        this.occupant = new Variable[maxRegisterNumber + 1];
+        for (Register register : registerAllocationConfig.getRegisterConfig().getCallerSaveRegisters()) {
+            callerSaved.set(register.number);
+        }
+
+        int numBlocks = lir.getControlFlowGraph().getBlocks().length;
+        this.fixedLiveIn = new BitSet[numBlocks];
+        this.plans = new Plan[numBlocks][];
+    }
+
+    /**
+     * Allocates registers for all variables of the LIR.
+     *
+     * @return {@code false} if the allocation failed, in which case the LIR was not modified
+     */
+    boolean allocate() {
+        AbstractBlockBase<?>[] blocks = lir.linearScanOrder();
+        try {
+            for (AbstractBlockBase<?> block : blocks) {
+                analyzeDefinitions(block);
+            }
+            for (AbstractBlockBase<?> block : blocks) {
+                analyzeUses(block);
+            }
+            for (AbstractBlockBase<?> block : blocks) {
+                planBlock(block);
+            }
+        } catch (BailoutException e) {
+            return false;
+        }
+        for (AbstractBlockBase<?> block : blocks) {
+            rewriteBlock(block);
+        }
+        return true;
+    }
+
+    private BailoutException bailout() {
+        return new BailoutException();
+    }
+
+    /**
+     * Records the defining block of each variable and computes the fixed registers that are live
+     * at the entry of the block.
+     */
+    private void analyzeDefinitions(AbstractBlockBase<?> block) {
+        int blockId = block.getId();
+        ArrayList<LIRInstruction> instructions = lir.getLIRforBlock(block);
+        LabelOp label = (LabelOp) instructions.get(0);
+        for (int i = 0; i < label.getIncomingSize(); i++) {
+            Value incoming = label.getIncomingValue(i);
+            if (isVariable(incoming)) {
+                if (i >= label.getPhiSize()) {
+                    // only phis can be resolved with stack moves
+                    throw bailout();
+                }
+                // the predecessors move the value of the phi into its home slot
+                global.set(asVariable(incoming).index);
+                stored.set(asVariable(incoming).index);
+            }
+        }
+
+        BitSet live = new BitSet();
+        InstructionValueConsumer defConsumer = (op, value, mode, flags) -> {
+            if (isVariable(value)) {
+                definingBlock[asVariable(value).index] = blockId;
+            } else if (isRegister(value)) {
+                live.clear(asRegister(value).number);
+            }
+        };
+        InstructionValueConsumer useConsumer = (op, value, mode, flags) -> {
+            if (isRegister(value)) {
+                live.set(asRegister(value).number);
+            }
+        };
+        for (int i = instructions.size() - 1; i >= 0; i--) {
+            LIRInstruction op = instructions.get(i);
+            op.visitEachOutput(defConsumer);
+            op.visitEachTemp(defConsumer);
+            op.visitEachInput(useConsumer);
+            op.visitEachAlive(useConsumer);
+        }
+        fixedLiveIn[blockId] = live;
+    }
+
+    /**
+     * Marks variables that are used outside of their defining block or flow into a phi.
+     */
+    private void analyzeUses(AbstractBlockBase<?> block) {
+        int blockId = block.getId();
+        InstructionValueConsumer useConsumer = (op, value, mode, flags) -> {
+            if (isVariable(value)) {
+                int index = asVariable(value).index;
+                if (definingBlock[index] != blockId || flags.contains(OperandFlag.OUTGOING)) {
+                    global.set(index);
+                }
+            }
+        };
+        for (LIRInstruction op : lir.getLIRforBlock(block)) {
+            op.visitEachInput(useConsumer);
+            op.visitEachAlive(useConsumer);
+            op.visitEachState(useConsumer);
+        }
+    }
+
+    private void planBlock(AbstractBlockBase<?> block) {
+        int blockId = block.getId();
+        ArrayList<LIRInstruction> instructions = lir.getLIRforBlock(block);
+        int size = instructions.size();
+        currentBlock = blockId;
+
+        // fixed registers that are live between instructions
+        BitSet[] fixedLive = new BitSet[size + 1];
+        BitSet live = new BitSet();
+        for (AbstractBlockBase<?> successor : block.getSuccessors()) {
+            live.or(fixedLiveIn[successor.getId()]);
+        }
+        fixedLive[size] = live.isEmpty() ? null : (BitSet) live.clone();
+        InstructionValueConsumer killConsumer = (op, value, mode, flags) -> {
+            if (isRegister(value)) {
+                live.clear(asRegister(value).number);
+            }
+        };
+        InstructionValueConsumer genConsumer = (op, value, mode, flags) -> {
+            if (isRegister(value)) {
+                live.set(asRegister(value).number);
+            }
+        };
+        for (int i = size - 1; i >= 0; i--) {
+            LIRInstruction op = instructions.get(i);
+            op.visitEachOutput(killConsumer);
+            op.visitEachTemp(killConsumer);
+            op.visitEachInput(genConsumer);
+            op.visitEachAlive(genConsumer);
+            fixedLive[i] = live.isEmpty() ? null : (BitSet) live.clone();
+        }
+
+        // last use of each variable in this block
+        for (int i = 0; i < size; i++) {
+            int index = i;
+            InstructionValueConsumer lastUseConsumer = (op, value, mode, flags) -> {
+                if (isVariable(value)) {
+                    lastUse[asVariable(value).index] = index;
+                    lastUseBlock[asVariable(value).index] = blockId;
+                }
+            };
+            LIRInstruction op = instructions.get(i);
+            op.visitEachInput(lastUseConsumer);
+            op.visitEachAlive(lastUseConsumer);
+            op.visitEachState(lastUseConsumer);
+        }
+
+        Plan[] blockPlans = new Plan[size];
+        // the label is handled by the predecessors
+        for (int i = 1; i < size; i++) {
+            currentIndex = i;
+            currentPlan = null;
+            planInstruction(instructions.get(i), fixedLive[i], fixedLive[i + 1]);
+            blockPlans[i] = currentPlan;
+        }
+        plans[blockId] = blockPlans;
+
+        // locals are dead and globals are stored at the end of the block
+        for (int number = 0; number < occupant.length; number++) {
+            if (occupant[number] != null) {
+                uncache(number);
+            }
+        }
+    }
+
+    private void planInstruction(LIRInstruction op, BitSet liveBefore, BitSet liveAfter) {
+        excluded.clear();
+        stackOperand = false;
+        if (liveBefore != null) {
+            excluded.or(liveBefore);
+        }
+        if (liveAfter != null) {
+            excluded.or(liveAfter);
+        }
+        op.visitEachInput(fixedConsumer);
+        op.visitEachAlive(fixedConsumer);
+        op.visitEachTemp(fixedConsumer);
+        op.visitEachOutput(fixedConsumer);
+
+        // free the registers that are used by the instruction itself
+        for (int number = excluded.nextSetBit(0); number >= 0 && number < occupant.length; number = excluded.nextSetBit(number + 1)) {
+            if (occupant[number] != null) {
+                evict(number);
+            }
+        }
+        boolean destroysCallerSaved = op.destroysCallerSavedRegisters();
+        if (destroysCallerSaved) {
+            for (int number = callerSaved.nextSetBit(0); number >= 0 && number < occupant.length; number = callerSaved.nextSetBit(number + 1)) {
+                if (occupant[number] != null) {
+                    evict(number);
+                }
+            }
+        }
+
+        if (op instanceof JumpOp) {
+            planPhiMoves((JumpOp) op);
+        }
+        op.visitEachInput(useConsumer);
+        op.visitEachAlive(useConsumer);
+        op.visitEachTemp(tempConsumer);
+        op.visitEachOutput(defConsumer);
+        op.visitEachState(stateConsumer);
+
+        // release the registers of values that die here
+        for (int number = pinned.nextSetBit(0); number >= 0 && number < occupant.length; number = pinned.nextSetBit(number + 1)) {
+            Variable variable = occupant[number];
+            if (variable != null && (lastUse(variable) <= currentIndex || (destroysCallerSaved && callerSaved.get(number)))) {
+                uncache(number);
+            }
+        }
+        pinned.clear();
+        for (int i = 0; i < pendingVariables.size(); i++) {
+            cache(pendingVariables.get(i), pendingRegisters.get(i));
+        }
+        pendingVariables.clear();
+        pendingRegisters.clear();
+    }
+
+    private final InstructionValueConsumer fixedConsumer = this::fixedValue;
+
+    @SuppressWarnings("unused")
+    private void fixedValue(LIRInstruction op, Value value, OperandMode mode, EnumSet<OperandFlag> flags) {
+        if (isRegister(value)) {
+            excluded.set(asRegister(value).number);
+        }
+    }
+
+    private final InstructionValueConsumer useConsumer = this::useValue;
+
+    @SuppressWarnings("unused")
+    private void useValue(LIRInstruction op, Value value, OperandMode mode, EnumSet<OperandFlag> flags) {
+        if (!isVariable(value) || flags.contains(OperandFlag.OUTGOING)) {
+            // outgoing values are handled by planPhiMoves
+            return;
+        }
+        Variable variable = asVariable(value);
+        Register register = location[variable.index];
+        if (register == null) {
+            if (flags.contains(OperandFlag.STACK) && (!flags.contains(OperandFlag.REG) || !stackOperand)) {
+                assert stored.get(variable.index) : "value of " + variable + " is lost";
+                stackOperand |= flags.contains(OperandFlag.REG);
+                record(slot(variable));
+                return;
+            }
+            register = allocateRegister(variable.getPlatformKind());
+            before(register.asValue(variable.getValueKind()), slot(variable));
+            cache(variable, register);
+        }
+        pinned.set(register.number);
+        record(register.asValue(variable.getValueKind()));
+    }
+
+    private final InstructionValueConsumer tempConsumer = this::tempValue;
+
+    @SuppressWarnings("unused")
+    private void tempValue(LIRInstruction op, Value value, OperandMode mode, EnumSet<OperandFlag> flags) {
+        if (isVariable(value)) {
+            if (flags.contains(OperandFlag.REG)) {
+                Register register = allocateRegister(value.getPlatformKind());
+                pinned.set(register.number);
+                record(register.asValue(value.getValueKind()));
+            } else {
+                record(new PlannedSlot(value.getValueKind()));
+            }
+        }
+    }
+
+    private final InstructionValueConsumer defConsumer = this::defValue;
+
+    @SuppressWarnings("unused")
+    private void defValue(LIRInstruction op, Value value, OperandMode mode, EnumSet<OperandFlag> flags) {
+        if (!isVariable(value)) {
+            return;
+        }
+        Variable variable = asVariable(value);
+        boolean isGlobal = global.get(variable.index);
+        if (flags.contains(OperandFlag.STACK) && (!flags.contains(OperandFlag.REG) || (isGlobal && !stackOperand && canDefineOnStack(op)))) {
+            stored.set(variable.index);
+            record(slot(variable));
+            return;
+        }
+        Register register = allocateRegister(variable.getPlatformKind());
+        pinned.set(register.number);
+        Value registerValue = register.asValue(variable.getValueKind());
+        if (isGlobal) {
+            if (op instanceof BlockEndOp) {
+                // there is no place for the spill move
+                throw bailout();
+            }
+            after(slot(variable), registerValue);
+            stored.set(variable.index);
+        }
+        if (lastUse(variable) > currentIndex) {
+            pendingVariables.add(variable);
+            pendingRegisters.add(register);
+        }
+        record(registerValue);
+    }
+
+    /**
+     * Determines if a result of {@code op} that may be a register or a stack slot can be a stack
+     * slot. Some constants, such as uncompressed object constants, can only be loaded into a
+     * register even though the load declares a stack result.
+     */
+    private boolean canDefineOnStack(LIRInstruction op) {
+        return !LoadConstantOp.isLoadConstantOp(op) || moveFactory.allowConstantToStackMove(LoadConstantOp.asLoadConstantOp(op).getConstant());
+    }
+
+    private final InstructionValueConsumer stateConsumer = this::stateValue;
+
+    @SuppressWarnings("unused")
+    private void stateValue(LIRInstruction op, Value value, OperandMode mode, EnumSet<OperandFlag> flags) {
+        if (isVariable(value)) {
+            Variable variable = asVariable(value);
+            if (!stored.get(variable.index)) {
+                Register register = location[variable.index];
+                assert register != null : "value of " + variable + " is lost";
+                before(slot(variable), register.asValue(variable.getValueKind()));
+                stored.set(variable.index);
+            }
+            record(slot(variable));
+        }
+    }
+
+    /**
+     * Moves the outgoing values of {@code jump} into the home slots of the phis of its
+     * destination. All values involved are in stack slots, so only slots that are overwritten
+     * before they are read need to be copied to a temporary slot.
+     */
+    private void planPhiMoves(JumpOp jump) {
+        int phiSize = jump.getPhiSize();
+        if (phiSize == 0) {
+            return;
+        }
+        LabelOp label = (LabelOp) lir.getLIRforBlock(jump.destination().getTargetBlock()).get(0);
+        assert label.getPhiSize() == phiSize : "phi size mismatch " + label + " " + jump;
+        Value[] sources = new Value[phiSize];
+        AllocatableValue[] destinations = new AllocatableValue[phiSize];
+        for (int i = 0; i < phiSize; i++) {
+            destinations[i] = slot(asVariable(label.getIncomingValue(i)));
+            Value outgoing = jump.getOutgoingValue(i);
+            sources[i] = isVariable(outgoing) ? slot(asVariable(outgoing)) : outgoing;
+        }
+        for (int i = 0; i < phiSize; i++) {
+            if (sources[i] instanceof PlannedSlot && !sources[i].equals(destinations[i])) {
+                for (int j = 0; j < phiSize; j++) {
+                    if (j != i && destinations[j].equals(sources[i])) {
+                        AllocatableValue temporary = new PlannedSlot(sources[i].getValueKind());
+                        before(temporary, sources[i]);
+                        sources[i] = temporary;
+                        break;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < phiSize; i++) {
+            Value source = sources[i];
+            AllocatableValue destination = destinations[i];
+            if (source.equals(destination)) {
+                continue;
+            }
+            if (isConstantValue(source) && !moveFactory.allowConstantToStackMove(asConstant(source))) {
+                AllocatableValue register = allocateRegister(destination.getPlatformKind()).asValue(destination.getValueKind());
+                before(register, source);
+                before(destination, register);
+            } else {
+                before(destination, source);
+            }
+        }
+    }
+
+    /**
+     * Finds a register for a value of {@code kind} that is neither used by the current instruction
+     * nor holding a fixed register value. If all candidates are occupied, the variable with the
+     * most distant last use is evicted.
+     */
+    private Register allocateRegister(PlatformKind kind) {
+        Register victim = null;
+        for (Register register : registerAllocationConfig.getAllocatableRegisters(kind).allocatableRegisters) {
+            int number = register.number;
+            if (excluded.get(number) || pinned.get(number)) {
+                continue;
+            }
+            Variable variable = occupant[number];
+            if (variable == null) {
+                return register;
+            }
+            if (victim == null || lastUse(variable) > lastUse(occupant[victim.number])) {
+                victim = register;
+            }
+        }
+        if (victim == null) {
+            throw bailout();
+        }
+        evict(victim.number);
+        return victim;
+    }
+
+    private int lastUse(Variable variable) {
+        return lastUseBlock[variable.index] == currentBlock ? lastUse[variable.index] : -1;
+    }
+
+    private AllocatableValue slot(Variable variable) {
+        PlannedSlot slot = slots[variable.index];
+        if (slot == null) {
+            slot = new PlannedSlot(variable.getValueKind());
+            slots[variable.index] = slot;
+        }
+        return slot;
+    }
+
+    private void cache(Variable variable, Register register) {
+        location[variable.index] = register;
+        occupant[register.number] = variable;
+    }
+
+    private void uncache(int number) {
+        location[occupant[number].index] = null;
+        occupant[number] = null;
+    }
+
+    /**
+     * Frees a register, spilling its variable if the value would otherwise be lost.
+     */
+    private void evict(int number) {
+        Variable variable = occupant[number];
+        if (!stored.get(variable.index) && lastUse(variable) >= currentIndex) {
+            before(slot(variable), location[variable.index].asValue(variable.getValueKind()));
+            stored.set(variable.index);
+        }
+        uncache(number);
+    }
+
+    private Plan plan() {
+        if (currentPlan == null) {
+            currentPlan = new Plan();
+        }
+        return currentPlan;
+    }
+
+    private void record(Value value) {
+        plan().locations.add(value);
+    }
+
+    private void before(AllocatableValue result, Value input) {
+        Plan plan = plan();
+        if (plan.before == null) {
+            plan.before = new ArrayList<>(2);
+        }
+        plan.before.add(new Move(result, input));
+    }
+
+    private void after(AllocatableValue result, Value input) {
+        Plan plan = plan();
+        if (plan.after == null) {
+            plan.after = new ArrayList<>(2);
+        }
+        plan.after.add(new Move(result, input));
+    }
+
+    private void rewriteBlock(AbstractBlockBase<?> block) {
+        ArrayList<LIRInstruction> instructions = lir.getLIRforBlock(block);
+        Plan[] blockPlans = plans[block.getId()];
+        LabelOp label = (LabelOp) instructions.get(0);
+        if (label.isPhiIn()) {
+            label.clearIncomingValues();
+        }
+        ArrayList<LIRInstruction> result = new ArrayList<>(instructions.size() * 2);
+        result.add(label);
+        for (int i = 1; i < instructions.size(); i++) {
+            LIRInstruction op = instructions.get(i);
+            if (op instanceof JumpOp) {
+                ((JumpOp) op).clearOutgoingValues();
+            }
+            Plan plan = blockPlans[i];
+            if (plan == null) {
+                result.add(op);
+                continue;
+            }
+            if (plan.before != null) {
+                addMoves(result, plan.before);
+            }
+            if (!plan.locations.isEmpty()) {
+                for (int j = 0; j < plan.locations.size(); j++) {
+                    plan.locations.set(j, resolve(plan.locations.get(j)));
+                }
+                op.forEachInput(plan);
+                op.forEachAlive(plan);
+                op.forEachTemp(plan);
+                op.forEachOutput(plan);
+                op.forEachState(plan);
+                assert plan.position == plan.locations.size() : "not all locations assigned for " + op;
+            }
+            if (!isRedundantMove(op)) {
+                result.add(op);
+            }
+            if (plan.after != null) {
+                addMoves(result, plan.after);
+            }
+        }
+        instructions.clear();
+        instructions.addAll(result);
+    }
+
+    /**
+     * Allocates the frame slot of a {@link PlannedSlot}.
+     */
+    private Value resolve(Value value) {
+        if (value instanceof PlannedSlot) {
+            PlannedSlot planned = (PlannedSlot) value;
+            if (planned.slot == null) {
+                planned.slot = frameMapBuilder.allocateSpillSlot(planned.getValueKind());
+            }
+            return planned.slot;
+        }
+        return value;
+    }
+
+    private void addMoves(ArrayList<LIRInstruction> result, ArrayList<Move> moves) {
+        for (Move move : moves) {
+            AllocatableValue to = (AllocatableValue) resolve(move.result);
+            Value from = resolve(move.input);
+            if (isConstantValue(from)) {
+                Constant constant = asConstant(from);
+                result.add(isStackSlotValue(to) ? moveFactory.createStackLoad(to, constant) : moveFactory.createLoad(to, constant));
+            } else if (isStackSlotValue(to) && isStackSlotValue(from)) {
+                result.add(moveFactory.createStackMove(to, (AllocatableValue) from));
+            } else {
+                result.add(moveFactory.createMove(to, from));
+            }
+        }
+    }
+
+    private static boolean isRedundantMove(LIRInstruction op) {
+        if (ValueMoveOp.isValueMoveOp(op)) {
+            ValueMoveOp move = ValueMoveOp.asValueMoveOp(op);
+            return move.getInput().equals(move.getResult());
+        }
+        return false;
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -27,6 +27,7 @@ package org.graalvm.compiler.lir.gen;
 import org.graalvm.compiler.core.common.CompressEncoding;
 import org.graalvm.compiler.core.common.LIRKind;
 import org.graalvm.compiler.core.common.calc.Condition;
+import org.graalvm.compiler.core.common.calc.ElementwiseOperation;
 import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
 import org.graalvm.compiler.core.common.spi.CodeGenProviders;
 import org.graalvm.compiler.core.common.spi.ForeignCallLinkage;
@@ -314,6 +315,36 @@ public interface LIRGeneratorTool extends DiagnosticLIRGeneratorTool, ValueKindF
         throw GraalError.unimplemented("StringUTF16.compress substitution is not implemented on this architecture");
     }
 
+    /**
+     * Emits {@code dst[i] = x[i] op y[i]} for all {@code i} in {@code [fromIndex, toIndex)}. Either
+     * {@code x} or {@code y}, but not both, may be a scalar of kind {@code kind} instead of an
+     * array, in which case it is used for every element. The index range must already be known to
+     * be within the bounds of all arrays.
+     */
+    @SuppressWarnings("unused")
+    default void emitElementwiseArrayOp(ElementwiseOperation op, JavaKind kind, Value dst, Value x, Value y, Value fromIndex, Value toIndex) {
+        throw GraalError.unimplemented("Loop vectorization is not implemented on this architecture");
+    }
+
+    /**
+     * Emits {@code array[i] = value} for all {@code i} in {@code [fromIndex, toIndex)}. Float and
+     * double values are passed as their raw {@code int} and {@code long} bits. The index range must
+     * already be known to be within the bounds of the array.
+     */
+    @SuppressWarnings("unused")
+    default void emitArrayFill(JavaKind kind, Value array, Value fromIndex, Value toIndex, Value value) {
+        throw GraalError.unimplemented("Arrays.fill substitution is not implemented on this architecture");
+    }
+
+    /**
+     * Emits the computation of {@link java.util.Arrays#hashCode(int[])} over the first
+     * {@code length} elements of a non-null array of kind {@code kind}.
+     */
+    @SuppressWarnings("unused")
+    default Variable emitArrayHashCode(JavaKind kind, Value array, Value length) {
+        throw GraalError.unimplemented("Arrays.hashCode substitution is not implemented on this architecture");
+    }
+
     void emitBlackhole(Value operand);
 
     LIRKind getLIRKind(Stamp stamp);
@@ -24,6 +24,7 @@
  */
 package org.graalvm.compiler.lir.phases;
 
+import org.graalvm.compiler.lir.alloc.local.LocalRegisterAllocationPhase;
 import org.graalvm.compiler.lir.alloc.lsra.LinearScanPhase;
 import org.graalvm.compiler.lir.dfa.LocationMarkerPhase;
 import org.graalvm.compiler.lir.dfa.MarkBasePointersPhase;
@@ -32,10 +33,14 @@ import org.graalvm.compiler.lir.stackslotalloc.SimpleStackSlotAllocator;
 import org.graalvm.compiler.options.OptionValues;
 
 public class EconomyAllocationStage extends LIRPhaseSuite<AllocationContext> {
-    public EconomyAllocationStage(@SuppressWarnings("unused") OptionValues options) {
+    public EconomyAllocationStage(OptionValues options) {
         appendPhase(new MarkBasePointersPhase());
 
-        appendPhase(new LinearScanPhase());
+        if (LocalRegisterAllocationPhase.Options.LIREconomyLocalRegisterAllocation.getValue(options)) {
+            appendPhase(new LocalRegisterAllocationPhase());
+        } else {
+            appendPhase(new LinearScanPhase());
+        }
 
         // build frame map
         appendPhase(new SimpleStackSlotAllocator());
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -26,6 +26,7 @@ package org.graalvm.compiler.lir.phases;
 
 import java.util.regex.Pattern;
 
+import org.graalvm.compiler.core.common.util.PhaseProfiler;
 import org.graalvm.compiler.debug.DebugCloseable;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.MemUseTrackerKey;
@@ -114,7 +115,12 @@ public abstract class LIRPhase<C> {
         DebugContext debug = lirGenRes.getLIR().getDebug();
         try (DebugContext.Scope s = debug.scope(getName(), this)) {
             try (DebugCloseable a = timer.start(debug); DebugCloseable c = memUseTracker.start(debug)) {
+                PhaseProfiler profiler = PhaseProfiler.current();
+                int profiledPhase = profiler == null ? 0 : profiler.enterPhase(getName(), PhaseProfiler.NO_GRAPH);
                 run(target, lirGenRes, context);
+                if (profiler != null) {
+                    profiler.exitPhase(profiledPhase, PhaseProfiler.NO_GRAPH);
+                }
                 if (dumpLIR && debug.areScopesEnabled()) {
                     dumpAfter(lirGenRes);
                 }
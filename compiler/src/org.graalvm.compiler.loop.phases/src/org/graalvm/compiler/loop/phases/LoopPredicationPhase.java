@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.phases;
+
+import static org.graalvm.compiler.nodes.extended.BranchProbabilityNode.LIKELY_PROBABILITY;
+import static org.graalvm.compiler.nodes.extended.BranchProbabilityNode.NOT_LIKELY_PROBABILITY;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.Equivalence;
+import org.graalvm.compiler.core.common.type.IntegerStamp;
+import org.graalvm.compiler.core.common.type.Stamp;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugCloseable;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.loop.BasicInductionVariable;
+import org.graalvm.compiler.loop.CountedLoopInfo;
+import org.graalvm.compiler.loop.DerivedOffsetInductionVariable;
+import org.graalvm.compiler.loop.DerivedScaledInductionVariable;
+import org.graalvm.compiler.loop.InductionVariable;
+import org.graalvm.compiler.loop.InductionVariable.Direction;
+import org.graalvm.compiler.loop.LoopEx;
+import org.graalvm.compiler.loop.LoopsData;
+import org.graalvm.compiler.nodes.AbstractBeginNode;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.GuardNode;
+import org.graalvm.compiler.nodes.LogicNegationNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.LoopEndNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.IntegerBelowNode;
+import org.graalvm.compiler.nodes.calc.IsNullNode;
+import org.graalvm.compiler.nodes.calc.MulNode;
+import org.graalvm.compiler.nodes.calc.SignExtendNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.calc.ZeroExtendNode;
+import org.graalvm.compiler.nodes.cfg.Block;
+import org.graalvm.compiler.nodes.cfg.ControlFlowGraph;
+import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.nodes.util.GraphUtil;
+import org.graalvm.compiler.nodes.util.IntegerHelper;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.serviceprovider.SpeculationReasonGroup;
+
+import jdk.vm.ci.meta.DeoptimizationAction;
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.SpeculationLog;
+import jdk.vm.ci.meta.SpeculationLog.Speculation;
+import jdk.vm.ci.meta.SpeculationLog.SpeculationReason;
+
+/**
+ * Replaces null checks on loop invariant values and array bounds checks on induction variables
+ * inside counted loops by a single check in front of the loop.
+ *
+ * A bounds check {@code index |<| length} with a loop invariant {@code length} and an
+ * {@code index} that is an affine function of the loop counter is executed for every value the
+ * index takes while the loop runs. Because these values are monotonic, it is sufficient to check
+ * the first and the last of them before the loop is entered. The endpoints are computed in 64-bit
+ * arithmetic, so an index expression that would wrap around in 32 bits is never mistaken for an
+ * in-bounds one.
+ *
+ * The hoisted check fails in some cases where the original code would not have failed, for
+ * example if the loop is left early through another exit. Hoisted guards therefore deoptimize with
+ * {@link DeoptimizationAction#InvalidateRecompile} and carry a speculation that is specific to the
+ * loop, so the next compilation of the method keeps the original per-iteration checks of that loop.
+ *
+ * Null checks are hoisted first: the array length read used by a bounds check is only loop
+ * invariant once the null check guarding it has been moved out of the loop.
+ */
+public class LoopPredicationPhase extends BasePhase<CoreProviders> {
+
+    private static final SpeculationReasonGroup LOOP_PREDICATION = new SpeculationReasonGroup("LoopPredication", ResolvedJavaMethod.class, int.class);
+
+    private static final CounterKey HOISTED_NULL_CHECKS = DebugContext.counter("LoopPredication_HoistedNullChecks");
+    private static final CounterKey HOISTED_BOUNDS_CHECKS = DebugContext.counter("LoopPredication_HoistedBoundsChecks");
+
+    /**
+     * The largest number of bits a value of an induction variable may need in two's complement
+     * representation for its endpoints to be computed exactly in 64-bit arithmetic.
+     */
+    private static final int MAX_VALUE_BITS = 64;
+
+    @Override
+    protected void run(StructuredGraph graph, CoreProviders context) {
+        if (!graph.hasLoops() || !graph.getGuardsStage().allowsFloatingGuards() || graph.getSpeculationLog() == null) {
+            return;
+        }
+        hoistGuards(graph, false);
+        hoistGuards(graph, true);
+    }
+
+    @SuppressWarnings("try")
+    private static void hoistGuards(StructuredGraph graph, boolean boundsChecks) {
+        LoopsData data = new LoopsData(graph);
+        data.detectedCountedLoops();
+        ControlFlowGraph cfg = data.getCFG();
+        EconomicMap<LoopEx, Speculation> speculations = EconomicMap.create(Equivalence.IDENTITY);
+        for (GuardNode guard : graph.getNodes(GuardNode.TYPE).snapshot()) {
+            if (guard.isDeleted()) {
+                continue;
+            }
+            LoopEx loop = countedLoopExecuting(data, cfg, guard);
+            if (loop == null) {
+                continue;
+            }
+            InductionVariable index = null;
+            if (boundsChecks) {
+                index = boundsCheckedInductionVariable(loop, guard);
+                if (index == null) {
+                    continue;
+                }
+            } else if (!isInvariantNullCheck(loop, guard)) {
+                continue;
+            }
+            Speculation speculation = speculations.get(loop);
+            if (speculation == null) {
+                speculation = speculate(graph, loop);
+                if (speculation == null) {
+                    continue;
+                }
+                speculations.put(loop, speculation);
+            }
+            try (DebugCloseable position = loop.loopBegin().withNodeSourcePosition()) {
+                LogicNode condition;
+                boolean negated;
+                if (boundsChecks) {
+                    condition = boundsCheckPredicate(loop, index, ((IntegerBelowNode) guard.getCondition()).getY());
+                    negated = false;
+                    HOISTED_BOUNDS_CHECKS.increment(graph.getDebug());
+                } else {
+                    /*
+                     * The value is required to be non-null even if the loop is not entered, so that
+                     * the stamp the guard proves for it holds wherever the guard is scheduled.
+                     */
+                    condition = guard.getCondition();
+                    negated = guard.isNegated();
+                    HOISTED_NULL_CHECKS.increment(graph.getDebug());
+                }
+                GuardNode hoisted = graph.unique(new GuardNode(condition, AbstractBeginNode.prevBegin(loop.entryPoint()), guard.getReason(), DeoptimizationAction.InvalidateRecompile, negated,
+                                speculation, null));
+                guard.replaceAtUsages(hoisted);
+                GraphUtil.killWithUnusedFloatingInputs(guard, true);
+            }
+        }
+        data.deleteUnusedNodes();
+    }
+
+    /**
+     * Returns the innermost loop containing {@code guard} if it is counted and {@code guard} is
+     * executed exactly once in each of its iterations, before the back edge is taken.
+     */
+    private static LoopEx countedLoopExecuting(LoopsData data, ControlFlowGraph cfg, GuardNode guard) {
+        Block block = cfg.blockFor(guard.getAnchor().asNode());
+        if (block == null || block.getLoop() == null) {
+            return null;
+        }
+        LoopEx loop = data.loop(block.getLoop());
+        if (loop == null || !loop.isCounted()) {
+            return null;
+        }
+        CountedLoopInfo counted = loop.counted();
+        if (counted.isUnsignedCheck() || counted.getDirection() == null) {
+            return null;
+        }
+        if (!dominates(cfg.blockFor(counted.getBody()), block)) {
+            // the guard is also executed for the value of the counter that exits the loop
+            return null;
+        }
+        for (LoopEndNode loopEnd : loop.loopBegin().loopEnds()) {
+            if (!dominates(block, cfg.blockFor(loopEnd))) {
+                return null;
+            }
+        }
+        return loop;
+    }
+
+    private static boolean dominates(Block dominator, Block block) {
+        for (Block b = block; b != null; b = b.getDominator()) {
+            if (b == dominator) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isInvariantNullCheck(LoopEx loop, GuardNode guard) {
+        if (guard.getReason() != DeoptimizationReason.NullCheckException || !guard.isNegated() || !(guard.getCondition() instanceof IsNullNode)) {
+            return false;
+        }
+        return loop.isOutsideLoop(((IsNullNode) guard.getCondition()).getValue());
+    }
+
+    private static InductionVariable boundsCheckedInductionVariable(LoopEx loop, GuardNode guard) {
+        if (guard.getReason() != DeoptimizationReason.BoundsCheckException || guard.isNegated() || !(guard.getCondition() instanceof IntegerBelowNode)) {
+            return null;
+        }
+        IntegerBelowNode below = (IntegerBelowNode) guard.getCondition();
+        if (!loop.isOutsideLoop(below.getY()) || !is32Bit(below.getY()) || !is32Bit(loop.counted().getCounter().valueNode())) {
+            return null;
+        }
+        InductionVariable iv = loop.getInductionVariables().get(below.getX());
+        if (iv == null || iv.direction() == null || valueBits(loop, iv) > MAX_VALUE_BITS) {
+            return null;
+        }
+        return iv;
+    }
+
+    private static boolean is32Bit(ValueNode value) {
+        Stamp stamp = value.stamp(NodeView.DEFAULT);
+        return stamp instanceof IntegerStamp && ((IntegerStamp) stamp).getBits() == 32;
+    }
+
+    /**
+     * Returns an upper bound for the number of bits the values of {@code iv} need in two's
+     * complement representation, or {@link Integer#MAX_VALUE} if the values of {@code iv} cannot be
+     * bounded. Only the counter of the loop is known to stay within its 32-bit range since its
+     * overflow is guarded against.
+     */
+    private static int valueBits(LoopEx loop, InductionVariable iv) {
+        if (iv instanceof BasicInductionVariable) {
+            return iv == loop.counted().getCounter() ? 32 : Integer.MAX_VALUE;
+        } else if (iv instanceof DerivedOffsetInductionVariable) {
+            DerivedOffsetInductionVariable offset = (DerivedOffsetInductionVariable) iv;
+            if (!is32Bit(offset.getOffset())) {
+                return Integer.MAX_VALUE;
+            }
+            int baseBits = valueBits(loop, offset.getBase());
+            return baseBits == Integer.MAX_VALUE ? baseBits : Math.max(baseBits, 32) + 1;
+        } else if (iv instanceof DerivedScaledInductionVariable) {
+            DerivedScaledInductionVariable scaled = (DerivedScaledInductionVariable) iv;
+            if (!is32Bit(scaled.getScale())) {
+                return Integer.MAX_VALUE;
+            }
+            int baseBits = valueBits(loop, scaled.getBase());
+            return baseBits == Integer.MAX_VALUE ? baseBits : baseBits + 32;
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private static Speculation speculate(StructuredGraph graph, LoopEx loop) {
+        FrameState state = loop.loopBegin().stateAfter();
+        if (state == null || state.getMethod() == null) {
+            return null;
+        }
+        SpeculationLog speculationLog = graph.getSpeculationLog();
+        SpeculationReason reason = LOOP_PREDICATION.createSpeculationReason(state.getMethod(), state.bci);
+        if (!speculationLog.maySpeculate(reason)) {
+            return null;
+        }
+        return speculationLog.speculate(reason);
+    }
+
+    /**
+     * Creates the condition {@code !entered || (first |<| length && last |<| length)} where
+     * {@code first} and {@code last} are the values {@code iv} takes in the first and the last
+     * iteration of the loop.
+     */
+    private static LogicNode boundsCheckPredicate(LoopEx loop, InductionVariable iv, ValueNode length) {
+        StructuredGraph graph = loop.loopBegin().graph();
+        CountedLoopInfo counted = loop.counted();
+        counted.createOverFlowGuard();
+
+        ValueNode tripCount = ZeroExtendNode.create(counted.maxTripCountNode(true), 64, NodeView.DEFAULT);
+        ValueNode first = value64(iv, null);
+        ValueNode last = value64(iv, tripCount);
+        ValueNode lower = iv.direction() == Direction.Up ? first : last;
+        ValueNode upper = iv.direction() == Direction.Up ? last : first;
+        ValueNode length64 = SignExtendNode.create(length, 64, NodeView.DEFAULT);
+
+        LogicNode inBounds = LogicNode.and(graph.addOrUniqueWithInputs(IntegerBelowNode.create(lower, length64, NodeView.DEFAULT)),
+                        graph.addOrUniqueWithInputs(IntegerBelowNode.create(upper, length64, NodeView.DEFAULT)), LIKELY_PROBABILITY);
+        return LogicNode.or(graph.addOrUniqueWithInputs(entryCondition(counted)), true, inBounds, false, NOT_LIKELY_PROBABILITY);
+    }
+
+    /**
+     * Returns the value of {@code iv} in the first iteration if {@code tripCount} is null and in
+     * the last iteration otherwise, as an unattached 64-bit expression.
+     */
+    private static ValueNode value64(InductionVariable iv, ValueNode tripCount) {
+        if (iv instanceof BasicInductionVariable) {
+            ValueNode init = SignExtendNode.create(iv.initNode(), 64, NodeView.DEFAULT);
+            if (tripCount == null) {
+                return init;
+            }
+            ValueNode stride = SignExtendNode.create(iv.strideNode(), 64, NodeView.DEFAULT);
+            ValueNode iterations = SubNode.create(tripCount, ConstantNode.forLong(1), NodeView.DEFAULT);
+            return AddNode.create(init, MulNode.create(stride, iterations, NodeView.DEFAULT), NodeView.DEFAULT);
+        } else if (iv instanceof DerivedOffsetInductionVariable) {
+            DerivedOffsetInductionVariable offsetIv = (DerivedOffsetInductionVariable) iv;
+            ValueNode base = value64(offsetIv.getBase(), tripCount);
+            ValueNode offset = SignExtendNode.create(offsetIv.getOffset(), 64, NodeView.DEFAULT);
+            ValueNode value = offsetIv.valueNode();
+            if (value instanceof AddNode) {
+                return AddNode.create(base, offset, NodeView.DEFAULT);
+            }
+            assert value instanceof SubNode : value;
+            if (((SubNode) value).getX() == offsetIv.getBase().valueNode()) {
+                return SubNode.create(base, offset, NodeView.DEFAULT);
+            }
+            return SubNode.create(offset, base, NodeView.DEFAULT);
+        } else {
+            DerivedScaledInductionVariable scaledIv = (DerivedScaledInductionVariable) iv;
+            ValueNode base = value64(scaledIv.getBase(), tripCount);
+            return MulNode.create(base, SignExtendNode.create(scaledIv.getScale(), 64, NodeView.DEFAULT), NodeView.DEFAULT);
+        }
+    }
+
+    /**
+     * Creates the condition under which the body of the loop is executed at least once.
+     */
+    private static LogicNode entryCondition(CountedLoopInfo counted) {
+        IntegerHelper helper = counted.getCounterIntegerHelper();
+        ValueNode start = counted.getStart();
+        ValueNode limit = counted.getLimit();
+        if (counted.getDirection() == Direction.Up) {
+            if (counted.isLimitIncluded()) {
+                return LogicNegationNode.create(helper.createCompareNode(limit, start, NodeView.DEFAULT));
+            }
+            return helper.createCompareNode(start, limit, NodeView.DEFAULT);
+        }
+        assert counted.getDirection() == Direction.Down;
+        if (counted.isLimitIncluded()) {
+            return LogicNegationNode.create(helper.createCompareNode(start, limit, NodeView.DEFAULT));
+        }
+        return helper.createCompareNode(limit, start, NodeView.DEFAULT);
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.phases;
+
+import static org.graalvm.compiler.core.common.GraalOptions.LoopStripMiningIterations;
+import static org.graalvm.compiler.nodes.extended.BranchProbabilityNode.LIKELY_PROBABILITY;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.Equivalence;
+import org.graalvm.compiler.core.common.type.IntegerStamp;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugCloseable;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.loop.BasicInductionVariable;
+import org.graalvm.compiler.loop.CountedLoopInfo;
+import org.graalvm.compiler.loop.InductionVariable.Direction;
+import org.graalvm.compiler.loop.LoopEx;
+import org.graalvm.compiler.loop.LoopsData;
+import org.graalvm.compiler.nodes.AbstractEndNode;
+import org.graalvm.compiler.nodes.BeginNode;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.EndNode;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.LoopEndNode;
+import org.graalvm.compiler.nodes.LoopExitNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.PhiNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValuePhiNode;
+import org.graalvm.compiler.nodes.VirtualState.NodeClosure;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.nodes.calc.IntegerBelowNode;
+import org.graalvm.compiler.nodes.calc.IntegerLessThanNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.memory.MemoryPhiNode;
+import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.phases.BasePhase;
+
+/**
+ * Splits counted loops that still poll for safepoints on every iteration into an outer loop that
+ * polls and an inner loop without a poll that runs at most
+ * {@link org.graalvm.compiler.core.common.GraalOptions#LoopStripMiningIterations} iterations:
+ *
+ * <pre>
+ * for (long i = start; i &lt; limit; i++) {
+ *     body(i);
+ * }
+ * </pre>
+ *
+ * becomes
+ *
+ * <pre>
+ * long i = start;
+ * while (true) {                                   // polls
+ *     long stripLimit = i &lt; limit &amp;&amp; limit - i &gt;u N ? i + N : limit;
+ *     for (; i &lt; stripLimit; i++) {             // does not poll
+ *         body(i);
+ *     }
+ *     if (!(i &lt; limit)) {
+ *         break;
+ *     }
+ * }
+ * </pre>
+ *
+ * This bounds the time to safepoint of loops that {@link LoopSafepointEliminationPhase} cannot
+ * free of polls, most notably loops with a {@code long} counter, while the inner loop remains a
+ * counted loop with a loop invariant limit that can be partially unrolled.
+ *
+ * The phase must run after value proxies have been removed and before safepoints are inserted.
+ */
+public class LoopStripMiningPhase extends BasePhase<CoreProviders> {
+
+    private static final CounterKey STRIP_MINED_LOOPS = DebugContext.counter("StripMinedLoops");
+
+    private static final class Candidate {
+        final LoopBeginNode loopBegin;
+        final IfNode limitTest;
+        final IntegerLessThanNode condition;
+        final ValuePhiNode counter;
+        final ValueNode limit;
+        final Direction direction;
+        final long stripLength;
+        final boolean bodyIsTrueSuccessor;
+
+        Candidate(LoopBeginNode loopBegin, IfNode limitTest, ValuePhiNode counter, ValueNode limit, Direction direction, long stripLength, boolean bodyIsTrueSuccessor) {
+            this.loopBegin = loopBegin;
+            this.limitTest = limitTest;
+            this.condition = (IntegerLessThanNode) limitTest.condition();
+            this.counter = counter;
+            this.limit = limit;
+            this.direction = direction;
+            this.stripLength = stripLength;
+            this.bodyIsTrueSuccessor = bodyIsTrueSuccessor;
+        }
+    }
+
+    @Override
+    protected void run(StructuredGraph graph, CoreProviders context) {
+        if (!graph.hasLoops() || graph.hasValueProxies()) {
+            return;
+        }
+        int iterations = LoopStripMiningIterations.getValue(graph.getOptions());
+        if (iterations <= 1) {
+            return;
+        }
+        LoopsData loops = new LoopsData(graph);
+        loops.detectedCountedLoops();
+        List<Candidate> candidates = new ArrayList<>();
+        for (LoopEx loop : loops.countedLoops()) {
+            Candidate candidate = match(loop, iterations);
+            if (candidate != null) {
+                candidates.add(candidate);
+            }
+        }
+        loops.deleteUnusedNodes();
+        for (Candidate candidate : candidates) {
+            stripMine(graph, candidate, iterations);
+            STRIP_MINED_LOOPS.increment(graph.getDebug());
+        }
+    }
+
+    private static Candidate match(LoopEx loop, int iterations) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        if (!loop.loop().getChildren().isEmpty() || loopBegin.forwardEndCount() != 1 || loopBegin.stateAfter() == null) {
+            return null;
+        }
+        for (LoopEndNode loopEnd : loopBegin.loopEnds()) {
+            if (!loopEnd.canSafepoint()) {
+                // the loop has no polls or already polls through calls in its body
+                return null;
+            }
+        }
+        for (PhiNode phi : loopBegin.phis()) {
+            if (!(phi instanceof ValuePhiNode) && !(phi instanceof MemoryPhiNode)) {
+                return null;
+            }
+        }
+        CountedLoopInfo counted = loop.counted();
+        if (counted.isUnsignedCheck() || counted.getDirection() == null || !(counted.getCounter() instanceof BasicInductionVariable) || !counted.getCounter().isConstantStride()) {
+            return null;
+        }
+        IfNode limitTest = counted.getLimitTest();
+        if (!(limitTest.condition() instanceof IntegerLessThanNode) || !(counted.getCountedExit() instanceof LoopExitNode)) {
+            return null;
+        }
+        IntegerLessThanNode condition = (IntegerLessThanNode) limitTest.condition();
+        ValueNode counter = counted.getCounter().valueNode();
+        ValueNode limit = counted.getLimit();
+        if (!(condition.getX() == counter && condition.getY() == limit) && !(condition.getX() == limit && condition.getY() == counter)) {
+            return null;
+        }
+        long stride = Math.abs(counted.getCounter().constantStride());
+        long stripLength;
+        try {
+            stripLength = Math.multiplyExact(stride, counted.isLimitIncluded() ? iterations - 1 : iterations);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+        IntegerStamp stamp = counted.getStamp();
+        if (stride == 0 || stripLength > stamp.upperBound()) {
+            return null;
+        }
+        return new Candidate(loopBegin, limitTest, (ValuePhiNode) counter, limit, counted.getDirection(), stripLength, limitTest.trueSuccessor() == counted.getBody());
+    }
+
+    @SuppressWarnings("try")
+    private static void stripMine(StructuredGraph graph, Candidate candidate, int iterations) {
+        LoopBeginNode inner = candidate.loopBegin;
+        try (DebugCloseable position = inner.withNodeSourcePosition()) {
+            AbstractEndNode innerEntry = inner.forwardEnd();
+            FixedWithNextNode predecessor = (FixedWithNextNode) innerEntry.predecessor();
+
+            // enter the outer loop in place of the inner one
+            LoopBeginNode outer = graph.add(new LoopBeginNode());
+            EndNode outerEntry = graph.add(new EndNode());
+            predecessor.setNext(outerEntry);
+            outer.addForwardEnd(outerEntry);
+            outer.setNext(innerEntry);
+
+            EconomicMap<PhiNode, PhiNode> outerPhis = EconomicMap.create(Equivalence.IDENTITY);
+            for (PhiNode phi : inner.phis().snapshot()) {
+                PhiNode outerPhi;
+                if (phi instanceof MemoryPhiNode) {
+                    outerPhi = graph.addWithoutUnique(new MemoryPhiNode(outer, ((MemoryPhiNode) phi).getLocationIdentity()));
+                } else {
+                    outerPhi = graph.addWithoutUnique(new ValuePhiNode(phi.stamp(NodeView.DEFAULT), outer));
+                }
+                outerPhi.addInput(phi.valueAt(innerEntry));
+                phi.setValueAt(innerEntry, outerPhi);
+                outerPhis.put(phi, outerPhi);
+            }
+            FrameState outerState = inner.stateAfter().duplicateWithVirtualState();
+            outerState.applyToNonVirtual(new NodeClosure<ValueNode>() {
+
+                @Override
+                public void apply(Node from, ValueNode node) {
+                    if (node instanceof PhiNode && outerPhis.containsKey((PhiNode) node)) {
+                        from.replaceFirstInput(node, outerPhis.get((PhiNode) node));
+                    }
+                }
+            });
+            outer.setStateAfter(outerState);
+
+            // run the inner loop up to the end of the current strip only
+            ValueNode stripLimit = graph.addOrUniqueWithInputs(stripLimit(candidate, (ValuePhiNode) outerPhis.get(candidate.counter)));
+            IntegerLessThanNode condition = candidate.condition;
+            ValueNode x = condition.getX() == candidate.limit ? stripLimit : condition.getX();
+            ValueNode y = condition.getY() == candidate.limit ? stripLimit : condition.getY();
+            candidate.limitTest.setCondition(graph.addOrUniqueWithInputs(IntegerLessThanNode.create(x, y, NodeView.DEFAULT)));
+
+            // leaving the inner loop through its limit test continues the outer loop unless the
+            // original limit has been reached
+            LoopExitNode innerExit = (LoopExitNode) (candidate.bodyIsTrueSuccessor ? candidate.limitTest.falseSuccessor() : candidate.limitTest.trueSuccessor());
+            FixedNode afterLoop = innerExit.next();
+            innerExit.setNext(null);
+            BeginNode continueOuter = graph.add(new BeginNode());
+            LoopEndNode outerEnd = graph.add(new LoopEndNode(outer));
+            continueOuter.setNext(outerEnd);
+            LoopExitNode outerExit = graph.add(new LoopExitNode(outer));
+            outerExit.setNext(afterLoop);
+            if (innerExit.stateAfter() != null) {
+                outerExit.setStateAfter(innerExit.stateAfter().duplicateWithVirtualState());
+            }
+            IfNode outerTest;
+            if (candidate.bodyIsTrueSuccessor) {
+                outerTest = graph.add(new IfNode(condition, continueOuter, outerExit, LIKELY_PROBABILITY));
+            } else {
+                outerTest = graph.add(new IfNode(condition, outerExit, continueOuter, 1 - LIKELY_PROBABILITY));
+            }
+            innerExit.setNext(outerTest);
+            for (PhiNode phi : inner.phis()) {
+                outerPhis.get(phi).addInput(phi);
+            }
+
+            // all other exits of the inner loop also leave the outer loop
+            for (LoopExitNode exit : inner.loopExits().snapshot()) {
+                if (exit == innerExit) {
+                    continue;
+                }
+                LoopExitNode exitOuter = graph.add(new LoopExitNode(outer));
+                if (exit.stateAfter() != null) {
+                    exitOuter.setStateAfter(exit.stateAfter().duplicateWithVirtualState());
+                }
+                FixedNode next = exit.next();
+                exit.setNext(null);
+                exitOuter.setNext(next);
+                exit.setNext(exitOuter);
+            }
+
+            inner.disableSafepoint();
+            outer.setLoopFrequency(Math.max(1.0, inner.loopFrequency() / iterations));
+            inner.setLoopFrequency(Math.min(inner.loopFrequency(), iterations));
+        }
+    }
+
+    /**
+     * Creates the end of the strip that starts at {@code start}: the value of the counter after
+     * {@link Candidate#stripLength} more iterations, or the original limit if the loop ends
+     * before.
+     */
+    private static ValueNode stripLimit(Candidate candidate, ValuePhiNode start) {
+        IntegerStamp stamp = (IntegerStamp) start.stamp(NodeView.DEFAULT);
+        ValueNode limit = candidate.limit;
+        ValueNode stripLength = ConstantNode.forIntegerStamp(stamp, candidate.stripLength);
+        ValueNode range;
+        ValueNode stripEnd;
+        LogicNode entered;
+        if (candidate.direction == Direction.Up) {
+            range = SubNode.create(limit, start, NodeView.DEFAULT);
+            stripEnd = AddNode.create(start, stripLength, NodeView.DEFAULT);
+            entered = IntegerLessThanNode.create(start, limit, NodeView.DEFAULT);
+        } else {
+            range = SubNode.create(start, limit, NodeView.DEFAULT);
+            stripEnd = SubNode.create(start, stripLength, NodeView.DEFAULT);
+            entered = IntegerLessThanNode.create(limit, start, NodeView.DEFAULT);
+        }
+        // range is exact when interpreted as unsigned if the loop is entered
+        LogicNode longRange = IntegerBelowNode.create(stripLength, range, NodeView.DEFAULT);
+        ValueNode rangeEnd = ConditionalNode.create(longRange, stripEnd, limit, NodeView.DEFAULT);
+        return ConditionalNode.create(entered, rangeEnd, limit, NodeView.DEFAULT);
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.phases;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.compiler.core.common.calc.ElementwiseOperation;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.graph.Graph;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.loop.BasicInductionVariable;
+import org.graalvm.compiler.loop.CountedLoopInfo;
+import org.graalvm.compiler.loop.InductionVariable;
+import org.graalvm.compiler.loop.InductionVariable.Direction;
+import org.graalvm.compiler.loop.LoopEx;
+import org.graalvm.compiler.loop.LoopsData;
+import org.graalvm.compiler.nodes.AbstractEndNode;
+import org.graalvm.compiler.nodes.BeginNode;
+import org.graalvm.compiler.nodes.EndNode;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.LogicNegationNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.MergeNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.PiNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValuePhiNode;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.AndNode;
+import org.graalvm.compiler.nodes.calc.BinaryNode;
+import org.graalvm.compiler.nodes.calc.FloatDivNode;
+import org.graalvm.compiler.nodes.calc.IntegerBelowNode;
+import org.graalvm.compiler.nodes.calc.IsNullNode;
+import org.graalvm.compiler.nodes.calc.MulNode;
+import org.graalvm.compiler.nodes.calc.OrNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.calc.XorNode;
+import org.graalvm.compiler.nodes.extended.BranchProbabilityNode;
+import org.graalvm.compiler.nodes.java.ArrayLengthNode;
+import org.graalvm.compiler.nodes.java.ElementwiseArrayOpNode;
+import org.graalvm.compiler.nodes.java.LoadIndexedNode;
+import org.graalvm.compiler.nodes.java.StoreIndexedNode;
+import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.util.EconomicSetNodeEventListener;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Replaces the iterations of simple counted loops of the form
+ *
+ * <pre>
+ * for (int i = start; i &lt; limit; i++) {
+ *     dst[i] = x[i] op y[i];
+ * }
+ * </pre>
+ *
+ * where {@code x} or {@code y} may also be a loop invariant scalar, by a single
+ * {@link ElementwiseArrayOpNode}, which the backend emits as a loop processing as many elements per
+ * instruction as the target allows. All isomorphic loads, the arithmetic and the store of the loop
+ * body are packed into that one node.
+ *
+ * The vectorized operation is only executed if all arrays are non-null and the whole index range
+ * is within their bounds. The original loop is kept and continues at {@code limit} in that case,
+ * so it runs no further iterations. Otherwise it starts at {@code start} as before and raises any
+ * exception at exactly the same iteration as the unmodified code would.
+ */
+public class LoopVectorizationPhase extends BasePhase<CoreProviders> {
+
+    private static final CounterKey VECTORIZED_LOOPS = DebugContext.counter("VectorizedLoops");
+
+    private final CanonicalizerPhase canonicalizer;
+
+    public LoopVectorizationPhase(CanonicalizerPhase canonicalizer) {
+        this.canonicalizer = canonicalizer;
+    }
+
+    private static final class Candidate {
+        final LoopBeginNode loopBegin;
+        final ValuePhiNode counter;
+        final ValueNode start;
+        final ValueNode limit;
+        final ElementwiseOperation op;
+        final JavaKind elementKind;
+        final ValueNode dst;
+        final ValueNode x;
+        final ValueNode y;
+
+        Candidate(LoopBeginNode loopBegin, ValuePhiNode counter, ValueNode start, ValueNode limit, ElementwiseOperation op, JavaKind elementKind, ValueNode dst, ValueNode x, ValueNode y) {
+            this.loopBegin = loopBegin;
+            this.counter = counter;
+            this.start = start;
+            this.limit = limit;
+            this.op = op;
+            this.elementKind = elementKind;
+            this.dst = dst;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    protected void run(StructuredGraph graph, CoreProviders context) {
+        if (!graph.hasLoops()) {
+            return;
+        }
+        LoopsData dataCounted = new LoopsData(graph);
+        dataCounted.detectedCountedLoops();
+        List<Candidate> candidates = new ArrayList<>();
+        for (LoopEx loop : dataCounted.countedLoops()) {
+            Candidate candidate = match(loop);
+            if (candidate != null) {
+                candidates.add(candidate);
+            }
+        }
+        dataCounted.deleteUnusedNodes();
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        EconomicSetNodeEventListener listener = new EconomicSetNodeEventListener();
+        try (Graph.NodeEventScope nes = graph.trackNodeEvents(listener)) {
+            for (Candidate candidate : candidates) {
+                vectorize(graph, candidate);
+                VECTORIZED_LOOPS.increment(graph.getDebug());
+            }
+        }
+        canonicalizer.applyIncremental(graph, context, listener.getNodes());
+    }
+
+    private static boolean isSupportedKind(JavaKind kind) {
+        return kind == JavaKind.Int || kind == JavaKind.Long || kind == JavaKind.Float || kind == JavaKind.Double;
+    }
+
+    private static Candidate match(LoopEx loop) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        if (!loop.loop().getChildren().isEmpty() || !loopBegin.isSingleEntryLoop() || loopBegin.getLoopEndCount() != 1 || loopBegin.loopExits().count() != 1) {
+            return null;
+        }
+        if (loopBegin.stateAfter() == null || loopBegin.phis().count() != 1 || !(loopBegin.forwardEnd().predecessor() instanceof FixedWithNextNode)) {
+            return null;
+        }
+        CountedLoopInfo counted = loop.counted();
+        if (counted.getDirection() != Direction.Up || counted.isLimitIncluded() || counted.isUnsignedCheck() || loopBegin.next() != counted.getLimitTest()) {
+            // the vectorized range must leave the loop header with nothing left to execute
+            return null;
+        }
+        InductionVariable iv = counted.getCounter();
+        if (!(iv instanceof BasicInductionVariable) || !iv.isConstantStride() || iv.constantStride() != 1 || iv.valueNode().getStackKind() != JavaKind.Int) {
+            return null;
+        }
+        ValuePhiNode counter = ((BasicInductionVariable) iv).valueNode();
+
+        // The body may only consist of the loads of the operands and a single store.
+        StoreIndexedNode store = null;
+        List<LoadIndexedNode> loads = new ArrayList<>();
+        FixedNode current = counted.getBody().next();
+        while (current instanceof FixedWithNextNode) {
+            if (current instanceof LoadIndexedNode) {
+                loads.add((LoadIndexedNode) current);
+            } else if (current instanceof StoreIndexedNode && store == null) {
+                store = (StoreIndexedNode) current;
+            } else {
+                return null;
+            }
+            current = ((FixedWithNextNode) current).next();
+        }
+        if (current != loopBegin.getSingleLoopEnd() || store == null) {
+            return null;
+        }
+        JavaKind kind = store.elementKind();
+        if (!isSupportedKind(kind) || store.index() != counter || !loop.isOutsideLoop(store.array())) {
+            return null;
+        }
+        ValueNode value = store.value();
+        ElementwiseOperation op = getOperation(value, kind);
+        if (op == null || value.getStackKind() != kind || !value.hasExactlyOneUsage()) {
+            return null;
+        }
+        BinaryNode binary = (BinaryNode) value;
+        ValueNode x = matchOperand(loop, binary.getX(), counter, kind, loads, value);
+        ValueNode y = matchOperand(loop, binary.getY(), counter, kind, loads, value);
+        if (x == null || y == null || !loads.isEmpty()) {
+            // every load must have been consumed by one of the operands
+            return null;
+        }
+        if (x.getStackKind() != JavaKind.Object) {
+            if (y.getStackKind() != JavaKind.Object) {
+                return null;
+            }
+            if (op.isCommutative()) {
+                ValueNode tmp = x;
+                x = y;
+                y = tmp;
+            }
+        }
+        return new Candidate(loopBegin, counter, iv.initNode(), counted.getLimit(), op, kind, store.array(), x, y);
+    }
+
+    private static ElementwiseOperation getOperation(ValueNode value, JavaKind kind) {
+        if (value instanceof AddNode) {
+            return ElementwiseOperation.ADD;
+        } else if (value instanceof SubNode) {
+            return ElementwiseOperation.SUB;
+        } else if (value instanceof MulNode) {
+            // there is no packed 64-bit multiply to gain anything from
+            return kind == JavaKind.Long ? null : ElementwiseOperation.MUL;
+        } else if (value instanceof FloatDivNode) {
+            return ElementwiseOperation.DIV;
+        } else if (kind.isNumericInteger()) {
+            if (value instanceof AndNode) {
+                return ElementwiseOperation.AND;
+            } else if (value instanceof OrNode) {
+                return ElementwiseOperation.OR;
+            } else if (value instanceof XorNode) {
+                return ElementwiseOperation.XOR;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the array for an operand loaded at the counter's index in the loop body, the operand
+     * itself if it is loop invariant or {@code null} if it is neither.
+     */
+    private static ValueNode matchOperand(LoopEx loop, ValueNode operand, ValuePhiNode counter, JavaKind kind, List<LoadIndexedNode> loads, ValueNode user) {
+        if (operand instanceof LoadIndexedNode && !loop.isOutsideLoop(operand)) {
+            LoadIndexedNode load = (LoadIndexedNode) operand;
+            if (load.index() != counter || load.elementKind() != kind || !loop.isOutsideLoop(load.array())) {
+                return null;
+            }
+            for (Node usage : load.usages()) {
+                if (usage != user) {
+                    return null;
+                }
+            }
+            // x[i] op x[i] refers to the same load twice
+            loads.remove(load);
+            return load.array();
+        }
+        if (loop.isOutsideLoop(operand) && operand.getStackKind() == kind) {
+            return operand;
+        }
+        return null;
+    }
+
+    private static void vectorize(StructuredGraph graph, Candidate candidate) {
+        LoopBeginNode loopBegin = candidate.loopBegin;
+        AbstractEndNode forwardEnd = loopBegin.forwardEnd();
+        FixedWithNextNode last = (FixedWithNextNode) forwardEnd.predecessor();
+        last.setNext(null);
+
+        MergeNode merge = graph.add(new MergeNode());
+        ValuePhiNode start = graph.addWithoutUnique(new ValuePhiNode(candidate.start.stamp(NodeView.DEFAULT).meet(candidate.limit.stamp(NodeView.DEFAULT)), merge));
+
+        // start < limit as unsigned values. This only implies 0 <= start < limit once limit is
+        // known to be non-negative, which the length check of the dst array below ensures: a
+        // negative limit is above every array length as an unsigned value.
+        LogicNode nonEmpty = LogicNegationNode.create(IntegerBelowNode.create(candidate.start, candidate.limit, NodeView.DEFAULT));
+        last = appendBailout(graph, last, nonEmpty, merge, start, candidate.start);
+
+        ValueNode[] arrays = new ValueNode[]{candidate.dst, candidate.x, candidate.y};
+        ValueNode[] checkedArrays = new ValueNode[arrays.length];
+        for (int i = 0; i < arrays.length; i++) {
+            ValueNode array = arrays[i];
+            if (array.getStackKind() != JavaKind.Object) {
+                checkedArrays[i] = array;
+                continue;
+            }
+            int previous = indexOf(arrays, array, i);
+            if (previous >= 0) {
+                checkedArrays[i] = checkedArrays[previous];
+                continue;
+            }
+            last = appendBailout(graph, last, IsNullNode.create(array), merge, start, candidate.start);
+            ValueNode nonNull = graph.addOrUniqueWithInputs(PiNode.create(array, last));
+            ArrayLengthNode length = graph.add(new ArrayLengthNode(nonNull));
+            last.setNext(length);
+            last = appendBailout(graph, length, IntegerBelowNode.create(length, candidate.limit, NodeView.DEFAULT), merge, start, candidate.start);
+            checkedArrays[i] = nonNull;
+        }
+
+        ElementwiseArrayOpNode vectorized = graph.add(new ElementwiseArrayOpNode(candidate.op, candidate.elementKind, checkedArrays[0], checkedArrays[1], checkedArrays[2], candidate.start,
+                        candidate.limit, loopStateWithCounter(candidate, candidate.limit)));
+        last.setNext(vectorized);
+        EndNode vectorizedEnd = graph.add(new EndNode());
+        vectorized.setNext(vectorizedEnd);
+        merge.addForwardEnd(vectorizedEnd);
+        start.addInput(candidate.limit);
+
+        merge.setStateAfter(loopStateWithCounter(candidate, start));
+        merge.setNext(forwardEnd);
+        candidate.counter.setValueAt(forwardEnd, start);
+        graph.getDebug().dump(DebugContext.DETAILED_LEVEL, graph, "After vectorizing %s", loopBegin);
+    }
+
+    private static int indexOf(ValueNode[] values, ValueNode value, int limit) {
+        for (int i = 0; i < limit; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Branches to {@code merge} with {@code start} set to {@code bailoutStart} if {@code bailout}
+     * holds and returns the begin of the path on which it does not.
+     */
+    private static BeginNode appendBailout(StructuredGraph graph, FixedWithNextNode last, LogicNode bailout, MergeNode merge, ValuePhiNode start, ValueNode bailoutStart) {
+        BeginNode bailoutBegin = graph.add(new BeginNode());
+        EndNode bailoutEnd = graph.add(new EndNode());
+        bailoutBegin.setNext(bailoutEnd);
+        BeginNode continueBegin = graph.add(new BeginNode());
+        IfNode check = graph.add(new IfNode(graph.addOrUniqueWithInputs(bailout), bailoutBegin, continueBegin, BranchProbabilityNode.NOT_FREQUENT_PROBABILITY));
+        last.setNext(check);
+        merge.addForwardEnd(bailoutEnd);
+        start.addInput(bailoutStart);
+        return continueBegin;
+    }
+
+    /**
+     * The loop header state with the counter replaced by {@code value} describes the state of
+     * execution when entering the loop with the counter at that value.
+     */
+    private static FrameState loopStateWithCounter(Candidate candidate, ValueNode value) {
+        FrameState state = candidate.loopBegin.stateAfter().duplicate();
+        state.replaceAllInputs(candidate.counter, value);
+        return state;
+    }
+
+    @Override
+    public boolean checkContract() {
+        return false;
+    }
+}
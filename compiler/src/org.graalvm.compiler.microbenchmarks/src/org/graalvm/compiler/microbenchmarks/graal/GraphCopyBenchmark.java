@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -24,6 +24,8 @@
  */
 package org.graalvm.compiler.microbenchmarks.graal;
 
+import java.util.HashMap;
+
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Warmup;
 
@@ -34,7 +36,8 @@ import org.graalvm.compiler.microbenchmarks.graal.util.MethodSpec;
 import org.graalvm.compiler.nodes.StructuredGraph;
 
 /**
- * Benchmarks the performance of {@link Graph#copy(org.graalvm.compiler.debug.DebugContext)}.
+ * Benchmarks the performance of {@link Graph#copy(org.graalvm.compiler.debug.DebugContext)}. Run
+ * with {@code -prof gc} to also compare the memory allocated per copied graph.
  */
 public class GraphCopyBenchmark extends GraalBenchmark {
 
@@ -132,4 +135,14 @@ public class GraphCopyBenchmark extends GraalBenchmark {
     public StructuredGraph search(Search s, GraalState g) {
         return (StructuredGraph) s.graph.copy(g.debug);
     }
+
+    @MethodSpec(declaringClass = HashMap.class, name = "computeIfAbsent")
+    public static class HashMapComputeIfAbsent extends GraphState {
+    }
+
+    @Benchmark
+    @Warmup(iterations = 20)
+    public StructuredGraph hashMapComputeIfAbsent(HashMapComputeIfAbsent s, GraalState g) {
+        return (StructuredGraph) s.graph.copy(g.debug);
+    }
 }
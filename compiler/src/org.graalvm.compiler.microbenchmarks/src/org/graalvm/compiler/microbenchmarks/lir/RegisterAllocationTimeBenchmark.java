@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2016, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -24,8 +24,12 @@
  */
 package org.graalvm.compiler.microbenchmarks.lir;
 
+import org.graalvm.compiler.lir.alloc.local.LocalRegisterAllocationPhase;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
+import org.graalvm.compiler.lir.phases.EconomyAllocationStage;
+import org.graalvm.compiler.lir.phases.LIRSuites;
 import org.graalvm.compiler.microbenchmarks.graal.GraalBenchmark;
+import org.graalvm.compiler.options.OptionValues;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Param;
@@ -40,6 +44,19 @@ public class RegisterAllocationTimeBenchmark extends GraalBenchmark {
                         "java.lang.String#equals",
                         "java.util.HashMap#computeIfAbsent"
         }) public String method;
+
+        /**
+         * Compares linear scan with the block local allocator. Both run in the
+         * {@link EconomyAllocationStage} so that only the register allocator differs.
+         */
+        @Param({"LinearScan", "Local"}) public String allocator;
+
+        @Override
+        protected LIRSuites createLIRSuites(OptionValues options) {
+            LIRSuites suites = super.createLIRSuites(options);
+            OptionValues allocatorOptions = new OptionValues(options, LocalRegisterAllocationPhase.Options.LIREconomyLocalRegisterAllocation, "Local".equals(allocator));
+            return new LIRSuites(suites.getPreAllocationOptimizationStage(), new EconomyAllocationStage(allocatorOptions), suites.getPostAllocationOptimizationStage());
+        }
     }
 
     @Benchmark
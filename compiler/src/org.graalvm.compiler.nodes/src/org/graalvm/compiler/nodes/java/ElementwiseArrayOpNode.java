@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.nodes.java;
+
+import static org.graalvm.compiler.nodeinfo.InputType.Memory;
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_UNKNOWN;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_128;
+
+import org.graalvm.compiler.core.common.calc.ElementwiseOperation;
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.NamedLocationIdentity;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.memory.AbstractMemoryCheckpoint;
+import org.graalvm.compiler.nodes.memory.SingleMemoryKill;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Computes {@code dst[i] = x[i] op y[i]} for every {@code i} in {@code [fromIndex, toIndex)}.
+ * Either {@code x} or {@code y} may be a scalar that is combined with every element of the other
+ * operand. This node performs no null or bounds checks, the range must be known to be valid for all
+ * arrays before this node is reached.
+ *
+ * Since all elements are read and written at the same index there are no dependencies between
+ * iterations, even if {@code dst} is the same array as one of the operands, which is what allows
+ * the backend to process multiple elements per instruction.
+ */
+@NodeInfo(allowedUsageTypes = Memory, cycles = CYCLES_UNKNOWN, size = SIZE_128)
+public final class ElementwiseArrayOpNode extends AbstractMemoryCheckpoint implements LIRLowerable, SingleMemoryKill {
+
+    public static final NodeClass<ElementwiseArrayOpNode> TYPE = NodeClass.create(ElementwiseArrayOpNode.class);
+
+    @Input ValueNode dst;
+    @Input ValueNode x;
+    @Input ValueNode y;
+    @Input ValueNode fromIndex;
+    @Input ValueNode toIndex;
+
+    private final ElementwiseOperation op;
+    private final JavaKind elementKind;
+
+    public ElementwiseArrayOpNode(ElementwiseOperation op, JavaKind elementKind, ValueNode dst, ValueNode x, ValueNode y, ValueNode fromIndex, ValueNode toIndex, FrameState stateAfter) {
+        super(TYPE, StampFactory.forVoid(), stateAfter);
+        assert elementKind.isPrimitive() && elementKind != JavaKind.Void;
+        assert x.getStackKind() == JavaKind.Object || y.getStackKind() == JavaKind.Object : "at least one operand must be an array";
+        this.op = op;
+        this.elementKind = elementKind;
+        this.dst = dst;
+        this.x = x;
+        this.y = y;
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+    }
+
+    public ElementwiseOperation getOperation() {
+        return op;
+    }
+
+    public JavaKind getElementKind() {
+        return elementKind;
+    }
+
+    public ValueNode getDestination() {
+        return dst;
+    }
+
+    public ValueNode getX() {
+        return x;
+    }
+
+    public ValueNode getY() {
+        return y;
+    }
+
+    @Override
+    public LocationIdentity getKilledLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(elementKind);
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        gen.getLIRGeneratorTool().emitElementwiseArrayOp(op, elementKind, gen.operand(dst), gen.operand(x), gen.operand(y), gen.operand(fromIndex), gen.operand(toIndex));
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -24,7 +24,16 @@
  */
 package org.graalvm.compiler.phases.common;
 
+import static org.graalvm.compiler.core.common.GraalOptions.LockCoarseningMaxGap;
+
+import org.graalvm.compiler.nodeinfo.InputType;
+import org.graalvm.compiler.nodes.AbstractBeginNode;
+import org.graalvm.compiler.nodes.DeoptimizingNode;
 import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.SafepointNode;
+import org.graalvm.compiler.nodes.StateSplit;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.ValueNode;
 import org.graalvm.compiler.nodes.extended.OSRMonitorEnterNode;
@@ -33,15 +42,22 @@ import org.graalvm.compiler.nodes.java.MonitorEnterNode;
 import org.graalvm.compiler.nodes.java.MonitorExitNode;
 import org.graalvm.compiler.nodes.java.MonitorIdNode;
 import org.graalvm.compiler.nodes.java.RawMonitorEnterNode;
+import org.graalvm.compiler.nodes.memory.MemoryAnchorNode;
+import org.graalvm.compiler.nodes.memory.MemoryKill;
 import org.graalvm.compiler.nodes.util.GraphUtil;
 import org.graalvm.compiler.phases.Phase;
+import org.graalvm.word.LocationIdentity;
 
 public class LockEliminationPhase extends Phase {
 
     @Override
     protected void run(StructuredGraph graph) {
+        int maxGap = LockCoarseningMaxGap.getValue(graph.getOptions());
         for (MonitorExitNode monitorExitNode : graph.getNodes(MonitorExitNode.TYPE)) {
             FixedNode next = monitorExitNode.next();
+            for (int gap = 0; gap < maxGap && next instanceof FixedWithNextNode && canCoarsenAcross((FixedWithNextNode) next); gap++) {
+                next = ((FixedWithNextNode) next).next();
+            }
             if ((next instanceof MonitorEnterNode || next instanceof RawMonitorEnterNode)) {
                 // should never happen, osr monitor enters are always direct successors of the graph
                 // start
@@ -57,6 +73,9 @@ public class LockEliminationPhase extends Phase {
                     if (enterId != exitId) {
                         enterId.replaceAndDelete(exitId);
                     }
+                    if (graph.isAfterFloatingReadPhase()) {
+                        replaceMemoryKills(graph, monitorExitNode, monitorEnterNode);
+                    }
                     GraphUtil.removeFixedWithUnusedInputs(monitorEnterNode);
                     GraphUtil.removeFixedWithUnusedInputs(monitorExitNode);
                 }
@@ -64,6 +83,42 @@ public class LockEliminationPhase extends Phase {
         }
     }
 
+    /**
+     * Both monitor operations kill all memory locations. Nothing in between kills memory, so a
+     * single anchor in place of the monitor exit keeps the memory state of all accesses that
+     * depended on either of them.
+     */
+    private static void replaceMemoryKills(StructuredGraph graph, MonitorExitNode monitorExitNode, AccessMonitorNode monitorEnterNode) {
+        if (monitorExitNode.hasNoUsages() && monitorEnterNode.hasNoUsages()) {
+            return;
+        }
+        MemoryAnchorNode anchor = graph.add(new MemoryAnchorNode(LocationIdentity.any()));
+        graph.addBeforeFixed(monitorExitNode, anchor);
+        monitorExitNode.replaceAtUsages(InputType.Memory, anchor);
+        monitorEnterNode.replaceAtUsages(InputType.Memory, anchor);
+    }
+
+    /**
+     * Determines if a node between a monitor exit and a subsequent monitor enter can be moved into
+     * the coarsened region. The node must neither block, kill memory nor be able to deoptimize or
+     * expose a frame state: such a frame state would describe the lock as released although the
+     * coarsened region still holds it. Deoptimizing in the coarsened region instead uses a frame
+     * state from before the removed monitor exit and re-executes the exit and the enter in the
+     * interpreter.
+     */
+    private static boolean canCoarsenAcross(FixedWithNextNode node) {
+        if (node instanceof AccessMonitorNode || node instanceof AbstractBeginNode || node instanceof Invoke || node instanceof MemoryKill) {
+            return false;
+        }
+        if (node instanceof StateSplit && (((StateSplit) node).hasSideEffect() || ((StateSplit) node).stateAfter() != null)) {
+            return false;
+        }
+        if (node instanceof DeoptimizingNode && ((DeoptimizingNode) node).canDeoptimize()) {
+            return false;
+        }
+        return !(node instanceof SafepointNode);
+    }
+
     /**
      * Check that the paired operations operate on the same object at the same lock depth.
      */
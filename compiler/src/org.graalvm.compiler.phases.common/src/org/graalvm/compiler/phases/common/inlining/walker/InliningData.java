@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -27,9 +27,14 @@ package org.graalvm.compiler.phases.common.inlining.walker;
 import static org.graalvm.compiler.core.common.GraalOptions.Intrinsify;
 import static org.graalvm.compiler.core.common.GraalOptions.MaximumRecursiveInlining;
 import static org.graalvm.compiler.core.common.GraalOptions.MegamorphicInliningMinMethodProbability;
+import static org.graalvm.compiler.core.common.GraalOptions.MegamorphicTypeSwitchInlining;
+import static org.graalvm.compiler.core.common.GraalOptions.MegamorphicTypeSwitchMaxCodeSize;
+import static org.graalvm.compiler.core.common.GraalOptions.MegamorphicTypeSwitchMaxNotRecordedProbability;
+import static org.graalvm.compiler.core.common.GraalOptions.MegamorphicTypeSwitchMinMethodProbability;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.Iterator;
@@ -327,8 +332,17 @@ public class InliningData {
             if (notRecordedTypeProbability > 0) {
                 ArrayList<ResolvedJavaMethod> newConcreteMethods = new ArrayList<>();
                 ArrayList<Double> newConcreteMethodsProbabilities = new ArrayList<>();
+                boolean[] selected;
+                if (MegamorphicTypeSwitchInlining.getValue(options) && notRecordedTypeProbability <= MegamorphicTypeSwitchMaxNotRecordedProbability.getValue(options)) {
+                    selected = selectTypeSwitchMethods(concreteMethods, concreteMethodsProbabilities, options);
+                } else {
+                    selected = new boolean[concreteMethods.size()];
+                    for (int i = 0; i < concreteMethods.size(); ++i) {
+                        selected[i] = concreteMethodsProbabilities.get(i) >= MegamorphicInliningMinMethodProbability.getValue(options);
+                    }
+                }
                 for (int i = 0; i < concreteMethods.size(); ++i) {
-                    if (concreteMethodsProbabilities.get(i) >= MegamorphicInliningMinMethodProbability.getValue(options)) {
+                    if (selected[i]) {
                         newConcreteMethods.add(concreteMethods.get(i));
                         newConcreteMethodsProbabilities.add(concreteMethodsProbabilities.get(i));
                     }
@@ -388,6 +402,40 @@ public class InliningData {
         }
     }
 
+    /**
+     * Selects the methods of a megamorphic call site whose profile is dominated by a few types that
+     * are worth inlining behind a multi-way type switch. Methods are considered in order of
+     * decreasing probability until they are no longer frequent enough. A method that does not fit
+     * into the remaining bytecode size budget is skipped, so that less frequent but smaller methods
+     * can still be selected. The probability of the types whose methods are not selected is added
+     * to the virtual call fallback of the type switch.
+     */
+    private static boolean[] selectTypeSwitchMethods(ArrayList<ResolvedJavaMethod> concreteMethods, ArrayList<Double> concreteMethodsProbabilities, OptionValues options) {
+        Integer[] order = new Integer[concreteMethods.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(concreteMethodsProbabilities.get(b), concreteMethodsProbabilities.get(a)));
+
+        boolean[] selected = new boolean[order.length];
+        double minProbability = MegamorphicTypeSwitchMinMethodProbability.getValue(options);
+        int codeSizeBudget = MegamorphicTypeSwitchMaxCodeSize.getValue(options);
+        int codeSize = 0;
+        for (int index : order) {
+            if (concreteMethodsProbabilities.get(index) < minProbability) {
+                break;
+            }
+            int methodCodeSize = concreteMethods.get(index).getCodeSize();
+            if (codeSize + methodCodeSize > codeSizeBudget) {
+                // a smaller, less frequent method might still fit
+                continue;
+            }
+            codeSize += methodCodeSize;
+            selected[index] = true;
+        }
+        return selected;
+    }
+
     private InlineInfo getAssumptionInlineInfo(Invoke invoke, ResolvedJavaMethod concrete, AssumptionResult<?> takenAssumption) {
         assert concrete.isConcrete();
         if (checkTargetConditions(invoke, concrete)) {
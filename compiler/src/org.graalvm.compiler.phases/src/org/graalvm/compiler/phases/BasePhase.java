@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -28,6 +28,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import org.graalvm.collections.EconomicMap;
+import org.graalvm.compiler.core.common.util.PhaseProfiler;
 import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugCloseable;
 import org.graalvm.compiler.debug.DebugContext;
@@ -206,7 +207,12 @@ public abstract class BasePhase<C> implements PhaseSizeContract {
                 dumpedBefore = dumpBefore(graph, context, isTopLevel);
             }
             inputNodesCount.add(debug, graph.getNodeCount());
+            PhaseProfiler profiler = PhaseProfiler.current();
+            int profiledPhase = profiler == null ? 0 : profiler.enterPhase(getName(), graph.getNodeCount());
             this.run(graph, context);
+            if (profiler != null) {
+                profiler.exitPhase(profiledPhase, graph.getNodeCount());
+            }
             executionCount.increment(debug);
             if (verifySizeContract) {
                 if (!before.isCurrent()) {
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import java.util.Arrays;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.replacements.nodes.ArrayFillNode;
+import org.graalvm.compiler.replacements.nodes.ArrayHashCodeNode;
+import org.junit.Assume;
+import org.junit.Test;
+
+import jdk.vm.ci.aarch64.AArch64;
+import jdk.vm.ci.amd64.AMD64;
+
+/**
+ * Tests the substitutions of {@link Arrays#hashCode} and {@link Arrays#fill}. The lengths cover the
+ * vector loops as well as all tail sizes.
+ */
+public class ArraysHashCodeAndFillTest extends GraalCompilerTest {
+
+    private static final int[] LENGTHS = {0, 1, 2, 3, 4, 5, 7, 8, 9, 15, 16, 17, 31, 32, 33, 63, 64, 65, 100};
+
+    private void assumeIntrinsified() {
+        Assume.assumeTrue(getTarget().arch instanceof AMD64 || getTarget().arch instanceof AArch64);
+    }
+
+    private void assertContains(String snippet, Class<? extends Node> nodeClass) {
+        assumeIntrinsified();
+        StructuredGraph graph = parseForCompile(getResolvedJavaMethod(snippet));
+        assertTrue(snippet + " should contain a " + nodeClass.getSimpleName(), graph.getNodes().filter(nodeClass).isNotEmpty());
+    }
+
+    public static int hashCodeByteSnippet(byte[] a) {
+        return Arrays.hashCode(a);
+    }
+
+    public static int hashCodeCharSnippet(char[] a) {
+        return Arrays.hashCode(a);
+    }
+
+    public static int hashCodeShortSnippet(short[] a) {
+        return Arrays.hashCode(a);
+    }
+
+    public static int hashCodeIntSnippet(int[] a) {
+        return Arrays.hashCode(a);
+    }
+
+    @Test
+    public void testHashCodeByte() {
+        assertContains("hashCodeByteSnippet", ArrayHashCodeNode.class);
+        test("hashCodeByteSnippet", (Object) null);
+        for (int length : LENGTHS) {
+            byte[] a = new byte[length];
+            for (int i = 0; i < length; i++) {
+                // include negative values to check the sign extension
+                a[i] = (byte) (i * 37 - 64);
+            }
+            test("hashCodeByteSnippet", a);
+        }
+    }
+
+    @Test
+    public void testHashCodeChar() {
+        assertContains("hashCodeCharSnippet", ArrayHashCodeNode.class);
+        test("hashCodeCharSnippet", (Object) null);
+        for (int length : LENGTHS) {
+            char[] a = new char[length];
+            for (int i = 0; i < length; i++) {
+                a[i] = (char) (0xFFFF - i * 1021);
+            }
+            test("hashCodeCharSnippet", a);
+        }
+    }
+
+    @Test
+    public void testHashCodeShort() {
+        assertContains("hashCodeShortSnippet", ArrayHashCodeNode.class);
+        test("hashCodeShortSnippet", (Object) null);
+        for (int length : LENGTHS) {
+            short[] a = new short[length];
+            for (int i = 0; i < length; i++) {
+                a[i] = (short) (i * 1021 - 30000);
+            }
+            test("hashCodeShortSnippet", a);
+        }
+    }
+
+    @Test
+    public void testHashCodeInt() {
+        assertContains("hashCodeIntSnippet", ArrayHashCodeNode.class);
+        test("hashCodeIntSnippet", (Object) null);
+        for (int length : LENGTHS) {
+            int[] a = new int[length];
+            for (int i = 0; i < length; i++) {
+                a[i] = i * 0x01010101 - Integer.MAX_VALUE;
+            }
+            test("hashCodeIntSnippet", a);
+        }
+    }
+
+    public static byte[] fillByteSnippet(byte[] a, int from, int to, byte value) {
+        Arrays.fill(a, from, to, value);
+        return a;
+    }
+
+    public static char[] fillCharSnippet(char[] a, int from, int to, char value) {
+        Arrays.fill(a, from, to, value);
+        return a;
+    }
+
+    public static int[] fillIntSnippet(int[] a, int from, int to, int value) {
+        Arrays.fill(a, from, to, value);
+        return a;
+    }
+
+    public static long[] fillLongSnippet(long[] a, int from, int to, long value) {
+        Arrays.fill(a, from, to, value);
+        return a;
+    }
+
+    public static double[] fillDoubleSnippet(double[] a, double value) {
+        Arrays.fill(a, value);
+        return a;
+    }
+
+    public static boolean[] fillBooleanSnippet(boolean[] a, boolean value) {
+        Arrays.fill(a, value);
+        return a;
+    }
+
+    @Test
+    public void testFillByte() {
+        assertContains("fillByteSnippet", ArrayFillNode.class);
+        for (int length : LENGTHS) {
+            test("fillByteSnippet", new byte[length], 0, length, (byte) 0xA5);
+            if (length > 2) {
+                // the elements outside of the range must not be touched
+                test("fillByteSnippet", new byte[length], 1, length - 1, (byte) -1);
+            }
+        }
+    }
+
+    @Test
+    public void testFillChar() {
+        assertContains("fillCharSnippet", ArrayFillNode.class);
+        for (int length : LENGTHS) {
+            test("fillCharSnippet", new char[length], 0, length, (char) 0xBEEF);
+            if (length > 2) {
+                test("fillCharSnippet", new char[length], 1, length - 1, (char) 0xFFFF);
+            }
+        }
+    }
+
+    @Test
+    public void testFillInt() {
+        assertContains("fillIntSnippet", ArrayFillNode.class);
+        for (int length : LENGTHS) {
+            test("fillIntSnippet", new int[length], 0, length, 0xCAFEBABE);
+            if (length > 2) {
+                test("fillIntSnippet", new int[length], 1, length - 1, -1);
+            }
+        }
+    }
+
+    @Test
+    public void testFillLong() {
+        assertContains("fillLongSnippet", ArrayFillNode.class);
+        for (int length : LENGTHS) {
+            test("fillLongSnippet", new long[length], 0, length, 0x0123456789ABCDEFL);
+            if (length > 2) {
+                test("fillLongSnippet", new long[length], 1, length - 1, -1L);
+            }
+        }
+    }
+
+    @Test
+    public void testFillDouble() {
+        assertContains("fillDoubleSnippet", ArrayFillNode.class);
+        for (int length : LENGTHS) {
+            test("fillDoubleSnippet", new double[length], -0.0d);
+            test("fillDoubleSnippet", new double[length], Double.NaN);
+        }
+    }
+
+    @Test
+    public void testFillBoolean() {
+        assertContains("fillBooleanSnippet", ArrayFillNode.class);
+        for (int length : LENGTHS) {
+            test("fillBooleanSnippet", new boolean[length], true);
+        }
+    }
+
+    @Test
+    public void testFillRangeChecks() {
+        test("fillIntSnippet", new int[8], -1, 4, 1);
+        test("fillIntSnippet", new int[8], 4, 9, 1);
+        test("fillIntSnippet", new int[8], 5, 4, 1);
+        test("fillIntSnippet", new int[8], 4, 4, 1);
+        test("fillIntSnippet", null, 0, 0, 1);
+    }
+}
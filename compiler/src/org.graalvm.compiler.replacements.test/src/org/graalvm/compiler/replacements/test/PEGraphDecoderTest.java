@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -47,7 +47,9 @@ import org.graalvm.compiler.nodes.memory.address.OffsetAddressNode;
 import org.graalvm.compiler.nodes.spi.CoreProviders;
 import org.graalvm.compiler.phases.OptimisticOptimizations;
 import org.graalvm.compiler.replacements.CachingPEGraphDecoder;
+import org.graalvm.compiler.replacements.EncodedGraphCache;
 import org.graalvm.word.LocationIdentity;
+import org.junit.Assert;
 import org.junit.Test;
 
 import jdk.vm.ci.meta.JavaKind;
@@ -155,4 +157,32 @@ public class PEGraphDecoderTest extends GraalCompilerTest {
             debug.handle(ex);
         }
     }
+
+    @Test
+    @SuppressWarnings("try")
+    public void testSharedCache() {
+        ResolvedJavaMethod testMethod = getResolvedJavaMethod(PEGraphDecoderTest.class, "doTest", Object.class);
+        EncodedGraphCache sharedCache = new EncodedGraphCache(16);
+        DebugContext debug = getDebugContext();
+        try (DebugContext.Scope scope = debug.scope("GraphPETest", testMethod)) {
+            GraphBuilderConfiguration graphBuilderConfig = GraphBuilderConfiguration.getDefault(getDefaultGraphBuilderPlugins()).withEagerResolving(true).withUnresolvedIsError(true);
+            registerPlugins(graphBuilderConfig.getPlugins().getInvocationPlugins());
+            int[] nodeCounts = new int[2];
+            for (int i = 0; i < nodeCounts.length; i++) {
+                StructuredGraph targetGraph = new StructuredGraph.Builder(getInitialOptions(), debug, AllowAssumptions.YES).method(testMethod).build();
+                CachingPEGraphDecoder decoder = new CachingPEGraphDecoder(getTarget().arch, targetGraph, getProviders(), graphBuilderConfig, OptimisticOptimizations.NONE, AllowAssumptions.YES,
+                                null, null, new InlineInvokePlugin[]{new InlineAll()}, null, null, null, null, null, null, EconomicMap.create(), sharedCache, "test");
+                decoder.decode(testMethod, false, false);
+                targetGraph.verify();
+                nodeCounts[i] = targetGraph.getNodeCount();
+            }
+            Assert.assertTrue("graphs must be shared between decoders", sharedCache.getHits() > 0);
+            Assert.assertEquals(nodeCounts[0], nodeCounts[1]);
+
+            sharedCache.clear();
+            Assert.assertEquals(0, sharedCache.size());
+        } catch (Throwable ex) {
+            throw debug.handle(ex);
+        }
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -28,7 +28,15 @@ import java.util.Arrays;
 
 import org.graalvm.compiler.api.replacements.ClassSubstitution;
 import org.graalvm.compiler.api.replacements.MethodSubstitution;
+import org.graalvm.compiler.nodes.DeoptimizeNode;
+import org.graalvm.compiler.nodes.extended.BranchProbabilityNode;
 import org.graalvm.compiler.replacements.nodes.ArrayEqualsNode;
+import org.graalvm.compiler.replacements.nodes.ArrayFillNode;
+import org.graalvm.compiler.replacements.nodes.ArrayHashCodeNode;
+
+import jdk.vm.ci.meta.DeoptimizationAction;
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.JavaKind;
 
 // JaCoCo Exclude
 
@@ -125,4 +133,134 @@ public class ArraysSubstitutions {
         }
         return ArrayEqualsNode.equals(a, a2, a.length);
     }
+
+    @MethodSubstitution
+    public static int hashCode(byte[] a) {
+        if (a == null) {
+            return 0;
+        }
+        return ArrayHashCodeNode.hashCode(a, a.length, JavaKind.Byte);
+    }
+
+    @MethodSubstitution
+    public static int hashCode(char[] a) {
+        if (a == null) {
+            return 0;
+        }
+        return ArrayHashCodeNode.hashCode(a, a.length, JavaKind.Char);
+    }
+
+    @MethodSubstitution
+    public static int hashCode(short[] a) {
+        if (a == null) {
+            return 0;
+        }
+        return ArrayHashCodeNode.hashCode(a, a.length, JavaKind.Short);
+    }
+
+    @MethodSubstitution
+    public static int hashCode(int[] a) {
+        if (a == null) {
+            return 0;
+        }
+        return ArrayHashCodeNode.hashCode(a, a.length, JavaKind.Int);
+    }
+
+    @MethodSubstitution
+    public static void fill(boolean[] a, boolean val) {
+        ArrayFillNode.fill(a, 0, a.length, val ? 1 : 0, JavaKind.Boolean);
+    }
+
+    @MethodSubstitution
+    public static void fill(boolean[] a, int fromIndex, int toIndex, boolean val) {
+        checkFillRange(a.length, fromIndex, toIndex);
+        ArrayFillNode.fill(a, fromIndex, toIndex, val ? 1 : 0, JavaKind.Boolean);
+    }
+
+    @MethodSubstitution
+    public static void fill(byte[] a, byte val) {
+        ArrayFillNode.fill(a, 0, a.length, val, JavaKind.Byte);
+    }
+
+    @MethodSubstitution
+    public static void fill(byte[] a, int fromIndex, int toIndex, byte val) {
+        checkFillRange(a.length, fromIndex, toIndex);
+        ArrayFillNode.fill(a, fromIndex, toIndex, val, JavaKind.Byte);
+    }
+
+    @MethodSubstitution
+    public static void fill(char[] a, char val) {
+        ArrayFillNode.fill(a, 0, a.length, val, JavaKind.Char);
+    }
+
+    @MethodSubstitution
+    public static void fill(char[] a, int fromIndex, int toIndex, char val) {
+        checkFillRange(a.length, fromIndex, toIndex);
+        ArrayFillNode.fill(a, fromIndex, toIndex, val, JavaKind.Char);
+    }
+
+    @MethodSubstitution
+    public static void fill(short[] a, short val) {
+        ArrayFillNode.fill(a, 0, a.length, val, JavaKind.Short);
+    }
+
+    @MethodSubstitution
+    public static void fill(short[] a, int fromIndex, int toIndex, short val) {
+        checkFillRange(a.length, fromIndex, toIndex);
+        ArrayFillNode.fill(a, fromIndex, toIndex, val, JavaKind.Short);
+    }
+
+    @MethodSubstitution
+    public static void fill(int[] a, int val) {
+        ArrayFillNode.fill(a, 0, a.length, val, JavaKind.Int);
+    }
+
+    @MethodSubstitution
+    public static void fill(int[] a, int fromIndex, int toIndex, int val) {
+        checkFillRange(a.length, fromIndex, toIndex);
+        ArrayFillNode.fill(a, fromIndex, toIndex, val, JavaKind.Int);
+    }
+
+    @MethodSubstitution
+    public static void fill(long[] a, long val) {
+        ArrayFillNode.fill(a, 0, a.length, val, JavaKind.Long);
+    }
+
+    @MethodSubstitution
+    public static void fill(long[] a, int fromIndex, int toIndex, long val) {
+        checkFillRange(a.length, fromIndex, toIndex);
+        ArrayFillNode.fill(a, fromIndex, toIndex, val, JavaKind.Long);
+    }
+
+    @MethodSubstitution
+    public static void fill(float[] a, float val) {
+        ArrayFillNode.fill(a, 0, a.length, Float.floatToRawIntBits(val), JavaKind.Float);
+    }
+
+    @MethodSubstitution
+    public static void fill(float[] a, int fromIndex, int toIndex, float val) {
+        checkFillRange(a.length, fromIndex, toIndex);
+        ArrayFillNode.fill(a, fromIndex, toIndex, Float.floatToRawIntBits(val), JavaKind.Float);
+    }
+
+    @MethodSubstitution
+    public static void fill(double[] a, double val) {
+        ArrayFillNode.fill(a, 0, a.length, Double.doubleToRawLongBits(val), JavaKind.Double);
+    }
+
+    @MethodSubstitution
+    public static void fill(double[] a, int fromIndex, int toIndex, double val) {
+        checkFillRange(a.length, fromIndex, toIndex);
+        ArrayFillNode.fill(a, fromIndex, toIndex, Double.doubleToRawLongBits(val), JavaKind.Double);
+    }
+
+    /**
+     * The range checks of {@link Arrays#fill(int[], int, int, int)}. Failing checks deoptimize so
+     * that the interpreter throws the appropriate exception.
+     */
+    private static void checkFillRange(int length, int fromIndex, int toIndex) {
+        if (BranchProbabilityNode.probability(BranchProbabilityNode.DEOPT_PROBABILITY, fromIndex < 0 || fromIndex > toIndex || toIndex > length)) {
+            DeoptimizeNode.deopt(DeoptimizationAction.None, DeoptimizationReason.BoundsCheckException);
+        }
+    }
 }
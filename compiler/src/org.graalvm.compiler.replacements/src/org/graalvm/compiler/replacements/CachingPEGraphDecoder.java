@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -58,6 +58,10 @@ import jdk.vm.ci.meta.ResolvedJavaMethod;
 /**
  * A graph decoder that provides all necessary encoded graphs on-the-fly (by parsing the methods and
  * encoding the graphs).
+ *
+ * Parsed graphs are kept in a cache that is local to the caller. In addition, graphs can be
+ * shared with other compilations through an {@link EncodedGraphCache}. The caller must pass a
+ * configuration key that distinguishes all parsing configurations using the same shared cache.
  */
 public class CachingPEGraphDecoder extends PEGraphDecoder {
 
@@ -66,6 +70,8 @@ public class CachingPEGraphDecoder extends PEGraphDecoder {
     protected final OptimisticOptimizations optimisticOpts;
     private final AllowAssumptions allowAssumptions;
     private final EconomicMap<ResolvedJavaMethod, EncodedGraph> graphCache;
+    private final EncodedGraphCache sharedGraphCache;
+    private final Object sharedGraphCacheKey;
     private final BasePhase<? super CoreProviders> postParsingPhase;
 
     public CachingPEGraphDecoder(Architecture architecture, StructuredGraph graph, Providers providers, GraphBuilderConfiguration graphBuilderConfig, OptimisticOptimizations optimisticOpts,
@@ -73,6 +79,16 @@ public class CachingPEGraphDecoder extends PEGraphDecoder {
                     ParameterPlugin parameterPlugin,
                     NodePlugin[] nodePlugins, ResolvedJavaMethod callInlinedMethod, ResolvedJavaMethod callInlinedAgnosticMethod, SourceLanguagePositionProvider sourceLanguagePositionProvider,
                     BasePhase<? super CoreProviders> postParsingPhase, EconomicMap<ResolvedJavaMethod, EncodedGraph> graphCache) {
+        this(architecture, graph, providers, graphBuilderConfig, optimisticOpts, allowAssumptions, loopExplosionPlugin, invocationPlugins, inlineInvokePlugins, parameterPlugin, nodePlugins,
+                        callInlinedMethod, callInlinedAgnosticMethod, sourceLanguagePositionProvider, postParsingPhase, graphCache, null, null);
+    }
+
+    public CachingPEGraphDecoder(Architecture architecture, StructuredGraph graph, Providers providers, GraphBuilderConfiguration graphBuilderConfig, OptimisticOptimizations optimisticOpts,
+                    AllowAssumptions allowAssumptions, LoopExplosionPlugin loopExplosionPlugin, InvocationPlugins invocationPlugins, InlineInvokePlugin[] inlineInvokePlugins,
+                    ParameterPlugin parameterPlugin,
+                    NodePlugin[] nodePlugins, ResolvedJavaMethod callInlinedMethod, ResolvedJavaMethod callInlinedAgnosticMethod, SourceLanguagePositionProvider sourceLanguagePositionProvider,
+                    BasePhase<? super CoreProviders> postParsingPhase, EconomicMap<ResolvedJavaMethod, EncodedGraph> graphCache, EncodedGraphCache sharedGraphCache,
+                    Object sharedGraphCacheKey) {
         super(architecture, graph, providers, loopExplosionPlugin,
                         invocationPlugins, inlineInvokePlugins, parameterPlugin, nodePlugins, callInlinedMethod, callInlinedAgnosticMethod, sourceLanguagePositionProvider);
 
@@ -81,6 +97,8 @@ public class CachingPEGraphDecoder extends PEGraphDecoder {
         this.optimisticOpts = optimisticOpts;
         this.allowAssumptions = allowAssumptions;
         this.graphCache = graphCache;
+        this.sharedGraphCache = sharedGraphCache;
+        this.sharedGraphCacheKey = sharedGraphCacheKey;
         this.postParsingPhase = postParsingPhase;
     }
 
@@ -90,6 +108,7 @@ public class CachingPEGraphDecoder extends PEGraphDecoder {
 
     @SuppressWarnings("try")
     private EncodedGraph createGraph(ResolvedJavaMethod method, MethodSubstitutionPlugin plugin, BytecodeProvider intrinsicBytecodeProvider, boolean isSubstitution) {
+        startParsing(method);
         StructuredGraph graphToEncode;
         if (isSubstitution && (UseEncodedGraphs.getValue(options) || IS_IN_NATIVE_IMAGE)) {
             // These must go through Replacements to find the graph to use.
@@ -112,9 +131,30 @@ public class CachingPEGraphDecoder extends PEGraphDecoder {
 
         EncodedGraph encodedGraph = GraphEncoder.encodeSingleGraph(graphToEncode, architecture);
         graphCache.put(method, encodedGraph);
+        if (sharedGraphCache != null && plugin == null && !isSubstitution && isShareable(method)) {
+            sharedGraphCache.put(method, sharedGraphCacheKey, encodedGraph);
+        }
         return encodedGraph;
     }
 
+    /**
+     * Called before a graph for {@code method} is created. Subclasses can use this to start
+     * tracking state of the current compilation that the graph depends on.
+     */
+    @SuppressWarnings("unused")
+    protected void startParsing(ResolvedJavaMethod method) {
+    }
+
+    /**
+     * Determines if the graph that was created for {@code method} since the last call of
+     * {@link #startParsing} may be used by other compilations. Subclasses can override this to
+     * exclude graphs that depend on state of the current compilation.
+     */
+    @SuppressWarnings("unused")
+    protected boolean isShareable(ResolvedJavaMethod method) {
+        return true;
+    }
+
     @SuppressWarnings("try")
     private StructuredGraph buildGraph(ResolvedJavaMethod method, MethodSubstitutionPlugin plugin, BytecodeProvider intrinsicBytecodeProvider, boolean isSubstitution) {
         StructuredGraph graphToEncode;// @formatter:off
@@ -146,6 +186,12 @@ public class CachingPEGraphDecoder extends PEGraphDecoder {
     protected EncodedGraph lookupEncodedGraph(ResolvedJavaMethod method, MethodSubstitutionPlugin plugin, BytecodeProvider intrinsicBytecodeProvider, boolean isSubstitution,
                     boolean trackNodeSourcePosition) {
         EncodedGraph result = graphCache.get(method);
+        if (result == null && sharedGraphCache != null && plugin == null && !isSubstitution) {
+            result = sharedGraphCache.get(method, sharedGraphCacheKey);
+            if (result != null) {
+                graphCache.put(method, result);
+            }
+        }
         if (result == null && method.hasBytecodes()) {
             result = createGraph(method, plugin, intrinsicBytecodeProvider, isSubstitution);
         }
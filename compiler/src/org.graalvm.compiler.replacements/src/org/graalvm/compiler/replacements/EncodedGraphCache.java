@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.graalvm.compiler.nodes.EncodedGraph;
+
+import jdk.vm.ci.meta.Assumptions;
+import jdk.vm.ci.meta.Assumptions.Assumption;
+import jdk.vm.ci.meta.Assumptions.AssumptionResult;
+import jdk.vm.ci.meta.Assumptions.ConcreteMethod;
+import jdk.vm.ci.meta.Assumptions.ConcreteSubtype;
+import jdk.vm.ci.meta.Assumptions.LeafType;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
+
+/**
+ * A thread-safe cache of {@link EncodedGraph}s that is shared by all compilations using the same
+ * parsing configuration. Entries are keyed by method and by an opaque configuration key that must
+ * capture everything that influences parsing, such as the graph builder plugins and options. The
+ * least recently used entries are evicted once the cache holds more than {@code capacity}
+ * graphs.
+ * <p>
+ * Graphs parsed with assumptions are only returned as long as their assumptions still hold.
+ * Assumptions that cannot be checked make the graph ineligible for sharing.
+ */
+public final class EncodedGraphCache {
+
+    private static final class Key {
+        private final ResolvedJavaMethod method;
+        private final Object configuration;
+
+        Key(ResolvedJavaMethod method, Object configuration) {
+            this.method = method;
+            this.configuration = configuration;
+        }
+
+        @Override
+        public int hashCode() {
+            return method.hashCode() * 31 + Objects.hashCode(configuration);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Key) {
+                Key other = (Key) obj;
+                return method.equals(other.method) && Objects.equals(configuration, other.configuration);
+            }
+            return false;
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Key, EncodedGraph> graphs;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param capacity the maximum number of graphs held by this cache
+     */
+    public EncodedGraphCache(int capacity) {
+        this.capacity = capacity;
+        this.graphs = new LinkedHashMap<Key, EncodedGraph>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, EncodedGraph> eldest) {
+                return size() > EncodedGraphCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets the graph for {@code method} parsed with {@code configuration}, or {@code null} if there
+     * is none or its assumptions no longer hold.
+     */
+    public EncodedGraph get(ResolvedJavaMethod method, Object configuration) {
+        Key key = new Key(method, configuration);
+        EncodedGraph graph;
+        synchronized (this) {
+            graph = graphs.get(key);
+            if (graph == null) {
+                misses++;
+                return null;
+            }
+        }
+        if (!assumptionsHold(graph.getAssumptions())) {
+            synchronized (this) {
+                graphs.remove(key, graph);
+                misses++;
+            }
+            return null;
+        }
+        synchronized (this) {
+            hits++;
+        }
+        return graph;
+    }
+
+    /**
+     * Adds {@code graph} to this cache if it can be shared.
+     */
+    public void put(ResolvedJavaMethod method, Object configuration, EncodedGraph graph) {
+        if (capacity <= 0 || !assumptionsHold(graph.getAssumptions())) {
+            return;
+        }
+        Key key = new Key(method, configuration);
+        synchronized (this) {
+            graphs.put(key, graph);
+        }
+    }
+
+    public synchronized void clear() {
+        graphs.clear();
+    }
+
+    public synchronized int size() {
+        return graphs.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private static boolean assumptionsHold(Assumptions assumptions) {
+        if (assumptions == null) {
+            return true;
+        }
+        for (Iterator<Assumption> iterator = assumptions.iterator(); iterator.hasNext();) {
+            if (!holds(iterator.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean holds(Assumption assumption) {
+        if (assumption instanceof ConcreteMethod) {
+            ConcreteMethod concreteMethod = (ConcreteMethod) assumption;
+            AssumptionResult<ResolvedJavaMethod> result = concreteMethod.context.findUniqueConcreteMethod(concreteMethod.method);
+            return result != null && concreteMethod.impl.equals(result.getResult());
+        } else if (assumption instanceof ConcreteSubtype) {
+            ConcreteSubtype concreteSubtype = (ConcreteSubtype) assumption;
+            return isLeafConcreteSubtype(concreteSubtype.context, concreteSubtype.subtype);
+        } else if (assumption instanceof LeafType) {
+            LeafType leafType = (LeafType) assumption;
+            return isLeafConcreteSubtype(leafType.context, leafType.context);
+        }
+        // cannot be checked again, so the graph must not be shared
+        return false;
+    }
+
+    private static boolean isLeafConcreteSubtype(ResolvedJavaType context, ResolvedJavaType subtype) {
+        AssumptionResult<ResolvedJavaType> result = context.findLeafConcreteSubtype();
+        return result != null && subtype.equals(result.getResult());
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -310,6 +310,23 @@ public class StandardGraphBuilderPlugins {
         r.registerMethodSubstitution(ArraysSubstitutions.class, "equals", long[].class, long[].class);
     }
 
+    /**
+     * Registers the substitutions of {@link Arrays#hashCode} and {@link Arrays#fill} for primitive
+     * arrays. These must only be registered by architectures whose LIR generator implements
+     * {@code emitArrayHashCode} and {@code emitArrayFill}.
+     */
+    public static void registerArraysHashCodeAndFillPlugins(InvocationPlugins plugins, Replacements replacements) {
+        Registration r = new Registration(plugins, Arrays.class, replacements);
+        for (Class<?> arrayClass : new Class<?>[]{byte[].class, char[].class, short[].class, int[].class}) {
+            r.registerMethodSubstitution(ArraysSubstitutions.class, "hashCode", arrayClass);
+        }
+        for (JavaKind kind : new JavaKind[]{JavaKind.Boolean, JavaKind.Byte, JavaKind.Char, JavaKind.Short, JavaKind.Int, JavaKind.Long, JavaKind.Float, JavaKind.Double}) {
+            Class<?> arrayClass = Array.newInstance(kind.toJavaClass(), 0).getClass();
+            r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", arrayClass, kind.toJavaClass());
+            r.registerMethodSubstitution(ArraysSubstitutions.class, "fill", arrayClass, int.class, int.class, kind.toJavaClass());
+        }
+    }
+
     private static void registerArrayPlugins(InvocationPlugins plugins, Replacements replacements) {
         Registration r = new Registration(plugins, Array.class, replacements);
         r.register2("newInstance", Class.class, int.class, new InvocationPlugin() {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -25,6 +25,7 @@
 package org.graalvm.compiler.truffle.compiler;
 
 import static org.graalvm.compiler.nodes.graphbuilderconf.InlineInvokePlugin.InlineInfo.createStandardInlineInfo;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.EncodedGraphCacheCapacity;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.NodeSourcePositions;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.ExcludeAssertions;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.TraceInlining;
@@ -101,6 +102,7 @@ import org.graalvm.compiler.phases.common.inlining.InliningUtil;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
 import org.graalvm.compiler.phases.util.Providers;
 import org.graalvm.compiler.replacements.CachingPEGraphDecoder;
+import org.graalvm.compiler.replacements.EncodedGraphCache;
 import org.graalvm.compiler.replacements.InlineDuringParsingPlugin;
 import org.graalvm.compiler.replacements.PEGraphDecoder;
 import org.graalvm.compiler.replacements.ReplacementsImpl;
@@ -161,6 +163,12 @@ public abstract class PartialEvaluator {
     private final ResolvedJavaMethod callBoundary;
     private volatile GraphBuilderConfiguration configForParsing;
 
+    /**
+     * Parsed Java methods shared by all compilations of this partial evaluator, or {@code null} if
+     * disabled. Initialized in {@link #initialize(org.graalvm.options.OptionValues)}.
+     */
+    private volatile EncodedGraphCache encodedGraphCache;
+
     /**
      * Holds instrumentation options initialized in
      * {@link #initialize(org.graalvm.options.OptionValues)} method before the first compilation.
@@ -207,6 +215,8 @@ public abstract class PartialEvaluator {
                         !TruffleCompilerOptions.getPolyglotOptionValue(options, TracePerformanceWarnings).isEmpty();
         configForParsing = configPrototype.withNodeSourcePosition(configPrototype.trackNodeSourcePosition() || needSourcePositions).withOmitAssertions(
                         TruffleCompilerOptions.getPolyglotOptionValue(options, ExcludeAssertions));
+        int encodedGraphCacheCapacity = TruffleCompilerOptions.getPolyglotOptionValue(options, EncodedGraphCacheCapacity);
+        encodedGraphCache = encodedGraphCacheCapacity > 0 ? new EncodedGraphCache(encodedGraphCacheCapacity) : null;
     }
 
     /**
@@ -623,10 +633,30 @@ public abstract class PartialEvaluator {
         DeoptimizeOnExceptionPhase postParsingPhase = new DeoptimizeOnExceptionPhase(
                         method -> TruffleCompilerRuntime.getRuntime().getInlineKind(method, true) == InlineKind.DO_NOT_INLINE_WITH_SPECULATIVE_EXCEPTION);
 
-        Providers compilationUnitProviders = providers.copyWith(new TruffleConstantFieldProvider(providers.getConstantFieldProvider(), providers.getMetaAccess()));
-        return new CachingPEGraphDecoder(architecture, graph, compilationUnitProviders, newConfig, TruffleCompilerImpl.Optimizations, AllowAssumptions.ifNonNull(graph.getAssumptions()),
+        TruffleConstantFieldProvider constantFieldProvider = new TruffleConstantFieldProvider(providers.getConstantFieldProvider(), providers.getMetaAccess());
+        Providers compilationUnitProviders = providers.copyWith(constantFieldProvider);
+        AllowAssumptions allowAssumptions = AllowAssumptions.ifNonNull(graph.getAssumptions());
+        /*
+         * Everything that changes how methods are parsed must be part of the key for the shared
+         * cache. The plugins themselves are fixed for this partial evaluator.
+         */
+        Object sharedGraphCacheKey = Arrays.asList(newConfig.trackNodeSourcePosition(), newConfig.omitAssertions(), getPolyglotOptionValue(options, PrintExpansionHistogram), allowAssumptions);
+        return new CachingPEGraphDecoder(architecture, graph, compilationUnitProviders, newConfig, TruffleCompilerImpl.Optimizations, allowAssumptions,
                         loopExplosionPlugin, decodingInvocationPlugins, inlineInvokePlugins, parameterPlugin, nodePluginList, callInlinedMethod, callInlinedAgnosticMethod,
-                        sourceLanguagePositionProvider, postParsingPhase, graphCache);
+                        sourceLanguagePositionProvider, postParsingPhase, graphCache, encodedGraphCache, sharedGraphCacheKey) {
+            private int mutableValueFolds;
+
+            @Override
+            protected void startParsing(ResolvedJavaMethod method) {
+                mutableValueFolds = constantFieldProvider.getMutableValueFolds();
+            }
+
+            @Override
+            protected boolean isShareable(ResolvedJavaMethod method) {
+                // the graph must not contain values that can change before a later compilation
+                return constantFieldProvider.getMutableValueFolds() == mutableValueFolds;
+            }
+        };
     }
 
     protected void doGraphPE(OptionValues options, CompilableTruffleAST compilable, StructuredGraph graph, HighTierContext tierContext, TruffleInliningPlan inliningDecision,
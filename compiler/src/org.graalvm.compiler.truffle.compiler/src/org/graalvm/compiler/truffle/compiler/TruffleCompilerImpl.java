@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -58,6 +58,7 @@ import org.graalvm.compiler.core.common.CompilationIdentifier;
 import org.graalvm.compiler.core.common.CompilationIdentifier.Verbosity;
 import org.graalvm.compiler.core.common.RetryableBailoutException;
 import org.graalvm.compiler.core.common.util.CompilationAlarm;
+import org.graalvm.compiler.core.common.util.PhaseProfiler;
 import org.graalvm.compiler.core.target.Backend;
 import org.graalvm.compiler.debug.DebugCloseable;
 import org.graalvm.compiler.debug.DebugContext;
@@ -445,7 +446,8 @@ public abstract class TruffleCompilerImpl implements TruffleCompilerBase {
         final CompilationPrinter printer = CompilationPrinter.begin(debug.getOptions(), compilationId, new TruffleDebugJavaMethod(compilable), INVOCATION_ENTRY_BCI);
         StructuredGraph graph = null;
 
-        try (CompilationAlarm alarm = CompilationAlarm.trackCompilationPeriod(debug.getOptions())) {
+        try (CompilationAlarm alarm = CompilationAlarm.trackCompilationPeriod(debug.getOptions());
+                        PhaseProfiler profiler = PhaseProfiler.trackCompilation(debug.getOptions(), compilationId)) {
             PhaseSuite<HighTierContext> graphBuilderSuite = createGraphBuilderSuite();
 
             SpeculationLog speculationLog = compilable.getCompilationSpeculationLog();
@@ -454,7 +456,11 @@ public abstract class TruffleCompilerImpl implements TruffleCompilerBase {
             }
 
             try (DebugCloseable a = PartialEvaluationTime.start(debug); DebugCloseable c = PartialEvaluationMemUse.start(debug)) {
+                int profiledPhase = profiler == null ? 0 : profiler.enterPhase("PartialEvaluation", PhaseProfiler.NO_GRAPH);
                 graph = partialEvaluator.createGraph(options, debug, compilable, inliningPlan, AllowAssumptions.YES, compilationId, speculationLog, task);
+                if (profiler != null) {
+                    profiler.exitPhase(profiledPhase, graph.getNodeCount());
+                }
             }
 
             // Check if the task has been cancelled
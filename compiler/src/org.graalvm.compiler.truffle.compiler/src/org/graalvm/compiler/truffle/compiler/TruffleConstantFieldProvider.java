@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -38,6 +38,7 @@ public class TruffleConstantFieldProvider implements ConstantFieldProvider {
     private final ConstantFieldProvider graalConstantFieldProvider;
     private final MetaAccessProvider metaAccess;
     private final EconomicMap<ResolvedJavaField, ConstantFieldInfo> cachedConstantFieldInfo;
+    private int mutableValueFolds;
 
     public TruffleConstantFieldProvider(ConstantFieldProvider graalConstantFieldProvider, MetaAccessProvider metaAccess) {
         this.graalConstantFieldProvider = graalConstantFieldProvider;
@@ -47,6 +48,24 @@ public class TruffleConstantFieldProvider implements ConstantFieldProvider {
 
     @Override
     public <T> T readConstantField(ResolvedJavaField field, ConstantFieldTool<T> tool) {
+        T result = readTruffleConstantField(field, tool);
+        if (result != null && (!field.isFinal() || field.getType().isArray())) {
+            // the elements of an array may be folded as stable
+            mutableValueFolds++;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of values this provider folded that can still change, such as
+     * {@code @CompilationFinal} fields or the elements of stable arrays. Graphs that contain such
+     * values must not be reused by later compilations.
+     */
+    public int getMutableValueFolds() {
+        return mutableValueFolds;
+    }
+
+    private <T> T readTruffleConstantField(ResolvedJavaField field, ConstantFieldTool<T> tool) {
         boolean isStaticField = field.isStatic();
         if (!isStaticField && tool.getReceiver().isNull()) {
             // can't be optimized
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -395,6 +395,9 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Prints a histogram of all expanded Java methods.", category = OptionCategory.INTERNAL)
     public static final OptionKey<Boolean> PrintExpansionHistogram = new OptionKey<>(false);
 
+    @Option(help = "Maximum number of parsed Java methods kept for partial evaluation across compilations (0 disables the cache).", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> EncodedGraphCacheCapacity = new OptionKey<>(1024);
+
     @Option(help = "Run the partial escape analysis iteratively in Truffle compilation.", category = OptionCategory.INTERNAL)
     public static final OptionKey<Boolean> IterativePartialEscape = new OptionKey<>(false);
 
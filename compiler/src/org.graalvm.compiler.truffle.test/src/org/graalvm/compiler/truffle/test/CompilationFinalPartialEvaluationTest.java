@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2016, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -184,4 +184,40 @@ public class CompilationFinalPartialEvaluationTest extends PartialEvaluationTest
         });
     }
 
+    static final class Holder {
+        @CompilationFinal int value;
+    }
+
+    static final Holder HOLDER = new Holder();
+
+    static int readHolder() {
+        return HOLDER.value;
+    }
+
+    public static Object constant1() {
+        return 1;
+    }
+
+    public static Object constant2() {
+        return 2;
+    }
+
+    @Test
+    public void compilationFinalChangedBetweenCompilations() {
+        HOLDER.value = 1;
+        assertPartialEvalEquals("constant1", new RootNode(null) {
+            @Override
+            public Object execute(VirtualFrame frame) {
+                return readHolder();
+            }
+        });
+        // the graph of readHolder must not be reused from the shared graph cache
+        HOLDER.value = 2;
+        assertPartialEvalEquals("constant2", new RootNode(null) {
+            @Override
+            public Object execute(VirtualFrame frame) {
+                return readHolder();
+            }
+        });
+    }
 }
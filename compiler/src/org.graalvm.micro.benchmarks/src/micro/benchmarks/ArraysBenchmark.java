@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the substitutions of {@link Arrays#hashCode} and {@link Arrays#fill}.
+ */
+@State(Scope.Thread)
+public class ArraysBenchmark extends BenchmarkBase {
+
+    @Param({"7", "64", "1024", "65536"}) int size;
+
+    byte[] bytes;
+    char[] chars;
+    int[] ints;
+    long[] longs;
+    double[] doubles;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        bytes = new byte[size];
+        chars = new char[size];
+        ints = new int[size];
+        longs = new long[size];
+        doubles = new double[size];
+        random.nextBytes(bytes);
+        for (int i = 0; i < size; i++) {
+            chars[i] = (char) random.nextInt();
+            ints[i] = random.nextInt();
+        }
+    }
+
+    @Benchmark
+    public int hashCodeBytes() {
+        return Arrays.hashCode(bytes);
+    }
+
+    @Benchmark
+    public int hashCodeChars() {
+        return Arrays.hashCode(chars);
+    }
+
+    @Benchmark
+    public int hashCodeInts() {
+        return Arrays.hashCode(ints);
+    }
+
+    @Benchmark
+    public byte[] fillBytes() {
+        Arrays.fill(bytes, (byte) 42);
+        return bytes;
+    }
+
+    @Benchmark
+    public int[] fillInts() {
+        Arrays.fill(ints, 42);
+        return ints;
+    }
+
+    @Benchmark
+    public int[] fillIntsRange() {
+        Arrays.fill(ints, 1, size - 1, 42);
+        return ints;
+    }
+
+    @Benchmark
+    public long[] fillLongs() {
+        Arrays.fill(longs, 42L);
+        return longs;
+    }
+
+    @Benchmark
+    public double[] fillDoubles() {
+        Arrays.fill(doubles, 4.2d);
+        return doubles;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks loops with a {@code long} counter, which keep a safepoint poll unless they are strip
+ * mined. The {@code sum*} benchmarks measure the throughput of such loops. The
+ * {@code timeToSafepoint} group runs a long loop in one thread while another thread repeatedly
+ * requests a global safepoint; the average time of {@code requestSafepoint} is dominated by the
+ * time it takes the looping thread to reach a poll. Strip mining is disabled by default, compare
+ * against runs with {@code -Dgraal.LoopStripMining=true} and varying
+ * {@code -Dgraal.LoopStripMiningIterations}.
+ */
+@State(Scope.Benchmark)
+public class LoopStripMiningBenchmark extends BenchmarkBase {
+
+    @Param({"1024", "1048576"}) int size;
+
+    int[] array;
+
+    @Setup
+    public void setup() {
+        array = new int[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = i * 31;
+        }
+    }
+
+    @Benchmark
+    public long sumCounter() {
+        long sum = 0;
+        for (long i = 0; i < size; i++) {
+            sum += i * i;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sumArray() {
+        int[] a = array;
+        long sum = 0;
+        for (long i = 0; i < a.length; i++) {
+            sum += a[(int) i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sumArrayBackwards() {
+        int[] a = array;
+        long sum = 0;
+        for (long i = a.length - 1; i >= 0; i--) {
+            sum += a[(int) i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @Group("timeToSafepoint")
+    @GroupThreads(1)
+    public long runLongLoop() {
+        long sum = 0;
+        for (long i = 0; i < 64L * size; i++) {
+            sum += i ^ (sum >>> 3);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @Group("timeToSafepoint")
+    @GroupThreads(1)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int requestSafepoint() {
+        // collecting the stack traces of all threads is a VM operation executed at a safepoint
+        return Thread.getAllStackTraces().size();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the loop shapes handled by loop vectorization. Run with
+ * {@code -Dgraal.LoopVectorization=true} to measure the vectorized loops.
+ */
+@State(Scope.Thread)
+public class LoopVectorizationBenchmark extends BenchmarkBase {
+
+    @Param({"16", "1024", "65536"}) int size;
+
+    int[] intsA;
+    int[] intsB;
+    int[] intsResult;
+    long[] longsA;
+    long[] longsB;
+    long[] longsResult;
+    float[] floatsA;
+    float[] floatsResult;
+    double[] doublesA;
+    double[] doublesB;
+    double[] doublesResult;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        intsA = new int[size];
+        intsB = new int[size];
+        intsResult = new int[size];
+        longsA = new long[size];
+        longsB = new long[size];
+        longsResult = new long[size];
+        floatsA = new float[size];
+        floatsResult = new float[size];
+        doublesA = new double[size];
+        doublesB = new double[size];
+        doublesResult = new double[size];
+        for (int i = 0; i < size; i++) {
+            intsA[i] = random.nextInt();
+            intsB[i] = random.nextInt();
+            longsA[i] = random.nextLong();
+            longsB[i] = random.nextLong();
+            floatsA[i] = random.nextFloat();
+            doublesA[i] = random.nextDouble();
+            doublesB[i] = random.nextDouble() + 1;
+        }
+    }
+
+    @Benchmark
+    public int[] addInts() {
+        int[] a = intsA;
+        int[] b = intsB;
+        int[] result = intsResult;
+        for (int i = 0; i < result.length; i++) {
+            result[i] = a[i] + b[i];
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int[] mulInts() {
+        int[] a = intsA;
+        int[] b = intsB;
+        int[] result = intsResult;
+        for (int i = 0; i < result.length; i++) {
+            result[i] = a[i] * b[i];
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int[] xorIntsInPlace() {
+        int[] a = intsResult;
+        for (int i = 0; i < a.length; i++) {
+            a[i] = a[i] ^ 0x5a5a5a5a;
+        }
+        return a;
+    }
+
+    @Benchmark
+    public long[] subLongs() {
+        long[] a = longsA;
+        long[] b = longsB;
+        long[] result = longsResult;
+        for (int i = 0; i < result.length; i++) {
+            result[i] = a[i] - b[i];
+        }
+        return result;
+    }
+
+    @Benchmark
+    public float[] scaleFloats() {
+        float[] a = floatsA;
+        float[] result = floatsResult;
+        for (int i = 0; i < result.length; i++) {
+            result[i] = a[i] * 1.5f;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public double[] divDoubles() {
+        double[] a = doublesA;
+        double[] b = doublesB;
+        double[] result = doublesResult;
+        for (int i = 0; i < result.length; i++) {
+            result[i] = a[i] / b[i];
+        }
+        return result;
+    }
+
+    @Benchmark
+    public double[] addDoublesRange() {
+        double[] a = doublesA;
+        double[] b = doublesB;
+        double[] result = doublesResult;
+        int to = size - 3;
+        for (int i = 3; i < to; i++) {
+            result[i] = a[i] + b[i];
+        }
+        return result;
+    }
+}
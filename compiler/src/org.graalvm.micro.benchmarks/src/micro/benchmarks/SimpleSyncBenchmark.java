@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -60,6 +60,7 @@ public class SimpleSyncBenchmark extends BenchmarkBase {
     public static class ThreadState {
         Person person = new Person(22);
         int newAge = 45;
+        int[] ages = new int[100];
     }
 
     @Benchmark
@@ -84,4 +85,23 @@ public class SimpleSyncBenchmark extends BenchmarkBase {
         person.setAge(oldAge + 1);
         return oldAge;
     }
+
+    @Benchmark
+    @Warmup(iterations = 20)
+    public int getAgeTwice(ThreadState state) {
+        Person person = state.person;
+        int age = person.getAge();
+        int newAge = state.newAge;
+        return age + person.getAge() + newAge;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 20)
+    public void setAgeLoop(ThreadState state) {
+        Person person = state.person;
+        int[] ages = state.ages;
+        for (int i = 0; i < ages.length; i++) {
+            person.setAge(ages[i]);
+        }
+    }
 }
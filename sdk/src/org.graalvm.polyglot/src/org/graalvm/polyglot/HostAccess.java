@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -94,9 +94,10 @@ public final class HostAccess {
     private final boolean allowAllImplementations;
     final boolean allowArrayAccess;
     final boolean allowListAccess;
+    final boolean allowBufferAccess;
     volatile Object impl;
 
-    private static final HostAccess EMPTY = new HostAccess(null, null, null, null, null, null, null, false, false, false, false);
+    private static final HostAccess EMPTY = new HostAccess(null, null, null, null, null, null, null, false, false, false, false, false);
 
     /**
      * Predefined host access policy that allows access to public host methods or fields that were
@@ -130,12 +131,12 @@ public final class HostAccess {
      *
      * <pre>
      * HostAccess.newBuilder().allowPublicAccess(true).allowAllImplementations(true).//
-     *                 allowArrayAccess(true).allowListAccess(true).build();
+     *                 allowArrayAccess(true).allowListAccess(true).allowBufferAccess(true).build();
      * </pre>
      *
      * @since 19.0
      */
-    public static final HostAccess ALL = newBuilder().allowPublicAccess(true).allowAllImplementations(true).allowArrayAccess(true).allowListAccess(true).name("HostAccess.ALL").build();
+    public static final HostAccess ALL = newBuilder().allowPublicAccess(true).allowAllImplementations(true).allowArrayAccess(true).allowListAccess(true).allowBufferAccess(true).name("HostAccess.ALL").build();
 
     /**
      * Predefined host access policy that disallows any access to public host methods or fields.
@@ -154,7 +155,7 @@ public final class HostAccess {
                     EconomicSet<Class<? extends Annotation>> implementableAnnotations,
                     EconomicSet<Class<?>> implementableTypes, List<Object> targetMappings,
                     String name,
-                    boolean allowPublic, boolean allowAllImplementations, boolean allowArrayAccess, boolean allowListAccess) {
+                    boolean allowPublic, boolean allowAllImplementations, boolean allowArrayAccess, boolean allowListAccess, boolean allowBufferAccess) {
         // create defensive copies
         this.accessAnnotations = copySet(annotations, Equivalence.IDENTITY);
         this.excludeTypes = copyMap(excludeTypes, Equivalence.IDENTITY);
@@ -167,6 +168,7 @@ public final class HostAccess {
         this.allowAllImplementations = allowAllImplementations;
         this.allowArrayAccess = allowArrayAccess;
         this.allowListAccess = allowListAccess;
+        this.allowBufferAccess = allowBufferAccess;
     }
 
     private static <T> EconomicSet<T> copySet(EconomicSet<T> values, Equivalence equivalence) {
@@ -368,6 +370,7 @@ public final class HostAccess {
         private boolean allowPublic;
         private boolean allowListAccess;
         private boolean allowArrayAccess;
+        private boolean allowBufferAccess;
         private boolean allowAllImplementations;
         private String name;
 
@@ -387,6 +390,7 @@ public final class HostAccess {
             this.allowPublic = access.allowPublic;
             this.allowListAccess = access.allowListAccess;
             this.allowArrayAccess = access.allowArrayAccess;
+            this.allowBufferAccess = access.allowBufferAccess;
             this.allowAllImplementations = access.allowAllImplementations;
         }
 
@@ -542,6 +546,19 @@ public final class HostAccess {
             return this;
         }
 
+        /**
+         * Allows the guest application to access {@link java.nio.ByteBuffer byte buffers} as values
+         * with {@link Value#hasBufferElements() buffer elements}. By default no buffer access is
+         * allowed.
+         *
+         * @see Value#hasBufferElements()
+         * @since 20.1
+         */
+        public Builder allowBufferAccess(boolean bufferAccess) {
+            this.allowBufferAccess = bufferAccess;
+            return this;
+        }
+
         /**
          * Adds a custom source to target type mapping for Java host calls, host field assignments
          * and {@link Value#as(Class) explicit value conversions}. The source type specifies the
@@ -671,7 +688,7 @@ public final class HostAccess {
          */
         public HostAccess build() {
             return new HostAccess(accessAnnotations, excludeTypes, members, implementationAnnotations, implementableTypes, targetMappings, name, allowPublic, allowAllImplementations, allowArrayAccess,
-                            allowListAccess);
+                            allowListAccess, allowBufferAccess);
         }
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -42,6 +42,7 @@ package org.graalvm.polyglot;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteOrder;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -52,6 +53,7 @@ import java.time.ZonedDateTime;
 import java.time.zone.ZoneRules;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
@@ -97,6 +99,16 @@ import org.graalvm.polyglot.proxy.Proxy;
  * <ul>
  * <li>{@link #hasArrayElements() Array Elements}: This value may contain array elements. The array
  * indices always start with <code>0</code>, also if the language uses a different style.
+ * <li>{@link #hasBufferElements() Buffer Elements}: This value may contain buffer elements. A
+ * buffer is a contiguous sequence of bytes that can be read and written as primitive values of a
+ * given byte order. For example, the contents of a {@link java.nio.ByteBuffer} or of a
+ * WebAssembly memory are buffer elements.
+ * <li>{@link #hasIterator() Iterable}: This value provides an {@link #getIterator() iterator}
+ * over its elements. For example, the elements of a guest language list, set or generator.
+ * <li>{@link #isIterator() Iterator}: This value is an iterator. The elements are traversed using
+ * {@link #hasIteratorNextElement()} and {@link #getIteratorNextElement()}.
+ * <li>{@link #hasHashEntries() Hash Entries}: This value may contain hash entries. Hash entries map
+ * keys of arbitrary type to values. For example, the entries of a guest language dictionary.
  * <li>{@link #hasMembers() Members}: This value may contain members. Members are structural
  * elements of an object. For example, the members of a Java object are all public methods and
  * fields. Members are accessible using {@link #getMember(String)}.
@@ -321,6 +333,456 @@ public final class Value {
         return impl.getArraySize(receiver);
     }
 
+    /**
+     * Returns <code>true</code> if this polyglot value has buffer elements. A buffer is a
+     * contiguous sequence of bytes that can be accessed using byte offsets. In this case buffer
+     * elements can be accessed using {@link #readBufferByte(long)}, the typed read methods like
+     * {@link #readBufferInt(ByteOrder, long)} and the corresponding write methods. Ranges of bytes
+     * can be copied in bulk using {@link #readBuffer(long, byte[], int, int)} and
+     * {@link #writeBuffer(long, byte[], int, int)}. The buffer size can be queried using
+     * {@link #getBufferSize()}.
+     *
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public boolean hasBufferElements() {
+        return impl.hasBufferElements(receiver);
+    }
+
+    /**
+     * Returns <code>true</code> if the buffer elements of this value can be modified.
+     *
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public boolean isBufferWritable() {
+        return impl.isBufferWritable(receiver);
+    }
+
+    /**
+     * Returns the buffer size in bytes for values with buffer elements.
+     *
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public long getBufferSize() {
+        return impl.getBufferSize(receiver);
+    }
+
+    /**
+     * Reads the byte at the given byte offset from the start of the buffer.
+     *
+     * @throws IndexOutOfBoundsException if the byte offset is not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public byte readBufferByte(long byteOffset) {
+        return impl.readBufferByte(receiver, byteOffset);
+    }
+
+    /**
+     * Writes the given byte at the given byte offset from the start of the buffer.
+     *
+     * @throws IndexOutOfBoundsException if the byte offset is not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements} or if the buffer is not
+     *             {@link #isBufferWritable() writable}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public void writeBufferByte(long byteOffset, byte value) {
+        impl.writeBufferByte(receiver, byteOffset, value);
+    }
+
+    /**
+     * Reads the short at the given byte offset from the start of the buffer in the given byte order.
+     * The byte offset does not need to be aligned.
+     *
+     * @throws IndexOutOfBoundsException if the accessed bytes are not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public short readBufferShort(ByteOrder order, long byteOffset) {
+        Objects.requireNonNull(order);
+        return impl.readBufferShort(receiver, order, byteOffset);
+    }
+
+    /**
+     * Writes the given short at the given byte offset from the start of the buffer in the given byte
+     * order. The byte offset does not need to be aligned.
+     *
+     * @throws IndexOutOfBoundsException if the accessed bytes are not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements} or if the buffer is not
+     *             {@link #isBufferWritable() writable}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public void writeBufferShort(ByteOrder order, long byteOffset, short value) {
+        Objects.requireNonNull(order);
+        impl.writeBufferShort(receiver, order, byteOffset, value);
+    }
+
+    /**
+     * Reads the int at the given byte offset from the start of the buffer in the given byte order.
+     * The byte offset does not need to be aligned.
+     *
+     * @throws IndexOutOfBoundsException if the accessed bytes are not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public int readBufferInt(ByteOrder order, long byteOffset) {
+        Objects.requireNonNull(order);
+        return impl.readBufferInt(receiver, order, byteOffset);
+    }
+
+    /**
+     * Writes the given int at the given byte offset from the start of the buffer in the given byte
+     * order. The byte offset does not need to be aligned.
+     *
+     * @throws IndexOutOfBoundsException if the accessed bytes are not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements} or if the buffer is not
+     *             {@link #isBufferWritable() writable}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public void writeBufferInt(ByteOrder order, long byteOffset, int value) {
+        Objects.requireNonNull(order);
+        impl.writeBufferInt(receiver, order, byteOffset, value);
+    }
+
+    /**
+     * Reads the long at the given byte offset from the start of the buffer in the given byte order.
+     * The byte offset does not need to be aligned.
+     *
+     * @throws IndexOutOfBoundsException if the accessed bytes are not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public long readBufferLong(ByteOrder order, long byteOffset) {
+        Objects.requireNonNull(order);
+        return impl.readBufferLong(receiver, order, byteOffset);
+    }
+
+    /**
+     * Writes the given long at the given byte offset from the start of the buffer in the given byte
+     * order. The byte offset does not need to be aligned.
+     *
+     * @throws IndexOutOfBoundsException if the accessed bytes are not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements} or if the buffer is not
+     *             {@link #isBufferWritable() writable}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public void writeBufferLong(ByteOrder order, long byteOffset, long value) {
+        Objects.requireNonNull(order);
+        impl.writeBufferLong(receiver, order, byteOffset, value);
+    }
+
+    /**
+     * Reads the float at the given byte offset from the start of the buffer in the given byte order.
+     * The byte offset does not need to be aligned.
+     *
+     * @throws IndexOutOfBoundsException if the accessed bytes are not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public float readBufferFloat(ByteOrder order, long byteOffset) {
+        Objects.requireNonNull(order);
+        return impl.readBufferFloat(receiver, order, byteOffset);
+    }
+
+    /**
+     * Writes the given float at the given byte offset from the start of the buffer in the given byte
+     * order. The byte offset does not need to be aligned.
+     *
+     * @throws IndexOutOfBoundsException if the accessed bytes are not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements} or if the buffer is not
+     *             {@link #isBufferWritable() writable}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public void writeBufferFloat(ByteOrder order, long byteOffset, float value) {
+        Objects.requireNonNull(order);
+        impl.writeBufferFloat(receiver, order, byteOffset, value);
+    }
+
+    /**
+     * Reads the double at the given byte offset from the start of the buffer in the given byte order.
+     * The byte offset does not need to be aligned.
+     *
+     * @throws IndexOutOfBoundsException if the accessed bytes are not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public double readBufferDouble(ByteOrder order, long byteOffset) {
+        Objects.requireNonNull(order);
+        return impl.readBufferDouble(receiver, order, byteOffset);
+    }
+
+    /**
+     * Writes the given double at the given byte offset from the start of the buffer in the given byte
+     * order. The byte offset does not need to be aligned.
+     *
+     * @throws IndexOutOfBoundsException if the accessed bytes are not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements} or if the buffer is not
+     *             {@link #isBufferWritable() writable}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public void writeBufferDouble(ByteOrder order, long byteOffset, double value) {
+        Objects.requireNonNull(order);
+        impl.writeBufferDouble(receiver, order, byteOffset, value);
+    }
+
+    /**
+     * Copies <code>length</code> bytes starting at the given byte offset of the buffer into the
+     * destination array. Buffers that are backed by a Java array or by native memory copy the whole
+     * range at once, which is considerably faster than reading the bytes one by one.
+     *
+     * @throws IndexOutOfBoundsException if the accessed bytes are not within the buffer or if the
+     *             destination range is not within the destination array.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public void readBuffer(long byteOffset, byte[] destination, int destinationOffset, int length) {
+        Objects.requireNonNull(destination);
+        impl.readBuffer(receiver, byteOffset, destination, destinationOffset, length);
+    }
+
+    /**
+     * Copies <code>length</code> bytes of the source array into the buffer starting at the given
+     * byte offset. Buffers that are backed by a Java array or by native memory copy the whole range
+     * at once, which is considerably faster than writing the bytes one by one.
+     *
+     * @throws IndexOutOfBoundsException if the accessed bytes are not within the buffer or if the
+     *             source range is not within the source array.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements} or if the buffer is not
+     *             {@link #isBufferWritable() writable}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public void writeBuffer(long byteOffset, byte[] source, int sourceOffset, int length) {
+        Objects.requireNonNull(source);
+        impl.writeBuffer(receiver, byteOffset, source, sourceOffset, length);
+    }
+
+    /**
+     * Returns <code>true</code> if this polyglot value provides an iterator. In this case the
+     * iterator can be obtained using {@link #getIterator()}. Iterating the elements of a value is
+     * preferable to {@link #getArrayElement(long) indexed access} for collections that do not
+     * support random access, like linked lists, sets or generators. Values with
+     * {@link #hasArrayElements() array elements} provide an iterator by default.
+     *
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public boolean hasIterator() {
+        return impl.hasIterator(receiver);
+    }
+
+    /**
+     * Returns a new iterator for this value. The returned value is always an
+     * {@link #isIterator() iterator}.
+     *
+     * @throws UnsupportedOperationException if the value does not provide an
+     *             {@link #hasIterator() iterator}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public Value getIterator() {
+        return impl.getIterator(receiver);
+    }
+
+    /**
+     * Returns <code>true</code> if this polyglot value represents an iterator. In this case the
+     * elements can be traversed using {@link #hasIteratorNextElement()} and
+     * {@link #getIteratorNextElement()}.
+     *
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public boolean isIterator() {
+        return impl.isIterator(receiver);
+    }
+
+    /**
+     * Returns <code>true</code> if the iterator has more elements.
+     *
+     * @throws UnsupportedOperationException if the value is not an {@link #isIterator()
+     *             iterator}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public boolean hasIteratorNextElement() {
+        return impl.hasIteratorNextElement(receiver);
+    }
+
+    /**
+     * Returns the next element of the iterator and advances the iterator.
+     *
+     * @throws NoSuchElementException if the iterator has no more elements.
+     * @throws UnsupportedOperationException if the value is not an {@link #isIterator()
+     *             iterator} or if the element is not readable.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public Value getIteratorNextElement() {
+        return impl.getIteratorNextElement(receiver);
+    }
+
+    /**
+     * Returns <code>true</code> if this polyglot value has hash entries. A hash entry maps a key of
+     * arbitrary type to a value, for example the entries of a guest language map or dictionary.
+     * In this case hash entries can be accessed using {@link #getHashValue(Object)},
+     * {@link #putHashEntry(Object, Object)}, {@link #removeHashEntry(Object)} and streamed using
+     * {@link #getHashEntriesIterator()}. The number of entries can be queried using
+     * {@link #getHashSize()}.
+     *
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public boolean hasHashEntries() {
+        return impl.hasHashEntries(receiver);
+    }
+
+    /**
+     * Returns the number of hash entries for values with hash entries.
+     *
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasHashEntries() hash entries}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public long getHashSize() {
+        return impl.getHashSize(receiver);
+    }
+
+    /**
+     * Returns <code>true</code> if a mapping for the given key exists. If the value has no
+     * {@link #hasHashEntries() hash entries} then <code>false</code> is returned. The key is
+     * subject to polyglot value mapping rules as described in {@link Context#asValue(Object)}.
+     *
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public boolean hasHashEntry(Object key) {
+        return impl.hasHashEntry(receiver, key);
+    }
+
+    /**
+     * Returns the value mapped to the given key or <code>null</code> if the mapping does not
+     * exist. The key is subject to polyglot value mapping rules as described in
+     * {@link Context#asValue(Object)}.
+     *
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasHashEntries() hash entries} or if the mapping exists but is not
+     *             readable.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public Value getHashValue(Object key) {
+        return impl.getHashValue(receiver, key);
+    }
+
+    /**
+     * Associates the value with the given key. The key and the value are subject to polyglot value
+     * mapping rules as described in {@link Context#asValue(Object)}.
+     *
+     * @throws IllegalArgumentException if the key or the value cannot be stored by the guest
+     *             language.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasHashEntries() hash entries}, the mapping does not exist and cannot be
+     *             inserted, or the existing mapping is not modifiable.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public void putHashEntry(Object key, Object value) {
+        impl.putHashEntry(receiver, key, value);
+    }
+
+    /**
+     * Removes the mapping for the given key. Returns <code>true</code> if the mapping was removed,
+     * <code>false</code> if such a mapping does not exist. The key is subject to polyglot value
+     * mapping rules as described in {@link Context#asValue(Object)}.
+     *
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasHashEntries() hash entries} or if the mapping exists but cannot be
+     *             removed.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public boolean removeHashEntry(Object key) {
+        return impl.removeHashEntry(receiver, key);
+    }
+
+    /**
+     * Returns a new {@link #isIterator() iterator} over the hash entries. Every element of the
+     * iterator has two {@link #hasArrayElements() array elements}: the key at index
+     * <code>0</code> and the value at index <code>1</code>. Iterating the entries does not require
+     * all keys to be materialized at once.
+     *
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasHashEntries() hash entries}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public Value getHashEntriesIterator() {
+        return impl.getHashEntriesIterator(receiver);
+    }
+
     /**
      * Returns <code>true</code> if this value generally supports containing members. To check
      * whether a value has <i>no</i> members use
@@ -938,7 +1400,11 @@ public final class Value {
      * of functional interface method is converted using the semantics of {@link #as(Class)}. If a
      * standard functional interface like {@link Function} is used, it is recommended to use
      * {@link #as(TypeLiteral) type literals} to specify the expected generic method parameter and
-     * return type.
+     * return type. The primitive operators {@link java.util.function.IntUnaryOperator},
+     * {@link java.util.function.IntBinaryOperator}, {@link java.util.function.LongUnaryOperator},
+     * {@link java.util.function.LongBinaryOperator}, {@link java.util.function.DoubleUnaryOperator}
+     * and {@link java.util.function.DoubleBinaryOperator} are implemented without reflection and
+     * are therefore the preferred target types for frequently invoked guest functions.
      * <li>Any interface if the value {@link #hasMembers() has members} and the interface type is
      * {@link HostAccess.Implementable implementable}. Each interface method maps to one
      * {@link #getMember(String) member} of the value. Whenever a method of the interface is
@@ -170,6 +170,22 @@ suite = {
       "license" : "BSD-new",
       "testProject" : True,
     },
+    "com.oracle.truffle.llvm.tests.benchmark" : {
+      "subDir" : "tests",
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "com.oracle.truffle.llvm.runtime",
+        "mx:JMH_1_21",
+      ],
+      "checkstyle" : "com.oracle.truffle.llvm.runtime",
+      "annotationProcessors" : ["mx:JMH_1_21"],
+      "javaCompliance" : "1.8+",
+      "spotbugsIgnoresGenerated" : True,
+      "workingSets" : "Truffle, LLVM",
+      "license" : "BSD-new",
+      "testProject" : True,
+      "jacoco" : "exclude",
+    },
     "com.oracle.truffle.llvm.tests.types" : {
       "subDir" : "tests",
       "sourceDirs" : ["src"],
@@ -737,6 +753,36 @@ suite = {
       "testProject" : True,
       "defaultBuild" : False,
     },
+    "com.oracle.truffle.llvm.tests.vector.native" : {
+      "subDir" : "tests",
+      "class" : "SulongTestSuite",
+      "variants" : ["O3"],
+      "buildRef" : False,
+      "buildSharedObject" : True,
+      "buildEnv" : {
+        "OS" : "<os>",
+      },
+      "dependencies" : [
+        "SULONG_TEST",
+      ],
+      "testProject" : True,
+      "defaultBuild" : False,
+    },
+    "com.oracle.truffle.llvm.tests.pthread.native" : {
+      "subDir" : "tests",
+      "class" : "SulongTestSuite",
+      "variants" : ["O1"],
+      "buildRef" : False,
+      "buildSharedObject" : True,
+      "buildEnv" : {
+        "OS" : "<os>",
+      },
+      "dependencies" : [
+        "SULONG_TEST",
+      ],
+      "testProject" : True,
+      "defaultBuild" : False,
+    },
     "com.oracle.truffle.llvm.tests.sulongcpp.native" : {
       "subDir" : "tests",
       "class" : "SulongTestSuite",
@@ -1117,10 +1163,12 @@ suite = {
         "com.oracle.truffle.llvm.tests",
         "com.oracle.truffle.llvm.tests.types",
         "com.oracle.truffle.llvm.tests.pipe",
-        "com.oracle.truffle.llvm.tests.tck"
+        "com.oracle.truffle.llvm.tests.tck",
+        "com.oracle.truffle.llvm.tests.benchmark",
       ],
       "exclude" : [
-       "mx:JUNIT"
+       "mx:JUNIT",
+       "mx:JMH_1_21",
       ],
       "distDependencies" : [
         "truffle:TRUFFLE_API",
@@ -1177,6 +1225,8 @@ suite = {
           "dependency:com.oracle.truffle.llvm.tests.sulong.native/*",
           "dependency:com.oracle.truffle.llvm.tests.sulongavx.native/*",
           "dependency:com.oracle.truffle.llvm.tests.sulongcpp.native/*",
+          "dependency:com.oracle.truffle.llvm.tests.vector.native/*",
+          "dependency:com.oracle.truffle.llvm.tests.pthread.native/*",
           "dependency:com.oracle.truffle.llvm.tests.libc.native/*",
           "dependency:com.oracle.truffle.llvm.tests.linker.native/*",
         ],
@@ -92,6 +92,20 @@ public final class LLVMScanner {
     }
 
     public static void parseBitcode(ByteSequence bitcode, ModelModule model, Source bcSource, LLVMContext context) {
+        final BCFileRoot fileParser = scanBitcode(bitcode, model, bcSource);
+
+        // the root block does not exist in the LLVM file and is therefore never exited by the
+        // scanner
+        fileParser.exit(context);
+    }
+
+    /**
+     * Scans {@code bitcode} into {@code model} without accessing any {@link LLVMContext}, so that
+     * modules can be scanned on threads that are not entered in a context. The caller must
+     * {@link BCFileRoot#exit(LLVMContext) exit} the returned root listener before the model is
+     * used.
+     */
+    public static BCFileRoot scanBitcode(ByteSequence bitcode, ModelModule model, Source bcSource) {
         final BitStream bitstream = BitStream.create(bitcode);
         final BCFileRoot fileParser = new BCFileRoot(model, bcSource);
         final LLVMScanner scanner = new LLVMScanner(bitstream, fileParser);
@@ -101,10 +115,7 @@ public final class LLVMScanner {
         }
 
         scanner.scanToEnd();
-
-        // the root block does not exist in the LLVM file and is therefore never exited by the
-        // scanner
-        fileParser.exit(context);
+        return fileParser;
     }
 
     private static <V> List<V> subList(List<V> original, int from) {
@@ -731,6 +731,15 @@ public final class LLVMContext {
         tls.put(Thread.currentThread(), value);
     }
 
+    /**
+     * Removes the thread local storage of the current thread, so that the next pthread that runs
+     * on this thread starts without one.
+     */
+    @TruffleBoundary
+    public void clearThreadLocalStorage() {
+        tls.remove(Thread.currentThread());
+    }
+
     @TruffleBoundary
     public LLVMFunctionDescriptor getFunctionDescriptor(LLVMNativePointer handle) {
         return functionPointerRegistry.getDescriptor(handle);
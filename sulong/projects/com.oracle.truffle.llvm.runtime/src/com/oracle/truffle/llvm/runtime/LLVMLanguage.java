@@ -116,6 +116,12 @@ public class LLVMLanguage extends TruffleLanguage<LLVMContext> {
         public abstract void loadDefaults(LLVMContext context, Path internalLibraryPath);
 
         public abstract CallTarget load(LLVMContext context, Source source, AtomicInteger id);
+
+        /**
+         * Stops the threads that the loader created for {@code context}.
+         */
+        public void finalizeContext(@SuppressWarnings("unused") LLVMContext context) {
+        }
     }
 
     public List<ContextExtension> getLanguageContextExtension() {
@@ -264,6 +270,7 @@ public class LLVMLanguage extends TruffleLanguage<LLVMContext> {
     @Override
     protected void finalizeContext(LLVMContext context) {
         context.finalizeContext();
+        getCapability(Loader.class).finalizeContext(context);
     }
 
     @Override
@@ -302,6 +309,8 @@ public class LLVMLanguage extends TruffleLanguage<LLVMContext> {
     @Override
     protected void disposeThread(LLVMContext context, Thread thread) {
         super.disposeThread(context, thread);
+        context.getHandleContainer().disposeThread(thread);
+        context.getDerefHandleContainer().disposeThread(thread);
         if (context.isInitialized()) {
             context.getThreadingStack().freeStack(getLLVMMemory(), thread);
         }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2019, Oracle and/or its affiliates.
+ * Copyright (c) 2018, 2020, Oracle and/or its affiliates.
  *
  * All rights reserved.
  *
@@ -246,6 +246,12 @@ public abstract class LLVMMemory implements LLVMCapability {
 
         public abstract boolean isHandle(long address);
 
+        /**
+         * Releases the state that the container keeps for the specified thread, which does not use
+         * the container any more.
+         */
+        public abstract void disposeThread(Thread thread);
+
     }
 
     public abstract HandleContainer createHandleContainer(boolean deref, Assumption noHandleAssumption);
@@ -30,13 +30,14 @@
 package com.oracle.truffle.llvm.runtime.memory;
 
 import java.lang.reflect.Field;
-import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.IntBinaryOperator;
 import java.util.function.LongBinaryOperator;
 
-import org.graalvm.collections.EconomicMap;
-
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -554,16 +555,38 @@ public final class LLVMNativeMemory extends LLVMMemory {
         return deref ? new DerefHandleContainer(noHandleAssumption) : new CommonHandleContainer(noHandleAssumption);
     }
 
+    /**
+     * Maps managed objects to handles and back. The container is accessed concurrently by all
+     * threads of a context, so the hot paths ({@link #allocate}, {@link #free} and the lookups)
+     * do not take a lock:
+     * <ul>
+     * <li>Handles are stored in fixed-size segments. Growing the table only copies the small array
+     * of segments, existing segments are never copied. Handles are published into a segment with
+     * a release write and read with a volatile read.</li>
+     * <li>Indices of freed handles are kept in primitive per-thread caches, which exchange chunks
+     * of indices through a shared pool when they run empty or overflow. The caches of disposed or
+     * terminated threads are returned to the shared pool.</li>
+     * <li>The reference count of a handle is updated with CAS. A handle whose count dropped to
+     * zero is dead and is never revived; a concurrent {@link #allocate} creates a new handle.</li>
+     * </ul>
+     */
     private abstract static class AbstractHandleContainer extends HandleContainer {
 
+        private static final int SEGMENT_BITS = 10;
+        private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+        private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+        private static final int INITIAL_SEGMENTS = 16;
+
         private final Assumption noHandleAssumption;
-        private final ArrayDeque<Long> freeList = new ArrayDeque<>();
-        private final EconomicMap<Object, Handle> handleFromManaged = EconomicMap.create();
-        private Handle[] handleFromPointer = new Handle[1024];
-        private long top = getStart(); // address of the next handle
+        private final ConcurrentHashMap<Object, Handle> handleFromManaged = new ConcurrentHashMap<>();
+        private final FreeIndexPool freeIndices = new FreeIndexPool();
+        private final AtomicLong top = new AtomicLong(); // index of the next never used handle
+        private final long maxIndex;
+        private volatile Handle[][] segments = new Handle[INITIAL_SEGMENTS][];
 
         AbstractHandleContainer(Assumption noHandleAssumption) {
             this.noHandleAssumption = noHandleAssumption;
+            this.maxIndex = Math.min((getEnd() - getStart()) >>> HANDLE_OBJECT_SIZE_BITS, Integer.MAX_VALUE);
         }
 
         protected abstract long getStart();
@@ -574,38 +597,98 @@ public final class LLVMNativeMemory extends LLVMMemory {
             return (int) (((address - getStart()) >> HANDLE_OBJECT_SIZE_BITS));
         }
 
+        private long pointerFromIndex(int index) {
+            return getStart() + ((long) index << HANDLE_OBJECT_SIZE_BITS);
+        }
+
+        private Handle lookup(int index) {
+            if (index < 0) {
+                return null;
+            }
+            Handle[][] array = segments;
+            int segmentIndex = index >>> SEGMENT_BITS;
+            if (segmentIndex >= array.length) {
+                return null;
+            }
+            Handle[] segment = array[segmentIndex];
+            return segment == null ? null : getHandle(segment, index);
+        }
+
+        private static Handle getHandle(Handle[] segment, int index) {
+            return (Handle) unsafe.getObjectVolatile(segment, handleOffset(index));
+        }
+
+        private static void putHandle(Handle[] segment, int index, Handle handle) {
+            unsafe.putOrderedObject(segment, handleOffset(index), handle);
+        }
+
+        private static long handleOffset(int index) {
+            return Unsafe.ARRAY_OBJECT_BASE_OFFSET + (long) (index & SEGMENT_MASK) * Unsafe.ARRAY_OBJECT_INDEX_SCALE;
+        }
+
+        private Handle[] ensureSegment(int index) {
+            int segmentIndex = index >>> SEGMENT_BITS;
+            Handle[][] array = segments;
+            if (segmentIndex < array.length && array[segmentIndex] != null) {
+                return array[segmentIndex];
+            }
+            synchronized (this) {
+                array = segments;
+                if (segmentIndex >= array.length) {
+                    array = Arrays.copyOf(array, Math.max(array.length * 2, segmentIndex + 1));
+                }
+                if (array[segmentIndex] == null) {
+                    array[segmentIndex] = new Handle[SEGMENT_SIZE];
+                }
+                // publish the (possibly new) segment
+                segments = array;
+                return array[segmentIndex];
+            }
+        }
+
+        private int allocateIndex() {
+            int free = freeIndices.poll();
+            if (free >= 0) {
+                return free;
+            }
+            noHandleAssumption.invalidate();
+            long index = top.getAndIncrement();
+            if (index >= maxIndex) {
+                throw new OutOfMemoryError("handle space exhausted");
+            }
+            return (int) index;
+        }
+
         @Override
         @TruffleBoundary
-        public synchronized LLVMNativePointer allocate(Object value) {
-            Handle handle = handleFromManaged.get(value);
-            if (handle == null) {
-                Long free = freeList.pollFirst();
-                long address;
-                if (free != null) {
-                    address = free;
-                } else {
-                    noHandleAssumption.invalidate();
-                    if (top >= getEnd()) {
-                        throw new OutOfMemoryError("handle space exhausted");
+        public LLVMNativePointer allocate(Object value) {
+            while (true) {
+                Handle handle = handleFromManaged.get(value);
+                if (handle != null) {
+                    if (handle.retain()) {
+                        return handle.pointer;
                     }
-                    address = top;
-                    top += HANDLE_OBJECT_SIZE;
+                    // the handle is concurrently being freed, do not wait for its owner to unmap it
+                    handleFromManaged.remove(value, handle);
+                    continue;
                 }
-                handle = new Handle(LLVMNativePointer.create(address), value);
-                int index = indexFromPointer(address);
-                if (handleFromPointer.length <= index) {
-                    handleFromPointer = Arrays.copyOf(handleFromPointer, handleFromPointer.length * 2);
+                int index = allocateIndex();
+                Handle newHandle = new Handle(LLVMNativePointer.create(pointerFromIndex(index)), value);
+                Handle[] segment = ensureSegment(index);
+                putHandle(segment, index, newHandle);
+                handle = handleFromManaged.putIfAbsent(value, newHandle);
+                if (handle == null) {
+                    return newHandle.pointer;
                 }
-                handleFromPointer[index] = handle;
-                handleFromManaged.put(value, handle);
+                // another thread created a handle for the same object in the meantime
+                putHandle(segment, index, null);
+                freeIndices.add(index);
             }
-            handle.refcnt++;
-            return handle.pointer;
         }
 
         @Override
         @TruffleBoundary
-        public synchronized void free(long address) {
+        public void free(long address) {
             if ((address & HANDLE_OFFSET_MASK) != 0) {
                 throw new UnsupportedOperationException("Cannot resolve invalid native handle: " + address);
             }
@@ -613,17 +696,21 @@ public final class LLVMNativeMemory extends LLVMMemory {
                 throw new UnsupportedOperationException("Cannot resolve invalid native handle: " + address);
             }
             int index = indexFromPointer(address);
-            if (index < 0 || index >= handleFromPointer.length) {
+            if (index < 0 || index >= top.get()) {
                 throw new UnsupportedOperationException("Cannot resolve native handle: " + address);
             }
-            Handle handle = handleFromPointer[index];
+            Handle handle = lookup(index);
             if (handle == null) {
                 throw new UnsupportedOperationException("Cannot resolve native handle (double-free?): " + address);
             }
-            if (--handle.refcnt == 0) {
-                handleFromPointer[index] = null;
-                handleFromManaged.removeKey(handle.managed);
-                freeList.addLast(address);
+            int refcnt = handle.release();
+            if (refcnt < 0) {
+                throw new UnsupportedOperationException("Cannot resolve native handle (double-free?): " + address);
+            }
+            if (refcnt == 0) {
+                putHandle(segments[index >>> SEGMENT_BITS], index, null);
+                handleFromManaged.remove(handle.managed, handle);
+                freeIndices.add(index);
             }
         }
 
@@ -632,28 +719,206 @@ public final class LLVMNativeMemory extends LLVMMemory {
             if ((address & HANDLE_HEADER_MASK) != getStart()) {
                 return false;
             }
-            int index = indexFromPointer(address);
-            Handle[] array = handleFromPointer;
-            return index >= 0 && index < array.length && array[index] != null;
+            return lookup(indexFromPointer(address)) != null;
         }
 
         @Override
         public LLVMManagedPointer getValue(long address) {
-            return LLVMManagedPointer.create(handleFromPointer[indexFromPointer(address)].managed, address & HANDLE_OFFSET_MASK);
+            return LLVMManagedPointer.create(lookup(indexFromPointer(address)).managed, address & HANDLE_OFFSET_MASK);
+        }
+
+        @Override
+        @TruffleBoundary
+        public void disposeThread(Thread thread) {
+            freeIndices.disposeThread(thread);
+        }
+    }
+
+    /**
+     * Pool of free handle indices. Each thread caches up to {@link #LOCAL_CAPACITY} indices in a
+     * primitive stack; full or empty caches exchange chunks of {@link #CHUNK_SIZE} indices with a
+     * shared queue, so that threads only touch shared state once per chunk.
+     *
+     * The indices cached by a thread are moved to the shared queue when the thread is
+     * {@link #disposeThread disposed}. Only the owning thread touches its cache, so a thread that is
+     * disposed from another thread drains its cache itself if it uses the pool again. Threads that
+     * are never disposed or do not use the pool again, e.g., embedder threads that terminated while
+     * the context is still alive, are reclaimed whenever another thread creates its cache.
+     */
+    private static final class FreeIndexPool {
+
+        private static final int LOCAL_CAPACITY = 256;
+        private static final int CHUNK_SIZE = LOCAL_CAPACITY / 2;
+
+        private final ConcurrentLinkedQueue<int[]> shared = new ConcurrentLinkedQueue<>();
+        private final ConcurrentHashMap<Thread, IntStack> caches = new ConcurrentHashMap<>();
+        private final ThreadLocal<IntStack> local = new ThreadLocal<IntStack>() {
+            @Override
+            protected IntStack initialValue() {
+                reclaimTerminatedThreads();
+                IntStack stack = new IntStack(LOCAL_CAPACITY);
+                caches.put(Thread.currentThread(), stack);
+                return stack;
+            }
+        };
+
+        /**
+         * Returns a free index, or -1 if there is none.
+         */
+        int poll() {
+            IntStack stack = localStack();
+            if (stack.size == 0) {
+                int[] chunk = shared.poll();
+                if (chunk == null) {
+                    return -1;
+                }
+                stack.pushAll(chunk);
+            }
+            return stack.pop();
+        }
+
+        void add(int index) {
+            IntStack stack = localStack();
+            if (stack.size == LOCAL_CAPACITY) {
+                shared.add(stack.popChunk(CHUNK_SIZE));
+            }
+            stack.push(index);
+        }
+
+        private IntStack localStack() {
+            IntStack stack = local.get();
+            if (stack.disposed) {
+                // the thread was disposed from another thread and is used again
+                replaceDisposed(stack);
+                stack = local.get();
+            }
+            return stack;
+        }
+
+        @TruffleBoundary
+        private void replaceDisposed(IntStack stack) {
+            caches.remove(Thread.currentThread(), stack);
+            local.remove();
+            drain(stack);
+        }
+
+        /**
+         * Returns the indices cached by the specified thread to the shared queue. The cache of
+         * another thread that is still alive is only marked as disposed, it is drained by its
+         * owner on the next use or reclaimed once the thread terminated.
+         */
+        void disposeThread(Thread thread) {
+            if (thread == Thread.currentThread()) {
+                IntStack stack = caches.remove(thread);
+                local.remove();
+                if (stack != null) {
+                    drain(stack);
+                }
+            } else {
+                IntStack stack = caches.get(thread);
+                if (stack != null) {
+                    stack.disposed = true;
+                }
+                if (!thread.isAlive()) {
+                    reclaimTerminatedThreads();
+                }
+            }
+        }
+
+        private void reclaimTerminatedThreads() {
+            for (Thread thread : caches.keySet()) {
+                if (!thread.isAlive()) {
+                    IntStack stack = caches.remove(thread);
+                    if (stack != null) {
+                        drain(stack);
+                    }
+                }
+            }
+        }
+
+        private void drain(IntStack stack) {
+            while (stack.size > 0) {
+                shared.add(stack.popChunk(Math.min(stack.size, CHUNK_SIZE)));
+            }
+        }
+    }
+
+    private static final class IntStack {
+
+        private final int[] values;
+        private int size;
+        /**
+         * Set when the owning thread was disposed by another thread.
+         */
+        volatile boolean disposed;
+
+        IntStack(int capacity) {
+            this.values = new int[capacity];
+        }
+
+        void push(int value) {
+            values[size++] = value;
+        }
+
+        void pushAll(int[] chunk) {
+            System.arraycopy(chunk, 0, values, size, chunk.length);
+            size += chunk.length;
+        }
+
+        int pop() {
+            return values[--size];
+        }
+
+        int[] popChunk(int length) {
+            size -= length;
+            return Arrays.copyOfRange(values, size, size + length);
         }
     }
 
     private static final class Handle {
 
-        private int refcnt;
+        private static final AtomicIntegerFieldUpdater<Handle> REFCNT = AtomicIntegerFieldUpdater.newUpdater(Handle.class, "refcnt");
+
+        private volatile int refcnt;
         private final LLVMNativePointer pointer;
         private final Object managed;
 
         private Handle(LLVMNativePointer pointer, Object managed) {
-            this.refcnt = 0;
+            this.refcnt = 1;
             this.pointer = pointer;
             this.managed = managed;
         }
+
+        /**
+         * Increments the reference count, unless the handle is already dead.
+         */
+        boolean retain() {
+            while (true) {
+                int current = refcnt;
+                if (current == 0) {
+                    return false;
+                }
+                if (REFCNT.compareAndSet(this, current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Decrements the reference count and returns the new value, or -1 if the handle is
+         * already dead.
+         */
+        int release() {
+            while (true) {
+                int current = refcnt;
+                if (current == 0) {
+                    return -1;
+                }
+                if (REFCNT.compareAndSet(this, current, current - 1)) {
+                    return current - 1;
+                }
+            }
+        }
     }
 
     private static final class CommonHandleContainer extends AbstractHandleContainer {
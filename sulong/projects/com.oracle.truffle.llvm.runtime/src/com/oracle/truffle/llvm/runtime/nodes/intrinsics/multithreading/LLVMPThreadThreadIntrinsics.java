@@ -46,6 +46,7 @@ import com.oracle.truffle.llvm.runtime.nodes.asm.syscall.LLVMAMD64Error;
 import com.oracle.truffle.llvm.runtime.nodes.intrinsics.llvm.LLVMBuiltin;
 import com.oracle.truffle.llvm.runtime.pointer.LLVMNativePointer;
 import com.oracle.truffle.llvm.runtime.pointer.LLVMPointer;
+import com.oracle.truffle.llvm.runtime.pthread.LLVMPThreadContext;
 import com.oracle.truffle.llvm.runtime.pthread.LLVMThreadException;
 import com.oracle.truffle.llvm.runtime.pthread.PThreadExitException;
 
@@ -62,12 +63,15 @@ public final class LLVMPThreadThreadIntrinsics {
                         @Cached("createStoreNode(I64)") LLVMStoreNode store,
                         @CachedContext(LLVMLanguage.class) LLVMContext context) {
             LLVMPThreadStart.LLVMPThreadRunnable init = new LLVMPThreadStart.LLVMPThreadRunnable(startRoutine, arg, context, true);
-            final Thread t = context.getpThreadContext().createThread(init);
-            if (t == null) {
+            final LLVMPThreadContext pThreadContext = context.getpThreadContext();
+            final long threadId = pThreadContext.createThread(init);
+            if (threadId == -1) {
+                return LLVMAMD64Error.EAGAIN;
+            }
+            store.executeWithTarget(thread, threadId);
+            if (!pThreadContext.startThread(threadId)) {
                 return LLVMAMD64Error.EAGAIN;
             }
-            store.executeWithTarget(thread, t.getId());
-            t.start();
             return 0;
         }
     }
@@ -78,7 +82,8 @@ public final class LLVMPThreadThreadIntrinsics {
         @Specialization
         protected int doIntrinsic(Object returnValue,
                         @CachedContext(LLVMLanguage.class) LLVMContext context) {
-            context.getpThreadContext().setThreadReturnValue(Thread.currentThread().getId(), returnValue);
+            final LLVMPThreadContext pThreadContext = context.getpThreadContext();
+            pThreadContext.setThreadReturnValue(pThreadContext.getCurrentThreadId(), returnValue);
             throw new PThreadExitException();
         }
     }
@@ -89,19 +94,15 @@ public final class LLVMPThreadThreadIntrinsics {
         @Specialization
         protected Object doIntrinsic(long threadId,
                         @CachedContext(LLVMLanguage.class) LLVMContext context) {
-            final Thread thread = context.getpThreadContext().getThread(threadId);
-            if (thread != null) {
-                joinThread(thread);
-            }
-
-            return context.getpThreadContext().getThreadReturnValue(threadId);
+            final LLVMPThreadContext pThreadContext = context.getpThreadContext();
+            joinThread(pThreadContext, threadId);
+            return pThreadContext.getThreadReturnValue(threadId);
         }
 
         @TruffleBoundary
-        private void joinThread(Thread thread) {
-            assert thread != null;
+        private void joinThread(LLVMPThreadContext pThreadContext, long threadId) {
             try {
-                thread.join();
+                pThreadContext.joinThread(threadId);
             } catch (InterruptedException e) {
                 CompilerDirectives.transferToInterpreter();
                 throw new LLVMThreadException(this, "Failed to join thread", e);
@@ -112,8 +113,8 @@ public final class LLVMPThreadThreadIntrinsics {
     public abstract static class LLVMPThreadSelf extends LLVMBuiltin {
 
         @Specialization
-        protected LLVMNativePointer doIntrinsic() {
-            return LLVMNativePointer.create(Thread.currentThread().getId());
+        protected LLVMNativePointer doIntrinsic(@CachedContext(LLVMLanguage.class) LLVMContext context) {
+            return LLVMNativePointer.create(context.getpThreadContext().getCurrentThreadId());
         }
     }
 }
@@ -131,6 +131,39 @@ public abstract class LLVMArithmeticNode extends LLVMExpressionNode {
         return op.canDoManaged(operand);
     }
 
+    /*
+     * Lane-wise operations used by LLVMVectorArithmeticNode. They apply the operation directly to
+     * unboxed lane values instead of going through the specializations of executeWithTarget.
+     */
+
+    final boolean doLane(boolean left, boolean right) {
+        return op.doBoolean(left, right);
+    }
+
+    final byte doLane(byte left, byte right) {
+        return op.doByte(left, right);
+    }
+
+    final short doLane(short left, short right) {
+        return op.doShort(left, right);
+    }
+
+    final int doLane(int left, int right) {
+        return op.doInt(left, right);
+    }
+
+    final long doLane(long left, long right) {
+        return op.doLong(left, right);
+    }
+
+    final float doLane(float left, float right) {
+        return ((LLVMFPArithmeticOp) op).doFloat(left, right);
+    }
+
+    final double doLane(double left, double right) {
+        return ((LLVMFPArithmeticOp) op).doDouble(left, right);
+    }
+
     protected LLVMArithmeticNode(ArithmeticOperation op) {
         switch (op) {
             case ADD:
@@ -33,7 +33,6 @@ import com.oracle.truffle.api.dsl.NodeChild;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.llvm.runtime.nodes.api.LLVMExpressionNode;
-import com.oracle.truffle.llvm.runtime.nodes.api.LLVMTypesGen;
 import com.oracle.truffle.llvm.runtime.vector.LLVMDoubleVector;
 import com.oracle.truffle.llvm.runtime.vector.LLVMFloatVector;
 import com.oracle.truffle.llvm.runtime.vector.LLVMI16Vector;
@@ -60,7 +59,7 @@ public abstract class LLVMVectorArithmeticNode extends LLVMExpressionNode {
         assert left.getLength() == vectorLength && right.getLength() == vectorLength;
         boolean[] result = new boolean[vectorLength];
         for (int i = 0; i < vectorLength; i++) {
-            result[i] = LLVMTypesGen.asBoolean(arithmeticNode.executeWithTarget(left.getValue(i), right.getValue(i)));
+            result[i] = arithmeticNode.doLane(left.getValue(i), right.getValue(i));
         }
         return LLVMI1Vector.create(result);
     }
@@ -71,7 +70,7 @@ public abstract class LLVMVectorArithmeticNode extends LLVMExpressionNode {
         assert left.getLength() == vectorLength && right.getLength() == vectorLength;
         byte[] result = new byte[vectorLength];
         for (int i = 0; i < vectorLength; i++) {
-            result[i] = LLVMTypesGen.asByte(arithmeticNode.executeWithTarget(left.getValue(i), right.getValue(i)));
+            result[i] = arithmeticNode.doLane(left.getValue(i), right.getValue(i));
         }
         return LLVMI8Vector.create(result);
     }
@@ -82,7 +81,7 @@ public abstract class LLVMVectorArithmeticNode extends LLVMExpressionNode {
         assert left.getLength() == vectorLength && right.getLength() == vectorLength;
         short[] result = new short[vectorLength];
         for (int i = 0; i < vectorLength; i++) {
-            result[i] = LLVMTypesGen.asShort(arithmeticNode.executeWithTarget(left.getValue(i), right.getValue(i)));
+            result[i] = arithmeticNode.doLane(left.getValue(i), right.getValue(i));
         }
         return LLVMI16Vector.create(result);
     }
@@ -93,7 +92,7 @@ public abstract class LLVMVectorArithmeticNode extends LLVMExpressionNode {
         assert left.getLength() == vectorLength && right.getLength() == vectorLength;
         int[] result = new int[vectorLength];
         for (int i = 0; i < vectorLength; i++) {
-            result[i] = LLVMTypesGen.asInteger(arithmeticNode.executeWithTarget(left.getValue(i), right.getValue(i)));
+            result[i] = arithmeticNode.doLane(left.getValue(i), right.getValue(i));
         }
         return LLVMI32Vector.create(result);
     }
@@ -104,7 +103,7 @@ public abstract class LLVMVectorArithmeticNode extends LLVMExpressionNode {
         assert left.getLength() == vectorLength && right.getLength() == vectorLength;
         long[] result = new long[vectorLength];
         for (int i = 0; i < vectorLength; i++) {
-            result[i] = LLVMTypesGen.asLong(arithmeticNode.executeWithTarget(left.getValue(i), right.getValue(i)));
+            result[i] = arithmeticNode.doLane(left.getValue(i), right.getValue(i));
         }
         return LLVMI64Vector.create(result);
     }
@@ -115,7 +114,7 @@ public abstract class LLVMVectorArithmeticNode extends LLVMExpressionNode {
         assert left.getLength() == vectorLength && right.getLength() == vectorLength;
         float[] result = new float[vectorLength];
         for (int i = 0; i < vectorLength; i++) {
-            result[i] = LLVMTypesGen.asFloat(arithmeticNode.executeWithTarget(left.getValue(i), right.getValue(i)));
+            result[i] = arithmeticNode.doLane(left.getValue(i), right.getValue(i));
         }
         return LLVMFloatVector.create(result);
     }
@@ -126,7 +125,7 @@ public abstract class LLVMVectorArithmeticNode extends LLVMExpressionNode {
         assert left.getLength() == vectorLength && right.getLength() == vectorLength;
         double[] result = new double[vectorLength];
         for (int i = 0; i < vectorLength; i++) {
-            result[i] = LLVMTypesGen.asDouble(arithmeticNode.executeWithTarget(left.getValue(i), right.getValue(i)));
+            result[i] = arithmeticNode.doLane(left.getValue(i), right.getValue(i));
         }
         return LLVMDoubleVector.create(result);
     }
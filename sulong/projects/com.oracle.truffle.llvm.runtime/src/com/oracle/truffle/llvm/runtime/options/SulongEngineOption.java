@@ -132,6 +132,27 @@ public final class SulongEngineOption {
             help = "Enable lazy parsing of LLVM bitcode files.")
     public static final OptionKey<Boolean> LAZY_PARSING = new OptionKey<>(true);
 
+    public static final String PARSE_THREADS_NAME = "llvm.parseThreads";
+    @Option(name = PARSE_THREADS_NAME,
+            category = OptionCategory.EXPERT,
+            help = "Number of worker threads that scan the bitcode of dependencies while other modules are parsed. " +
+                   "Set to 0 to scan all modules on the parsing thread.")
+    public static final OptionKey<Integer> PARSE_THREADS = new OptionKey<>(0);
+
+    public static final String PARSE_CACHE_NAME = "llvm.parseCache";
+    @Option(name = PARSE_CACHE_NAME,
+            category = OptionCategory.EXPERT,
+            help = "Share the bitcode and the dependencies read from a library with the other contexts of the same engine. " +
+                   "Requires llvm.parseThreads to be positive.")
+    public static final OptionKey<Boolean> PARSE_CACHE = new OptionKey<>(false);
+
+    public static final String PTHREAD_POOL_SIZE_NAME = "llvm.pthreadPoolSize";
+    @Option(name = PTHREAD_POOL_SIZE_NAME,
+            category = OptionCategory.EXPERT,
+            help = "Number of idle polyglot threads that are kept to run new pthreads. " +
+                   "Set to 0 to create a new polyglot thread for every pthread.")
+    public static final OptionKey<Integer> PTHREAD_POOL_SIZE = new OptionKey<>(0);
+
     @Option(name = "llvm.llDebug",
             category = OptionCategory.EXPERT,
             help = "Enable IR-level debugging of LLVM bitcode files.")
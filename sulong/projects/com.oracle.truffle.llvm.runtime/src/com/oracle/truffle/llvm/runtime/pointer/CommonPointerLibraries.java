@@ -29,15 +29,19 @@
  */
 package com.oracle.truffle.llvm.runtime.pointer;
 
+import java.nio.ByteOrder;
+
 import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.CachedLanguage;
 import com.oracle.truffle.api.dsl.Cached.Exclusive;
 import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.InvalidBufferOffsetException;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
@@ -193,6 +197,116 @@ abstract class CommonPointerLibraries {
         write.execute(ptr, ptr.getExportType(), value);
     }
 
+    @ExportMessage
+    static boolean hasBufferElements(LLVMPointerImpl receiver) {
+        return receiver.isNative() && receiver.getExportType() instanceof LLVMInteropType.Array;
+    }
+
+    @ExportMessage
+    static boolean isBufferWritable(LLVMPointerImpl receiver) throws UnsupportedMessageException {
+        if (hasBufferElements(receiver)) {
+            return true;
+        } else {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    @ExportMessage
+    static long getBufferSize(LLVMPointerImpl receiver) throws UnsupportedMessageException {
+        if (hasBufferElements(receiver)) {
+            return receiver.getExportType().getSize();
+        } else {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    /**
+     * Returns the native address of a buffer access. Only native pointers to a typed array have
+     * buffer elements, the byte size of the array type bounds the accessible memory.
+     */
+    private static long bufferAddress(LLVMPointerImpl receiver, long byteOffset, int length) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        long size = getBufferSize(receiver);
+        if (byteOffset < 0 || byteOffset > size - length) {
+            throw InvalidBufferOffsetException.create(byteOffset, length);
+        }
+        return receiver.asNative() + byteOffset;
+    }
+
+    @ExportMessage
+    static byte readBufferByte(LLVMPointerImpl receiver, long byteOffset,
+                    @Shared("language") @CachedLanguage LLVMLanguage language) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        return language.getLLVMMemory().getI8(bufferAddress(receiver, byteOffset, Byte.BYTES));
+    }
+
+    @ExportMessage
+    static void writeBufferByte(LLVMPointerImpl receiver, long byteOffset, byte value,
+                    @Shared("language") @CachedLanguage LLVMLanguage language) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        language.getLLVMMemory().putI8(bufferAddress(receiver, byteOffset, Byte.BYTES), value);
+    }
+
+    @ExportMessage
+    static short readBufferShort(LLVMPointerImpl receiver, ByteOrder order, long byteOffset,
+                    @Shared("language") @CachedLanguage LLVMLanguage language) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        short value = language.getLLVMMemory().getI16(bufferAddress(receiver, byteOffset, Short.BYTES));
+        return order == ByteOrder.nativeOrder() ? value : Short.reverseBytes(value);
+    }
+
+    @ExportMessage
+    static void writeBufferShort(LLVMPointerImpl receiver, ByteOrder order, long byteOffset, short value,
+                    @Shared("language") @CachedLanguage LLVMLanguage language) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        language.getLLVMMemory().putI16(bufferAddress(receiver, byteOffset, Short.BYTES), order == ByteOrder.nativeOrder() ? value : Short.reverseBytes(value));
+    }
+
+    @ExportMessage
+    static int readBufferInt(LLVMPointerImpl receiver, ByteOrder order, long byteOffset,
+                    @Shared("language") @CachedLanguage LLVMLanguage language) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        int value = language.getLLVMMemory().getI32(bufferAddress(receiver, byteOffset, Integer.BYTES));
+        return order == ByteOrder.nativeOrder() ? value : Integer.reverseBytes(value);
+    }
+
+    @ExportMessage
+    static void writeBufferInt(LLVMPointerImpl receiver, ByteOrder order, long byteOffset, int value,
+                    @Shared("language") @CachedLanguage LLVMLanguage language) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        language.getLLVMMemory().putI32(bufferAddress(receiver, byteOffset, Integer.BYTES), order == ByteOrder.nativeOrder() ? value : Integer.reverseBytes(value));
+    }
+
+    @ExportMessage
+    static long readBufferLong(LLVMPointerImpl receiver, ByteOrder order, long byteOffset,
+                    @Shared("language") @CachedLanguage LLVMLanguage language) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        long value = language.getLLVMMemory().getI64(bufferAddress(receiver, byteOffset, Long.BYTES));
+        return order == ByteOrder.nativeOrder() ? value : Long.reverseBytes(value);
+    }
+
+    @ExportMessage
+    static void writeBufferLong(LLVMPointerImpl receiver, ByteOrder order, long byteOffset, long value,
+                    @Shared("language") @CachedLanguage LLVMLanguage language) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        language.getLLVMMemory().putI64(bufferAddress(receiver, byteOffset, Long.BYTES), order == ByteOrder.nativeOrder() ? value : Long.reverseBytes(value));
+    }
+
+    @ExportMessage
+    static float readBufferFloat(LLVMPointerImpl receiver, ByteOrder order, long byteOffset,
+                    @Shared("language") @CachedLanguage LLVMLanguage language) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        return Float.intBitsToFloat(readBufferInt(receiver, order, byteOffset, language));
+    }
+
+    @ExportMessage
+    static void writeBufferFloat(LLVMPointerImpl receiver, ByteOrder order, long byteOffset, float value,
+                    @Shared("language") @CachedLanguage LLVMLanguage language) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        writeBufferInt(receiver, order, byteOffset, Float.floatToRawIntBits(value), language);
+    }
+
+    @ExportMessage
+    static double readBufferDouble(LLVMPointerImpl receiver, ByteOrder order, long byteOffset,
+                    @Shared("language") @CachedLanguage LLVMLanguage language) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        return Double.longBitsToDouble(readBufferLong(receiver, order, byteOffset, language));
+    }
+
+    @ExportMessage
+    static void writeBufferDouble(LLVMPointerImpl receiver, ByteOrder order, long byteOffset, double value,
+                    @Shared("language") @CachedLanguage LLVMLanguage language) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        writeBufferLong(receiver, order, byteOffset, Double.doubleToRawLongBits(value), language);
+    }
+
     @ExportLibrary(InteropLibrary.class)
     public static final class Keys implements TruffleObject {
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates.
  *
  * All rights reserved.
  *
@@ -34,11 +34,15 @@ import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.llvm.runtime.LLVMContext;
 import com.oracle.truffle.llvm.runtime.nodes.intrinsics.multithreading.LLVMPThreadStart;
+import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
 import com.oracle.truffle.llvm.runtime.pointer.LLVMPointer;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
 
 public final class LLVMPThreadContext {
 
@@ -51,6 +55,19 @@ public final class LLVMPThreadContext {
     private final ConcurrentMap<Long, Thread> threadStorage;
     private volatile boolean isCreateThreadAllowed;
 
+    /*
+     * Pthreads that run on pooled polyglot threads do not own their Java thread, so they get ids
+     * that are above the range of Java thread ids. The pool is created on first use.
+     */
+    private static final long POOLED_THREAD_ID_BASE = 1L << 32;
+
+    private volatile LLVMPThreadPool threadPool;
+    private int threadPoolSize = -1;
+    private final AtomicLong nextPooledThreadId;
+    private final ConcurrentMap<Long, PooledThread> pooledThreadStorage;
+    // maps the workers of the pool to the id of the pthread they currently run
+    private final ConcurrentMap<Thread, Long> pooledThreadIds;
+
     private int pThreadKey;
     private final Object pThreadKeyLock;
     private final ConcurrentMap<Integer, ConcurrentMap<Long, LLVMPointer>> pThreadKeyStorage;
@@ -65,6 +82,9 @@ public final class LLVMPThreadContext {
         this.threadLock = new Object();
         this.threadReturnValueStorage = new ConcurrentHashMap<>();
         this.threadStorage = new ConcurrentHashMap<>();
+        this.nextPooledThreadId = new AtomicLong(POOLED_THREAD_ID_BASE);
+        this.pooledThreadStorage = new ConcurrentHashMap<>();
+        this.pooledThreadIds = new ConcurrentHashMap<>();
         this.pThreadKey = 0;
         this.pThreadKeyLock = new Object();
         this.pThreadKeyStorage = new ConcurrentHashMap<>();
@@ -76,9 +96,13 @@ public final class LLVMPThreadContext {
     @TruffleBoundary
     public void joinAllThreads() {
         final Collection<Thread> threadsToJoin;
+        final Collection<PooledThread> pooledThreadsToJoin;
+        final LLVMPThreadPool pool;
         synchronized (threadLock) {
             this.isCreateThreadAllowed = false;
             threadsToJoin = threadStorage.values();
+            pooledThreadsToJoin = new ArrayList<>(pooledThreadStorage.values());
+            pool = threadPool;
         }
         for (Thread createdThread : threadsToJoin) {
             try {
@@ -87,6 +111,16 @@ public final class LLVMPThreadContext {
                 // ignored
             }
         }
+        for (PooledThread pooledThread : pooledThreadsToJoin) {
+            try {
+                pooledThread.join();
+            } catch (InterruptedException e) {
+                // ignored
+            }
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
     }
 
     public int createPThreadKey(LLVMPointer destructor) {
@@ -127,7 +161,7 @@ public final class LLVMPThreadContext {
     public LLVMPointer getSpecific(int keyId) {
         final ConcurrentMap<Long, LLVMPointer> value = pThreadKeyStorage.get(keyId);
         if (value != null) {
-            final long threadId = Thread.currentThread().getId();
+            final long threadId = getCurrentThreadId();
             return value.get(threadId);
         }
         return null;
@@ -137,7 +171,7 @@ public final class LLVMPThreadContext {
     public boolean setSpecific(int keyId, LLVMPointer value) {
         final ConcurrentMap<Long, LLVMPointer> specificStore = pThreadKeyStorage.get(keyId);
         if (specificStore != null) {
-            specificStore.put(Thread.currentThread().getId(), value);
+            specificStore.put(getCurrentThreadId(), value);
             return true;
         }
         return false;
@@ -147,7 +181,7 @@ public final class LLVMPThreadContext {
     public LLVMPointer getAndRemoveSpecificUnlessNull(int keyId) {
         final ConcurrentMap<Long, LLVMPointer> value = pThreadKeyStorage.get(keyId);
         if (value != null) {
-            final long threadId = Thread.currentThread().getId();
+            final long threadId = getCurrentThreadId();
             final LLVMPointer keyMapping = value.get(threadId);
             if (keyMapping != null && !keyMapping.isNull()) {
                 value.remove(threadId);
@@ -162,27 +196,100 @@ public final class LLVMPThreadContext {
         return pThreadDestructorStorage.get(keyId);
     }
 
+    /**
+     * Creates a pthread that runs {@code runnable} once it is {@link #startThread started}.
+     * Returns the id of the new thread, or {@code -1} if no more threads can be created because
+     * the context is being finalized.
+     */
     @TruffleBoundary
-    public Thread createThread(Runnable runnable) {
+    public long createThread(Runnable runnable) {
         synchronized (threadLock) {
-            if (isCreateThreadAllowed) {
+            if (!isCreateThreadAllowed) {
+                return -1;
+            }
+            if (threadPoolSize < 0) {
+                threadPoolSize = Math.max(0, context.getEnv().getOptions().get(SulongEngineOption.PTHREAD_POOL_SIZE));
+                if (threadPoolSize > 0) {
+                    threadPool = new LLVMPThreadPool(context.getEnv(), threadPoolSize);
+                }
+            }
+            if (threadPool == null) {
                 final Thread thread = context.getEnv().createThread(runnable);
                 threadStorage.put(thread.getId(), thread);
-                return thread;
-            } else {
-                return null;
+                return thread.getId();
             }
+            final long threadId = nextPooledThreadId.getAndIncrement();
+            pooledThreadStorage.put(threadId, new PooledThread(threadId, runnable));
+            return threadId;
+        }
+    }
+
+    @TruffleBoundary
+    public boolean startThread(long threadId) {
+        final Thread thread = threadStorage.get(threadId);
+        if (thread != null) {
+            thread.start();
+            return true;
+        }
+        final PooledThread pooledThread = pooledThreadStorage.get(threadId);
+        if (pooledThread != null && threadPool.execute(pooledThread)) {
+            return true;
+        }
+        pooledThreadStorage.remove(threadId);
+        return false;
+    }
+
+    /**
+     * Waits until the thread with the given id has finished. Returns immediately if the thread
+     * has already finished or does not exist.
+     */
+    @TruffleBoundary
+    public void joinThread(long threadId) throws InterruptedException {
+        final Thread thread = threadStorage.get(threadId);
+        if (thread != null) {
+            thread.join();
+            return;
+        }
+        final PooledThread pooledThread = pooledThreadStorage.get(threadId);
+        if (pooledThread != null) {
+            pooledThread.join();
         }
     }
 
+    /**
+     * Returns the id of the pthread that runs on the current thread. This is the Java thread id
+     * unless the current thread is a pooled worker.
+     */
     @TruffleBoundary
-    public Thread getThread(long threadID) {
-        return threadStorage.get(threadID);
+    public long getCurrentThreadId() {
+        final Thread current = Thread.currentThread();
+        if (threadPool != null) {
+            final Long pooledThreadId = pooledThreadIds.get(current);
+            if (pooledThreadId != null) {
+                return pooledThreadId;
+            }
+        }
+        return current.getId();
     }
 
     @TruffleBoundary
     public void clearThreadId() {
-        threadStorage.remove(Thread.currentThread().getId());
+        final long threadId = getCurrentThreadId();
+        clearThreadState(threadId);
+        if (threadStorage.remove(threadId) == null) {
+            pooledThreadStorage.remove(threadId);
+        }
+    }
+
+    /**
+     * Removes the thread specific values and the thread local storage of the pthread with the
+     * given id, which runs on the current thread.
+     */
+    private void clearThreadState(long threadId) {
+        for (ConcurrentMap<Long, LLVMPointer> specificStore : pThreadKeyStorage.values()) {
+            specificStore.remove(threadId);
+        }
+        context.clearThreadLocalStorage();
     }
 
     @TruffleBoundary
@@ -198,4 +305,37 @@ public final class LLVMPThreadContext {
     public CallTarget getPthreadCallTarget() {
         return pthreadCallTarget;
     }
+
+    private final class PooledThread implements Runnable {
+
+        private final long threadId;
+        private final Runnable runnable;
+        private final CountDownLatch finished;
+
+        PooledThread(long threadId, Runnable runnable) {
+            this.threadId = threadId;
+            this.runnable = runnable;
+            this.finished = new CountDownLatch(1);
+        }
+
+        @Override
+        public void run() {
+            final Thread current = Thread.currentThread();
+            // the worker may still have the state of the pthread it ran before
+            context.clearThreadLocalStorage();
+            pooledThreadIds.put(current, threadId);
+            try {
+                runnable.run();
+            } finally {
+                clearThreadState(threadId);
+                pooledThreadIds.remove(current);
+                pooledThreadStorage.remove(threadId);
+                finished.countDown();
+            }
+        }
+
+        void join() throws InterruptedException {
+            finished.await();
+        }
+    }
 }
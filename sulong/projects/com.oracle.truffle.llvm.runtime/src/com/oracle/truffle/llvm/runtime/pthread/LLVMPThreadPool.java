@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.runtime.pthread;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.oracle.truffle.api.TruffleLanguage.Env;
+
+/**
+ * Runs pthreads on polyglot threads that are reused once their pthread has finished. A worker
+ * thread enters the context once when it is created and stays entered while it waits for the next
+ * pthread, so starting a pthread on an idle worker only costs a hand-off. Workers keep their
+ * {@link com.oracle.truffle.llvm.runtime.memory.LLVMThreadingStack stack} between pthreads; it is
+ * freed when the worker exits.
+ */
+final class LLVMPThreadPool {
+
+    private static final long IDLE_TIMEOUT_MILLIS = 10000;
+
+    /**
+     * Handed to idle workers on {@link #shutdown()} to make them exit.
+     */
+    private static final Runnable STOP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private final Env env;
+    private final int maxIdleWorkers;
+
+    // guarded by this
+    private final ArrayDeque<Worker> idleWorkers;
+    private final List<Worker> workers;
+    private boolean isShutdown;
+
+    LLVMPThreadPool(Env env, int maxIdleWorkers) {
+        this.env = env;
+        this.maxIdleWorkers = maxIdleWorkers;
+        this.idleWorkers = new ArrayDeque<>();
+        this.workers = new ArrayList<>();
+        this.isShutdown = false;
+    }
+
+    /**
+     * Runs {@code task} on an idle worker, or on a new worker if none is idle. Returns
+     * {@code false} if the pool is already shut down.
+     */
+    boolean execute(Runnable task) {
+        Worker worker;
+        boolean isNew = false;
+        synchronized (this) {
+            if (isShutdown) {
+                return false;
+            }
+            // the most recently parked worker is the most likely to still be hot
+            worker = idleWorkers.pollLast();
+            if (worker == null) {
+                worker = new Worker(task);
+                worker.thread = env.createThread(worker);
+                workers.add(worker);
+                isNew = true;
+            }
+        }
+        if (isNew) {
+            worker.thread.start();
+        } else {
+            worker.handOff(task);
+        }
+        return true;
+    }
+
+    /**
+     * Stops all idle workers and waits until every worker has exited. Must only be called after
+     * all pthreads have been joined, so that no worker is busy anymore.
+     */
+    void shutdown() {
+        final List<Worker> toJoin;
+        final List<Worker> toStop;
+        synchronized (this) {
+            isShutdown = true;
+            toJoin = new ArrayList<>(workers);
+            toStop = new ArrayList<>(idleWorkers);
+            idleWorkers.clear();
+        }
+        for (Worker worker : toStop) {
+            worker.handOff(STOP);
+        }
+        for (Worker worker : toJoin) {
+            try {
+                worker.thread.join();
+            } catch (InterruptedException e) {
+                // ignored
+            }
+        }
+    }
+
+    private synchronized boolean park(Worker worker) {
+        if (isShutdown || idleWorkers.size() >= maxIdleWorkers) {
+            return false;
+        }
+        idleWorkers.addLast(worker);
+        return true;
+    }
+
+    private synchronized boolean unpark(Worker worker) {
+        return idleWorkers.remove(worker);
+    }
+
+    private synchronized void exited(Worker worker) {
+        workers.remove(worker);
+    }
+
+    private final class Worker implements Runnable {
+
+        private final SynchronousQueue<Runnable> handOff;
+        private Runnable firstTask;
+        Thread thread;
+
+        Worker(Runnable firstTask) {
+            this.handOff = new SynchronousQueue<>();
+            this.firstTask = firstTask;
+        }
+
+        void handOff(Runnable task) {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    handOff.put(task);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Runnable task = firstTask;
+                firstTask = null;
+                while (task != null && task != STOP) {
+                    task.run();
+                    task = awaitTask();
+                }
+            } finally {
+                exited(this);
+            }
+        }
+
+        private Runnable awaitTask() {
+            if (!park(this)) {
+                return null;
+            }
+            try {
+                Runnable task = handOff.poll(IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (task != null || unpark(this)) {
+                    return task;
+                }
+                // somebody took this worker out of the idle list and is about to hand off a task
+                return handOff.take();
+            } catch (InterruptedException e) {
+                if (unpark(this)) {
+                    return null;
+                }
+                return takeUninterruptibly();
+            }
+        }
+
+        private Runnable takeUninterruptibly() {
+            while (true) {
+                try {
+                    return handOff.take();
+                } catch (InterruptedException e) {
+                    // a task is already on its way
+                }
+            }
+        }
+    }
+}
@@ -31,19 +31,27 @@ package com.oracle.truffle.llvm;
 
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.TruffleLanguage.Env;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.llvm.parser.LLVMParserResult;
 import com.oracle.truffle.llvm.runtime.LLVMContext;
 import com.oracle.truffle.llvm.runtime.ExternalLibrary;
 import com.oracle.truffle.llvm.runtime.LLVMLanguage.Loader;
+import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
 
 public final class DefaultLoader extends Loader {
 
     private volatile List<LLVMParserResult> cachedDefaultDependencies;
     private volatile ExternalLibrary[] cachedSulongLibraries;
+    private ExecutorService scanExecutor;
+    private ScanCache scanCache;
 
     @Override
     public void loadDefaults(LLVMContext context, Path internalLibraryPath) {
@@ -66,6 +74,66 @@ public final class DefaultLoader extends Loader {
         return cachedSulongLibraries;
     }
 
+    /**
+     * Returns the pool of worker threads that scan bitcode ahead of parsing, or {@code null} if
+     * {@link SulongEngineOption#PARSE_THREADS parallel scanning} is disabled or if the context
+     * must not create threads. The workers are polyglot threads of the context, idle workers
+     * terminate after a few seconds, and the pool is shut down when the context is finalized.
+     */
+    synchronized ExecutorService getScanExecutor(LLVMContext context) {
+        if (scanExecutor == null) {
+            Env env = context.getEnv();
+            int threads = env.getOptions().get(SulongEngineOption.PARSE_THREADS);
+            if (threads <= 0 || !env.isCreateThreadAllowed()) {
+                return null;
+            }
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = env.createThread(r);
+                thread.setName("Sulong Bitcode Scanner " + threadCount.incrementAndGet());
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+            scanExecutor = executor;
+        }
+        return scanExecutor;
+    }
+
+    /**
+     * Returns the {@link ScanCache} of the engine, or {@code null} if
+     * {@link SulongEngineOption#PARSE_CACHE caching} is disabled.
+     */
+    synchronized ScanCache getScanCache(LLVMContext context) {
+        if (scanCache == null && context.getEnv().getOptions().get(SulongEngineOption.PARSE_CACHE)) {
+            scanCache = ScanCache.forEngine(context.getEnv());
+        }
+        return scanCache;
+    }
+
+    /**
+     * Cancels the scans that are still queued and stops the worker threads. Scans that are
+     * already running cannot be interrupted, so the workers are joined once they are done.
+     */
+    @Override
+    public void finalizeContext(LLVMContext context) {
+        ExecutorService executor;
+        synchronized (this) {
+            executor = scanExecutor;
+            scanExecutor = null;
+        }
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // keep waiting, the workers must be joined before the context is disposed
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     void setDefaultLibraries(ExternalLibrary[] defaultLibraries, List<LLVMParserResult> parserResults) {
         cachedDefaultDependencies = parserResults;
         cachedSulongLibraries = defaultLibraries;
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.Equivalence;
+import org.graalvm.collections.MapCursor;
+
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.llvm.parser.binary.BinaryParser;
+import com.oracle.truffle.llvm.parser.binary.BinaryParserResult;
+import com.oracle.truffle.llvm.parser.listeners.BCFileRoot;
+import com.oracle.truffle.llvm.parser.model.ModelModule;
+import com.oracle.truffle.llvm.parser.scanner.LLVMScanner;
+import com.oracle.truffle.llvm.runtime.ExternalLibrary;
+import com.oracle.truffle.llvm.runtime.except.LLVMParserException;
+
+/**
+ * Scans the bitcode of libraries ahead of time on the worker threads of the {@link DefaultLoader}.
+ * As soon as a library is added to the dependency queue, its {@link BinaryParser binary} and
+ * {@link LLVMScanner bitcode} are scanned in the background, while the {@link Runner} keeps
+ * parsing the libraries before it. Everything that touches the context (the dependency queue, the
+ * debug information and the conversion to Truffle nodes) still happens on the parsing thread and
+ * in the original order. If a {@link ScanCache} is used, the binary parser results of libraries
+ * that another context of the same engine already loaded are taken from the cache.
+ */
+final class ModuleScanner {
+
+    /**
+     * The result of scanning a library. The {@link #fileRoot} is not exited yet.
+     */
+    static final class ScannedModule {
+        final Source source;
+        final BinaryParserResult binaryParserResult;
+        final ModelModule module;
+        final BCFileRoot fileRoot;
+
+        ScannedModule(Source source, BinaryParserResult binaryParserResult, ModelModule module, BCFileRoot fileRoot) {
+            this.source = source;
+            this.binaryParserResult = binaryParserResult;
+            this.module = module;
+            this.fileRoot = fileRoot;
+        }
+    }
+
+    private final ExecutorService executor;
+    private final ScanCache cache;
+    private final EconomicMap<ExternalLibrary, Future<ScannedModule>> pending = EconomicMap.create(Equivalence.IDENTITY);
+
+    ModuleScanner(ExecutorService executor, ScanCache cache) {
+        this.executor = executor;
+        this.cache = cache;
+    }
+
+    private ScannedModule scan(Source source) {
+        BinaryParserResult binaryParserResult = null;
+        ScanCache.Key key = null;
+        if (cache != null) {
+            key = new ScanCache.Key(source);
+            binaryParserResult = cache.get(key);
+        }
+        if (binaryParserResult == null) {
+            binaryParserResult = BinaryParser.parse(source.getBytes(), source, null);
+            if (binaryParserResult == null) {
+                return new ScannedModule(source, null, null, null);
+            }
+            if (cache != null) {
+                cache.put(key, binaryParserResult);
+            }
+        }
+        ModelModule module = new ModelModule();
+        BCFileRoot fileRoot = LLVMScanner.scanBitcode(binaryParserResult.getBitcode(), module, binaryParserResult.getSource());
+        return new ScannedModule(source, binaryParserResult, module, fileRoot);
+    }
+
+    void submit(ExternalLibrary library, Source source) {
+        if (pending.containsKey(library)) {
+            return;
+        }
+        pending.put(library, executor.submit(() -> scan(source)));
+    }
+
+    /**
+     * Waits for the scan of {@code library} to finish, or returns {@code null} if the library was
+     * not {@link #submit submitted} or if its scan was cancelled.
+     */
+    ScannedModule take(ExternalLibrary library) {
+        Future<ScannedModule> future = pending.removeKey(library);
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            // the scan was cancelled
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LLVMParserException("Interrupted while scanning " + library.getName() + ".");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new LLVMParserException("Error scanning " + library.getName() + ": " + cause);
+        }
+    }
+
+    /**
+     * Cancels the scans that were submitted but never {@link #take taken}, e.g., because parsing
+     * failed.
+     */
+    void cancelAll() {
+        MapCursor<ExternalLibrary, Future<ScannedModule>> cursor = pending.getEntries();
+        while (cursor.advance()) {
+            cursor.getValue().cancel(false);
+        }
+        pending.clear();
+    }
+}
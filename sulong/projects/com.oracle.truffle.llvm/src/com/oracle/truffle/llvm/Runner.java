@@ -40,6 +40,7 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.graalvm.collections.EconomicMap;
@@ -65,6 +66,7 @@ import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.utilities.AssumedValue;
+import com.oracle.truffle.llvm.ModuleScanner.ScannedModule;
 import com.oracle.truffle.llvm.RunnerFactory.StaticInitsNodeGen;
 import com.oracle.truffle.llvm.parser.LLVMParser;
 import com.oracle.truffle.llvm.parser.LLVMParserResult;
@@ -172,12 +174,15 @@ final class Runner {
     private final DefaultLoader loader;
     private final LLVMLanguage language;
     private final AtomicInteger id;
+    private final ModuleScanner scanner;
 
     private Runner(LLVMContext context, DefaultLoader loader, AtomicInteger id) {
         this.context = context;
         this.loader = loader;
         this.language = context.getLanguage();
         this.id = id;
+        ExecutorService scanExecutor = loader.getScanExecutor(context);
+        this.scanner = scanExecutor == null ? null : new ModuleScanner(scanExecutor, loader.getScanCache(context));
     }
 
     /**
@@ -323,21 +328,27 @@ final class Runner {
      * performs all necessary module initialization on execute.
      */
     private CallTarget parseWithDependencies(Source source, ByteSequence bytes, ExternalLibrary library) {
-        // process the bitcode file and its dependencies in the dynamic linking order
-        // (breadth-first)
-        ParseContext parseContext = ParseContext.create();
-        parseLibraryWithSource(source, library, bytes, parseContext);
-        assert !library.isNative() && !parseContext.parserResultsIsEmpty();
+        try {
+            // process the bitcode file and its dependencies in the dynamic linking order
+            // (breadth-first)
+            ParseContext parseContext = ParseContext.create();
+            parseLibraryWithSource(source, library, bytes, parseContext);
+            assert !library.isNative() && !parseContext.parserResultsIsEmpty();
 
-        ExternalLibrary[] sulongLibraries = parseDependencies(parseContext);
-        assert parseContext.dependencyQueueIsEmpty();
+            ExternalLibrary[] sulongLibraries = parseDependencies(parseContext);
+            assert parseContext.dependencyQueueIsEmpty();
 
-        List<LLVMParserResult> parserResults = parseContext.getParserResults();
-        addExternalSymbolsToScopes(parserResults);
+            List<LLVMParserResult> parserResults = parseContext.getParserResults();
+            addExternalSymbolsToScopes(parserResults);
 
-        InitializationOrder initializationOrder = computeInitializationOrder(parserResults, sulongLibraries);
+            InitializationOrder initializationOrder = computeInitializationOrder(parserResults, sulongLibraries);
 
-        return createLibraryCallTarget(source.getName(), parserResults, initializationOrder);
+            return createLibraryCallTarget(source.getName(), parserResults, initializationOrder);
+        } finally {
+            if (scanner != null) {
+                scanner.cancelAll();
+            }
+        }
     }
 
     private abstract static class AllocFunctionNode extends LLVMNode {
@@ -682,6 +693,7 @@ final class Runner {
         ExternalLibrary[] sulongLibraries = new ExternalLibrary[sulongLibraryNames.length];
         for (int i = 0; i < sulongLibraries.length; i++) {
             sulongLibraries[i] = context.addInternalLibrary(sulongLibraryNames[i], false);
+            scanAhead(sulongLibraries[i]);
         }
 
         // parse all libraries that were passed on the command-line
@@ -906,7 +918,7 @@ final class Runner {
      * @return the parser result corresponding to {@code lib}
      */
     private LLVMParserResult parseLibrary(ExternalLibrary lib, ParseContext parseContext) {
-        if (lib.hasFile() && !lib.getFile().isRegularFile() || lib.getPath() == null || !lib.getPath().toFile().isFile()) {
+        if (!isFile(lib)) {
             if (!lib.isNative()) {
                 throw new LLVMParserException("'" + lib.getPath() + "' is not a file or does not exist.");
             } else {
@@ -914,23 +926,66 @@ final class Runner {
                 return null;
             }
         }
-        TruffleFile file = lib.hasFile() ? lib.getFile() : context.getEnv().getInternalTruffleFile(lib.getPath().toUri());
+        if (scanner != null) {
+            ScannedModule scanned = scanner.take(lib);
+            if (scanned != null) {
+                if (scanned.binaryParserResult != null) {
+                    LibraryLocator.traceParseBitcode(context, scanned.source.getPath());
+                }
+                return parseBinaryParserResult(scanned.source, lib, scanned.binaryParserResult, scanned, parseContext);
+            }
+        }
         Source source;
         try {
-            source = Source.newBuilder("llvm", file).internal(lib.isInternal()).build();
+            source = createSource(lib);
         } catch (IOException | SecurityException | OutOfMemoryError ex) {
             throw new LLVMParserException("Error reading file " + lib.getPath() + ".");
         }
         return parseLibraryWithSource(source, lib, source.getBytes(), parseContext);
     }
 
+    private static boolean isFile(ExternalLibrary lib) {
+        return !(lib.hasFile() && !lib.getFile().isRegularFile() || lib.getPath() == null || !lib.getPath().toFile().isFile());
+    }
+
+    private Source createSource(ExternalLibrary lib) throws IOException {
+        TruffleFile file = lib.hasFile() ? lib.getFile() : context.getEnv().getInternalTruffleFile(lib.getPath().toUri());
+        return Source.newBuilder("llvm", file).internal(lib.isInternal()).build();
+    }
+
+    /**
+     * Starts {@link ModuleScanner scanning} {@code lib} on a worker thread if parallel scanning is
+     * enabled. The library is still parsed when it is removed from the dependency queue. Errors
+     * are ignored here, they are reported when the library is parsed.
+     */
+    private void scanAhead(ExternalLibrary lib) {
+        if (scanner == null || !isFile(lib)) {
+            return;
+        }
+        Source source;
+        try {
+            source = createSource(lib);
+        } catch (IOException | SecurityException | OutOfMemoryError ex) {
+            return;
+        }
+        scanner.submit(lib, source);
+    }
+
     /**
      * Parses a binary (bitcode with optional meta information from an ELF, Mach-O object file).
      */
-    private LLVMParserResult parseBinary(BinaryParserResult binaryParserResult, ExternalLibrary library) {
-        ModelModule module = new ModelModule();
+    private LLVMParserResult parseBinary(BinaryParserResult binaryParserResult, ExternalLibrary library, ScannedModule scanned) {
+        ModelModule module;
         Source source = binaryParserResult.getSource();
-        LLVMScanner.parseBitcode(binaryParserResult.getBitcode(), module, source, context);
+        if (scanned != null) {
+            module = scanned.module;
+            // the root block does not exist in the LLVM file and is therefore never exited by the
+            // scanner
+            scanned.fileRoot.exit(context);
+        } else {
+            module = new ModelModule();
+            LLVMScanner.parseBitcode(binaryParserResult.getBitcode(), module, source, context);
+        }
         TargetDataLayout layout = module.getTargetDataLayout();
         DataLayout targetDataLayout = new DataLayout(layout.getDataLayout());
         NodeFactory nodeFactory = context.getLanguage().getActiveConfiguration().createNodeFactory(context, targetDataLayout);
@@ -957,12 +1012,16 @@ final class Runner {
      */
     private LLVMParserResult parseLibraryWithSource(Source source, ExternalLibrary library, ByteSequence bytes, ParseContext parseContext) {
         BinaryParserResult binaryParserResult = BinaryParser.parse(bytes, source, context);
+        return parseBinaryParserResult(source, library, binaryParserResult, null, parseContext);
+    }
+
+    private LLVMParserResult parseBinaryParserResult(Source source, ExternalLibrary library, BinaryParserResult binaryParserResult, ScannedModule scanned, ParseContext parseContext) {
         if (binaryParserResult != null) {
             library.makeBitcodeLibrary();
             context.addExternalLibrary(library);
             context.addLibraryPaths(binaryParserResult.getLibraryPaths());
             ArrayList<ExternalLibrary> dependencies = processDependencies(binaryParserResult, parseContext, library);
-            LLVMParserResult parserResult = parseBinary(binaryParserResult, library);
+            LLVMParserResult parserResult = parseBinary(binaryParserResult, library, scanned);
             parserResult.setDependencies(dependencies);
             parseContext.parserResultsAdd(parserResult);
             return parserResult;
@@ -989,6 +1048,7 @@ final class Runner {
                 dependency = context.addExternalLibrary(lib, reason, binaryParserResult.getLocator());
                 if (dependency != null) {
                     parseContext.dependencyQueueAddLast(dependency);
+                    scanAhead(dependency);
                     dependencies.add(dependency);
                 }
             }
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import org.graalvm.polyglot.io.ByteSequence;
+
+import com.oracle.truffle.api.TruffleLanguage.Env;
+import com.oracle.truffle.api.nodes.LanguageInfo;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.llvm.parser.binary.BinaryParserResult;
+import com.oracle.truffle.llvm.runtime.LLVMLanguage;
+import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
+
+/**
+ * Engine-wide cache of the {@link BinaryParserResult binary parser results} of bitcode libraries,
+ * enabled with {@link SulongEngineOption#PARSE_CACHE}.
+ *
+ * A scanned {@link com.oracle.truffle.llvm.parser.model.ModelModule} is completed with context
+ * specific debug information and function bodies are parsed into it lazily, so it cannot be shared
+ * between contexts. The binary parser result, i.e., the bitcode extracted from an object file
+ * together with its dependencies and search paths, does not depend on the context, so the
+ * {@link ModuleScanner} of every context of the engine takes it from the cache and only scans the
+ * bitcode itself. The cache keeps the {@link #MAX_ENTRIES} most recently used libraries.
+ *
+ * Since every context has its own {@link LLVMLanguage} instance, the cache of an engine is
+ * associated with the {@link LanguageInfo} of the language in that engine, and is released
+ * together with the engine.
+ */
+final class ScanCache {
+
+    private static final int HASH_SAMPLES = 64;
+    private static final int MAX_ENTRIES = 64;
+
+    private static final Map<LanguageInfo, ScanCache> ENGINE_CACHES = new WeakHashMap<>();
+
+    /**
+     * Identifies a library by its path and its content. The hash covers the length of the bitcode
+     * and at most {@link #HASH_SAMPLES} of its bytes, the complete content is only compared if the
+     * hashes match.
+     */
+    static final class Key {
+        private final String path;
+        private final ByteSequence bytes;
+        private final int hash;
+
+        Key(Source source) {
+            this.path = source.getPath();
+            this.bytes = source.getBytes();
+            this.hash = 31 * Objects.hashCode(path) + sampledHash(bytes);
+        }
+
+        private static int sampledHash(ByteSequence bytes) {
+            int length = bytes.length();
+            int step = Math.max(1, length / HASH_SAMPLES);
+            int result = length;
+            for (int i = 0; i < length; i += step) {
+                result = 31 * result + bytes.byteAt(i);
+            }
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            if (hash != other.hash || !Objects.equals(path, other.path) || bytes.length() != other.bytes.length()) {
+                return false;
+            }
+            for (int i = 0; i < bytes.length(); i++) {
+                if (bytes.byteAt(i) != other.bytes.byteAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final Map<Key, BinaryParserResult> results = new LinkedHashMap<Key, BinaryParserResult>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, BinaryParserResult> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    static ScanCache forEngine(Env env) {
+        LanguageInfo engineLanguage = env.getInternalLanguages().get(LLVMLanguage.ID);
+        synchronized (ENGINE_CACHES) {
+            ScanCache cache = ENGINE_CACHES.get(engineLanguage);
+            if (cache == null) {
+                cache = new ScanCache();
+                ENGINE_CACHES.put(engineLanguage, cache);
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Returns the binary parser result of the library with the specified key, or {@code null} if
+     * it is not cached.
+     */
+    synchronized BinaryParserResult get(Key key) {
+        return results.get(key);
+    }
+
+    synchronized void put(Key key, BinaryParserResult result) {
+        results.put(key, result);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.tests.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.llvm.runtime.memory.LLVMMemory.HandleContainer;
+import com.oracle.truffle.llvm.runtime.memory.LLVMNativeMemory;
+
+/**
+ * Measures the throughput of allocating and freeing native handles from a growing number of
+ * threads that share one handle container, as C extensions do when they pass managed objects to
+ * native code.
+ */
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class HandleContainerBenchmark {
+
+    private static final int HANDLES = 1024;
+
+    @State(Scope.Benchmark)
+    public static class SharedContainer {
+        HandleContainer common;
+        HandleContainer deref;
+
+        @Setup
+        @SuppressWarnings("deprecation")
+        public void setup() {
+            LLVMNativeMemory memory = LLVMNativeMemory.getInstance();
+            common = memory.createHandleContainer(false, Truffle.getRuntime().createAssumption());
+            deref = memory.createHandleContainer(true, Truffle.getRuntime().createAssumption());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadObjects {
+        final Object[] objects = new Object[HANDLES];
+        final long[] handles = new long[HANDLES];
+
+        @Setup
+        public void setup() {
+            for (int i = 0; i < objects.length; i++) {
+                objects[i] = new Object();
+            }
+        }
+    }
+
+    private static long churn(HandleContainer container, ThreadObjects state) {
+        long sum = 0;
+        for (int i = 0; i < HANDLES; i++) {
+            state.handles[i] = container.allocate(state.objects[i]).asNative();
+        }
+        for (int i = 0; i < HANDLES; i++) {
+            sum += state.handles[i];
+            container.free(state.handles[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Allocates a handle for an object that already has one, which only changes its reference
+     * count.
+     */
+    private static long retain(HandleContainer container, ThreadObjects state) {
+        long sum = 0;
+        long handle = container.allocate(state.objects[0]).asNative();
+        for (int i = 0; i < HANDLES; i++) {
+            sum += container.allocate(state.objects[0]).asNative();
+            container.free(handle);
+        }
+        container.free(handle);
+        return sum;
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(HANDLES)
+    public long churn1Thread(SharedContainer container, ThreadObjects state) {
+        return churn(container.common, state);
+    }
+
+    @Benchmark
+    @Threads(2)
+    @OperationsPerInvocation(HANDLES)
+    public long churn2Threads(SharedContainer container, ThreadObjects state) {
+        return churn(container.common, state);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(HANDLES)
+    public long churn4Threads(SharedContainer container, ThreadObjects state) {
+        return churn(container.common, state);
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(HANDLES)
+    public long churn8Threads(SharedContainer container, ThreadObjects state) {
+        return churn(container.common, state);
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(HANDLES)
+    public long derefChurn8Threads(SharedContainer container, ThreadObjects state) {
+        return churn(container.deref, state);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(HANDLES)
+    public long retain1Thread(SharedContainer container, ThreadObjects state) {
+        return retain(container.common, state);
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(HANDLES)
+    public long retain8Threads(SharedContainer container, ThreadObjects state) {
+        return retain(container.common, state);
+    }
+}
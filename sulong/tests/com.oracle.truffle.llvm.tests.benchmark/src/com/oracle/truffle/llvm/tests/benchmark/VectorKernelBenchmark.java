@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.tests.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs the SIMD kernels of {@code com.oracle.truffle.llvm.tests.vector.native} on Sulong. Each
+ * kernel exists in an explicitly vectorized variant, which executes {@code <N x T>} arithmetic,
+ * loads, stores and shuffles, and where applicable in a scalar variant over the same data. Compare
+ * the two variants with each other and with the kernels compiled natively with {@code clang -O3}.
+ */
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class VectorKernelBenchmark {
+
+    private static final String KERNELS = "vector/kernels/O3.so";
+
+    private Context context;
+    private Value saxpyVector;
+    private Value saxpyScalar;
+    private Value dotVector;
+    private Value dotScalar;
+    private Value shuffleVector;
+    private Value widenVector;
+
+    @Setup
+    public void setup() throws IOException {
+        File file = Paths.get(System.getProperty("sulongtest.testSuitePath"), KERNELS).toFile();
+        context = Context.newBuilder().allowAllAccess(true).build();
+        Value library = context.eval(Source.newBuilder("llvm", file).build());
+        library.getMember("kernel_init").executeVoid();
+        saxpyVector = library.getMember("saxpy_vector");
+        saxpyScalar = library.getMember("saxpy_scalar");
+        dotVector = library.getMember("dot_vector");
+        dotScalar = library.getMember("dot_scalar");
+        shuffleVector = library.getMember("shuffle_vector");
+        widenVector = library.getMember("widen_vector");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public float saxpyVector() {
+        return saxpyVector.execute(0.5f).asFloat();
+    }
+
+    @Benchmark
+    public float saxpyScalar() {
+        return saxpyScalar.execute(0.5f).asFloat();
+    }
+
+    @Benchmark
+    public int dotVector() {
+        return dotVector.execute().asInt();
+    }
+
+    @Benchmark
+    public int dotScalar() {
+        return dotScalar.execute().asInt();
+    }
+
+    @Benchmark
+    public int shuffleVector() {
+        return shuffleVector.execute().asInt();
+    }
+
+    @Benchmark
+    public int widenVector() {
+        return widenVector.execute().asInt();
+    }
+}
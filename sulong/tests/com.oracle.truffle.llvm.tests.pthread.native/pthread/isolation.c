@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+#include <pthread.h>
+#include <stdint.h>
+#include <unistd.h>
+#include <sys/syscall.h>
+
+/*
+ * Checks that a pthread does not see the thread local storage or the thread specific values of
+ * pthreads that ran before it, even if they ran on the same (pooled) thread.
+ */
+
+#define ARCH_SET_FS 0x1002
+#define ARCH_GET_FS 0x1003
+
+static pthread_key_t key;
+static int values[64];
+
+static void *get_tls(void) {
+    void *tls = NULL;
+#if defined(__x86_64__)
+    syscall(SYS_arch_prctl, ARCH_GET_FS, &tls);
+#endif
+    return tls;
+}
+
+static void set_tls(void *tls) {
+#if defined(__x86_64__)
+    syscall(SYS_arch_prctl, ARCH_SET_FS, tls);
+#endif
+}
+
+static void *check_tls(void *arg) {
+    void *tls = get_tls();
+    if (tls >= (void *) values && tls < (void *) (values + 64)) {
+        // set by another pthread
+        return (void *) 1;
+    }
+    set_tls(arg);
+#if defined(__x86_64__)
+    if (get_tls() != arg) {
+        return (void *) 2;
+    }
+#endif
+    return NULL;
+}
+
+static void *check_specific(void *arg) {
+    if (pthread_getspecific(key) != NULL) {
+        return (void *) 1;
+    }
+    if (pthread_setspecific(key, arg) != 0 || pthread_getspecific(key) != arg) {
+        return (void *) 2;
+    }
+    return NULL;
+}
+
+/*
+ * Runs the given number of pthreads one after the other and returns the number of pthreads that
+ * saw the state of another pthread, or -1 if a pthread could not be created or joined.
+ */
+static int run_sequential(void *(*check)(void *), int threads) {
+    int failures = 0;
+    if (threads > 64) {
+        threads = 64;
+    }
+    for (int i = 0; i < threads; i++) {
+        pthread_t id;
+        void *result;
+        if (pthread_create(&id, NULL, check, &values[i]) != 0 || pthread_join(id, &result) != 0) {
+            return -1;
+        }
+        if (result != NULL) {
+            failures++;
+        }
+    }
+    return failures;
+}
+
+int tls_isolation(int threads) {
+    return run_sequential(check_tls, threads);
+}
+
+int specific_isolation(int threads) {
+    int failures;
+    if (pthread_key_create(&key, NULL) != 0) {
+        return -1;
+    }
+    failures = run_sequential(check_specific, threads);
+    pthread_key_delete(key);
+    return failures;
+}
+
+/*
+ * Runs the given number of pthreads at the same time and returns the number of pthreads that saw
+ * the state of another pthread, or -1 if a pthread could not be created or joined.
+ */
+int concurrent_isolation(int threads) {
+    pthread_t ids[64];
+    int failures = 0;
+    if (threads > 64) {
+        threads = 64;
+    }
+    for (int i = 0; i < threads; i++) {
+        if (pthread_create(&ids[i], NULL, check_tls, &values[i]) != 0) {
+            return -1;
+        }
+    }
+    for (int i = 0; i < threads; i++) {
+        void *result;
+        if (pthread_join(ids[i], &result) != 0) {
+            return -1;
+        }
+        if (result != NULL) {
+            failures++;
+        }
+    }
+    return failures;
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.tests.types.memory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.llvm.runtime.memory.LLVMMemory.HandleContainer;
+import com.oracle.truffle.llvm.runtime.memory.LLVMNativeMemory;
+
+public class HandleContainerTest {
+
+    private static final int THREADS = 8;
+    private static final int HANDLES = 1000;
+    private static final int ROUNDS = 20;
+
+    private HandleContainer container;
+
+    @Before
+    @SuppressWarnings("deprecation")
+    public void setup() {
+        container = LLVMNativeMemory.getInstance().createHandleContainer(false, Truffle.getRuntime().createAssumption());
+    }
+
+    /**
+     * Allocates and frees handles for distinct objects from several threads and returns the
+     * handle addresses that were used.
+     */
+    private Set<Long> churn(int threads) throws Throwable {
+        Set<Long> addresses = ConcurrentHashMap.newKeySet();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CyclicBarrier start = new CyclicBarrier(threads);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    Object[] objects = new Object[HANDLES];
+                    long[] handles = new long[HANDLES];
+                    for (int round = 0; round < ROUNDS; round++) {
+                        for (int i = 0; i < HANDLES; i++) {
+                            objects[i] = new Object();
+                            handles[i] = container.allocate(objects[i]).asNative();
+                            addresses.add(handles[i]);
+                        }
+                        for (int i = 0; i < HANDLES; i++) {
+                            Assert.assertTrue(container.isHandle(handles[i]));
+                            Assert.assertSame(objects[i], container.getValue(handles[i]).getObject());
+                            container.free(handles[i]);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return addresses;
+    }
+
+    private void assertAllocatesFrom(Set<Long> addresses, int count) {
+        for (int i = 0; i < count; i++) {
+            long handle = container.allocate(new Object()).asNative();
+            Assert.assertTrue("handle index was not reused", addresses.contains(handle));
+        }
+    }
+
+    @Test
+    public void concurrentAllocateFree() throws Throwable {
+        Set<Long> addresses = churn(THREADS);
+        /*
+         * Every thread holds at most HANDLES handles at a time, so the indices are reused instead
+         * of growing the table with every round.
+         */
+        Assert.assertTrue(addresses.size() < 2 * THREADS * HANDLES);
+    }
+
+    @Test
+    public void sharedObject() throws Throwable {
+        Object shared = new Object();
+        long handle = container.allocate(shared).asNative();
+        Thread[] workers = new Thread[THREADS];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < HANDLES; i++) {
+                        Assert.assertEquals(handle, container.allocate(shared).asNative());
+                        container.free(handle);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        Assert.assertSame(shared, container.getValue(handle).getObject());
+        container.free(handle);
+        Assert.assertFalse(container.isHandle(handle));
+    }
+
+    @Test
+    public void terminatedThreadIndicesAreReused() throws Throwable {
+        Set<Long> addresses = churn(THREADS);
+        // the indices cached by the terminated workers must be available to other threads
+        assertAllocatesFrom(addresses, addresses.size());
+    }
+
+    @Test
+    public void disposedThreadIndicesAreReused() throws Throwable {
+        Set<Long> addresses = ConcurrentHashMap.newKeySet();
+        Thread worker = new Thread(() -> {
+            for (int i = 0; i < HANDLES; i++) {
+                long handle = container.allocate(new Object()).asNative();
+                addresses.add(handle);
+                container.free(handle);
+            }
+        });
+        worker.start();
+        worker.join();
+        // the worker is disposed from another thread after it terminated
+        container.disposeThread(worker);
+        assertAllocatesFrom(addresses, addresses.size());
+    }
+
+    @Test
+    public void disposedThreadReusesPool() throws Throwable {
+        CountDownLatch freed = new CountDownLatch(1);
+        CountDownLatch disposed = new CountDownLatch(1);
+        long[] workerHandles = new long[HANDLES];
+        Thread worker = new Thread(() -> {
+            long[] handles = new long[HANDLES];
+            for (int i = 0; i < HANDLES; i++) {
+                handles[i] = container.allocate(new Object()).asNative();
+            }
+            for (int i = 0; i < HANDLES; i++) {
+                container.free(handles[i]);
+            }
+            freed.countDown();
+            try {
+                disposed.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            // the thread uses the pool again after it was disposed from another thread
+            for (int i = 0; i < HANDLES; i++) {
+                workerHandles[i] = container.allocate(new Object()).asNative();
+            }
+        });
+        worker.start();
+        freed.await();
+        container.disposeThread(worker);
+        disposed.countDown();
+        long[] handles = new long[HANDLES];
+        for (int i = 0; i < HANDLES; i++) {
+            handles[i] = container.allocate(new Object()).asNative();
+        }
+        worker.join();
+
+        // no index is handed out twice
+        Set<Long> live = new HashSet<>();
+        for (int i = 0; i < HANDLES; i++) {
+            Assert.assertTrue("handle handed out twice", live.add(handles[i]));
+            Assert.assertTrue("handle handed out twice", live.add(workerHandles[i]));
+        }
+    }
+}
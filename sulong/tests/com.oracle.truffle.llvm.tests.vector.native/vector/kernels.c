@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+#include <stdint.h>
+
+/*
+ * SIMD kernels used by VectorKernelBenchmark. The explicit kernels use clang vector extensions so
+ * that the bitcode contains <N x T> operations independent of the auto-vectorizer; the plain loops
+ * are left to the auto-vectorizer of the -O3 build.
+ */
+
+#define LENGTH 4096
+
+typedef float v4sf __attribute__((vector_size(16)));
+typedef int32_t v4si __attribute__((vector_size(16)));
+typedef int16_t v8hi __attribute__((vector_size(16)));
+typedef uint8_t v16qu __attribute__((vector_size(16)));
+
+static float xs[LENGTH] __attribute__((aligned(16)));
+static float ys[LENGTH] __attribute__((aligned(16)));
+static float zs[LENGTH] __attribute__((aligned(16)));
+static int32_t as[LENGTH] __attribute__((aligned(16)));
+static int32_t bs[LENGTH] __attribute__((aligned(16)));
+static uint8_t bytes[LENGTH] __attribute__((aligned(16)));
+
+int kernel_length() {
+    return LENGTH;
+}
+
+void kernel_init() {
+    for (int i = 0; i < LENGTH; i++) {
+        xs[i] = (float) i / LENGTH;
+        ys[i] = (float) (LENGTH - i) / LENGTH;
+        as[i] = i;
+        bs[i] = LENGTH - i;
+        bytes[i] = (uint8_t) i;
+    }
+}
+
+float saxpy_vector(float a) {
+    v4sf va = { a, a, a, a };
+    v4sf *x = (v4sf *) xs;
+    v4sf *y = (v4sf *) ys;
+    v4sf *z = (v4sf *) zs;
+    for (int i = 0; i < LENGTH / 4; i++) {
+        z[i] = va * x[i] + y[i];
+    }
+    return zs[LENGTH - 1];
+}
+
+float saxpy_scalar(float a) {
+    for (int i = 0; i < LENGTH; i++) {
+        zs[i] = a * xs[i] + ys[i];
+    }
+    return zs[LENGTH - 1];
+}
+
+int32_t dot_vector() {
+    v4si sum = { 0, 0, 0, 0 };
+    v4si *a = (v4si *) as;
+    v4si *b = (v4si *) bs;
+    for (int i = 0; i < LENGTH / 4; i++) {
+        sum += a[i] * b[i];
+    }
+    return sum[0] + sum[1] + sum[2] + sum[3];
+}
+
+int32_t dot_scalar() {
+    int32_t sum = 0;
+    for (int i = 0; i < LENGTH; i++) {
+        sum += as[i] * bs[i];
+    }
+    return sum;
+}
+
+int32_t shuffle_vector() {
+    v4si sum = { 0, 0, 0, 0 };
+    v4si *a = (v4si *) as;
+    for (int i = 0; i < LENGTH / 4; i++) {
+        sum += __builtin_shufflevector(a[i], a[i], 3, 2, 1, 0) ^ sum;
+    }
+    return sum[0] ^ sum[1] ^ sum[2] ^ sum[3];
+}
+
+int32_t widen_vector() {
+    v8hi sum = { 0, 0, 0, 0, 0, 0, 0, 0 };
+    v16qu *b = (v16qu *) bytes;
+    for (int i = 0; i < LENGTH / 16; i++) {
+        v8hi lo = __builtin_convertvector(__builtin_shufflevector(b[i], b[i], 0, 1, 2, 3, 4, 5, 6, 7), v8hi);
+        v8hi hi = __builtin_convertvector(__builtin_shufflevector(b[i], b[i], 8, 9, 10, 11, 12, 13, 14, 15), v8hi);
+        sum += lo + hi;
+    }
+    int32_t result = 0;
+    for (int i = 0; i < 8; i++) {
+        result += sum[i];
+    }
+    return result;
+}
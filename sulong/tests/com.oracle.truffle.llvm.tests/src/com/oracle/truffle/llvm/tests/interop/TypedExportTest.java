@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2019, Oracle and/or its affiliates.
+ * Copyright (c) 2018, 2020, Oracle and/or its affiliates.
  *
  * All rights reserved.
  *
@@ -30,6 +30,7 @@
 package com.oracle.truffle.llvm.tests.interop;
 
 import com.oracle.truffle.llvm.tests.interop.values.NullValue;
+import java.nio.ByteOrder;
 import java.util.Set;
 import org.graalvm.polyglot.Value;
 import org.junit.BeforeClass;
@@ -283,6 +284,120 @@ public class TypedExportTest extends InteropTestBase {
         }
     }
 
+    private static ByteOrder swappedOrder() {
+        return ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+    }
+
+    private static void checkOutOfBounds(Runnable access) {
+        try {
+            access.run();
+            Assert.fail("IndexOutOfBoundsException expected");
+        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+
+    @Test
+    public void testPointArrayBuffer() {
+        Value array = allocPointArray.execute(4);
+        try {
+            Assert.assertTrue("hasBufferElements", array.hasBufferElements());
+            Assert.assertTrue("isBufferWritable", array.isBufferWritable());
+            Assert.assertEquals("getBufferSize", 32, array.getBufferSize());
+
+            // struct Point is two ints, so point 1 starts at byte 8
+            array.writeBufferInt(ByteOrder.nativeOrder(), 8, 12);
+            array.writeBufferInt(swappedOrder(), 12, Integer.reverseBytes(34));
+            checkPoint(array.getArrayElement(1), 12, 34);
+            Assert.assertEquals("readPointArray", 12034, readPointArray.execute(array, 1).asInt());
+
+            array.getArrayElement(2).putMember("x", 0x01020304);
+            Assert.assertEquals("readBufferInt", 0x01020304, array.readBufferInt(ByteOrder.nativeOrder(), 16));
+            Assert.assertEquals("readBufferInt", 0x04030201, array.readBufferInt(swappedOrder(), 16));
+            array.writeBufferInt(ByteOrder.BIG_ENDIAN, 16, 0x05060708);
+            Assert.assertEquals("readBufferByte", 0x05, array.readBufferByte(16));
+            Assert.assertEquals("readBufferByte", 0x08, array.readBufferByte(19));
+            Assert.assertEquals("readBufferShort", 0x0708, array.readBufferShort(ByteOrder.BIG_ENDIAN, 18));
+            Assert.assertEquals("readBufferShort", 0x0605, array.readBufferShort(ByteOrder.LITTLE_ENDIAN, 16));
+            Assert.assertEquals("readBufferInt", 0x08070605, array.readBufferInt(ByteOrder.LITTLE_ENDIAN, 16));
+            Assert.assertEquals("x", array.readBufferInt(ByteOrder.nativeOrder(), 16), array.getArrayElement(2).getMember("x").asInt());
+
+            array.writeBufferLong(ByteOrder.nativeOrder(), 24, 0L);
+            array.writeBufferByte(27, (byte) 5);
+            array.writeBufferShort(ByteOrder.LITTLE_ENDIAN, 28, (short) 6);
+            Assert.assertEquals("readBufferInt", 5, array.readBufferInt(ByteOrder.BIG_ENDIAN, 24));
+            Assert.assertEquals("readBufferInt", 6, array.readBufferInt(ByteOrder.LITTLE_ENDIAN, 28));
+            Value point3 = array.getArrayElement(3);
+            Assert.assertEquals("x", array.readBufferInt(ByteOrder.nativeOrder(), 24), point3.getMember("x").asInt());
+            Assert.assertEquals("y", array.readBufferInt(ByteOrder.nativeOrder(), 28), point3.getMember("y").asInt());
+
+            array.writeBufferDouble(swappedOrder(), 0, 1.5);
+            Assert.assertEquals("readBufferDouble", 1.5, array.readBufferDouble(swappedOrder(), 0), 0.0);
+            Assert.assertEquals("readBufferLong", Long.reverseBytes(Double.doubleToRawLongBits(1.5)), array.readBufferLong(ByteOrder.nativeOrder(), 0));
+            array.writeBufferFloat(ByteOrder.nativeOrder(), 0, 2.5f);
+            Assert.assertEquals("readBufferFloat", 2.5f, array.readBufferFloat(ByteOrder.nativeOrder(), 0), 0.0f);
+            Assert.assertEquals("x", Float.floatToRawIntBits(2.5f), array.getArrayElement(0).getMember("x").asInt());
+
+            byte[] bytes = new byte[32];
+            array.readBuffer(0, bytes, 0, bytes.length);
+            byte[] copy = new byte[32];
+            array.writeBuffer(0, new byte[32], 0, 32);
+            checkPoint(array.getArrayElement(1), 0, 0);
+            array.writeBuffer(0, bytes, 0, bytes.length);
+            array.readBuffer(0, copy, 0, copy.length);
+            Assert.assertArrayEquals("readBuffer", bytes, copy);
+            checkPoint(array.getArrayElement(1), 12, 34);
+
+            // the buffer ends with the last point
+            Assert.assertEquals("readBufferInt", array.getArrayElement(3).getMember("y").asInt(), array.readBufferInt(ByteOrder.nativeOrder(), 28));
+            checkOutOfBounds(() -> array.readBufferByte(32));
+            checkOutOfBounds(() -> array.readBufferByte(-1));
+            checkOutOfBounds(() -> array.readBufferInt(ByteOrder.nativeOrder(), 29));
+            checkOutOfBounds(() -> array.writeBufferLong(ByteOrder.nativeOrder(), 25, 0L));
+            checkOutOfBounds(() -> array.readBuffer(16, new byte[32], 0, 17));
+            checkOutOfBounds(() -> array.writeBuffer(Long.MAX_VALUE, bytes, 0, 1));
+            Assert.assertEquals("readBufferLong", 0x0000000506000000L, array.readBufferLong(ByteOrder.BIG_ENDIAN, 24));
+        } finally {
+            freePoint.execute(array);
+        }
+    }
+
+    @Test
+    public void testNestedArrayBuffer() {
+        Value nested = allocNested.execute();
+        try {
+            Value primArray = nested.getMember("primArray");
+            Assert.assertTrue("hasBufferElements", primArray.hasBufferElements());
+            Assert.assertEquals("getBufferSize", 13 * Long.BYTES, primArray.getBufferSize());
+            for (int i = 0; i < 13; i++) {
+                Assert.assertEquals("primArray[" + i + "]", 3 * i + 1, primArray.readBufferLong(ByteOrder.nativeOrder(), i * Long.BYTES));
+                Assert.assertEquals("primArray[" + i + "]", Long.reverseBytes(3 * i + 1), primArray.readBufferLong(swappedOrder(), i * Long.BYTES));
+            }
+            primArray.writeBufferLong(swappedOrder(), 12 * Long.BYTES, Long.reverseBytes(42));
+            Assert.assertEquals("primArray[12]", 42, primArray.getArrayElement(12).asLong());
+
+            // the buffer of a member array does not extend into the following members
+            checkOutOfBounds(() -> primArray.readBufferLong(ByteOrder.nativeOrder(), 13 * Long.BYTES));
+            checkOutOfBounds(() -> primArray.readBufferByte(13 * Long.BYTES));
+        } finally {
+            freeNested.execute(nested);
+        }
+    }
+
+    @Test
+    public void testStructNoBuffer() {
+        Value point = allocPoint.execute(1, 2);
+        try {
+            Assert.assertFalse("hasBufferElements", point.hasBufferElements());
+            try {
+                point.readBufferInt(ByteOrder.nativeOrder(), 0);
+                Assert.fail("UnsupportedOperationException expected");
+            } catch (UnsupportedOperationException e) {
+            }
+        } finally {
+            freePoint.execute(point);
+        }
+    }
+
     @Test(expected = ArrayIndexOutOfBoundsException.class)
     public void testOutOfBoundsAccess() {
         Value nested = allocNested.execute();
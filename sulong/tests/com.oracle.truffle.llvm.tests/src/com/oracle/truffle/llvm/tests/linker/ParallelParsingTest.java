@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.tests.linker;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.oracle.truffle.llvm.runtime.LLVMLanguage;
+import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
+import com.oracle.truffle.llvm.tests.options.TestOptions;
+import com.oracle.truffle.llvm.tests.pipe.CaptureNativeOutput;
+import com.oracle.truffle.llvm.tests.pipe.CaptureOutput;
+import com.oracle.truffle.llvm.tests.util.ProcessUtil;
+import com.oracle.truffle.llvm.tests.util.ProcessUtil.ProcessResult;
+
+/**
+ * Runs a program that depends on several bitcode libraries, whose constructors and symbol
+ * resolution depend on the order in which the libraries are loaded, with the bitcode scanned on
+ * worker threads and the binary parser results taken from the engine's scan cache, and compares the
+ * results with those of scanning every library on the parsing thread.
+ */
+public class ParallelParsingTest {
+
+    private static final File PROGRAM = new File(TestOptions.TEST_SUITE_PATH, "dynLink/symbolResolution/ref.out");
+
+    private static ProcessResult serial;
+
+    @BeforeClass
+    public static void runSerial() throws IOException {
+        Assume.assumeTrue("the program is not built on darwin", PROGRAM.exists());
+        serial = ProcessUtil.executeSulongTestMain(PROGRAM, new String[0], options("0", false), c -> new CaptureNativeOutput());
+    }
+
+    private static Map<String, String> options(String parseThreads, boolean parseCache) {
+        Map<String, String> options = new HashMap<>();
+        options.put(SulongEngineOption.PARSE_THREADS_NAME, parseThreads);
+        options.put(SulongEngineOption.PARSE_CACHE_NAME, String.valueOf(parseCache));
+        return options;
+    }
+
+    @Test
+    public void parallelScanning() throws IOException {
+        for (String threads : new String[]{"1", "4"}) {
+            ProcessResult parallel = ProcessUtil.executeSulongTestMain(PROGRAM, new String[0], options(threads, false), c -> new CaptureNativeOutput());
+            Assert.assertEquals("parseThreads=" + threads, serial, parallel);
+        }
+    }
+
+    @Test
+    public void scanCache() throws IOException {
+        Source source = Source.newBuilder(LLVMLanguage.ID, PROGRAM).build();
+        try (Engine engine = Engine.create()) {
+            // the later contexts take the binary parser results of the first context
+            for (int i = 0; i < 3; i++) {
+                try (CaptureOutput out = new CaptureNativeOutput()) {
+                    int result;
+                    try (Context context = Context.newBuilder().engine(engine).options(options("2", true)).allowAllAccess(true).arguments(LLVMLanguage.ID, new String[0]).build()) {
+                        result = context.eval(source).execute().asInt();
+                    }
+                    Assert.assertEquals("context " + i, serial.getReturnValue(), result);
+                    Assert.assertEquals("context " + i, serial.getStdOutput(), out.getStdOut());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.tests.pthread;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.oracle.truffle.llvm.runtime.LLVMLanguage;
+import com.oracle.truffle.llvm.runtime.NFIContextExtension;
+import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
+import com.oracle.truffle.llvm.tests.options.TestOptions;
+
+/**
+ * Checks that pthreads do not see the thread local storage or the thread specific values of other
+ * pthreads, with and without a pool of reusable threads.
+ */
+@RunWith(Parameterized.class)
+public class PThreadIsolationTest {
+
+    private static final Path TEST_DIR = new File(TestOptions.TEST_SUITE_PATH, "pthread").toPath();
+    private static final String FILENAME = "O1." + NFIContextExtension.getNativeLibrarySuffix();
+    private static final int THREADS = 16;
+
+    @Parameters(name = "pthreadPoolSize={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[]{"0"}, new Object[]{"2"});
+    }
+
+    @Parameter public String poolSize;
+
+    private Context context;
+    private Value library;
+
+    @Before
+    public void setup() throws IOException {
+        context = Context.newBuilder().allowAllAccess(true).allowExperimentalOptions(true).option(SulongEngineOption.PTHREAD_POOL_SIZE_NAME, poolSize).build();
+        File file = new File(TEST_DIR.toFile(), "isolation/" + FILENAME);
+        library = context.eval(Source.newBuilder(LLVMLanguage.ID, file).build());
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    @Test
+    public void threadLocalStorage() {
+        Assert.assertEquals(0, library.invokeMember("tls_isolation", THREADS).asInt());
+    }
+
+    @Test
+    public void threadSpecificValues() {
+        Assert.assertEquals(0, library.invokeMember("specific_isolation", THREADS).asInt());
+    }
+
+    @Test
+    public void concurrentThreads() {
+        Assert.assertEquals(0, library.invokeMember("tls_isolation", THREADS).asInt());
+        Assert.assertEquals(0, library.invokeMember("concurrent_isolation", THREADS).asInt());
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -29,6 +29,7 @@ import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.test.polyglot.ProxyLanguage;
 import com.oracle.truffle.tools.agentscript.AgentScript;
 import static com.oracle.truffle.tools.agentscript.test.AgentObjectFactory.createConfig;
+import java.io.ByteArrayOutputStream;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.LinkedList;
@@ -435,6 +436,83 @@ public class AgentObjectTest {
         }
     }
 
+    @Test
+    public void onAsyncStatementCallback() throws Exception {
+        int[] statementCounter = {0};
+        int[] loopIndexSum = {0};
+        try (Context c = AgentObjectFactory.newContext()) {
+            Value agent = AgentObjectFactory.createAgentObject(c);
+            AgentScriptAPI agentAPI = agent.as(AgentScriptAPI.class);
+            Assert.assertNotNull("Agent API obtained", agentAPI);
+
+            final AgentScriptAPI.OnConfig config = AgentObjectFactory.createConfig(false, true, false, null, null);
+            config.async = true;
+            agentAPI.on("enter", (ctx, frame) -> {
+                statementCounter[0]++;
+                Object index = frame.get("loopIndex0");
+                assertTrue("Number as expected: " + index, index instanceof Number);
+                loopIndexSum[0] += ((Number) index).intValue();
+            }, config);
+
+            // @formatter:off
+            Source sampleScript = Source.newBuilder(InstrumentationTestLanguage.ID,
+                "ROOT(\n" +
+                "  DEFINE(foo,\n" +
+                "    LOOP(300, STATEMENT(EXPRESSION,EXPRESSION))\n" +
+                "  ),\n" +
+                "  CALL(foo)\n" +
+                ")",
+                "sample.px"
+            ).build();
+            // @formatter:on
+            c.eval(sampleScript);
+
+            assertEquals("One full batch delivered", 256, statementCounter[0]);
+        }
+        assertEquals("All statements delivered on close", 300, statementCounter[0]);
+        assertEquals("Values of the frame at the time of the event", 300 * 299 / 2, loopIndexSum[0]);
+    }
+
+    @Test
+    public void onAsyncStatementFailingCallback() throws Exception {
+        int[] statementCounter = {0};
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        try (Context c = AgentObjectFactory.newContext(new ByteArrayOutputStream(), err)) {
+            Value agent = AgentObjectFactory.createAgentObject(c);
+            AgentScriptAPI agentAPI = agent.as(AgentScriptAPI.class);
+            Assert.assertNotNull("Agent API obtained", agentAPI);
+
+            final AgentScriptAPI.OnConfig config = AgentObjectFactory.createConfig(false, true, false, null, null);
+            config.async = true;
+            agentAPI.on("enter", (ctx, frame) -> {
+                statementCounter[0]++;
+                int index = ((Number) frame.get("loopIndex0")).intValue();
+                if (index % 100 == 0) {
+                    throw new IllegalStateException("Failing at " + index);
+                }
+            }, config);
+
+            // @formatter:off
+            Source sampleScript = Source.newBuilder(InstrumentationTestLanguage.ID,
+                "ROOT(\n" +
+                "  DEFINE(foo,\n" +
+                "    LOOP(300, STATEMENT(EXPRESSION,EXPRESSION))\n" +
+                "  ),\n" +
+                "  CALL(foo)\n" +
+                ")",
+                "sample.px"
+            ).build();
+            // @formatter:on
+            c.eval(sampleScript);
+
+            assertEquals("The full batch is delivered despite failures", 256, statementCounter[0]);
+        }
+        assertEquals("All statements delivered on close", 300, statementCounter[0]);
+        String errText = err.toString();
+        assertTrue("First failure reported: " + errText, errText.contains("Failing at 0"));
+        assertTrue("Failure in the middle of the batch reported: " + errText, errText.contains("Failing at 100"));
+    }
+
     @Test
     public void onExpressionCallback() throws Exception {
         try (Context c = AgentObjectFactory.newContext()) {
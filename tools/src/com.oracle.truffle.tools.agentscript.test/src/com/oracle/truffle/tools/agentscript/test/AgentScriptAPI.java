@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -174,6 +174,8 @@ public interface AgentScriptAPI {
         public Predicate<String> rootNameFilter;
         /* @since 0.4 */
         public Predicate<SourceInfo> sourceFilter;
+        /* @since 0.5 */
+        public boolean async;
     }
 
     /** Register a handler on a particular elements in the source code.
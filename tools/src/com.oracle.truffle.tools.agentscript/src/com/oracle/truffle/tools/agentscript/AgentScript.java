@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -55,7 +55,7 @@ public interface AgentScript {
      * <p>
      * {@codesnippet AgentScriptAPI}
      */
-    String VERSION = "0.4";
+    String VERSION = "0.5";
 
     /**
      * Loads an agent script file into the system. The script file may be written in any GraalVM
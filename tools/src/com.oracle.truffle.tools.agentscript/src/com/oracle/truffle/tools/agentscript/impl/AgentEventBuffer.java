@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.agentscript.impl;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.TruffleException;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument;
+import com.oracle.truffle.api.interop.InteropException;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.nodes.Node;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects the events of handlers registered with the {@code async} attribute. Every thread records
+ * a copy of the event location and of the frame into its own bounded batch and the handlers are
+ * invoked only when the batch is full or when the agent is closed. That keeps the handler
+ * invocations out of the instrumented code.
+ * <p>
+ * The events were recorded at other locations than the one that triggers the flush, so a failing
+ * handler is reported to the error output and the rest of the batch is still delivered.
+ */
+final class AgentEventBuffer {
+    static final int BATCH_SIZE = 256;
+
+    private final TruffleInstrument.Env env;
+    private final Collection<Batch> batches = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Batch> batch = new ThreadLocal<Batch>() {
+        @Override
+        protected Batch initialValue() {
+            Batch b = new Batch(Thread.currentThread());
+            batches.add(b);
+            flushTerminated();
+            return b;
+        }
+    };
+
+    AgentEventBuffer(TruffleInstrument.Env env) {
+        this.env = env;
+    }
+
+    @CompilerDirectives.TruffleBoundary
+    void add(Object handler, EventContextObject ctx, Node where, MaterializedFrame frame) {
+        batch.get().add(handler, ctx, VariablesObject.snapshot(env, where, frame));
+    }
+
+    @CompilerDirectives.TruffleBoundary
+    void flush() {
+        for (Batch b : batches) {
+            b.flush();
+        }
+        flushTerminated();
+    }
+
+    /**
+     * Delivers the remaining events of threads that are gone and forgets their batches, so the
+     * frame copies they hold do not stay reachable until the agent is closed.
+     */
+    private void flushTerminated() {
+        for (Iterator<Batch> it = batches.iterator(); it.hasNext();) {
+            Batch b = it.next();
+            if (!b.owner.isAlive()) {
+                it.remove();
+                b.flush();
+            }
+        }
+    }
+
+    @CompilerDirectives.TruffleBoundary
+    private void report(Object handler, Exception ex) {
+        PrintStream err = new PrintStream(env.err(), true);
+        err.println("agentscript: " + handler + " failed: " + ex.getMessage());
+    }
+
+    private final class Batch {
+        private final Thread owner;
+        private final Object[] handlers = new Object[BATCH_SIZE];
+        private final EventContextObject[] contexts = new EventContextObject[BATCH_SIZE];
+        private final VariablesObject[] variables = new VariablesObject[BATCH_SIZE];
+        private int size;
+
+        Batch(Thread owner) {
+            this.owner = owner;
+        }
+
+        synchronized void add(Object handler, EventContextObject ctx, VariablesObject vars) {
+            handlers[size] = handler;
+            contexts[size] = ctx;
+            variables[size] = vars;
+            if (++size == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        synchronized void flush() {
+            final int count = size;
+            if (count == 0) {
+                return;
+            }
+            // handlers may cause events of this thread again
+            final Object[] h = Arrays.copyOf(handlers, count);
+            final EventContextObject[] c = Arrays.copyOf(contexts, count);
+            final VariablesObject[] v = Arrays.copyOf(variables, count);
+            Arrays.fill(handlers, 0, count, null);
+            Arrays.fill(contexts, 0, count, null);
+            Arrays.fill(variables, 0, count, null);
+            size = 0;
+            final InteropLibrary iop = InteropLibrary.getFactory().getUncached();
+            for (int i = 0; i < count; i++) {
+                try {
+                    iop.execute(h[i], c[i], v[i]);
+                } catch (InteropException ex) {
+                    report(h[i], ex);
+                } catch (RuntimeException ex) {
+                    if (!isGuestError(ex)) {
+                        throw ex;
+                    }
+                    report(h[i], ex);
+                }
+            }
+        }
+    }
+
+    private static boolean isGuestError(RuntimeException ex) {
+        if (ex instanceof TruffleException) {
+            TruffleException te = (TruffleException) ex;
+            return !te.isInternalError() && !te.isExit() && !te.isCancelled();
+        }
+        return false;
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -40,23 +40,29 @@ final class AgentExecutionNode extends ExecutionEventNode {
     private final Object enter;
     private final Object exit;
     private final EventContextObject ctx;
+    private final AgentEventBuffer buffer;
 
-    AgentExecutionNode(TruffleInstrument.Env env, Object enter, Object exit, EventContextObject ctx) {
+    AgentExecutionNode(TruffleInstrument.Env env, Object enter, Object exit, EventContextObject ctx, AgentEventBuffer buffer) {
         this.env = env;
         this.enter = enter;
-        if (enter != null) {
+        if (enter != null && buffer == null) {
             this.enterDispatch = InteropLibrary.getFactory().createDispatched(3);
         }
         this.exit = exit;
-        if (exit != null) {
+        if (exit != null && buffer == null) {
             this.exitDispatch = InteropLibrary.getFactory().createDispatched(3);
         }
         this.ctx = ctx;
+        this.buffer = buffer;
     }
 
     @Override
     protected void onEnter(VirtualFrame frame) {
         if (enter != null) {
+            if (buffer != null) {
+                buffer.add(enter, ctx, this, frame.materialize());
+                return;
+            }
             try {
                 enterDispatch.execute(enter, ctx, new VariablesObject(env, this, frame));
             } catch (InteropException ex) {
@@ -70,6 +76,10 @@ final class AgentExecutionNode extends ExecutionEventNode {
     @Override
     protected void onReturnValue(VirtualFrame frame, Object result) {
         if (exit != null) {
+            if (buffer != null) {
+                buffer.add(exit, ctx, this, frame.materialize());
+                return;
+            }
             try {
                 exitDispatch.execute(exit, ctx, new VariablesObject(env, this, frame));
             } catch (InteropException ex) {
@@ -83,6 +93,10 @@ final class AgentExecutionNode extends ExecutionEventNode {
     @Override
     protected void onReturnExceptional(VirtualFrame frame, Throwable exception) {
         if (exit != null) {
+            if (buffer != null) {
+                buffer.add(exit, ctx, this, frame.materialize());
+                return;
+            }
             try {
                 exitDispatch.execute(exit, ctx, new VariablesObject(env, this, frame));
             } catch (InteropException ex) {
@@ -93,12 +107,12 @@ final class AgentExecutionNode extends ExecutionEventNode {
         }
     }
 
-    static ExecutionEventNodeFactory factory(TruffleInstrument.Env env, final Object enter, final Object exit) {
+    static ExecutionEventNodeFactory factory(TruffleInstrument.Env env, final Object enter, final Object exit, final AgentEventBuffer buffer) {
         return new ExecutionEventNodeFactory() {
             @Override
             public ExecutionEventNode create(EventContext context) {
                 final EventContextObject ctx = new EventContextObject(context);
-                return new AgentExecutionNode(env, enter, exit, ctx);
+                return new AgentExecutionNode(env, enter, exit, ctx, buffer);
             }
         };
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -59,10 +59,12 @@ final class AgentObject implements TruffleObject {
     private final TruffleInstrument.Env env;
     private final ExcludeAgentScriptsFilter excludeSources = new ExcludeAgentScriptsFilter();
     private final Map<AgentType, Map<Object, EventBinding<?>>> listeners = new EnumMap<>(AgentType.class);
+    private final AgentEventBuffer buffer;
     private Object closeFn;
 
     AgentObject(TruffleInstrument.Env env) {
         this.env = env;
+        this.buffer = new AgentEventBuffer(env);
     }
 
     private void registerHandle(AgentType at, EventBinding<?> handle, Object arg) {
@@ -160,14 +162,16 @@ final class AgentObject implements TruffleObject {
                     case ENTER: {
                         CompilerDirectives.transferToInterpreter();
                         SourceSectionFilter filter = createFilter(obj, args);
-                        EventBinding<ExecutionEventNodeFactory> handle = instrumenter.attachExecutionEventFactory(filter, AgentExecutionNode.factory(obj.env, args[1], null));
+                        AgentEventBuffer buffer = isAsync(args) ? obj.buffer : null;
+                        EventBinding<ExecutionEventNodeFactory> handle = instrumenter.attachExecutionEventFactory(filter, AgentExecutionNode.factory(obj.env, args[1], null, buffer));
                         obj.registerHandle(type, handle, args[1]);
                         break;
                     }
                     case RETURN: {
                         CompilerDirectives.transferToInterpreter();
                         SourceSectionFilter filter = createFilter(obj, args);
-                        EventBinding<ExecutionEventNodeFactory> handle = instrumenter.attachExecutionEventFactory(filter, AgentExecutionNode.factory(obj.env, null, args[1]));
+                        AgentEventBuffer buffer = isAsync(args) ? obj.buffer : null;
+                        EventBinding<ExecutionEventNodeFactory> handle = instrumenter.attachExecutionEventFactory(filter, AgentExecutionNode.factory(obj.env, null, args[1], buffer));
                         obj.registerHandle(type, handle, args[1]);
                         break;
                     }
@@ -243,6 +247,9 @@ final class AgentObject implements TruffleObject {
                             // OK
                         }
                         break;
+                    case "async":
+                        // handled by isAsync
+                        break;
                     case "sourceFilter":
                         try {
                             Object fn = iop.readMember(config, "sourceFilter");
@@ -272,6 +279,14 @@ final class AgentObject implements TruffleObject {
         return filter;
     }
 
+    private static boolean isAsync(Object[] args) {
+        if (args.length > 2) {
+            final InteropLibrary iop = InteropLibrary.getFactory().getUncached();
+            return iop.hasMembers(args[2]) && isSet(iop, args[2], "async");
+        }
+        return false;
+    }
+
     @ExportMessage
     static boolean isMemberInvocable(AgentObject obj, String member) {
         return false;
@@ -287,6 +302,14 @@ final class AgentObject implements TruffleObject {
                 }
             }
         }
+        try {
+            buffer.flush();
+        } finally {
+            notifyClose();
+        }
+    }
+
+    private void notifyClose() {
         if (closeFn == null) {
             return;
         }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -26,7 +26,12 @@ package com.oracle.truffle.tools.agentscript.impl;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.Scope;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameUtil;
+import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.instrumentation.TruffleInstrument;
 import com.oracle.truffle.api.interop.InteropException;
 import com.oracle.truffle.api.interop.InteropLibrary;
@@ -52,6 +57,34 @@ final class VariablesObject implements TruffleObject {
         this.frame = frame.materialize();
     }
 
+    /**
+     * Creates variables backed by a copy of the frame, so that they keep the values the frame had
+     * at the time of the event.
+     */
+    @CompilerDirectives.TruffleBoundary
+    static VariablesObject snapshot(TruffleInstrument.Env env, Node where, Frame frame) {
+        final FrameDescriptor descriptor = frame.getFrameDescriptor();
+        final MaterializedFrame copy = Truffle.getRuntime().createMaterializedFrame(frame.getArguments().clone(), descriptor);
+        for (FrameSlot slot : descriptor.getSlots()) {
+            if (frame.isInt(slot)) {
+                copy.setInt(slot, FrameUtil.getIntSafe(frame, slot));
+            } else if (frame.isLong(slot)) {
+                copy.setLong(slot, FrameUtil.getLongSafe(frame, slot));
+            } else if (frame.isDouble(slot)) {
+                copy.setDouble(slot, FrameUtil.getDoubleSafe(frame, slot));
+            } else if (frame.isBoolean(slot)) {
+                copy.setBoolean(slot, FrameUtil.getBooleanSafe(frame, slot));
+            } else if (frame.isFloat(slot)) {
+                copy.setFloat(slot, FrameUtil.getFloatSafe(frame, slot));
+            } else if (frame.isByte(slot)) {
+                copy.setByte(slot, FrameUtil.getByteSafe(frame, slot));
+            } else {
+                copy.setObject(slot, frame.getValue(slot));
+            }
+        }
+        return new VariablesObject(env, where, copy);
+    }
+
     @ExportMessage
     static boolean hasMembers(VariablesObject obj) {
         return true;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -25,6 +25,7 @@
 package com.oracle.truffle.tools.coverage.test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -137,6 +138,34 @@ public final class CoverageTest {
         }
     }
 
+    @Test
+    public void testRepeatedExecution() {
+        try (Context context = Context.newBuilder().in(System.in).out(out).err(err).option(CoverageInstrument.ID, "true").build()) {
+            context.eval(defaultSource);
+            // Covered sections no longer have probes, but must stay covered.
+            context.eval(defaultSource);
+            final CoverageTracker tracker = CoverageInstrument.getTracker(context.getEngine());
+            final SourceCoverage[] coverage = tracker.getCoverage();
+            Assert.assertEquals("Unexpected number of sources in coverage", 1, coverage.length);
+            for (RootCoverage root : coverage[0].getRoots()) {
+                if (root.getName().equals("bar")) {
+                    assertCoverage(root, 1, 1, "bar", true);
+                } else if (root.getName().equals("neverCalled")) {
+                    assertCoverage(root, 1, 0, "neverCalled", false);
+                }
+            }
+            final ByteArrayOutputStream lcov = new ByteArrayOutputStream();
+            tracker.printLCOV(new PrintStream(lcov), true);
+            final String lcovOutput = lcov.toString();
+            Assert.assertTrue(lcovOutput, lcovOutput.contains("FNDA:1,bar"));
+            Assert.assertTrue(lcovOutput, lcovOutput.contains("FNDA:0,neverCalled"));
+            Assert.assertTrue(lcovOutput, lcovOutput.contains("FNH:3"));
+            final ByteArrayOutputStream json = new ByteArrayOutputStream();
+            tracker.printJSON(new PrintStream(json));
+            Assert.assertTrue(json.toString().contains("neverCalled"));
+        }
+    }
+
     @Test
     public void testMultiThreaded() throws InterruptedException, ExecutionException {
         try (Context context = Context.newBuilder().in(System.in).out(out).err(err).build()) {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -26,20 +26,24 @@ package com.oracle.truffle.tools.coverage;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.nodes.Node;
-import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNode;
 
-final class BooleanCoverageNode extends AbstractCoverageNode {
-
-    @CompilerDirectives.CompilationFinal volatile boolean covered;
+/**
+ * Records the first execution of a section and then removes itself, as no node is created for
+ * covered sections.
+ */
+final class BooleanCoverageNode extends ExecutionEventNode {
 
-    BooleanCoverageNode(SourceSection sourceSection, Node instrumentedNode, boolean isRoot, boolean isStatement) {
-        super(sourceSection, instrumentedNode, isRoot, isStatement);
-    }
+    private final EventContext context;
+    private final CoveredSections coveredSections;
+    private final int index;
+    @CompilerDirectives.CompilationFinal private boolean covered;
 
-    @Override
-    boolean isCovered() {
-        return covered;
+    BooleanCoverageNode(EventContext context, CoveredSections coveredSections, int index) {
+        this.context = context;
+        this.coveredSections = coveredSections;
+        this.index = index;
     }
 
     @Override
@@ -47,6 +51,8 @@ final class BooleanCoverageNode extends AbstractCoverageNode {
         if (!covered) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             covered = true;
+            coveredSections.cover(index);
+            context.invalidateEventNodes();
         }
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -26,6 +26,7 @@ package com.oracle.truffle.tools.coverage;
 
 import static com.oracle.truffle.api.instrumentation.TruffleInstrument.Env;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -48,6 +49,8 @@ import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.tools.coverage.impl.CoverageInstrument;
+import com.oracle.truffle.tools.coverage.impl.JSONPrinter;
+import com.oracle.truffle.tools.coverage.impl.LCOVPrinter;
 
 public final class CoverageTracker implements AutoCloseable {
 
@@ -64,6 +67,12 @@ public final class CoverageTracker implements AutoCloseable {
     }
 
     private final List<AbstractCoverageNode> coverageNodes = new ArrayList<>();
+    /*
+     * Without counting, covered roots and statements are recorded per source in bit sets and their
+     * coverage nodes remove themselves after the first execution.
+     */
+    private final Map<Source, CoveredSections> coveredRoots = new HashMap<>();
+    private final Map<Source, CoveredSections> coveredStatements = new HashMap<>();
     private final List<LoadSourceSectionEvent> loadedRoots = new ArrayList<>();
     private final List<LoadSourceSectionEvent> loadedStatements = new ArrayList<>();
     private final Env env;
@@ -108,20 +117,32 @@ public final class CoverageTracker implements AutoCloseable {
         return sectionCoverage;
     }
 
-    private static AbstractCoverageNode makeCoverageNode(EventContext context, Config config) {
+    private static AbstractCoverageNode makeCoverageNode(EventContext context) {
         final boolean isRoot = context.hasTag(StandardTags.RootTag.class);
         final boolean isStatement = context.hasTag(StandardTags.StatementTag.class);
-        if (config.count) {
-            return new CountingCoverageNode(context.getInstrumentedSourceSection(), context.getInstrumentedNode(), isRoot, isStatement);
-        } else {
-            return new BooleanCoverageNode(context.getInstrumentedSourceSection(), context.getInstrumentedNode(), isRoot, isStatement);
-        }
+        return new CountingCoverageNode(context.getInstrumentedSourceSection(), context.getInstrumentedNode(), isRoot, isStatement);
     }
 
     private static long getCount(AbstractCoverageNode coverageNode) {
         return coverageNode instanceof CountingCoverageNode ? ((CountingCoverageNode) coverageNode).getCount() : -1;
     }
 
+    private synchronized ExecutionEventNode makeBooleanCoverageNode(EventContext context) {
+        final SourceSection section = context.getInstrumentedSourceSection();
+        final RootNode rootNode = context.getInstrumentedNode().getRootNode();
+        if (section == null || rootNode == null) {
+            return null;
+        }
+        final Map<Source, CoveredSections> covered = context.hasTag(StandardTags.RootTag.class) ? coveredRoots : coveredStatements;
+        final CoveredSections coveredSections = covered.computeIfAbsent(section.getSource(), s -> new CoveredSections());
+        final int index = coveredSections.indexOf(section, rootNode.getSourceSection());
+        if (coveredSections.isCovered(index)) {
+            // covered sections need no node, this removes the node of the first execution
+            return null;
+        }
+        return new BooleanCoverageNode(context, coveredSections, index);
+    }
+
     /**
      * Start coverage tracking with the given config.
      * 
@@ -147,6 +168,8 @@ public final class CoverageTracker implements AutoCloseable {
         this.loadedRoots.clear();
         this.loadedStatements.clear();
         this.coverageNodes.clear();
+        this.coveredRoots.clear();
+        this.coveredStatements.clear();
     }
 
     /**
@@ -172,10 +195,32 @@ public final class CoverageTracker implements AutoCloseable {
         return sourceCoverage(mapping());
     }
 
+    /**
+     * Prints the coverage gathered thus far in the LCOV tracefile format.
+     *
+     * @param out the stream to print to
+     * @param strictLines consider a line covered only if all sections on it are covered
+     * @since 20.1
+     */
+    public synchronized void printLCOV(PrintStream out, boolean strictLines) {
+        new LCOVPrinter(out, getCoverage(), strictLines).print();
+    }
+
+    /**
+     * Prints the coverage gathered thus far in JSON format.
+     *
+     * @param out the stream to print to
+     * @since 20.1
+     */
+    public synchronized void printJSON(PrintStream out) {
+        new JSONPrinter(out, getCoverage()).print();
+    }
+
     private Map<Source, Map<SourceSection, RootData>> mapping() {
         Map<Source, Map<SourceSection, RootData>> sourceCoverage = new HashMap<>();
         processLoaded(sourceCoverage);
         processCovered(sourceCoverage);
+        processCoveredSections(sourceCoverage);
         return sourceCoverage;
     }
 
@@ -234,6 +279,28 @@ public final class CoverageTracker implements AutoCloseable {
         }
     }
 
+    private void processCoveredSections(Map<Source, Map<SourceSection, RootData>> mapping) {
+        for (Map.Entry<Source, CoveredSections> entry : coveredRoots.entrySet()) {
+            final Map<SourceSection, RootData> perRootData = mapping.get(entry.getKey());
+            entry.getValue().forEachCovered((section, rootSection) -> {
+                final RootData rootData = perRootData == null ? null : perRootData.get(rootSection);
+                if (rootData != null) {
+                    rootData.covered = true;
+                    rootData.count = -1;
+                }
+            });
+        }
+        for (Map.Entry<Source, CoveredSections> entry : coveredStatements.entrySet()) {
+            final Map<SourceSection, RootData> perRootData = mapping.get(entry.getKey());
+            entry.getValue().forEachCovered((section, rootSection) -> {
+                final RootData rootData = perRootData == null ? null : perRootData.get(rootSection);
+                if (rootData != null) {
+                    rootData.coveredStatements.put(section, -1L);
+                }
+            });
+        }
+    }
+
     /**
      * Closes the CoverageTracker. This makes it unusable further.
      * 
@@ -263,7 +330,10 @@ public final class CoverageTracker implements AutoCloseable {
         coveredBinding = instrumenter.attachExecutionEventFactory(filter, new ExecutionEventNodeFactory() {
             @Override
             public ExecutionEventNode create(EventContext context) {
-                final AbstractCoverageNode coverageNode = makeCoverageNode(context, config);
+                if (!config.count) {
+                    return makeBooleanCoverageNode(context);
+                }
+                final AbstractCoverageNode coverageNode = makeCoverageNode(context);
                 addCoverageNode(coverageNode);
                 return coverageNode;
             }
@@ -326,7 +396,9 @@ public final class CoverageTracker implements AutoCloseable {
     /**
      * Configuration for the {@link CoverageTracker}. Specifies the {@link SourceSectionFilter
      * filter} for which {@link SourceSection source sections} to include in tracking as well as
-     * whether to keep track of how many times a particular source section was executed.
+     * whether to keep track of how many times a particular source section was executed. Without
+     * counting, the coverage nodes record the first execution of a source section and then remove
+     * themselves from the AST.
      * 
      * @since 19.3.0
      */
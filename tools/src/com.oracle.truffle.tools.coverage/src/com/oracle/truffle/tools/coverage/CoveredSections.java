@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.coverage;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * Compact record of the covered sections of a source. Each instrumented section gets an index
+ * together with the source section of its root and is covered once the bit at its index is set.
+ */
+final class CoveredSections {
+
+    private final Map<SourceSection, Integer> indices = new HashMap<>();
+    private final List<SourceSection> sections = new ArrayList<>();
+    private final List<SourceSection> rootSections = new ArrayList<>();
+    private final BitSet covered = new BitSet();
+
+    synchronized int indexOf(SourceSection section, SourceSection rootSection) {
+        Integer index = indices.get(section);
+        if (index == null) {
+            index = sections.size();
+            indices.put(section, index);
+            sections.add(section);
+            rootSections.add(rootSection);
+        }
+        return index;
+    }
+
+    synchronized boolean isCovered(int index) {
+        return covered.get(index);
+    }
+
+    synchronized void cover(int index) {
+        covered.set(index);
+    }
+
+    synchronized void forEachCovered(CoveredSectionConsumer consumer) {
+        for (int i = covered.nextSetBit(0); i >= 0; i = covered.nextSetBit(i + 1)) {
+            consumer.accept(sections.get(i), rootSections.get(i));
+        }
+    }
+
+    interface CoveredSectionConsumer {
+
+        void accept(SourceSection section, SourceSection rootSection);
+
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -33,12 +33,12 @@ import com.oracle.truffle.tools.coverage.SourceCoverage;
 import com.oracle.truffle.tools.utils.json.JSONArray;
 import com.oracle.truffle.tools.utils.json.JSONObject;
 
-final class JSONPrinter {
+public final class JSONPrinter {
 
     private final PrintStream out;
     private final SourceCoverage[] sourceCoverages;
 
-    JSONPrinter(PrintStream out, SourceCoverage[] sourceCoverages) {
+    public JSONPrinter(PrintStream out, SourceCoverage[] sourceCoverages) {
         this.out = out;
         this.sourceCoverages = sourceCoverages;
     }
@@ -102,7 +102,7 @@ final class JSONPrinter {
         return sectionJson;
     }
 
-    void print() {
+    public void print() {
         JSONArray output = new JSONArray();
         for (SourceCoverage sourceCoverage : sourceCoverages) {
             output.put(sourceJSON(sourceCoverage));
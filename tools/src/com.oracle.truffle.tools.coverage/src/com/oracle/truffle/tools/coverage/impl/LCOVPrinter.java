@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -32,7 +32,7 @@ import com.oracle.truffle.tools.coverage.RootCoverage;
 import com.oracle.truffle.tools.coverage.SectionCoverage;
 import com.oracle.truffle.tools.coverage.SourceCoverage;
 
-class LCOVPrinter {
+public final class LCOVPrinter {
 
     private static final String END_OF_RECORD = "end_of_record";
     private static final String TEST_NAME = "TN:";
@@ -49,7 +49,7 @@ class LCOVPrinter {
     private final SourceCoverage[] coverage;
     private final boolean strictLines;
 
-    LCOVPrinter(PrintStream out, SourceCoverage[] coverage, boolean strictLines) {
+    public LCOVPrinter(PrintStream out, SourceCoverage[] coverage, boolean strictLines) {
         this.out = out;
         this.coverage = coverage;
         this.strictLines = strictLines;
@@ -104,7 +104,7 @@ class LCOVPrinter {
         return linesToCount;
     }
 
-    void print() {
+    public void print() {
         for (SourceCoverage sourceCoverage : coverage) {
             printSourceCoverage(sourceCoverage);
         }
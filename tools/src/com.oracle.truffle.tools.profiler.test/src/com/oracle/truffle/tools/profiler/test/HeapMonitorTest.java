@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -106,6 +106,28 @@ public class HeapMonitorTest extends AbstractProfilerTest {
         }
     }
 
+    @Test
+    public void testSampledAllocations() {
+        assertEquals(0, monitor.getSamplingInterval());
+        monitor.setSamplingInterval(3);
+        assertEquals(3, monitor.getSamplingInterval());
+
+        monitor.setCollecting(true);
+        try {
+            monitor.setSamplingInterval(1);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+        }
+
+        for (int i = 0; i < 10; i++) {
+            eval(oneAllocationSource);
+            HeapSummary summary = monitor.takeSummary();
+            // every third allocation of one byte is tracked and stands for three allocations
+            assertEquals((i + 1) / 3 * 3, summary.getTotalInstances());
+            assertEquals((i + 1) / 3 * 3, summary.getTotalBytes());
+        }
+    }
+
     @Test
     public void testActivatedDuringExec() throws InterruptedException {
         assertFalse(monitor.isCollecting());
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -205,6 +205,25 @@ public class MemoryTracerTest extends AbstractProfilerTest {
 
     }
 
+    @Test
+    public void testSampledAllocations() {
+        final String multipleAllocationSource = "ROOT(" + "DEFINE(foo,ROOT(ALLOCATION,STATEMENT))," + "DEFINE(bar,ROOT(BLOCK(ALLOCATION,STATEMENT,LOOP(10, CALL(foo)))))," +
+                        "DEFINE(baz,ROOT(BLOCK(ALLOCATION,STATEMENT,LOOP(10, CALL(bar)))))," + "ALLOCATION,CALL(baz),CALL(bar)" + ")";
+
+        Assert.assertEquals(0, tracer.getSamplingInterval());
+        tracer.setSamplingInterval(10);
+        Assert.assertEquals(10, tracer.getSamplingInterval());
+
+        tracer.setCollecting(true);
+        eval(makeSource(multipleAllocationSource));
+
+        // 123 allocations of one byte, every tenth is recorded
+        Collection<ProfilerNode<MemoryTracer.Payload>> rootNodes = tracer.getRootNodes();
+        ProfilerNode<MemoryTracer.Payload> node = rootNodes.iterator().next();
+        Assert.assertEquals("Incorrect number of allocations found", 12, node.getPayload().getTotalAllocations());
+        Assert.assertEquals("Incorrect number of events found", 0, node.getPayload().getEvents().size());
+    }
+
     @Test
     public void testMultipleAllocationRecursive() {
         final String oneAllocationSource = "ROOT(" + "DEFINE(foo,ROOT(BLOCK(ALLOCATION,STATEMENT,RECURSIVE_CALL(foo, 10))))," + "DEFINE(bar,ROOT(BLOCK(ALLOCATION,STATEMENT,LOOP(10, CALL(foo)))))," +
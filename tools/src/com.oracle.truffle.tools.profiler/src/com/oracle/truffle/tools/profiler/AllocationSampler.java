@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.profiler;
+
+import com.oracle.truffle.api.instrumentation.AllocationEvent;
+import com.oracle.truffle.api.instrumentation.AllocationReporter;
+
+/**
+ * Selects the allocations that are recorded by the allocation profilers, so that only one
+ * allocation per given number of allocated bytes is recorded. Every thread counts the bytes it
+ * allocates and records the allocation with which the count reaches the interval, which then
+ * starts again. Like a JFR allocation sample, a recorded allocation is weighted by the bytes the
+ * thread allocated since its previous recorded allocation. Allocations of an unknown size are
+ * counted as one byte.
+ */
+final class AllocationSampler {
+
+    private final long interval;
+    private final ThreadLocal<long[]> bytesSinceSample;
+
+    AllocationSampler(long interval) {
+        assert interval > 0;
+        this.interval = interval;
+        this.bytesSinceSample = ThreadLocal.withInitial(() -> new long[1]);
+    }
+
+    /**
+     * Returns the weight of the allocation if it should be recorded, i.e., the number of bytes the
+     * current thread allocated since its previous recorded allocation including this one, or
+     * <code>0</code> if the allocation should not be recorded.
+     */
+    long sample(AllocationEvent event) {
+        long[] allocated = bytesSinceSample.get();
+        allocated[0] += allocatedBytes(event);
+        if (allocated[0] < interval) {
+            return 0;
+        }
+        long weight = allocated[0];
+        allocated[0] = 0;
+        return weight;
+    }
+
+    static long allocatedBytes(AllocationEvent event) {
+        long newSize = event.getNewSize();
+        if (newSize == AllocationReporter.SIZE_UNKNOWN) {
+            return 1;
+        }
+        long oldSize = event.getOldSize();
+        if (oldSize == AllocationReporter.SIZE_UNKNOWN) {
+            return newSize;
+        }
+        return Math.max(newSize - oldSize, 0);
+    }
+}
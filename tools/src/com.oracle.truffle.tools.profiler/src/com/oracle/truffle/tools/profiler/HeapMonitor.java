@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -64,7 +64,8 @@ import com.oracle.truffle.tools.profiler.impl.HeapMonitorInstrument;
  * <p>
  * The {@link HeapMonitor} only tracks allocations while the heap monitor is
  * {@link #setCollecting(boolean) collecting} data. This means that allocations that were performed
- * while the heap monitor was not collecting data are not tracked.
+ * while the heap monitor was not collecting data are not tracked. To reduce the overhead, the heap
+ * monitor can track only a sample of the allocations, see {@link #setSamplingInterval(long)}.
  *
  * <p>
  * Usage example: {@link HeapMonitorSnippets#example}
@@ -89,6 +90,7 @@ public final class HeapMonitor implements Closeable {
 
     private volatile boolean closed;
     private boolean collecting;
+    private long samplingInterval;
     private EventBinding<?> activeBinding;
     private final Map<LanguageInfo, LanguageInfo> initializedLanguages = new ConcurrentHashMap<>();
 
@@ -156,7 +158,8 @@ public final class HeapMonitor implements Closeable {
             this.referenceThread.setDaemon(true);
         }
         referenceThread.start();
-        this.activeBinding = env.getInstrumenter().attachAllocationListener(AllocationEventFilter.ANY, new Listener());
+        AllocationSampler sampler = samplingInterval > 0 ? new AllocationSampler(samplingInterval) : null;
+        this.activeBinding = env.getInstrumenter().attachAllocationListener(AllocationEventFilter.ANY, new Listener(sampler));
     }
 
     /**
@@ -196,6 +199,40 @@ public final class HeapMonitor implements Closeable {
         return collecting;
     }
 
+    /**
+     * Returns the number of allocated bytes per tracked allocation, or <code>0</code> if every
+     * allocation is tracked.
+     *
+     * @since 20.1
+     */
+    public synchronized long getSamplingInterval() {
+        return samplingInterval;
+    }
+
+    /**
+     * Sets the number of bytes a thread allocates per tracked allocation. Each thread tracks only
+     * the allocation with which it reaches the interval since its last tracked allocation. A tracked
+     * allocation counts for all the allocations of its size that fit into the bytes allocated since
+     * the last tracked allocation, so the summaries estimate the instances and bytes of the whole
+     * heap. Allocations of an unknown size count as one byte. Use <code>0</code> to track every
+     * allocation, which is the default.
+     *
+     * @param samplingInterval the number of allocated bytes per tracked allocation
+     * @throws IllegalStateException if the heap monitor was already closed or is collecting data
+     * @since 20.1
+     */
+    public synchronized void setSamplingInterval(long samplingInterval) {
+        if (closed) {
+            throw new IllegalStateException("Heap Allocation Monitor is already closed.");
+        } else if (collecting) {
+            throw new IllegalStateException("Cannot change the sampling interval while collecting. Call setCollecting(false) to disable collection first.");
+        }
+        if (samplingInterval < 0) {
+            throw new IllegalArgumentException(String.format("Invalid sampling interval %s.", samplingInterval));
+        }
+        this.samplingInterval = samplingInterval;
+    }
+
     /**
      * Returns a summary of the current state of the heap.
      * <p>
@@ -256,8 +293,8 @@ public final class HeapMonitor implements Closeable {
             ObjectWeakReference reference;
             while ((reference = newReferences.poll()) != null) {
                 HeapSummary summary = getSummary(summaryData, reference.language, reference.metaObject);
-                summary.totalInstances++;
-                summary.aliveInstances++;
+                summary.totalInstances += reference.weight;
+                summary.aliveInstances += reference.weight;
                 long bytesDiff = reference.computeBytesDiff();
                 summary.totalBytes += bytesDiff;
                 summary.aliveBytes += bytesDiff;
@@ -350,12 +387,12 @@ public final class HeapMonitor implements Closeable {
                 HeapSummary counter = getSummary(summaryData, reference.language, reference.metaObject);
                 long bytesDiff = reference.computeBytesDiff();
                 if (reference.processed) {
-                    counter.aliveInstances--;
+                    counter.aliveInstances -= reference.weight;
                     counter.aliveBytes -= bytesDiff;
                     collectedProcessedReferences.add(reference);
                 } else {
                     // object never was processed alive
-                    counter.totalInstances++;
+                    counter.totalInstances += reference.weight;
                     counter.totalBytes += bytesDiff;
                     collectedNewReferences.add(reference);
                 }
@@ -369,6 +406,12 @@ public final class HeapMonitor implements Closeable {
 
     private class Listener implements AllocationListener {
 
+        private final AllocationSampler sampler;
+
+        Listener(AllocationSampler sampler) {
+            this.sampler = sampler;
+        }
+
         public void onEnter(AllocationEvent event) {
             // nothing to do
         }
@@ -379,11 +422,20 @@ public final class HeapMonitor implements Closeable {
             if (object == null) {
                 return;
             }
+            long weight = 1;
+            if (sampler != null) {
+                long sampledBytes = sampler.sample(event);
+                if (sampledBytes == 0) {
+                    return;
+                }
+                // the number of allocations of this size the sampled one stands for
+                weight = Math.max(sampledBytes / Math.max(AllocationSampler.allocatedBytes(event), 1), 1);
+            }
             LanguageInfo language = event.getLanguage();
             if (initializedLanguages.containsKey(language)) {
                 String metaInfo = getMetaObjectString(language, object);
                 if (metaInfo != null) {
-                    newReferences.add(new ObjectWeakReference(object, referenceQueue, language, metaInfo.intern(), event.getOldSize(), event.getNewSize()));
+                    newReferences.add(new ObjectWeakReference(object, referenceQueue, language, metaInfo.intern(), event.getOldSize(), event.getNewSize(), weight));
                 }
             }
         }
@@ -418,22 +470,24 @@ public final class HeapMonitor implements Closeable {
         final LanguageInfo language;
         final long oldSize;
         final long newSize;
+        final long weight; // number of allocations the reference stands for
 
         boolean processed;
 
-        ObjectWeakReference(Object obj, ReferenceQueue<Object> rq, LanguageInfo language, String metaObject, long oldSize, long newSize) {
+        ObjectWeakReference(Object obj, ReferenceQueue<Object> rq, LanguageInfo language, String metaObject, long oldSize, long newSize, long weight) {
             super(obj, rq);
             this.language = language;
             this.metaObject = metaObject;
             this.oldSize = oldSize;
             this.newSize = newSize;
+            this.weight = weight;
         }
 
         @SuppressWarnings("hiding")
         long computeBytesDiff() {
             long newSize = this.newSize == AllocationReporter.SIZE_UNKNOWN ? 0 : this.newSize;
             long oldSize = this.oldSize == AllocationReporter.SIZE_UNKNOWN ? 0 : this.oldSize;
-            return newSize - oldSize;
+            return (newSize - oldSize) * weight;
         }
 
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -64,7 +64,8 @@ import com.oracle.truffle.tools.profiler.impl.ProfilerToolFactory;
  * The tracer counts how many times each of the elements of interest (e.g. functions, statements,
  * etc.) allocates memory, as well as meta data about the allocated object. It keeps a shadow stack
  * during execution, and listens for {@link AllocationEvent allocation events}. On each event, the
- * allocation information is associated to the top of the stack.
+ * allocation information is associated to the top of the stack. To reduce the overhead, the tracer
+ * can record only a sample of the allocations, see {@link #setSamplingInterval(long)}.
  * <p>
  * NOTE: This profiler is still experimental with limited capabilities.
  * <p>
@@ -93,6 +94,8 @@ public final class MemoryTracer implements Closeable {
 
     private int stackLimit = 1000;
 
+    private long samplingInterval = 0;
+
     private ShadowStack shadowStack;
 
     private EventBinding<?> stacksBinding;
@@ -124,7 +127,8 @@ public final class MemoryTracer implements Closeable {
         this.shadowStack = new ShadowStack(stackLimit, f, env.getInstrumenter(), TruffleLogger.getLogger(CPUTracerInstrument.ID));
         this.stacksBinding = this.shadowStack.install(env.getInstrumenter(), f, false);
 
-        this.activeBinding = env.getInstrumenter().attachAllocationListener(AllocationEventFilter.ANY, new Listener());
+        AllocationSampler sampler = samplingInterval > 0 ? new AllocationSampler(samplingInterval) : null;
+        this.activeBinding = env.getInstrumenter().attachAllocationListener(AllocationEventFilter.ANY, new Listener(sampler));
     }
 
     /**
@@ -275,6 +279,34 @@ public final class MemoryTracer implements Closeable {
         return stackOverflowed;
     }
 
+    /**
+     * @return the number of allocated bytes per recorded allocation, or <code>0</code> if every
+     *         allocation is recorded
+     * @since 20.1
+     */
+    public synchronized long getSamplingInterval() {
+        return samplingInterval;
+    }
+
+    /**
+     * Sets the number of bytes a thread allocates per recorded allocation. Each thread records only
+     * the allocation with which it exceeds the interval since its last recorded allocation, so the
+     * stack is only captured for a sample of the allocations and the recorded allocations are
+     * distributed among the locations proportionally to the bytes allocated there. Allocations of
+     * an unknown size count as one byte. Use <code>0</code> to record every allocation, which is
+     * the default.
+     *
+     * @param samplingInterval the number of allocated bytes per recorded allocation
+     * @since 20.1
+     */
+    public synchronized void setSamplingInterval(long samplingInterval) {
+        verifyConfigAllowed();
+        if (samplingInterval < 0) {
+            throw new IllegalArgumentException(String.format("Invalid sampling interval %s.", samplingInterval));
+        }
+        this.samplingInterval = samplingInterval;
+    }
+
     /**
      * Sets the {@link SourceSectionFilter filter} for the sampler. This allows the sampler to
      * observe only parts of the executed source code.
@@ -321,6 +353,12 @@ public final class MemoryTracer implements Closeable {
          */
         ThreadLocal<Boolean> gettingMetaObject = ThreadLocal.withInitial(() -> false);
 
+        private final AllocationSampler sampler;
+
+        Listener(AllocationSampler sampler) {
+            this.sampler = sampler;
+        }
+
         @Override
         public void onEnter(AllocationEvent event) {
         }
@@ -331,6 +369,9 @@ public final class MemoryTracer implements Closeable {
             if (gettingMetaObject.get()) {
                 return;
             }
+            if (sampler != null && sampler.sample(event) == 0) {
+                return;
+            }
             ShadowStack.ThreadLocalStack stack = shadowStack.getStack(Thread.currentThread());
             if (stack == null || stack.getStackIndex() == -1) {
                 // nothing on the stack
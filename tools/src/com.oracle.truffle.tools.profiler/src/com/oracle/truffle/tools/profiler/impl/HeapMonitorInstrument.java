@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -107,6 +107,7 @@ public class HeapMonitorInstrument extends TruffleInstrument {
     protected void onCreate(TruffleInstrument.Env env) {
         monitor = factory.create(env);
         if (env.getOptions().get(HeapMonitorInstrument.ENABLED)) {
+            monitor.setSamplingInterval(env.getOptions().get(HeapMonitorInstrument.SAMPLING_INTERVAL));
             monitor.setCollecting(true);
         }
         env.registerService(monitor);
@@ -136,5 +137,9 @@ public class HeapMonitorInstrument extends TruffleInstrument {
     @Option(name = "",
             help = "Start the heap allocation monitor with the application. This produces no output but improves the precision of the data provided to third party tools.",
             category = OptionCategory.USER) static final OptionKey<Boolean> ENABLED = new OptionKey<>(false);
+
+    @Option(name = "SamplingInterval",
+            help = "Track one allocation per given number of bytes allocated by a thread, 0 tracks every allocation (default:0).",
+            category = OptionCategory.USER) static final OptionKey<Long> SAMPLING_INTERVAL = new OptionKey<>(0L);
     // @formatter:on
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -107,6 +107,7 @@ public class MemoryTracerInstrument extends TruffleInstrument {
         if (env.getOptions().get(MemoryTracerCLI.ENABLED)) {
             tracer.setFilter(getSourceSectionFilter(env));
             tracer.setStackLimit(env.getOptions().get(MemoryTracerCLI.STACK_LIMIT));
+            tracer.setSamplingInterval(env.getOptions().get(MemoryTracerCLI.SAMPLING_INTERVAL));
             tracer.setCollecting(true);
         }
         env.registerService(tracer);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -29,9 +29,20 @@ import static org.junit.Assert.assertTrue;
 
 import java.net.URI;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Context.Builder;
+import org.graalvm.tools.lsp.instrument.EnvironmentProvider;
+import org.graalvm.tools.lsp.server.ContextAwareExecutor;
+import org.graalvm.tools.lsp.server.LSPFileSystem;
+import org.graalvm.tools.lsp.server.TruffleAdapter;
 import org.graalvm.tools.lsp.server.types.Hover;
 import org.graalvm.tools.lsp.server.types.Position;
 import org.graalvm.tools.lsp.server.types.Range;
@@ -69,10 +80,133 @@ public class HoverTest extends TruffleLSPTest {
         assertEquals("meta-object: Object", ((List<?>) hover.getContents()).get(2));
     }
 
+    @Test
+    public void hoverWithCoverageDataReadOnlyThreads() throws InterruptedException, ExecutionException {
+        ThreadedExecutor executor = new ThreadedExecutor(Context.newBuilder().allowAllAccess(true).fileSystem(LSPFileSystem.newReadOnlyFileSystem(truffleAdapter)).engine(engine));
+        EnvironmentProvider envProvider = engine.getInstruments().get("lsp").lookup(EnvironmentProvider.class);
+        TruffleAdapter adapter = new TruffleAdapter(envProvider.getEnvironment(), true);
+        adapter.register(envProvider.getEnvironment(), executor);
+        adapter.initialize();
+        try {
+            URI uri = createDummyFileUriForSL();
+            adapter.parse(PROG_OBJ, "sl", uri).get();
+            assertTrue(adapter.runCoverageAnalysis(uri).get());
+
+            executor.nestedTasks.set(0);
+            Hover hover = adapter.hover(uri, 8, 10).get();
+            assertTrue(rangeCheck(8, 9, 8, 12, hover.getRange()));
+            assertEquals(3, ((List<?>) hover.getContents()).size());
+            assertEquals("Object", ((List<?>) hover.getContents()).get(1));
+            // the covered frame is read by the worker with the nested context entered
+            assertTrue(executor.nestedTasks.get() > 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private Hover checkHover(URI uri, int line, int column, Range range) throws InterruptedException, ExecutionException {
         Future<Hover> future = truffleAdapter.hover(uri, line, column);
         Hover hover = future.get();
         assertTrue(rangeCheck(range, hover.getRange()));
         return hover;
     }
+
+    /**
+     * Executes tasks like the language server does: tasks with the default or a nested context by
+     * a single worker thread, and read-only tasks by a separate thread with its own context.
+     */
+    private static final class ThreadedExecutor implements ContextAwareExecutor {
+
+        private final Builder contextBuilder;
+        private final ExecutorService worker = Executors.newSingleThreadExecutor();
+        private final ExecutorService readOnlyWorker = Executors.newSingleThreadExecutor();
+        private final AtomicInteger nestedTasks = new AtomicInteger();
+        private volatile Thread workerThread;
+        private Context defaultContext;
+        private Context nestedContext;
+        private Context readOnlyContext;
+
+        ThreadedExecutor(Builder contextBuilder) {
+            this.contextBuilder = contextBuilder;
+        }
+
+        @Override
+        public <T> Future<T> executeWithDefaultContext(Callable<T> taskWithResult) {
+            return execute(() -> {
+                if (defaultContext == null) {
+                    defaultContext = contextBuilder.build();
+                }
+                return callEntered(defaultContext, taskWithResult);
+            });
+        }
+
+        @Override
+        public <T> Future<T> executeWithNestedContext(Callable<T> taskWithResult, boolean cached) {
+            return execute(() -> {
+                nestedTasks.incrementAndGet();
+                if (nestedContext == null) {
+                    nestedContext = contextBuilder.build();
+                }
+                return callEntered(nestedContext, taskWithResult);
+            });
+        }
+
+        @Override
+        public <T> Future<T> executeReadOnly(Callable<T> taskWithResult) {
+            return readOnlyWorker.submit(() -> {
+                if (readOnlyContext == null) {
+                    readOnlyContext = contextBuilder.build();
+                }
+                return callEntered(readOnlyContext, taskWithResult);
+            });
+        }
+
+        private <T> Future<T> execute(Callable<T> task) {
+            if (Thread.currentThread() == workerThread) {
+                FutureTask<T> futureTask = new FutureTask<>(task);
+                futureTask.run();
+                return futureTask;
+            }
+            return worker.submit(() -> {
+                workerThread = Thread.currentThread();
+                return task.call();
+            });
+        }
+
+        private static <T> T callEntered(Context context, Callable<T> task) throws Exception {
+            context.enter();
+            try {
+                return task.call();
+            } finally {
+                context.leave();
+            }
+        }
+
+        @Override
+        public void resetContextCache() {
+        }
+
+        @Override
+        public void shutdown() {
+            try {
+                readOnlyWorker.submit(() -> readOnlyContext != null ? closeContext(readOnlyContext) : null).get();
+                worker.submit(() -> {
+                    if (nestedContext != null) {
+                        closeContext(nestedContext);
+                    }
+                    return defaultContext != null ? closeContext(defaultContext) : null;
+                }).get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new AssertionError(e);
+            } finally {
+                readOnlyWorker.shutdown();
+                worker.shutdown();
+            }
+        }
+
+        private static Void closeContext(Context context) {
+            context.close();
+            return null;
+        }
+    }
 }
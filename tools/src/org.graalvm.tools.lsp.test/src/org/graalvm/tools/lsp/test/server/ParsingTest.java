@@ -26,6 +26,8 @@ package org.graalvm.tools.lsp.test.server;
 
 import java.io.File;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -38,6 +40,8 @@ import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
+import com.oracle.truffle.api.CallTarget;
+
 import org.graalvm.tools.lsp.server.types.Diagnostic;
 import org.graalvm.tools.lsp.server.types.Position;
 import org.graalvm.tools.lsp.server.types.PublishDiagnosticsParams;
@@ -162,6 +166,36 @@ public class ParsingTest extends TruffleLSPTest {
         return surrogate;
     }
 
+    @Test
+    public void parseUnchanged() throws InterruptedException, ExecutionException {
+        URI uri = createDummyFileUriForSL();
+        String text = "function main() {return 3+3;}";
+        CallTarget callTarget = truffleAdapter.parse(text, "sl", uri).get();
+        assertSame(callTarget, truffleAdapter.parse(text, "sl", uri).get());
+
+        CallTarget changedCallTarget = truffleAdapter.parse("function main() {return 3+4;}", "sl", uri).get();
+        assertNotSame(callTarget, changedCallTarget);
+    }
+
+    @Test
+    public void analyzeChanges() throws InterruptedException, ExecutionException {
+        URI uri = createDummyFileUriForSL();
+        truffleAdapter.parse("function main() {return 3+3;}", "sl", uri).get();
+
+        TextDocumentContentChangeEvent event = TextDocumentContentChangeEvent.create("+4").setRange(Range.create(Position.create(0, 27), Position.create(0, 27))).setRangeLength(2);
+        TextDocumentSurrogate surrogate = truffleAdapter.processChanges(Arrays.asList(event), uri).get();
+        assertEquals("function main() {return 3+3+4;}", surrogate.getEditorText());
+        assertFalse(surrogate.isParsed());
+
+        // A stale analysis does not parse the document.
+        assertFalse(truffleAdapter.analyze(uri, () -> false).get());
+        assertFalse(surrogate.isParsed());
+
+        assertTrue(truffleAdapter.analyze(uri, () -> true).get());
+        assertTrue(surrogate.isParsedSuccessfully());
+        assertTrue(surrogate.getChangeEventsSinceLastSuccessfulParsing().isEmpty());
+    }
+
     @Test
     public void parseingWithSyntaxErrors() throws InterruptedException {
         URI uri = createDummyFileUriForSL();
@@ -117,6 +117,12 @@ public final class LSPInstrument extends TruffleInstrument implements Environmen
     @Option(help = "Delegate language servers", category = OptionCategory.USER) //
     static final OptionKey<List<LanguageAndAddress>> Delegates = new OptionKey<>(Collections.emptyList(), DELEGATES);
 
+    @Option(help = "Delay in milliseconds to wait for further changes of a document before it is parsed and diagnostics are published. (default: 100)", category = OptionCategory.EXPERT) //
+    static final OptionKey<Integer> AnalysisDelay = new OptionKey<>(100);
+
+    @Option(help = "Number of threads, each with an own context, which handle read-only requests like hover or document highlight in parallel. (default: 2)", category = OptionCategory.EXPERT) //
+    static final OptionKey<Integer> ReadOnlyThreads = new OptionKey<>(2);
+
     @Override
     protected void onCreate(Env env) {
         env.registerService(this);
@@ -198,7 +204,7 @@ public final class LSPInstrument extends TruffleInstrument implements Environmen
         builder.allowAllAccess(true);
         builder.engine(Engine.create());
         builder.fileSystem(LSPFileSystem.newReadOnlyFileSystem(truffleAdapter));
-        ContextAwareExecutor executorWrapper = new ContextAwareExecutorImpl(builder);
+        ContextAwareExecutor executorWrapper = new ContextAwareExecutorImpl(builder, options.get(ReadOnlyThreads));
 
         executorWrapper.executeWithDefaultContext(() -> {
             Context context = builder.build();
@@ -216,7 +222,7 @@ public final class LSPInstrument extends TruffleInstrument implements Environmen
                 InetAddress address = socketAddress.getAddress();
                 ServerSocket serverSocket = new ServerSocket(port, backlog, address);
                 List<Pair<String, SocketAddress>> delegates = createDelegateSockets(options.get(Delegates));
-                LanguageServerImpl.create(truffleAdapter, info, err).start(serverSocket, delegates, () -> setWaitForClose()).thenRun(() -> {
+                LanguageServerImpl.create(truffleAdapter, options.get(AnalysisDelay), info, err).start(serverSocket, delegates, () -> setWaitForClose()).thenRun(() -> {
                     try {
                         executorWrapper.executeWithDefaultContext(() -> {
                             context.leave();
@@ -257,6 +263,7 @@ public final class LSPInstrument extends TruffleInstrument implements Environmen
     private static final class ContextAwareExecutorImpl implements ContextAwareExecutor {
         private final Context.Builder contextBuilder;
         static final String WORKER_THREAD_ID = "LS Context-aware Worker";
+        static final String READ_ONLY_WORKER_THREAD_ID = "LS Read-only Worker";
         Context lastNestedContext = null;
         private volatile WeakReference<Thread> workerThread = new WeakReference<>(null);
         /**
@@ -276,8 +283,28 @@ public final class LSPInstrument extends TruffleInstrument implements Environmen
             }
         });
 
-        private ContextAwareExecutorImpl(Context.Builder contextBuilder) {
+        /**
+         * Read-only tasks are executed by a pool of Threads, each with its own Polyglot Context
+         * of the same engine. All tasks which may execute source code or modify the state of the
+         * language server are still executed by the single worker Thread above.
+         */
+        private final ExecutorService readOnlyExecutor;
+        private final ThreadLocal<Context> readOnlyContext = new ThreadLocal<>();
+        private final List<Context> readOnlyContexts = new ArrayList<>();
+
+        private ContextAwareExecutorImpl(Context.Builder contextBuilder, int readOnlyThreads) {
             this.contextBuilder = contextBuilder;
+            this.readOnlyExecutor = readOnlyThreads > 0 ? Executors.newFixedThreadPool(readOnlyThreads, new ThreadFactory() {
+                private final ThreadFactory factory = Executors.defaultThreadFactory();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = factory.newThread(r);
+                    thread.setName(READ_ONLY_WORKER_THREAD_ID + " " + thread.getName());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            }) : null;
         }
 
         @Override
@@ -285,6 +312,19 @@ public final class LSPInstrument extends TruffleInstrument implements Environmen
             return execute(taskWithResult);
         }
 
+        @Override
+        public <T> Future<T> executeReadOnly(Callable<T> taskWithResult) {
+            if (readOnlyExecutor == null || Thread.currentThread() == workerThread.get()) {
+                return execute(taskWithResult);
+            }
+            if (readOnlyContext.get() != null) {
+                FutureTask<T> futureTask = new FutureTask<>(taskWithResult);
+                futureTask.run();
+                return futureTask;
+            }
+            return readOnlyExecutor.submit(wrapWithReadOnlyContext(taskWithResult));
+        }
+
         @Override
         public <T> Future<T> executeWithNestedContext(Callable<T> taskWithResult, boolean cached) {
             return execute(wrapWithNewContext(taskWithResult, cached));
@@ -300,6 +340,29 @@ public final class LSPInstrument extends TruffleInstrument implements Environmen
             return executor.submit(taskWithResult);
         }
 
+        private <T> Callable<T> wrapWithReadOnlyContext(Callable<T> taskWithResult) {
+            return new Callable<T>() {
+
+                @Override
+                public T call() throws Exception {
+                    Context context = readOnlyContext.get();
+                    if (context == null) {
+                        synchronized (readOnlyContexts) {
+                            context = contextBuilder.build();
+                            readOnlyContexts.add(context);
+                        }
+                        readOnlyContext.set(context);
+                    }
+                    context.enter();
+                    try {
+                        return taskWithResult.call();
+                    } finally {
+                        context.leave();
+                    }
+                }
+            };
+        }
+
         private <T> Callable<T> wrapWithNewContext(Callable<T> taskWithResult, boolean cached) {
             return new Callable<T>() {
 
@@ -334,6 +397,15 @@ public final class LSPInstrument extends TruffleInstrument implements Environmen
         @Override
         public void shutdown() {
             executor.shutdownNow();
+            if (readOnlyExecutor != null) {
+                readOnlyExecutor.shutdownNow();
+                synchronized (readOnlyContexts) {
+                    for (Context context : readOnlyContexts) {
+                        context.close(true);
+                    }
+                    readOnlyContexts.clear();
+                }
+            }
         }
 
         @Override
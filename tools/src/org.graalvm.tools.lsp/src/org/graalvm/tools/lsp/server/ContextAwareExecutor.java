@@ -73,6 +73,22 @@ public interface ContextAwareExecutor {
      */
     <T> Future<T> executeWithNestedContext(Callable<T> taskWithResult, boolean cached);
 
+    /**
+     * Execute a task which only reads already parsed sources and collected data, e.g. to find
+     * nodes or scopes at a caret position. Such tasks may be executed in parallel to each other
+     * and to tasks of {@link ContextAwareExecutor#executeWithDefaultContext(Callable)}, each in a
+     * Polyglot Context of a pool of contexts. Tasks which are submitted by a read-only task to be
+     * executed in the default or a nested context are executed by the default worker, so source
+     * code is still executed by a single Thread.
+     *
+     * @param taskWithResult a task which shall be executed in a Polyglot-Context-entered Thread,
+     *            which does not modify the state of the language server
+     * @return a {@link Future} to await the task's result
+     */
+    default <T> Future<T> executeReadOnly(Callable<T> taskWithResult) {
+        return executeWithDefaultContext(taskWithResult);
+    }
+
     /**
      * Explicitly closes and removes all cached nested Context instances.
      */
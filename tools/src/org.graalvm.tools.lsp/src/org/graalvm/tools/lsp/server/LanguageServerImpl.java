@@ -38,11 +38,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 
@@ -109,24 +112,46 @@ public final class LanguageServerImpl extends LanguageServer {
     private static final TextDocumentSyncKind TEXT_DOCUMENT_SYNC_KIND = TextDocumentSyncKind.Incremental;
 
     private final TruffleAdapter truffleAdapter;
+    private final int analysisDelay;
     private final PrintWriter err;
     private final PrintWriter info;
     private LanguageClient client;
     private final Map<URI, String> openedFileUri2LangId = new HashMap<>();
+    private final Map<URI, DocumentAnalysis> pendingAnalyses = new ConcurrentHashMap<>();
     private ExecutorService clientConnectionExecutor;
+    private final ScheduledExecutorService analysisExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = Executors.defaultThreadFactory().newThread(r);
+            thread.setName("LSP document analysis thread");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
 
     private final Hover emptyHover = Hover.create(Collections.emptyList());
     private final SignatureHelp emptySignatureHelp = SignatureHelp.create(Collections.emptyList(), null, null);
     private ServerCapabilities serverCapabilities;
 
-    private LanguageServerImpl(TruffleAdapter adapter, PrintWriter info, PrintWriter err) {
+    private LanguageServerImpl(TruffleAdapter adapter, int analysisDelay, PrintWriter info, PrintWriter err) {
         this.truffleAdapter = adapter;
+        this.analysisDelay = analysisDelay;
         this.info = info;
         this.err = err;
     }
 
-    public static LanguageServerImpl create(TruffleAdapter adapter, PrintWriter info, PrintWriter err) {
-        LanguageServerImpl server = new LanguageServerImpl(adapter, info, err);
+    /**
+     * Creates a language server.
+     *
+     * @param adapter to delegate requests to
+     * @param analysisDelay delay in milliseconds to wait for further changes of a document before
+     *            it is parsed and diagnostics are published
+     * @param info stream for informational messages
+     * @param err stream for errors
+     */
+    public static LanguageServerImpl create(TruffleAdapter adapter, int analysisDelay, PrintWriter info, PrintWriter err) {
+        LanguageServerImpl server = new LanguageServerImpl(adapter, analysisDelay, info, err);
         adapter.initialize();
         return server;
     }
@@ -168,6 +193,7 @@ public final class LanguageServerImpl extends LanguageServer {
 
     @Override
     public void exit() {
+        analysisExecutor.shutdownNow();
         clientConnectionExecutor.shutdown();
         info.println("[Graal LSP] Server shutdown done.");
     }
@@ -312,27 +338,86 @@ public final class LanguageServerImpl extends LanguageServer {
         }
 
         URI uri = URI.create(documentUri);
-        Future<?> future;
         switch (TEXT_DOCUMENT_SYNC_KIND) {
             case Full:
                 // Only need the first element, as long as sync mode isTextDocumentSyncKind.Full
                 TextDocumentContentChangeEvent e = list.iterator().next();
-                future = truffleAdapter.parse(e.getText(), langId, uri);
+                Future<?> future = truffleAdapter.parse(e.getText(), langId, uri);
+                CompletableFuture.runAsync(() -> waitForResultAndHandleExceptions(future, null, uri));
                 break;
             case Incremental:
-                future = truffleAdapter.processChangesAndParse(list, uri);
+                // Changes are applied in order, but parsing is delayed until no further changes
+                // arrive, so that typing does not trigger a parsing per keystroke.
+                Future<?> futureChanges = truffleAdapter.processChanges(list, uri);
+                CompletableFuture.runAsync(() -> waitForResultAndHandleExceptions(futureChanges));
+                scheduleAnalysis(uri);
                 break;
             default:
                 throw new IllegalStateException("Unknown TextDocumentSyncKind: " + TEXT_DOCUMENT_SYNC_KIND);
         }
+    }
 
-        CompletableFuture.runAsync(() -> waitForResultAndHandleExceptions(future, null, uri));
+    private void scheduleAnalysis(URI uri) {
+        DocumentAnalysis analysis = new DocumentAnalysis(uri);
+        DocumentAnalysis previous = pendingAnalyses.put(uri, analysis);
+        if (previous != null) {
+            previous.cancel();
+        }
+        analysis.schedule();
+    }
+
+    private void cancelAnalysis(URI uri) {
+        DocumentAnalysis pending = pendingAnalyses.remove(uri);
+        if (pending != null) {
+            pending.cancel();
+        }
+    }
+
+    /**
+     * A delayed analysis of a changed document. The analysis is cancelled when a newer change of
+     * the document arrives before the analysis is executed, so that only the current text is
+     * analyzed.
+     */
+    private final class DocumentAnalysis implements Runnable {
+
+        private final URI uri;
+        private volatile Future<?> scheduled;
+
+        DocumentAnalysis(URI uri) {
+            this.uri = uri;
+        }
+
+        void schedule() {
+            scheduled = analysisExecutor.schedule(this, analysisDelay, TimeUnit.MILLISECONDS);
+        }
+
+        void cancel() {
+            Future<?> future = scheduled;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        boolean isCurrent() {
+            return pendingAnalyses.get(uri) == this;
+        }
+
+        @Override
+        public void run() {
+            Future<Boolean> future = truffleAdapter.analyze(uri, this::isCurrent);
+            Boolean analyzed = waitForResultAndHandleExceptions(future, Boolean.FALSE);
+            pendingAnalyses.remove(uri, this);
+            if (Boolean.TRUE.equals(analyzed)) {
+                client.publishDiagnostics(PublishDiagnosticsParams.create(uri.toString(), Collections.emptyList()));
+            }
+        }
     }
 
     @Override
     public void didClose(DidCloseTextDocumentParams params) {
         URI uri = URI.create(params.getTextDocument().getUri());
         openedFileUri2LangId.remove(uri);
+        cancelAnalysis(uri);
         truffleAdapter.didClose(uri);
     }
 
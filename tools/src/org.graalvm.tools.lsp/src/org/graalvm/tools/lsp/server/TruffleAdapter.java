@@ -39,6 +39,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
 import java.util.function.Function;
 import java.util.logging.Level;
 
@@ -66,6 +67,7 @@ import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.TruffleLogger;
+import com.oracle.truffle.api.instrumentation.InstrumentableNode;
 import com.oracle.truffle.api.instrumentation.TruffleInstrument;
 import com.oracle.truffle.api.instrumentation.TruffleInstrument.Env;
 import com.oracle.truffle.api.nodes.LanguageInfo;
@@ -79,7 +81,8 @@ import org.graalvm.tools.lsp.server.types.SignatureHelpOptions;
  * This class delegates LSP requests of {@link LanguageServerImpl} to specific implementations of
  * {@link AbstractRequestHandler}. It is responsible for wrapping requests into tasks for an
  * instance of {@link ContextAwareExecutor}, so that these tasks are executed by a Thread which has
- * entered a {@link org.graalvm.polyglot.Context}.
+ * entered a {@link org.graalvm.polyglot.Context}. Requests which only read the parsed documents,
+ * like hover or document highlight, are executed as read-only tasks, which may run in parallel.
  *
  */
 public final class TruffleAdapter implements VirtualLanguageServerFileProvider {
@@ -162,9 +165,51 @@ public final class TruffleAdapter implements VirtualLanguageServerFileProvider {
     }
 
     CallTarget parseWithEnteredContext(TextDocumentSurrogate surrogate) throws DiagnosticsNotification {
+        if (surrogate.isParsedSuccessfully()) {
+            // The document did not change since it was parsed the last time.
+            surrogate.getChangeEventsSinceLastSuccessfulParsing().clear();
+            return surrogate.getSourceWrapper().getCallTarget();
+        }
         return sourceCodeEvaluator.parse(surrogate);
     }
 
+    /**
+     * Parses a document whose changes were not parsed yet, so that requests are answered based on
+     * the current editor text. Diagnostics are not reported here, but by the analysis of the
+     * changed document.
+     */
+    private void parseIfChangedWithEnteredContext(URI uri) {
+        TextDocumentSurrogate surrogate = surrogateMap.get(uri);
+        if (surrogate != null && !surrogate.isParsed()) {
+            try {
+                sourceCodeEvaluator.parse(surrogate);
+            } catch (DiagnosticsNotification e) {
+            }
+        }
+    }
+
+    private void awaitParsed(URI uri) throws Exception {
+        TextDocumentSurrogate surrogate = surrogateMap.get(uri);
+        if (surrogate != null && !surrogate.isParsed()) {
+            getResult(contextAwareExecutor.executeWithDefaultContext(() -> {
+                parseIfChangedWithEnteredContext(uri);
+                return null;
+            }));
+        }
+    }
+
+    private static <T> T getResult(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            } else {
+                throw e;
+            }
+        }
+    }
+
     public Future<?> reparse(URI uri) {
         TextDocumentSurrogate surrogate = surrogateMap.get(uri);
         return contextAwareExecutor.executeWithDefaultContext(() -> parseWithEnteredContext(surrogate));
@@ -210,6 +255,35 @@ public final class TruffleAdapter implements VirtualLanguageServerFileProvider {
     }
 
     protected TextDocumentSurrogate processChangesAndParseWithContextEntered(List<? extends TextDocumentContentChangeEvent> list, URI uri) throws DiagnosticsNotification {
+        TextDocumentSurrogate surrogate = processChangesWithContextEntered(list, uri);
+
+        if (list.isEmpty()) {
+            return surrogate;
+        }
+
+        sourceCodeEvaluator.parse(surrogate);
+
+        if (surrogate.hasCoverageData()) {
+            showCoverage(uri);
+        }
+
+        return surrogate;
+    }
+
+    /**
+     * Applies changes to a document without parsing it. The changed document is parsed by
+     * {@link #analyze(URI, BooleanSupplier)} or by the next request which needs the document to be
+     * parsed.
+     *
+     * @param list of changes
+     * @param uri of the changed document
+     * @return a future of the changed document
+     */
+    public Future<TextDocumentSurrogate> processChanges(List<? extends TextDocumentContentChangeEvent> list, URI uri) {
+        return contextAwareExecutor.executeWithDefaultContext(() -> processChangesWithContextEntered(list, uri));
+    }
+
+    private TextDocumentSurrogate processChangesWithContextEntered(List<? extends TextDocumentContentChangeEvent> list, URI uri) {
         TextDocumentSurrogate surrogate = surrogateMap.get(uri);
 
         if (surrogate == null) {
@@ -223,16 +297,33 @@ public final class TruffleAdapter implements VirtualLanguageServerFileProvider {
         surrogate.getChangeEventsSinceLastSuccessfulParsing().addAll(list);
         surrogate.setLastChange(list.get(list.size() - 1));
         surrogate.setEditorText(SourceUtils.applyTextDocumentChanges(list, surrogate.getSource(), surrogate, logger));
-
-        sourceCodeEvaluator.parse(surrogate);
-
-        if (surrogate.hasCoverageData()) {
-            showCoverage(uri);
-        }
-
         return surrogate;
     }
 
+    /**
+     * Parses a changed document and reports its diagnostics, including the coverage of the
+     * document, if coverage data was collected. The analysis is skipped if it became stale before
+     * it is executed, i.e. because a newer change of the document needs to be analyzed.
+     *
+     * @param uri of the changed document
+     * @param isCurrent whether the analysis is still needed
+     * @return a future of <code>true</code> if the document was analyzed without errors, or
+     *         <code>false</code> if the analysis was skipped
+     */
+    public Future<Boolean> analyze(URI uri, BooleanSupplier isCurrent) {
+        return contextAwareExecutor.executeWithDefaultContext(() -> {
+            TextDocumentSurrogate surrogate = surrogateMap.get(uri);
+            if (surrogate == null || !isCurrent.getAsBoolean()) {
+                return Boolean.FALSE;
+            }
+            parseWithEnteredContext(surrogate);
+            if (surrogate.hasCoverageData()) {
+                coverageHandler.showCoverageWithEnteredContext(uri);
+            }
+            return Boolean.TRUE;
+        });
+    }
+
     public List<Future<?>> parseWorkspace(URI rootUri) {
         if (rootUri == null) {
             return new ArrayList<>();
@@ -350,15 +441,29 @@ public final class TruffleAdapter implements VirtualLanguageServerFileProvider {
      *         position
      */
     public Future<CompletionList> completion(final URI uri, int line, int column, CompletionContext completionContext) {
-        return contextAwareExecutor.executeWithDefaultContext(() -> completionHandler.completionWithEnteredContext(uri, line, column, completionContext));
+        return contextAwareExecutor.executeWithDefaultContext(() -> {
+            parseIfChangedWithEnteredContext(uri);
+            return completionHandler.completionWithEnteredContext(uri, line, column, completionContext);
+        });
     }
 
     public Future<Hover> hover(URI uri, int line, int column) {
-        return contextAwareExecutor.executeWithDefaultContext(() -> hoverHandler.hoverWithEnteredContext(uri, line, column));
+        return contextAwareExecutor.executeReadOnly(() -> {
+            awaitParsed(uri);
+            return hoverHandler.hoverWithEnteredContext(uri, line, column);
+        });
     }
 
     public Future<SignatureHelp> signatureHelp(URI uri, int line, int character) {
-        return contextAwareExecutor.executeWithNestedContext(() -> signatureHelpHandler.signatureHelpWithEnteredContext(uri, line, character), true);
+        return contextAwareExecutor.executeReadOnly(() -> {
+            awaitParsed(uri);
+            InstrumentableNode nodeAtCaret = signatureHelpHandler.findSignatureNode(uri, line, character);
+            if (nodeAtCaret == null) {
+                return signatureHelpHandler.emptySignatureHelp;
+            }
+            // Finding the signature executes source code, which is done by the default worker.
+            return getResult(contextAwareExecutor.executeWithNestedContext(() -> signatureHelpHandler.signatureHelpWithEnteredContext(uri, nodeAtCaret), true));
+        });
     }
 
     public Future<Boolean> runCoverageAnalysis(final URI uri) {
@@ -370,15 +475,7 @@ public final class TruffleAdapter implements VirtualLanguageServerFileProvider {
                                                       // control the reset of the current cached
                                                       // context.
             Future<Boolean> futureCoverage = contextAwareExecutor.executeWithNestedContext(() -> coverageHandler.runCoverageAnalysisWithEnteredContext(uri), true);
-            try {
-                return futureCoverage.get();
-            } catch (ExecutionException e) {
-                if (e.getCause() instanceof Exception) {
-                    throw (Exception) e.getCause();
-                } else {
-                    throw e;
-                }
-            }
+            return getResult(futureCoverage);
         });
         return future;
     }
@@ -437,7 +534,10 @@ public final class TruffleAdapter implements VirtualLanguageServerFileProvider {
     }
 
     public Future<List<? extends DocumentHighlight>> documentHighlight(URI uri, int line, int character) {
-        return contextAwareExecutor.executeWithDefaultContext(() -> highlightHandler.highlightWithEnteredContext(uri, line, character));
+        return contextAwareExecutor.executeReadOnly(() -> {
+            awaitParsed(uri);
+            return highlightHandler.highlightWithEnteredContext(uri, line, character);
+        });
     }
 
     public boolean hasCoverageData(URI uri) {
@@ -84,7 +84,13 @@ public final class HoverRequestHandler extends AbstractRequestHandler {
             if (surrogate.hasCoverageData()) {
                 List<CoverageData> coverages = surrogate.getCoverageData(hoverSection);
                 if (coverages != null) {
-                    return evalHoverInfos(coverages, hoverSection, surrogate.getLanguageInfo());
+                    // The covered frames belong to the nested context, so they are only accessed
+                    // by the worker which has this context entered.
+                    Future<Hover> future = contextAwareExecutor.executeWithNestedContext(() -> evalHoverInfos(coverages, hoverSection, surrogate.getLanguageInfo()), true);
+                    Hover hover = getFutureResultOrHandleExceptions(future);
+                    if (hover != null) {
+                        return hover;
+                    }
                 }
             } else if (developerMode) {
                 String sourceText = hoverSection.getCharacters().toString();
@@ -67,6 +67,7 @@ public final class SignatureHelpRequestHandler extends AbstractRequestHandler {
     private static final InteropLibrary INTEROP = InteropLibrary.getFactory().getUncached();
     private static final LSPLibrary LSP_INTEROP = LSPLibrary.getFactory().getUncached();
 
+    public final SignatureHelp emptySignatureHelp = SignatureHelp.create(Collections.emptyList(), null, null);
     private final SourceCodeEvaluator sourceCodeEvaluator;
     private final CompletionRequestHandler completionHandler;
     private final LanguageTriggerCharacters signatureTriggerCharacters;
@@ -79,69 +80,72 @@ public final class SignatureHelpRequestHandler extends AbstractRequestHandler {
         this.signatureTriggerCharacters = signatureTriggerCharacters;
     }
 
-    public SignatureHelp signatureHelpWithEnteredContext(URI uri, int line, int originalCharacter) throws DiagnosticsNotification {
+    public InstrumentableNode findSignatureNode(URI uri, int line, int originalCharacter) {
         TextDocumentSurrogate surrogate = surrogateMap.get(uri);
-        if (isSignatureHelpTriggerCharOfLanguage(surrogate, line, originalCharacter)) {
-            InstrumentableNode nodeAtCaret = findNodeAtCaret(surrogate, line, originalCharacter, StandardTags.CallTag.class);
-            if (nodeAtCaret != null) {
-                SourceSection signatureSection = ((Node) nodeAtCaret).getSourceSection();
-                SourceSectionFilter.Builder builder = SourceCodeEvaluator.createSourceSectionFilter(surrogate.getUri(), signatureSection);
-                SourceSectionFilter eventFilter = builder.tagIs(StandardTags.CallTag.class).build();
-                SourceSectionFilter inputFilter = SourceSectionFilter.ANY;
-                EvaluationResult evalResult = sourceCodeEvaluator.runToSectionAndEval(surrogate, signatureSection, eventFilter, inputFilter);
-                // TODO: Are we asking for the signature on the correct object?
-                if (evalResult.isEvaluationDone() && !evalResult.isError()) {
-                    Object result = evalResult.getResult();
-                    if (INTEROP.accepts(result) && INTEROP.isExecutable(result)) {
-                        try {
-                            Object signature = LSP_INTEROP.getSignature(result);
-                            LanguageInfo langInfo = surrogate.getLanguageInfo();
-                            String label = INTEROP.asString(INTEROP.toDisplayString(env.getLanguageView(langInfo, signature)));
-                            SignatureInformation info = SignatureInformation.create(label, null);
-                            if (signature instanceof TruffleObject) {
-                                if (INTEROP.isMemberReadable(signature, PROP_DOCUMENTATION)) {
-                                    Object doc = INTEROP.readMember(signature, PROP_DOCUMENTATION);
-                                    Object documentation = completionHandler.getDocumentation(doc, langInfo);
-                                    if (documentation != null) {
-                                        info.setDocumentation(documentation);
+        if (surrogate != null && surrogate.getSource() != null && isSignatureHelpTriggerCharOfLanguage(surrogate, line, originalCharacter)) {
+            return findNodeAtCaret(surrogate, line, originalCharacter, StandardTags.CallTag.class);
+        }
+        return null;
+    }
+
+    public SignatureHelp signatureHelpWithEnteredContext(URI uri, InstrumentableNode nodeAtCaret) throws DiagnosticsNotification {
+        TextDocumentSurrogate surrogate = surrogateMap.get(uri);
+        SourceSection signatureSection = ((Node) nodeAtCaret).getSourceSection();
+        SourceSectionFilter.Builder builder = SourceCodeEvaluator.createSourceSectionFilter(surrogate.getUri(), signatureSection);
+        SourceSectionFilter eventFilter = builder.tagIs(StandardTags.CallTag.class).build();
+        SourceSectionFilter inputFilter = SourceSectionFilter.ANY;
+        EvaluationResult evalResult = sourceCodeEvaluator.runToSectionAndEval(surrogate, signatureSection, eventFilter, inputFilter);
+        // TODO: Are we asking for the signature on the correct object?
+        if (evalResult.isEvaluationDone() && !evalResult.isError()) {
+            Object result = evalResult.getResult();
+            if (INTEROP.accepts(result) && INTEROP.isExecutable(result)) {
+                try {
+                    Object signature = LSP_INTEROP.getSignature(result);
+                    LanguageInfo langInfo = surrogate.getLanguageInfo();
+                    String label = INTEROP.asString(INTEROP.toDisplayString(env.getLanguageView(langInfo, signature)));
+                    SignatureInformation info = SignatureInformation.create(label, null);
+                    if (signature instanceof TruffleObject) {
+                        if (INTEROP.isMemberReadable(signature, PROP_DOCUMENTATION)) {
+                            Object doc = INTEROP.readMember(signature, PROP_DOCUMENTATION);
+                            Object documentation = completionHandler.getDocumentation(doc, langInfo);
+                            if (documentation != null) {
+                                info.setDocumentation(documentation);
+                            }
+                        }
+                        if (INTEROP.isMemberReadable(signature, PROP_PARAMETERS)) {
+                            Object paramsObject = INTEROP.readMember(signature, PROP_PARAMETERS);
+                            if (paramsObject instanceof TruffleObject && INTEROP.hasArrayElements(paramsObject)) {
+                                long size = INTEROP.getArraySize(paramsObject);
+                                List<ParameterInformation> paramInfos = new ArrayList<>((int) size);
+                                for (long i = 0; i < size; i++) {
+                                    if (!INTEROP.isArrayElementReadable(paramsObject, i)) {
+                                        continue;
                                     }
-                                }
-                                if (INTEROP.isMemberReadable(signature, PROP_PARAMETERS)) {
-                                    Object paramsObject = INTEROP.readMember(signature, PROP_PARAMETERS);
-                                    if (paramsObject instanceof TruffleObject && INTEROP.hasArrayElements(paramsObject)) {
-                                        long size = INTEROP.getArraySize(paramsObject);
-                                        List<ParameterInformation> paramInfos = new ArrayList<>((int) size);
-                                        for (long i = 0; i < size; i++) {
-                                            if (!INTEROP.isArrayElementReadable(paramsObject, i)) {
-                                                continue;
-                                            }
-                                            Object param = INTEROP.readArrayElement(paramsObject, i);
-                                            if (param instanceof TruffleObject) {
-                                                ParameterInformation paramInfo = getParameterInformation(param, label, langInfo);
-                                                if (paramInfo != null) {
-                                                    paramInfos.add(paramInfo);
-                                                }
-                                            }
+                                    Object param = INTEROP.readArrayElement(paramsObject, i);
+                                    if (param instanceof TruffleObject) {
+                                        ParameterInformation paramInfo = getParameterInformation(param, label, langInfo);
+                                        if (paramInfo != null) {
+                                            paramInfos.add(paramInfo);
                                         }
-                                        info.setParameters(paramInfos);
                                     }
                                 }
+                                info.setParameters(paramInfos);
                             }
-                            Object nodeObject = nodeAtCaret.getNodeObject();
-                            Integer numberOfArguments = InteropUtils.getNumberOfArguments(nodeObject, logger);
-                            // TODO: Support multiple signatures, the active one and find the active
-                            // parameter
-                            return SignatureHelp.create(Arrays.asList(info), 0, numberOfArguments != null ? numberOfArguments - 1 : 0);
-                        } catch (UnsupportedMessageException e) {
-                            logger.log(Level.FINEST, "GET_SIGNATURE message not supported for TruffleObject: {0}", result);
-                        } catch (InteropException e) {
-                            e.printStackTrace(err);
                         }
                     }
+                    Object nodeObject = nodeAtCaret.getNodeObject();
+                    Integer numberOfArguments = InteropUtils.getNumberOfArguments(nodeObject, logger);
+                    // TODO: Support multiple signatures, the active one and find the active
+                    // parameter
+                    return SignatureHelp.create(Arrays.asList(info), 0, numberOfArguments != null ? numberOfArguments - 1 : 0);
+                } catch (UnsupportedMessageException e) {
+                    logger.log(Level.FINEST, "GET_SIGNATURE message not supported for TruffleObject: {0}", result);
+                } catch (InteropException e) {
+                    e.printStackTrace(err);
                 }
             }
         }
-        return SignatureHelp.create(Collections.emptyList(), null, null);
+        return emptySignatureHelp;
     }
 
     private ParameterInformation getParameterInformation(Object param, String label, LanguageInfo langInfo) throws UnsupportedMessageException, UnknownIdentifierException, InvalidArrayIndexException {
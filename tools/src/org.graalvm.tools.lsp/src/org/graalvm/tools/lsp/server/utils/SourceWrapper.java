@@ -29,13 +29,13 @@ import com.oracle.truffle.api.source.Source;
 
 public final class SourceWrapper {
     private Source source;
-    private boolean parsingSuccessful = false;
+    private volatile boolean parsingSuccessful = false;
     /**
      * Needed to have a strong reference to the RootNode so that it and its children will not be
      * garbage collected.
      */
     // TODO: Review why this needs to be held
-    @SuppressWarnings("unused") private CallTarget callTarget;
+    private CallTarget callTarget;
 
     public SourceWrapper(Source source) {
         this.setSource(source);
@@ -57,6 +57,10 @@ public final class SourceWrapper {
         this.parsingSuccessful = parsingSuccessful;
     }
 
+    public CallTarget getCallTarget() {
+        return callTarget;
+    }
+
     public void setCallTarget(CallTarget callTarget) {
         this.callTarget = callTarget;
     }
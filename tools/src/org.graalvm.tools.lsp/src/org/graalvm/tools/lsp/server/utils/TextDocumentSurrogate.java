@@ -27,12 +27,13 @@ package org.graalvm.tools.lsp.server.utils;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import org.graalvm.tools.lsp.server.types.TextDocumentContentChangeEvent;
@@ -46,7 +47,8 @@ import com.oracle.truffle.api.source.SourceSection;
 
 /**
  * A data structure representing the state of text documents (source code files) which have been
- * opened at client-side.
+ * opened at client-side. A surrogate is modified by the worker Thread of the language server only,
+ * but can be read by read-only requests in parallel.
  *
  */
 public final class TextDocumentSurrogate {
@@ -54,9 +56,13 @@ public final class TextDocumentSurrogate {
     private final TruffleFile truffleFile;
     private final List<TextDocumentContentChangeEvent> changeEventsSinceLastSuccessfulParsing;
     private final Map<SourceSectionReference, List<CoverageData>> section2coverageData;
-    private String editorText;
+    private volatile String editorText;
     private Boolean coverageAnalysisDone = Boolean.FALSE;
-    private SourceWrapper sourceWrapper;
+    private volatile SourceWrapper sourceWrapper;
+    /**
+     * The editor text of the last parsing, to avoid parsing an unchanged document again.
+     */
+    private volatile String parsedEditorText;
     private TextDocumentContentChangeEvent lastChange = null;
     private final LanguageInfo languageInfo;
 
@@ -66,13 +72,14 @@ public final class TextDocumentSurrogate {
         this.changeEventsSinceLastSuccessfulParsing = blueprint.changeEventsSinceLastSuccessfulParsing;
         this.editorText = blueprint.editorText;
         this.sourceWrapper = blueprint.sourceWrapper;
+        this.parsedEditorText = blueprint.parsedEditorText;
         this.lastChange = blueprint.lastChange;
         this.languageInfo = blueprint.languageInfo;
     }
 
     public TextDocumentSurrogate(final TruffleFile truffleFile, final LanguageInfo languageInfo) {
         this.truffleFile = truffleFile;
-        this.section2coverageData = new HashMap<>();
+        this.section2coverageData = new ConcurrentHashMap<>();
         this.changeEventsSinceLastSuccessfulParsing = new ArrayList<>();
         this.languageInfo = languageInfo;
     }
@@ -86,11 +93,20 @@ public final class TextDocumentSurrogate {
     }
 
     public String getEditorText() {
-        if (editorText != null) {
-            return editorText;
+        String text = editorText;
+        if (text != null) {
+            return text;
         }
         Source source = getSource();
-        return source == null ? null : (editorText = source.getCharacters().toString());
+        if (source == null) {
+            return null;
+        }
+        text = source.getCharacters().toString();
+        if (parsedEditorText == null) {
+            // the last parsing read the same content from the file
+            parsedEditorText = text;
+        }
+        return editorText = text;
     }
 
     public void setEditorText(String editorText) {
@@ -152,10 +168,7 @@ public final class TextDocumentSurrogate {
     }
 
     public void addLocationCoverage(SourceSectionReference section, CoverageData coverageData) {
-        if (!section2coverageData.containsKey(section)) {
-            section2coverageData.put(section, new ArrayList<>());
-        }
-        section2coverageData.get(section).add(coverageData);
+        section2coverageData.computeIfAbsent(section, s -> new CopyOnWriteArrayList<>()).add(coverageData);
     }
 
     public boolean isLocationCovered(SourceSectionReference section) {
@@ -173,12 +186,7 @@ public final class TextDocumentSurrogate {
     public void clearCoverage(URI runScriptUri) {
         for (Iterator<Entry<SourceSectionReference, List<CoverageData>>> iterator = section2coverageData.entrySet().iterator(); iterator.hasNext();) {
             Entry<SourceSectionReference, List<CoverageData>> entry = iterator.next();
-            for (Iterator<CoverageData> iteratorData = entry.getValue().iterator(); iteratorData.hasNext();) {
-                CoverageData coverageData = iteratorData.next();
-                if (coverageData.getCovarageUri().equals(runScriptUri)) {
-                    iteratorData.remove();
-                }
-            }
+            entry.getValue().removeIf(coverageData -> coverageData.getCovarageUri().equals(runScriptUri));
             if (entry.getValue().isEmpty()) {
                 iterator.remove();
             }
@@ -210,11 +218,32 @@ public final class TextDocumentSurrogate {
     }
 
     public SourceWrapper prepareParsing() {
+        String text = editorText;
         Source source = buildSource();
+        parsedEditorText = text;
         sourceWrapper = new SourceWrapper(source);
         return sourceWrapper;
     }
 
+    /**
+     * Returns <code>true</code> if the current editor text was parsed already, regardless if the
+     * parsing was successful.
+     */
+    public boolean isParsed() {
+        String text = editorText;
+        String parsedText = parsedEditorText;
+        return sourceWrapper != null && (text == parsedText || (text != null && text.equals(parsedText)));
+    }
+
+    /**
+     * Returns <code>true</code> if the current editor text was parsed successfully already, so
+     * that the last parsing result can be reused.
+     */
+    public boolean isParsedSuccessfully() {
+        SourceWrapper wrapper = sourceWrapper;
+        return wrapper != null && wrapper.isParsingSuccessful() && isParsed();
+    }
+
     public void notifyParsingDone(CallTarget callTarget) {
         boolean successful = callTarget != null;
         if (successful) {
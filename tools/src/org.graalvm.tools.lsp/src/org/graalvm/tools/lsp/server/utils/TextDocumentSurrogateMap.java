@@ -26,8 +26,8 @@ package org.graalvm.tools.lsp.server.utils;
 
 import java.net.URI;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import com.oracle.truffle.api.instrumentation.TruffleInstrument;
@@ -36,7 +36,7 @@ import com.oracle.truffle.api.source.Source;
 
 public final class TextDocumentSurrogateMap {
     private final TruffleInstrument.Env env;
-    private final Map<URI, TextDocumentSurrogate> uri2TextDocumentSurrogate = new HashMap<>();
+    private final Map<URI, TextDocumentSurrogate> uri2TextDocumentSurrogate = new ConcurrentHashMap<>();
 
     public TextDocumentSurrogateMap(TruffleInstrument.Env env) {
         this.env = env;
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Measures the cost of getting a fresh context for a language with an expensive initialization,
+ * with and without the engine context pool. The pooled variant waits until the pool was refilled
+ * before each invocation, so it measures the cost of taking and patching a pooled context, while
+ * the unpooled variant measures a full context initialization.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContextPoolBenchmark extends TruffleBenchmark {
+
+    private static final String POOL_LANGUAGE = "benchmark-pool-language";
+
+    private static final Source SOURCE = Source.create(POOL_LANGUAGE, "");
+
+    @State(Scope.Thread)
+    public static class EngineState {
+
+        @Param({"false", "true"}) boolean pooled;
+
+        Engine engine;
+
+        @Setup
+        public void setup() {
+            Engine.Builder builder = Engine.newBuilder();
+            if (pooled) {
+                builder.allowExperimentalOptions(true).option("engine.ContextPool", POOL_LANGUAGE).option("engine.ContextPoolSize", "1");
+            }
+            engine = builder.build();
+            // the first context triggers filling the pool
+            try (Context context = Context.newBuilder().engine(engine).build()) {
+                context.eval(SOURCE);
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void awaitPoolFilled() throws InterruptedException {
+            if (pooled) {
+                while (PoolLanguage.ready.get() == 0) {
+                    Thread.yield();
+                }
+                // give the pool thread time to publish the initialized context
+                Thread.sleep(1);
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            engine.close();
+            PoolLanguage.ready.set(0);
+        }
+    }
+
+    @Benchmark
+    public Object createEvalClose(EngineState state) {
+        try (Context context = Context.newBuilder().engine(state.engine).build()) {
+            return context.eval(SOURCE).asInt();
+        }
+    }
+
+    static final class PoolContext {
+
+        final boolean preInitialized;
+        final Map<Integer, Integer> globals = new HashMap<>();
+
+        PoolContext(boolean preInitialized) {
+            this.preInitialized = preInitialized;
+        }
+
+    }
+
+    /*
+     * Test language with a context initialization that is expensive compared to patching.
+     */
+    @TruffleLanguage.Registration(id = POOL_LANGUAGE, name = "", contextPolicy = TruffleLanguage.ContextPolicy.SHARED)
+    public static class PoolLanguage extends TruffleLanguage<PoolContext> {
+
+        private static final int GLOBALS = 10000;
+
+        static final AtomicInteger ready = new AtomicInteger();
+
+        @Override
+        protected PoolContext createContext(Env env) {
+            return new PoolContext(env.isPreInitialization());
+        }
+
+        @Override
+        protected void initializeContext(PoolContext context) throws Exception {
+            for (int i = 0; i < GLOBALS; i++) {
+                context.globals.put(i, i);
+            }
+            if (context.preInitialized) {
+                ready.incrementAndGet();
+            }
+        }
+
+        @Override
+        protected boolean patchContext(PoolContext context, Env newEnv) {
+            ready.decrementAndGet();
+            return true;
+        }
+
+        @Override
+        protected boolean isThreadAccessAllowed(Thread thread, boolean singleThreaded) {
+            return true;
+        }
+
+        @Override
+        protected CallTarget parse(ParsingRequest request) throws Exception {
+            return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(GLOBALS));
+        }
+    }
+}
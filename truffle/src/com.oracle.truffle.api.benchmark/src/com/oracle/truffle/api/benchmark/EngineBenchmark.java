@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2016, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -40,6 +40,8 @@
  */
 package com.oracle.truffle.api.benchmark;
 
+import java.util.function.IntBinaryOperator;
+
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.Source;
@@ -282,6 +284,33 @@ public class EngineBenchmark extends TruffleBenchmark {
         return result;
     }
 
+    @FunctionalInterface
+    public interface IntBinaryFunction {
+        int apply(int left, int right);
+    }
+
+    @State(org.openjdk.jmh.annotations.Scope.Thread)
+    public static class FunctionState extends ContextState {
+        final int intArgument = 42;
+        final IntBinaryOperator operator = value.as(IntBinaryOperator.class);
+        final IntBinaryFunction function = value.as(IntBinaryFunction.class);
+    }
+
+    @Benchmark
+    public int executeValueBinary(FunctionState state) {
+        return state.value.execute(state.intArgument, state.intArgument).asInt();
+    }
+
+    @Benchmark
+    public int executeFunctionalInterfaceBinary(FunctionState state) {
+        return state.function.apply(state.intArgument, state.intArgument);
+    }
+
+    @Benchmark
+    public int executeIntBinaryOperator(FunctionState state) {
+        return state.operator.applyAsInt(state.intArgument, state.intArgument);
+    }
+
     @Benchmark
     public Object executeCallTarget2(CallTargetCallState state) {
         int result = 0;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -58,6 +58,8 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.EventBinding;
 import com.oracle.truffle.api.instrumentation.EventContext;
 import com.oracle.truffle.api.instrumentation.ExecutionEventListener;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNode;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNodeFactory;
 import com.oracle.truffle.api.instrumentation.GenerateWrapper;
 import com.oracle.truffle.api.instrumentation.InstrumentableNode;
 import com.oracle.truffle.api.instrumentation.InstrumentableNode.WrapperNode;
@@ -193,6 +195,164 @@ public class InstrumentationUpdateTest {
         assertExecuted(evalRoot.getChild(), evalRoot.getChild().getChild());
     }
 
+    /*
+     * Test that bindings with source filters find the roots of the matching sources only, also
+     * once the roots are indexed by source.
+     */
+    @Test
+    public void testSourceFilteredRoots() {
+        MyRoot[] roots = new MyRoot[3];
+        for (int i = 0; i < roots.length; i++) {
+            roots[i] = eval((lang) -> {
+                MyRoot root = new MyRoot(language, language.request.getSource().createSection(0, 5));
+                root.child = new InstrumentationUpdateNode(language.request.getSource().createSection(0, 5));
+                return root;
+            }, "root" + i);
+        }
+        for (int i = 0; i < roots.length; i++) {
+            loadEvents.clear();
+            executionEvents.clear();
+            setEventFilter(SourceSectionFilter.newBuilder().sourceIs(roots[i].getSourceSection().getSource()).build());
+            assertLoaded(roots[i].getChild());
+            for (MyRoot root : roots) {
+                root.getCallTarget().call();
+            }
+            assertExecuted(roots[i].getChild());
+        }
+    }
+
+    /*
+     * Test that roots with nodes of a different source than the root source section are found by
+     * source filters, also if the node of the different source is inserted later.
+     */
+    @Test
+    public void testSourceFilteredMixedSourceRoots() {
+        com.oracle.truffle.api.source.Source otherSource = com.oracle.truffle.api.source.Source.newBuilder("InstrumentationUpdateLanguage", "other", "other").build();
+        MyRoot mixedRoot = eval((lang) -> {
+            MyRoot root = new MyRoot(language, language.request.getSource().createSection(0, 5));
+            root.child = new InstrumentationUpdateNode(otherSource.createSection(0, 5));
+            return root;
+        }, "mixed");
+        MyRoot root = eval((lang) -> {
+            MyRoot r = new MyRoot(language, language.request.getSource().createSection(0, 5));
+            r.child = new InstrumentationUpdateNode(language.request.getSource().createSection(0, 5));
+            return r;
+        }, "plain");
+        for (int i = 0; i < 2; i++) {
+            loadEvents.clear();
+            setEventFilter(SourceSectionFilter.newBuilder().sourceIs(otherSource).build());
+            assertLoaded(mixedRoot.getChild());
+        }
+
+        root.getChild().setChild(new InstrumentationUpdateNode(otherSource.createSection(0, 1)));
+        root.getChild().notifyChildInsert();
+        loadEvents.clear();
+        setEventFilter(SourceSectionFilter.newBuilder().sourceIs(otherSource).build());
+        assertLoaded(mixedRoot.getChild(), root.getChild().getChild());
+    }
+
+    /*
+     * Test that inserting a node of a different source into a root that was loaded but never
+     * executed does not make the root appear executed to source filtered execution bindings.
+     */
+    @Test
+    public void testSourceFilteredLoadedRootInsert() {
+        com.oracle.truffle.api.source.Source otherSource = com.oracle.truffle.api.source.Source.newBuilder("InstrumentationUpdateLanguage", "other", "other").build();
+        MyRoot[] loadedRoot = new MyRoot[1];
+        eval((lang) -> {
+            MyRoot loaded = new MyRoot(language, language.request.getSource().createSection(0, 5));
+            loaded.child = new InstrumentationUpdateNode(language.request.getSource().createSection(0, 5));
+            Truffle.getRuntime().createCallTarget(loaded);
+            loadedRoot[0] = loaded;
+            MyRoot root = new MyRoot(language, language.request.getSource().createSection(0, 5));
+            root.child = new InstrumentationUpdateNode(language.request.getSource().createSection(0, 5));
+            return root;
+        }, "loaded");
+        MyRoot root = loadedRoot[0];
+        // index the loaded root by its source
+        loadEvents.clear();
+        setEventFilter(SourceSectionFilter.newBuilder().sourceIs(root.getSourceSection().getSource()).build());
+        Assert.assertTrue(loadEvents.stream().anyMatch((e) -> e.getNode() == root.getChild()));
+
+        root.getChild().setChild(new InstrumentationUpdateNode(otherSource.createSection(0, 1)));
+        root.getChild().notifyChildInsert();
+        loadEvents.clear();
+        executionEvents.clear();
+        setEventFilter(SourceSectionFilter.newBuilder().sourceIs(otherSource).build());
+        assertLoaded(root.getChild().getChild());
+        // the root was not executed, so no wrappers are inserted yet
+        Assert.assertFalse(root.getChild().child instanceof WrapperNode);
+
+        root.getCallTarget().call();
+        assertExecuted(root.getChild().getChild());
+        Assert.assertTrue(root.getChild().child instanceof WrapperNode);
+    }
+
+    /*
+     * Test that a root without source sections remains visible to source filtered bindings after
+     * a node with a source section was inserted into it.
+     */
+    @Test
+    public void testSourceFilteredNoSourceRootInsert() {
+        com.oracle.truffle.api.source.Source otherSource = com.oracle.truffle.api.source.Source.newBuilder("InstrumentationUpdateLanguage", "other", "other").build();
+        MyRoot root = eval((lang) -> {
+            MyRoot noSource = new MyRoot(language, null);
+            noSource.child = new InstrumentationUpdateNode(null);
+            return noSource;
+        }, "nosource");
+        // compute the bits of the root without source sections
+        setEventFilter(SourceSectionFilter.newBuilder().sourceIs(otherSource).build());
+        Assert.assertTrue(loadEvents.isEmpty());
+
+        root.getChild().setChild(new InstrumentationUpdateNode(otherSource.createSection(0, 1)));
+        root.getChild().notifyChildInsert();
+        loadEvents.clear();
+        executionEvents.clear();
+        setEventFilter(SourceSectionFilter.newBuilder().sourceIs(otherSource).build());
+        assertLoaded(root.getChild().getChild());
+
+        root.getCallTarget().call();
+        assertExecuted(root.getChild().getChild());
+    }
+
+    /*
+     * Test that event nodes can remove themselves after the first execution by invalidating their
+     * location and not being created again.
+     */
+    @Test
+    public void testInvalidateEventNodes() {
+        MyRoot evalRoot = eval((lang) -> {
+            MyRoot root = new MyRoot(language, language.request.getSource().createSection(0, 5));
+            root.child = new InstrumentationUpdateNode(language.request.getSource().createSection(0, 5));
+            return root;
+        }, "root1");
+        int[] created = new int[1];
+        int[] executed = new int[1];
+        EventBinding<?> binding = instrumentEnv.getInstrumenter().attachExecutionEventFactory(SourceSectionFilter.ANY, new ExecutionEventNodeFactory() {
+            public ExecutionEventNode create(EventContext ctx) {
+                if (executed[0] > 0) {
+                    return null;
+                }
+                created[0]++;
+                return new ExecutionEventNode() {
+                    @Override
+                    protected void onEnter(VirtualFrame frame) {
+                        executed[0]++;
+                        ctx.invalidateEventNodes();
+                    }
+                };
+            }
+        });
+        Assert.assertTrue(evalRoot.child instanceof WrapperNode);
+        for (int i = 0; i < 3; i++) {
+            evalRoot.getCallTarget().call();
+        }
+        Assert.assertEquals(1, created[0]);
+        Assert.assertEquals(1, executed[0]);
+        Assert.assertFalse(evalRoot.child instanceof WrapperNode);
+        binding.dispose();
+    }
+
     private void assertLoaded(Node... children) {
         Iterator<LoadSourceSectionEvent> loadIterator = loadEvents.iterator();
         for (Node loadedChild : children) {
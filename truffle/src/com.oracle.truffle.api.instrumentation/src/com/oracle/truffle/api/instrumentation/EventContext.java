@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2016, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -244,6 +244,21 @@ public final class EventContext {
         return probeNode.lookupExecutionEventNodes(bindings);
     }
 
+    /**
+     * Requests that the execution event nodes at this location are created again before the next
+     * execution of the instrumented node. {@link ExecutionEventNodeFactory Factories} may return
+     * <code>null</code> to remove their event node from this location. If no event nodes remain,
+     * the instrumentation wrapper is removed from the AST. This allows event nodes that are only
+     * interested in the first execution of a node, like for code coverage, to remove themselves
+     * after it. The method must not be called on compiled code paths.
+     *
+     * @since 20.1
+     */
+    public void invalidateEventNodes() {
+        CompilerAsserts.neverPartOfCompilation();
+        probeNode.invalidate();
+    }
+
     /**
      * Create an unwind throwable, that when thrown, abruptly breaks execution of a node and unwinds
      * it off the execution stack. This is a a shortcut for
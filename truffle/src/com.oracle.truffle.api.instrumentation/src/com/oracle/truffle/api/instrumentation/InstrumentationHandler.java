@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2016, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -49,7 +49,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -123,6 +125,12 @@ final class InstrumentationHandler {
 
     final Collection<RootNode> loadedRoots = new WeakAsyncList<>(256);
     private final Collection<RootNode> executedRoots = new WeakAsyncList<>(64);
+    /*
+     * Loaded and executed roots indexed by source, such that bindings with source filters only
+     * need to visit the roots of matching sources.
+     */
+    private final RootIndex loadedRootsIndex = new RootIndex();
+    private final RootIndex executedRootsIndex = new RootIndex();
     private final Collection<AllocationReporter> allocationReporters = new WeakAsyncList<>(16);
 
     private final Collection<EventBinding.Source<?>> executionBindings = new EventBindingList<>(8);
@@ -201,6 +209,7 @@ final class InstrumentationHandler {
                     rootSources = null;
                 }
                 loadedRoots.add(root);
+                loadedRootsIndex.add(root);
                 // Do not invoke foreign code while holding a lock to avoid deadlocks.
                 if (rootSources != null) {
                     SourceList sourceList = sourcesListRef.get();
@@ -215,6 +224,7 @@ final class InstrumentationHandler {
             }
         } else {
             loadedRoots.add(root);
+            loadedRootsIndex.add(root);
         }
 
         // fast path no bindings attached
@@ -332,6 +342,7 @@ final class InstrumentationHandler {
                     rootSources = null;
                 }
                 executedRoots.add(root);
+                executedRootsIndex.add(root);
                 // Do not invoke foreign code while holding a lock to avoid deadlocks.
                 if (rootSources != null) {
                     SourceList sourceList = sourcesExecutedListRef.get();
@@ -346,6 +357,7 @@ final class InstrumentationHandler {
             }
         } else {
             executedRoots.add(root);
+            executedRootsIndex.add(root);
         }
 
         // fast path no bindings attached
@@ -442,7 +454,7 @@ final class InstrumentationHandler {
         this.executionBindings.add(binding);
 
         if (!executedRoots.isEmpty()) {
-            visitRoots(executedRoots, new InsertWrappersWithBindingVisitor(binding));
+            visitRoots(executedRoots, executedRootsIndex, binding, new InsertWrappersWithBindingVisitor(binding));
         }
 
         if (TRACE) {
@@ -460,7 +472,7 @@ final class InstrumentationHandler {
         this.sourceSectionBindings.add(binding);
         if (notifyLoaded) {
             if (!loadedRoots.isEmpty()) {
-                visitRoots(loadedRoots, new NotifyLoadedWithBindingVisitor(binding));
+                visitRoots(loadedRoots, loadedRootsIndex, binding, new NotifyLoadedWithBindingVisitor(binding));
             }
         }
 
@@ -477,7 +489,7 @@ final class InstrumentationHandler {
         }
 
         if (!loadedRoots.isEmpty()) {
-            visitRoots(loadedRoots, new NotifyLoadedWithBindingVisitor(binding));
+            visitRoots(loadedRoots, loadedRootsIndex, binding, new NotifyLoadedWithBindingVisitor(binding));
         }
 
         if (TRACE) {
@@ -721,6 +733,21 @@ final class InstrumentationHandler {
         }
     }
 
+    /*
+     * Visits the roots that may contain nodes included by the binding. Roots are looked up in the
+     * index if the binding filters sources, otherwise all roots are visited.
+     */
+    private void visitRoots(Collection<RootNode> roots, RootIndex index, EventBinding.Source<?> binding, AbstractNodeVisitor visitor) {
+        SourceSectionFilter filter = binding.getFilter();
+        if (!filter.isSourceFiltered()) {
+            visitRoots(roots, visitor);
+            return;
+        }
+        visitRoots(index.findRoots(filter), visitor);
+        // visited roots may have computed their root bits and can now be indexed
+        index.update();
+    }
+
     @SuppressWarnings("deprecation")
     void disposeBinding(EventBinding<?> binding) {
         if (TRACE) {
@@ -730,7 +757,7 @@ final class InstrumentationHandler {
         if (binding instanceof EventBinding.Source) {
             EventBinding.Source<?> sourceBinding = (EventBinding.Source<?>) binding;
             if (sourceBinding.isExecutionEvent()) {
-                visitRoots(executedRoots, new DisposeWrappersVisitor(sourceBinding));
+                visitRoots(executedRoots, executedRootsIndex, sourceBinding, new DisposeWrappersVisitor(sourceBinding));
             }
         } else if (binding instanceof EventBinding.Allocation) {
             EventBinding.Allocation<?> allocationBinding = (EventBinding.Allocation<?>) binding;
@@ -1142,6 +1169,9 @@ final class InstrumentationHandler {
                 visitor.computingRootNodeBits = RootNodeBits.isUninitialized(visitor.rootBits) ? RootNodeBits.getAll() : visitor.rootBits;
             } else if (RootNodeBits.isUninitialized(visitor.rootBits)) {
                 visitor.computingRootNodeBits = RootNodeBits.getAll();
+            } else {
+                // root bits are already computed, do not carry over bits of a previous root
+                visitor.computingRootNodeBits = 0;
             }
 
             if (TRACE) {
@@ -1153,6 +1183,11 @@ final class InstrumentationHandler {
             }
 
             if (!RootNodeBits.isUninitialized(visitor.computingRootNodeBits)) {
+                if (RootNodeBits.isSameSource(visitor.rootBits) && !RootNodeBits.isSameSource(visitor.computingRootNodeBits)) {
+                    // a node of a different source was inserted
+                    loadedRootsIndex.unindex(root);
+                    executedRootsIndex.unindex(root);
+                }
                 RootNodeBits.set(visitor.root, visitor.computingRootNodeBits);
             }
         }
@@ -2191,4 +2226,165 @@ final class InstrumentationHandler {
             }
         }
     }
+
+    /**
+     * Index of roots by the source of their nodes. A root is indexed by its source once its
+     * {@link RootNodeBits} are computed and all its nodes belong to the source of the root source
+     * section. All other roots remain unindexed and are returned for any filter. This includes
+     * roots without source sections, as nodes with source sections may still be inserted into
+     * them.
+     */
+    private static final class RootIndex {
+
+        private final Map<Source, List<RootEntry>> indexed = new WeakHashMap<>();
+        private List<RootEntry> unindexed = new ArrayList<>();
+        private long nextOrder;
+        private int size;
+        private int compactionThreshold = 256;
+
+        synchronized void add(RootNode root) {
+            unindexed.add(new RootEntry(root, nextOrder++));
+            if (++size >= compactionThreshold) {
+                compact();
+            }
+        }
+
+        /**
+         * Moves an indexed root back to the unindexed roots, since it now contains nodes of a
+         * different source. Roots that are not indexed by this index are ignored.
+         */
+        synchronized void unindex(RootNode root) {
+            SourceSection sourceSection = root.getSourceSection();
+            if (sourceSection == null) {
+                return;
+            }
+            Source source = sourceSection.getSource();
+            List<RootEntry> entries = indexed.get(source);
+            if (entries == null) {
+                return;
+            }
+            for (Iterator<RootEntry> iterator = entries.iterator(); iterator.hasNext();) {
+                RootEntry entry = iterator.next();
+                if (entry.get() == root) {
+                    iterator.remove();
+                    if (entries.isEmpty()) {
+                        indexed.remove(source);
+                    }
+                    // keep the load order of the entry
+                    unindexed.add(entry);
+                    return;
+                }
+            }
+        }
+
+        /*
+         * Removes the entries of collected roots. Like for the async lists, the threshold is kept
+         * at twice the number of live entries.
+         */
+        private void compact() {
+            int liveEntries = removeCollected(unindexed);
+            for (Iterator<List<RootEntry>> iterator = indexed.values().iterator(); iterator.hasNext();) {
+                List<RootEntry> entries = iterator.next();
+                int liveSourceEntries = removeCollected(entries);
+                if (liveSourceEntries == 0) {
+                    iterator.remove();
+                }
+                liveEntries += liveSourceEntries;
+            }
+            size = liveEntries;
+            compactionThreshold = Math.max(liveEntries * 2, 256);
+        }
+
+        private static int removeCollected(List<RootEntry> entries) {
+            entries.removeIf(entry -> entry.get() == null);
+            return entries.size();
+        }
+
+        /**
+         * Moves unindexed roots with computed root bits to the index.
+         */
+        synchronized void update() {
+            List<RootEntry> remaining = new ArrayList<>();
+            for (RootEntry entry : unindexed) {
+                RootNode root = entry.get();
+                if (root == null) {
+                    size--;
+                    continue;
+                }
+                int bits = RootNodeBits.get(root);
+                SourceSection sourceSection = null;
+                if (!RootNodeBits.isUninitialized(bits) && !RootNodeBits.isNoSourceSection(bits) && RootNodeBits.isSameSource(bits)) {
+                    sourceSection = root.getSourceSection();
+                }
+                if (sourceSection != null) {
+                    List<RootEntry> entries = indexed.get(sourceSection.getSource());
+                    if (entries == null) {
+                        entries = new ArrayList<>();
+                        indexed.put(sourceSection.getSource(), entries);
+                    }
+                    entries.add(entry);
+                } else {
+                    remaining.add(entry);
+                }
+            }
+            unindexed = remaining;
+        }
+
+        /**
+         * Returns the roots that may contain nodes of sources included by the filter in load
+         * order.
+         */
+        List<RootNode> findRoots(SourceSectionFilter filter) {
+            // filters may call foreign code, therefore they are not evaluated while holding the lock
+            Map<Source, Boolean> includedSources = new HashMap<>();
+            List<RootEntry> entries = new ArrayList<>();
+            while (true) {
+                List<Source> newSources = new ArrayList<>();
+                synchronized (this) {
+                    for (Source source : indexed.keySet()) {
+                        if (!includedSources.containsKey(source)) {
+                            newSources.add(source);
+                        }
+                    }
+                    if (newSources.isEmpty()) {
+                        entries.addAll(unindexed);
+                        for (Map.Entry<Source, List<RootEntry>> sourceEntries : indexed.entrySet()) {
+                            if (includedSources.get(sourceEntries.getKey())) {
+                                entries.addAll(sourceEntries.getValue());
+                            }
+                        }
+                        break;
+                    }
+                }
+                for (Source source : newSources) {
+                    includedSources.put(source, filter.isRootSourceIncluded(source));
+                }
+            }
+            entries.sort(null);
+            List<RootNode> roots = new ArrayList<>(entries.size());
+            Set<RootNode> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (RootEntry entry : entries) {
+                RootNode root = entry.get();
+                if (root != null && visited.add(root)) {
+                    roots.add(root);
+                }
+            }
+            return roots;
+        }
+
+        private static final class RootEntry extends WeakReference<RootNode> implements Comparable<RootEntry> {
+
+            final long order;
+
+            RootEntry(RootNode root, long order) {
+                super(root);
+                this.order = order;
+            }
+
+            @Override
+            public int compareTo(RootEntry o) {
+                return Long.compare(order, o.order);
+            }
+        }
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2016, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -224,6 +224,28 @@ public final class SourceSectionFilter {
         return true;
     }
 
+    boolean isSourceFiltered() {
+        for (EventFilterExpression exp : expressions) {
+            if (exp.isSourceOnly()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Returns false if no node of a root whose nodes all belong to the given source can be
+     * included by this filter.
+     */
+    boolean isRootSourceIncluded(Source source) {
+        for (EventFilterExpression exp : expressions) {
+            if (exp.isSourceOnly() && !exp.isSourceIncluded(source)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Configure your own {@link SourceSectionFilter} before creating its instance. Specify various
      * parameters by calling individual {@link Builder} methods. When done, call {@link #build()}.
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -107,6 +107,10 @@ final class AssertUtils {
         return String.format("Invariant contract violation for receiver %s and index %s.", formatValue(receiver), arg);
     }
 
+    static String violationInvariant(Object receiver, Object key) {
+        return String.format("Invariant contract violation for receiver %s and key %s.", formatValue(receiver), formatValue(key));
+    }
+
     private static String violationReturn(Object receiver, Object returnValue) {
         return String.format("Post-condition contract violation for receiver %s and return value %s.",
                         formatValue(receiver), formatValue(returnValue));
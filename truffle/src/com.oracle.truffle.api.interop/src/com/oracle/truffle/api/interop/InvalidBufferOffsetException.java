@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.oracle.truffle.api.interop;
+
+import com.oracle.truffle.api.CompilerDirectives;
+
+/**
+ * An exception thrown if a buffer access does not lie within the bounds of the buffer. Interop
+ * exceptions are supposed to be caught and converted into a guest language error by the caller.
+ *
+ * @see #getByteOffset()
+ * @see #getLength()
+ * @see InteropLibrary#hasBufferElements(Object)
+ * @since 20.1
+ */
+public final class InvalidBufferOffsetException extends InteropException {
+
+    private static final long serialVersionUID = 7290718472361238425L;
+
+    private final long byteOffset;
+    private final long length;
+
+    private InvalidBufferOffsetException(long byteOffset, long length) {
+        this.byteOffset = byteOffset;
+        this.length = length;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 20.1
+     */
+    @Override
+    public String getMessage() {
+        return "Invalid buffer access of length " + length + " at byte offset " + byteOffset + ".";
+    }
+
+    /**
+     * Returns the start byte offset of the invalid access.
+     *
+     * @since 20.1
+     */
+    public long getByteOffset() {
+        return byteOffset;
+    }
+
+    /**
+     * Returns the number of bytes of the invalid access.
+     *
+     * @since 20.1
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Creates an {@link InvalidBufferOffsetException} to indicate that a buffer access is out of
+     * bounds.
+     *
+     * @param byteOffset the start byte offset of the access
+     * @param length the number of bytes that were accessed
+     * @since 20.1
+     */
+    public static InvalidBufferOffsetException create(long byteOffset, long length) {
+        CompilerDirectives.transferToInterpreter();
+        return new InvalidBufferOffsetException(byteOffset, length);
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.test.host;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.interop.InteropException;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.interop.UnsupportedTypeException;
+
+/**
+ * Host methods with few parameters are invoked without spreading the argument array, methods with
+ * more parameters are spread. Both paths must convert primitive arguments and results the same
+ * way.
+ */
+public class HostMethodArityTest extends ProxyLanguageEnvTest {
+    private static final InteropLibrary INTEROP = InteropLibrary.getFactory().getUncached();
+
+    @Test
+    public void testStaticArities() throws InteropException {
+        TruffleObject arities = asTruffleHostSymbol(Arities.class);
+        // run twice to cover the cached and the uncached paths
+        for (int i = 0; i < 2; i++) {
+            assertEquals(0, INTEROP.invokeMember(arities, "s0"));
+            assertEquals(1, INTEROP.invokeMember(arities, "s1", 1));
+            assertEquals(3L, INTEROP.invokeMember(arities, "s2", 1, 2L));
+            assertEquals(6.0, INTEROP.invokeMember(arities, "s3", 1, 2L, 3.0));
+            assertEquals(10L, INTEROP.invokeMember(arities, "s4", 1, 2L, (short) 3, (byte) 4));
+            assertEquals("1234a", INTEROP.invokeMember(arities, "s5", 1, 2, 3, 4, 'a'));
+            assertEquals(21, INTEROP.invokeMember(arities, "s6", 1, 2, 3, 4, 5, 6));
+        }
+    }
+
+    @Test
+    public void testInstanceArities() throws InteropException {
+        TruffleObject arities = asTruffleObject(new Arities(10));
+        for (int i = 0; i < 2; i++) {
+            assertEquals(10, INTEROP.invokeMember(arities, "i0"));
+            assertEquals(11, INTEROP.invokeMember(arities, "i1", 1));
+            assertEquals(20, INTEROP.invokeMember(arities, "i4", 1, 2, 3, 4));
+            assertEquals(25, INTEROP.invokeMember(arities, "i5", 1, 2, 3, 4, 5));
+        }
+    }
+
+    @Test
+    public void testConstructorArities() throws InteropException {
+        TruffleObject arities = asTruffleHostSymbol(Arities.class);
+        assertEquals(0, INTEROP.readMember(INTEROP.instantiate(arities), "value"));
+        assertEquals(3, INTEROP.readMember(INTEROP.instantiate(arities, 3), "value"));
+        assertEquals(15, INTEROP.readMember(INTEROP.instantiate(arities, 1, 2, 3, 4, 5), "value"));
+    }
+
+    @Test
+    public void testVarArgsArities() throws InteropException {
+        TruffleObject arities = asTruffleHostSymbol(Arities.class);
+        assertEquals("1:0", INTEROP.invokeMember(arities, "varArgs", 1));
+        assertEquals("1:3", INTEROP.invokeMember(arities, "varArgs", 1, 2, 3, 4));
+        assertEquals("1:6", INTEROP.invokeMember(arities, "varArgs", 1, 2, 3, 4, 5, 6, 7));
+        assertEquals("a,b,c", INTEROP.invokeMember(arities, "strings", "a", "b", "c"));
+    }
+
+    @Test
+    public void testInvalidArgumentType() throws InteropException {
+        TruffleObject arities = asTruffleHostSymbol(Arities.class);
+        try {
+            INTEROP.invokeMember(arities, "s2", "a", 2L);
+            fail();
+        } catch (UnsupportedTypeException e) {
+        }
+        try {
+            INTEROP.invokeMember(arities, "s6", 1, 2, 3, 4, 5, "a");
+            fail();
+        } catch (UnsupportedTypeException e) {
+        }
+    }
+
+    @SuppressWarnings("unused")
+    public static class Arities {
+        public final int value;
+
+        public Arities() {
+            this(0);
+        }
+
+        public Arities(int value) {
+            this.value = value;
+        }
+
+        public Arities(int a, int b, int c, int d, int e) {
+            this(a + b + c + d + e);
+        }
+
+        public static int s0() {
+            return 0;
+        }
+
+        public static int s1(int a) {
+            return a;
+        }
+
+        public static long s2(int a, long b) {
+            return a + b;
+        }
+
+        public static double s3(int a, long b, double c) {
+            return a + b + c;
+        }
+
+        public static long s4(int a, long b, short c, byte d) {
+            return a + b + c + d;
+        }
+
+        public static String s5(int a, int b, int c, int d, char e) {
+            return "" + a + b + c + d + e;
+        }
+
+        public static int s6(int a, int b, int c, int d, int e, int f) {
+            return a + b + c + d + e + f;
+        }
+
+        public int i0() {
+            return value;
+        }
+
+        public int i1(int a) {
+            return value + a;
+        }
+
+        public int i4(int a, int b, int c, int d) {
+            return value + a + b + c + d;
+        }
+
+        public int i5(int a, int b, int c, int d, int e) {
+            return value + a + b + c + d + e;
+        }
+
+        public static String varArgs(int first, int... more) {
+            return first + ":" + more.length;
+        }
+
+        public static String strings(String... strings) {
+            return String.join(",", strings);
+        }
+    }
+}
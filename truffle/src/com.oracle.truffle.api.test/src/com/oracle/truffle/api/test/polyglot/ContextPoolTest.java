@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.test.polyglot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.graalvm.options.OptionCategory;
+import org.graalvm.options.OptionDescriptors;
+import org.graalvm.options.OptionKey;
+import org.graalvm.options.OptionStability;
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.ResourceLimits;
+import org.graalvm.polyglot.Source;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Option;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+public class ContextPoolTest {
+
+    static final String POOLED = "ContextPoolTestLanguage";
+
+    @Before
+    public void setUp() {
+        PoolLanguage.contexts.clear();
+        PoolLanguage.patchable = true;
+    }
+
+    @After
+    public void tearDown() {
+        PoolLanguage.contexts.clear();
+        PoolLanguage.initializing = null;
+        PoolLanguage.resume = null;
+    }
+
+    @Test
+    public void testPooledContexts() throws InterruptedException {
+        try (Engine engine = createEngine(2)) {
+            // the first context starts filling the pool
+            try (Context context = Context.newBuilder().engine(engine).build()) {
+                assertEquals(Boolean.FALSE, eval(context).asBoolean());
+            }
+            PoolContext pooled = awaitPooledContext(engine);
+            assertTrue(pooled.initialized);
+            assertEquals(1, pooled.patchCount);
+            assertTrue(pooled.disposed);
+        }
+        // contexts remaining in the pool are closed with the engine
+        awaitAllDisposed();
+    }
+
+    @Test
+    public void testIncompatibleConfiguration() throws InterruptedException {
+        try (Engine engine = createEngine(1)) {
+            try (Context context = Context.newBuilder().engine(engine).build()) {
+                eval(context);
+            }
+            awaitPoolFilled(1);
+            try (Context context = Context.newBuilder().engine(engine).option(POOLED + ".Option", "true").build()) {
+                assertEquals(Boolean.FALSE, eval(context).asBoolean());
+            }
+            ResourceLimits limits = ResourceLimits.newBuilder().statementLimit(1000, null).build();
+            try (Context context = Context.newBuilder().engine(engine).resourceLimits(limits).build()) {
+                assertEquals(Boolean.FALSE, eval(context).asBoolean());
+            }
+        }
+    }
+
+    @Test
+    public void testPatchFailure() throws InterruptedException {
+        PoolLanguage.patchable = false;
+        try (Engine engine = createEngine(1)) {
+            try (Context context = Context.newBuilder().engine(engine).build()) {
+                eval(context);
+            }
+            awaitPoolFilled(1);
+            try (Context context = Context.newBuilder().engine(engine).build()) {
+                // falls back to a new context
+                assertEquals(Boolean.FALSE, eval(context).asBoolean());
+            }
+        }
+    }
+
+    @Test
+    public void testCloseWhileExecuting() throws InterruptedException {
+        try (Engine engine = createEngine(1)) {
+            Context executing = Context.newBuilder().engine(engine).build();
+            eval(executing);
+            awaitPoolFilled(1);
+            CountDownLatch entered = new CountDownLatch(1);
+            CountDownLatch leave = new CountDownLatch(1);
+            Thread thread = new Thread(() -> {
+                executing.enter();
+                try {
+                    entered.countDown();
+                    leave.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                } finally {
+                    executing.leave();
+                }
+            });
+            thread.start();
+            entered.await();
+            try {
+                engine.close();
+                fail();
+            } catch (IllegalStateException e) {
+            } finally {
+                leave.countDown();
+                thread.join();
+            }
+            // the failed close must not discard the pooled contexts
+            for (PoolContext context : snapshotContexts()) {
+                assertFalse(context.disposed);
+            }
+            try (Context context = Context.newBuilder().engine(engine).build()) {
+                assertTrue(eval(context).asBoolean());
+            }
+            executing.close();
+        }
+        awaitAllDisposed();
+    }
+
+    @Test
+    public void testCloseWhileInitializing() throws InterruptedException {
+        PoolLanguage.initializing = new CountDownLatch(1);
+        PoolLanguage.resume = new CountDownLatch(1);
+        Engine engine = createEngine(1);
+        try (Context context = Context.newBuilder().engine(engine).build()) {
+            eval(context);
+        }
+        PoolLanguage.initializing.await();
+        Thread closing = new Thread(engine::close);
+        closing.start();
+        // the engine is closed only after the context in initialization is closed
+        closing.join(100);
+        assertTrue(closing.isAlive());
+        PoolLanguage.resume.countDown();
+        closing.join();
+        for (PoolContext context : snapshotContexts()) {
+            assertTrue(context.disposed);
+        }
+    }
+
+    @Test
+    public void testInvalidLanguage() {
+        try {
+            Engine.newBuilder().allowExperimentalOptions(true).option("engine.ContextPool", "invalid").build();
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    private static Engine createEngine(int size) {
+        return Engine.newBuilder().allowExperimentalOptions(true).option("engine.ContextPool", POOLED).option("engine.ContextPoolSize", String.valueOf(size)).build();
+    }
+
+    private static org.graalvm.polyglot.Value eval(Context context) {
+        return context.eval(Source.create(POOLED, ""));
+    }
+
+    private static PoolContext awaitPooledContext(Engine engine) throws InterruptedException {
+        awaitPoolFilled(1);
+        try (Context context = Context.newBuilder().engine(engine).build()) {
+            assertTrue(eval(context).asBoolean());
+            for (PoolContext c : snapshotContexts()) {
+                if (c.patchCount > 0) {
+                    return c;
+                }
+            }
+        }
+        throw new AssertionError("No pooled context used.");
+    }
+
+    /*
+     * Waits until the pool thread has initialized the given number of contexts in addition to the
+     * one that was created directly.
+     */
+    private static void awaitPoolFilled(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            int preInitialized = 0;
+            for (PoolContext context : snapshotContexts()) {
+                if (context.preInitialized && context.initialized) {
+                    preInitialized++;
+                }
+            }
+            if (preInitialized >= count) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Context pool was not filled.");
+    }
+
+    private static void awaitAllDisposed() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            boolean allDisposed = true;
+            for (PoolContext context : snapshotContexts()) {
+                allDisposed &= context.disposed;
+            }
+            if (allDisposed) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Pooled contexts were not closed.");
+    }
+
+    private static List<PoolContext> snapshotContexts() {
+        synchronized (PoolLanguage.contexts) {
+            return new ArrayList<>(PoolLanguage.contexts);
+        }
+    }
+
+    static final class PoolContext {
+
+        final boolean preInitialized;
+        volatile boolean initialized;
+        volatile int patchCount;
+        volatile boolean disposed;
+
+        PoolContext(boolean preInitialized) {
+            this.preInitialized = preInitialized;
+        }
+    }
+
+    @TruffleLanguage.Registration(id = POOLED, name = POOLED, version = "1.0", contextPolicy = TruffleLanguage.ContextPolicy.SHARED)
+    public static final class PoolLanguage extends TruffleLanguage<PoolContext> {
+
+        @Option(category = OptionCategory.USER, stability = OptionStability.STABLE, help = "Test option") //
+        static final OptionKey<Boolean> Option = new OptionKey<>(false);
+
+        static final List<PoolContext> contexts = Collections.synchronizedList(new ArrayList<>());
+        static volatile boolean patchable = true;
+        static volatile CountDownLatch initializing;
+        static volatile CountDownLatch resume;
+
+        @Override
+        protected OptionDescriptors getOptionDescriptors() {
+            return new PoolLanguageOptionDescriptors();
+        }
+
+        @Override
+        protected PoolContext createContext(Env env) {
+            PoolContext context = new PoolContext(env.isPreInitialization());
+            contexts.add(context);
+            return context;
+        }
+
+        @Override
+        protected void initializeContext(PoolContext context) throws Exception {
+            CountDownLatch resumeLatch = resume;
+            if (context.preInitialized && resumeLatch != null) {
+                initializing.countDown();
+                resumeLatch.await();
+            }
+            context.initialized = true;
+        }
+
+        @Override
+        protected boolean patchContext(PoolContext context, Env newEnv) {
+            context.patchCount++;
+            return patchable;
+        }
+
+        @Override
+        protected void disposeContext(PoolContext context) {
+            context.disposed = true;
+        }
+
+        @Override
+        protected boolean areOptionsCompatible(org.graalvm.options.OptionValues firstOptions, org.graalvm.options.OptionValues newOptions) {
+            return true;
+        }
+
+        @Override
+        protected CallTarget parse(ParsingRequest request) throws Exception {
+            return Truffle.getRuntime().createCallTarget(new RootNode(this) {
+                @Override
+                public Object execute(VirtualFrame frame) {
+                    // whether the current context was taken from the pool
+                    return lookupContextReference(PoolLanguage.class).get().patchCount > 0;
+                }
+            });
+        }
+
+        @Override
+        protected boolean isThreadAccessAllowed(Thread thread, boolean singleThreaded) {
+            return true;
+        }
+
+        @Override
+        protected boolean isObjectOfLanguage(Object object) {
+            return false;
+        }
+    }
+}
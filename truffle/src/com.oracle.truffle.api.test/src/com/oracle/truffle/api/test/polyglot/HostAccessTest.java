@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -53,6 +53,8 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -396,6 +398,77 @@ public class HostAccessTest {
         ValueAssert.assertValue(value, false, Trait.MEMBERS, Trait.HOST_OBJECT);
     }
 
+    @Test
+    public void testBufferAccessEnabled() {
+        setupEnv(HostAccess.newBuilder().allowBufferAccess(true));
+        ByteBuffer buffer = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        Value value = context.asValue(buffer);
+        assertTrue(value.hasBufferElements());
+        assertTrue(value.isBufferWritable());
+        assertEquals(16, value.getBufferSize());
+
+        value.writeBufferInt(ByteOrder.BIG_ENDIAN, 1, 0x01020304);
+        assertEquals(0x04030201, buffer.getInt(1));
+        assertEquals(0x01020304, value.readBufferInt(ByteOrder.BIG_ENDIAN, 1));
+        assertEquals(0x04030201, value.readBufferInt(ByteOrder.LITTLE_ENDIAN, 1));
+        assertEquals(0x01, value.readBufferByte(1));
+
+        value.writeBufferDouble(ByteOrder.LITTLE_ENDIAN, 8, 42.5d);
+        assertEquals(42.5d, buffer.getDouble(8), 0d);
+        assertEquals(42.5d, value.readBufferDouble(ByteOrder.LITTLE_ENDIAN, 8), 0d);
+        value.writeBufferShort(ByteOrder.BIG_ENDIAN, 14, (short) 0x0102);
+        assertEquals((short) 0x0201, buffer.getShort(14));
+
+        byte[] bytes = new byte[6];
+        value.readBuffer(1, bytes, 1, 4);
+        assertEquals(0, bytes[0]);
+        assertEquals(0x01, bytes[1]);
+        assertEquals(0x04, bytes[4]);
+        assertEquals(0, bytes[5]);
+        value.writeBuffer(0, new byte[]{9, 8, 7}, 1, 2);
+        assertEquals(8, buffer.get(0));
+        assertEquals(7, buffer.get(1));
+
+        try {
+            value.readBufferLong(ByteOrder.LITTLE_ENDIAN, 9);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+        try {
+            value.readBufferByte(-1);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+        try {
+            value.readBuffer(0, bytes, 4, 4);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+
+        Value readOnly = context.asValue(buffer.asReadOnlyBuffer());
+        assertTrue(readOnly.hasBufferElements());
+        assertFalse(readOnly.isBufferWritable());
+        assertEquals(8, readOnly.readBufferByte(0));
+        try {
+            readOnly.writeBufferByte(0, (byte) 1);
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+        assertArrayAccessDisabled(context);
+    }
+
+    @Test
+    public void testBufferAccessDisabled() {
+        setupEnv(HostAccess.newBuilder().allowPublicAccess(true));
+        Value value = context.asValue(ByteBuffer.allocate(4));
+        assertFalse(value.hasBufferElements());
+        try {
+            value.getBufferSize();
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
     private Context context;
 
     private void setupEnv(HostAccess.Builder builder) {
@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.test.polyglot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.StopIterationException;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.interop.UnknownKeyException;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+
+public class IteratorAndHashTest extends AbstractPolyglotTest {
+
+    @Test
+    public void testArrayIterator() {
+        setupEnv(Context.create());
+        Value array = context.asValue(new Array(1, 2, 3));
+        assertTrue(array.hasIterator());
+        Value iterator = array.getIterator();
+        assertTrue(iterator.isIterator());
+        assertFalse(array.isIterator());
+        List<Integer> values = new ArrayList<>();
+        while (iterator.hasIteratorNextElement()) {
+            values.add(iterator.getIteratorNextElement().asInt());
+        }
+        assertEquals(Arrays.asList(1, 2, 3), values);
+        try {
+            iterator.getIteratorNextElement();
+            fail();
+        } catch (NoSuchElementException e) {
+        }
+    }
+
+    @Test
+    public void testSparseArrayIterator() {
+        setupEnv(Context.create());
+        Value array = context.asValue(new Array(null, 1, null, null, 2, 3, null));
+        Value iterator = array.getIterator();
+        List<Integer> values = new ArrayList<>();
+        while (iterator.hasIteratorNextElement()) {
+            values.add(iterator.getIteratorNextElement().asInt());
+        }
+        assertEquals(Arrays.asList(1, 2, 3), values);
+        try {
+            iterator.getIteratorNextElement();
+            fail();
+        } catch (NoSuchElementException e) {
+        }
+
+        // without asking for the next element first
+        iterator = array.getIterator();
+        assertEquals(1, iterator.getIteratorNextElement().asInt());
+        assertEquals(2, iterator.getIteratorNextElement().asInt());
+        assertEquals(3, iterator.getIteratorNextElement().asInt());
+        try {
+            iterator.getIteratorNextElement();
+            fail();
+        } catch (NoSuchElementException e) {
+        }
+        assertFalse(context.asValue(new Array(null, null)).getIterator().hasIteratorNextElement());
+    }
+
+    @Test
+    public void testGuestIterator() {
+        setupEnv(Context.create());
+        LinkedSequence sequence = new LinkedSequence(1, 2, 3);
+        Value value = context.asValue(sequence);
+        assertTrue(value.hasIterator());
+        assertFalse(value.hasArrayElements());
+        Value iterator = value.getIterator();
+        List<Integer> values = new ArrayList<>();
+        while (iterator.hasIteratorNextElement()) {
+            values.add(iterator.getIteratorNextElement().asInt());
+        }
+        assertEquals(Arrays.asList(1, 2, 3), values);
+        assertFalse(context.asValue(42).hasIterator());
+        try {
+            context.asValue(42).getIterator();
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
+    @Test
+    public void testListIterator() {
+        setupEnv(Context.create());
+        Array array = new Array(1, 2, 3, 4);
+        @SuppressWarnings("unchecked")
+        List<Object> list = context.asValue(array).as(List.class);
+        List<Object> values = new ArrayList<>();
+        for (Object element : list) {
+            values.add(element);
+        }
+        assertEquals(Arrays.asList(1, 2, 3, 4), values);
+
+        Iterator<Object> iterator = list.iterator();
+        assertEquals(1, iterator.next());
+        assertEquals(2, iterator.next());
+        iterator.remove();
+        assertEquals(3, iterator.next());
+        assertEquals(4, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertEquals(Arrays.asList(1, 3, 4), Arrays.asList(array.elements));
+    }
+
+    @Test
+    public void testSparseListIterator() {
+        setupEnv(Context.create());
+        Array array = new Array(null, 1, null, 2, 3);
+        @SuppressWarnings("unchecked")
+        List<Object> list = context.asValue(array).as(List.class);
+        // the list iterates by index, so holes are reported like by get
+        assertEquals(5, list.size());
+        try {
+            list.get(0);
+            fail();
+        } catch (ArrayIndexOutOfBoundsException e) {
+        }
+        Iterator<Object> iterator = list.iterator();
+        assertTrue(iterator.hasNext());
+        try {
+            iterator.next();
+            fail();
+        } catch (NoSuchElementException e) {
+        }
+
+        iterator = list.listIterator(3);
+        assertEquals(2, iterator.next());
+        iterator.remove();
+        assertEquals(3, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertEquals(Arrays.asList(null, 1, null, 3), Arrays.asList(array.elements));
+    }
+
+    @Test
+    public void testHashEntries() {
+        setupEnv(Context.create());
+        Hash hash = new Hash();
+        hash.map.put(1, "one");
+        hash.map.put(2, "two");
+        Value value = context.asValue(hash);
+        assertTrue(value.hasHashEntries());
+        assertEquals(2, value.getHashSize());
+        assertTrue(value.hasHashEntry(1));
+        assertFalse(value.hasHashEntry(3));
+        assertEquals("one", value.getHashValue(1).asString());
+        assertNull(value.getHashValue(3));
+
+        value.putHashEntry(3, "three");
+        assertEquals(3, value.getHashSize());
+        assertEquals("three", hash.map.get(3));
+        assertTrue(value.removeHashEntry(3));
+        assertFalse(value.removeHashEntry(3));
+
+        Value entries = value.getHashEntriesIterator();
+        assertTrue(entries.isIterator());
+        Map<Integer, String> read = new LinkedHashMap<>();
+        while (entries.hasIteratorNextElement()) {
+            Value entry = entries.getIteratorNextElement();
+            assertEquals(2, entry.getArraySize());
+            read.put(entry.getArrayElement(0).asInt(), entry.getArrayElement(1).asString());
+        }
+        assertEquals(hash.map, read);
+
+        assertFalse(context.asValue(42).hasHashEntries());
+        assertFalse(context.asValue(42).hasHashEntry(1));
+        try {
+            context.asValue(42).getHashValue(1);
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
+    @Test
+    public void testHashAsMap() {
+        setupEnv(Context.create());
+        Hash hash = new Hash();
+        hash.map.put(1, "one");
+        hash.map.put(2, "two");
+        @SuppressWarnings("unchecked")
+        Map<Object, Object> map = context.asValue(hash).as(Map.class);
+        assertEquals(2, map.size());
+        assertEquals("one", map.get(1));
+        assertTrue(map.containsKey(2));
+        assertFalse(map.containsKey(3));
+        map.put(3, "three");
+        assertEquals("three", hash.map.get(3));
+        assertEquals("three", map.remove(3));
+        assertFalse(hash.map.containsKey(3));
+
+        Map<Object, Object> copy = new LinkedHashMap<>();
+        for (Map.Entry<Object, Object> entry : map.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue());
+        }
+        assertEquals(hash.map, copy);
+
+        Iterator<Map.Entry<Object, Object>> iterator = map.entrySet().iterator();
+        Map.Entry<Object, Object> entry = iterator.next();
+        entry.setValue("uno");
+        assertEquals("uno", hash.map.get(1));
+        assertEquals("uno", entry.getValue());
+    }
+
+    @ExportLibrary(InteropLibrary.class)
+    @SuppressWarnings("static-method")
+    static final class Array implements TruffleObject {
+
+        Object[] elements;
+
+        Array(Object... elements) {
+            this.elements = elements;
+        }
+
+        @ExportMessage
+        boolean hasArrayElements() {
+            return true;
+        }
+
+        @ExportMessage
+        long getArraySize() {
+            return elements.length;
+        }
+
+        @ExportMessage
+        boolean isArrayElementReadable(long index) {
+            // null elements are holes
+            return index >= 0 && index < elements.length && elements[(int) index] != null;
+        }
+
+        @ExportMessage
+        boolean isArrayElementRemovable(long index) {
+            return isArrayElementReadable(index);
+        }
+
+        @ExportMessage
+        Object readArrayElement(long index) throws InvalidArrayIndexException {
+            if (!isArrayElementReadable(index)) {
+                throw InvalidArrayIndexException.create(index);
+            }
+            return elements[(int) index];
+        }
+
+        @ExportMessage
+        @TruffleBoundary
+        void removeArrayElement(long index) throws InvalidArrayIndexException {
+            if (!isArrayElementRemovable(index)) {
+                throw InvalidArrayIndexException.create(index);
+            }
+            List<Object> list = new ArrayList<>(Arrays.asList(elements));
+            list.remove((int) index);
+            elements = list.toArray();
+        }
+
+    }
+
+    /**
+     * A guest collection without random access that can only be iterated.
+     */
+    @ExportLibrary(InteropLibrary.class)
+    @SuppressWarnings("static-method")
+    static final class LinkedSequence implements TruffleObject {
+
+        final Node head;
+
+        LinkedSequence(Object... values) {
+            Node current = null;
+            for (int i = values.length - 1; i >= 0; i--) {
+                current = new Node(values[i], current);
+            }
+            this.head = current;
+        }
+
+        @ExportMessage
+        boolean hasIterator() {
+            return true;
+        }
+
+        @ExportMessage
+        Object getIterator() {
+            return new NodeIterator(head);
+        }
+
+    }
+
+    static final class Node {
+
+        final Object value;
+        final Node next;
+
+        Node(Object value, Node next) {
+            this.value = value;
+            this.next = next;
+        }
+
+    }
+
+    @ExportLibrary(InteropLibrary.class)
+    @SuppressWarnings("static-method")
+    static final class NodeIterator implements TruffleObject {
+
+        private Node current;
+
+        NodeIterator(Node current) {
+            this.current = current;
+        }
+
+        @ExportMessage
+        boolean isIterator() {
+            return true;
+        }
+
+        @ExportMessage
+        boolean hasIteratorNextElement() {
+            return current != null;
+        }
+
+        @ExportMessage
+        Object getIteratorNextElement() throws StopIterationException {
+            if (current == null) {
+                throw StopIterationException.create();
+            }
+            Object value = current.value;
+            current = current.next;
+            return value;
+        }
+
+    }
+
+    @ExportLibrary(InteropLibrary.class)
+    @SuppressWarnings("static-method")
+    static final class Hash implements TruffleObject {
+
+        final Map<Object, Object> map = new LinkedHashMap<>();
+
+        @ExportMessage
+        boolean hasHashEntries() {
+            return true;
+        }
+
+        @ExportMessage
+        @TruffleBoundary
+        long getHashSize() {
+            return map.size();
+        }
+
+        @ExportMessage(name = "isHashEntryReadable")
+        @ExportMessage(name = "isHashEntryModifiable")
+        @ExportMessage(name = "isHashEntryRemovable")
+        @TruffleBoundary
+        boolean isHashEntryExisting(Object key) {
+            return map.containsKey(key);
+        }
+
+        @ExportMessage
+        @TruffleBoundary
+        boolean isHashEntryInsertable(Object key) {
+            return !map.containsKey(key);
+        }
+
+        @ExportMessage
+        @TruffleBoundary
+        Object readHashValue(Object key) throws UnknownKeyException {
+            if (!map.containsKey(key)) {
+                throw UnknownKeyException.create(key);
+            }
+            return map.get(key);
+        }
+
+        @ExportMessage
+        @TruffleBoundary
+        void writeHashEntry(Object key, Object value) {
+            map.put(key, value);
+        }
+
+        @ExportMessage
+        @TruffleBoundary
+        void removeHashEntry(Object key) throws UnknownKeyException {
+            if (!map.containsKey(key)) {
+                throw UnknownKeyException.create(key);
+            }
+            map.remove(key);
+        }
+
+        @ExportMessage
+        @TruffleBoundary
+        Object getHashEntriesIterator() {
+            List<Object> entries = new ArrayList<>();
+            for (Map.Entry<Object, Object> entry : map.entrySet()) {
+                entries.add(new Array(entry.getKey(), entry.getValue()));
+            }
+            return new NodeIterator(new LinkedSequence(entries.toArray()).head);
+        }
+
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -71,11 +71,17 @@ import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
 
 import org.graalvm.polyglot.PolyglotException;
 import org.graalvm.polyglot.TypeLiteral;
 import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyExecutable;
 import org.graalvm.polyglot.proxy.ProxyObject;
 import org.hamcrest.CoreMatchers;
 import org.junit.Assume;
@@ -514,6 +520,34 @@ public class ValueHostInteropTest extends AbstractPolyglotTest {
         f.toString();
     }
 
+    @Test
+    public void executableAsPrimitiveOperator() throws Exception {
+        TruffleObject executable = new FunctionObject();
+        IntBinaryOperator binary = context.asValue(executable).as(IntBinaryOperator.class);
+        assertEquals(50, binary.applyAsInt(13, 37));
+        assertTrue(binary.equals(binary));
+        assertEquals(binary, context.asValue(executable).as(IntBinaryOperator.class));
+        assertEquals(executable.hashCode(), binary.hashCode());
+        binary.toString();
+
+        IntUnaryOperator unary = context.asValue(executable).as(IntUnaryOperator.class);
+        assertEquals(13, unary.applyAsInt(13));
+
+        // the guest function is unwrapped when passed back
+        assertEquals(3, context.asValue(binary).execute(1, 2).asInt());
+
+        Value longSum = context.asValue((ProxyExecutable) (args) -> args[0].asLong() + args[1].asLong());
+        assertEquals((1L << 40) + 1, longSum.as(LongBinaryOperator.class).applyAsLong(1L << 40, 1L));
+        Value half = context.asValue((ProxyExecutable) (args) -> args[0].asDouble() / 2);
+        assertEquals(1.5, half.as(DoubleUnaryOperator.class).applyAsDouble(3), 0);
+        assertEquals(21L, half.as(LongUnaryOperator.class).applyAsLong(42));
+        try {
+            half.as(LongUnaryOperator.class).applyAsLong(3);
+            fail();
+        } catch (ClassCastException e) {
+        }
+    }
+
     @Ignore("Interface not accessible")
     @Test
     public void executableAsFunctionalInterface3() throws Exception {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -755,9 +755,15 @@ abstract class HostExecuteNode extends Node {
             arguments[i] = args[i];
         }
         Class<?> varArgsType = parameterTypes[parameterCount - 1].getComponentType();
-        Object varArgs = Array.newInstance(varArgsType, args.length - parameterCount + 1);
-        for (int i = parameterCount - 1, j = 0; i < args.length; i++, j++) {
-            Array.set(varArgs, j, args[i]);
+        int varArgsLength = args.length - parameterCount + 1;
+        Object varArgs = Array.newInstance(varArgsType, varArgsLength);
+        if (varArgsType.isPrimitive()) {
+            for (int i = parameterCount - 1, j = 0; i < args.length; i++, j++) {
+                Array.set(varArgs, j, args[i]);
+            }
+        } else {
+            // the arguments were already converted to the component type
+            System.arraycopy(args, parameterCount - 1, varArgs, 0, varArgsLength);
         }
         arguments[parameterCount - 1] = varArgs;
         return arguments;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -93,6 +93,12 @@ class HostInteropErrors {
         throw newUnsupportedOperationException(message);
     }
 
+    @TruffleBoundary
+    static RuntimeException iteratorStopped(PolyglotLanguageContext context, Object receiver) {
+        String message = String.format("No more elements to iterate for %s.", getValueInfo(context, receiver));
+        throw newNoSuchElementException(message);
+    }
+
     @TruffleBoundary
     static RuntimeException mapUnsupported(PolyglotLanguageContext context, Object receiver, Type keyType, Type valueType, String operation) {
         String message = String.format("Unsupported operation %s for Map<%s, %s> %s.", operation, formatComponentType(keyType), formatComponentType(valueType), getValueInfo(context, receiver));
@@ -205,4 +211,9 @@ class HostInteropErrors {
         throw new PolyglotArrayIndexOutOfBoundsException(message);
     }
 
+    private static RuntimeException newNoSuchElementException(String message) {
+        CompilerDirectives.transferToInterpreter();
+        throw new PolyglotNoSuchElementException(message);
+    }
+
 }
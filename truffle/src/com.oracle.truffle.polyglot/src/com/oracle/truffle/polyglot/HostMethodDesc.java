@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -43,6 +43,7 @@ package com.oracle.truffle.polyglot;
 import java.lang.annotation.Annotation;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.InvocationTargetException;
@@ -297,21 +298,48 @@ abstract class HostMethodDesc {
                 }
             }
 
+            /**
+             * Handles of methods with up to this many parameters take their arguments directly
+             * instead of spreading an argument array. This avoids the spreader lambda form in the
+             * interpreter and for uncached calls.
+             */
+            static final int MAX_DIRECT_ARITY = 4;
+
             @TruffleBoundary(allowInlining = true)
             static Object invokeHandle(MethodHandle invokeHandle, Object receiver, Object[] arguments) throws Throwable {
-                return invokeHandle.invokeExact(receiver, arguments);
+                switch (arguments.length) {
+                    case 0:
+                        return invokeHandle.invokeExact(receiver);
+                    case 1:
+                        return invokeHandle.invokeExact(receiver, arguments[0]);
+                    case 2:
+                        return invokeHandle.invokeExact(receiver, arguments[0], arguments[1]);
+                    case 3:
+                        return invokeHandle.invokeExact(receiver, arguments[0], arguments[1], arguments[2]);
+                    case 4:
+                        return invokeHandle.invokeExact(receiver, arguments[0], arguments[1], arguments[2], arguments[3]);
+                    default:
+                        return invokeHandle.invokeExact(receiver, arguments);
+                }
             }
 
             protected abstract MethodHandle makeMethodHandle();
 
+            /**
+             * Adapts the handle to the generic {@code (Object, Object...)Object} signature expected
+             * by {@link #invokeHandle}. Primitive parameters are unboxed and primitive results are
+             * boxed by the adapted handle itself.
+             */
             protected static MethodHandle adaptSignature(MethodHandle originalHandle, boolean isStatic, int parameterCount) {
-                MethodHandle adaptedHandle = originalHandle;
-                adaptedHandle = adaptedHandle.asType(adaptedHandle.type().changeReturnType(Object.class));
+                // arguments of varargs methods are already collected into an array by the caller
+                MethodHandle adaptedHandle = originalHandle.asFixedArity();
                 if (isStatic) {
                     adaptedHandle = MethodHandles.dropArguments(adaptedHandle, 0, Object.class);
-                } else {
-                    adaptedHandle = adaptedHandle.asType(adaptedHandle.type().changeParameterType(0, Object.class));
                 }
+                if (parameterCount <= MAX_DIRECT_ARITY) {
+                    return adaptedHandle.asType(MethodType.genericMethodType(parameterCount + 1));
+                }
+                adaptedHandle = adaptedHandle.asType(adaptedHandle.type().changeReturnType(Object.class).changeParameterType(0, Object.class));
                 adaptedHandle = adaptedHandle.asSpreader(Object[].class, parameterCount);
                 return adaptedHandle;
             }
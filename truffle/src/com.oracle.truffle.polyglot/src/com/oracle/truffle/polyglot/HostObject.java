@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2016, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -41,6 +41,10 @@
 package com.oracle.truffle.polyglot;
 
 import java.lang.reflect.Array;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -63,6 +67,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.ArityException;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.InvalidBufferOffsetException;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
@@ -617,6 +622,344 @@ final class HostObject implements TruffleObject {
         return ((List<?>) obj).size();
     }
 
+    @ExportMessage
+    boolean hasBufferElements(@Shared("isBuffer") @Cached IsBufferNode isBuffer) {
+        return isBuffer.execute(this);
+    }
+
+    @ExportMessage
+    boolean isBufferWritable() throws UnsupportedMessageException {
+        if (isBuffer()) {
+            return !isReadOnlyBuffer((ByteBuffer) obj);
+        }
+        throw UnsupportedMessageException.create();
+    }
+
+    @ExportMessage
+    long getBufferSize() throws UnsupportedMessageException {
+        if (isBuffer()) {
+            return getBufferLimit((ByteBuffer) obj);
+        }
+        throw UnsupportedMessageException.create();
+    }
+
+    @ExportMessage
+    byte readBufferByte(long byteOffset,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            return getBufferByte((ByteBuffer) obj, bufferIndex(byteOffset, Byte.BYTES));
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Byte.BYTES);
+        }
+    }
+
+    @ExportMessage
+    void writeBufferByte(long byteOffset, byte value,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            putBufferByte((ByteBuffer) obj, bufferIndex(byteOffset, Byte.BYTES), value);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Byte.BYTES);
+        } catch (ReadOnlyBufferException e) {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    @ExportMessage
+    short readBufferShort(ByteOrder order, long byteOffset,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            return getBufferShort((ByteBuffer) obj, order, bufferIndex(byteOffset, Short.BYTES));
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Short.BYTES);
+        }
+    }
+
+    @ExportMessage
+    void writeBufferShort(ByteOrder order, long byteOffset, short value,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            putBufferShort((ByteBuffer) obj, order, bufferIndex(byteOffset, Short.BYTES), value);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Short.BYTES);
+        } catch (ReadOnlyBufferException e) {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    @ExportMessage
+    int readBufferInt(ByteOrder order, long byteOffset,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            return getBufferInt((ByteBuffer) obj, order, bufferIndex(byteOffset, Integer.BYTES));
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Integer.BYTES);
+        }
+    }
+
+    @ExportMessage
+    void writeBufferInt(ByteOrder order, long byteOffset, int value,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            putBufferInt((ByteBuffer) obj, order, bufferIndex(byteOffset, Integer.BYTES), value);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Integer.BYTES);
+        } catch (ReadOnlyBufferException e) {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    @ExportMessage
+    long readBufferLong(ByteOrder order, long byteOffset,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            return getBufferLong((ByteBuffer) obj, order, bufferIndex(byteOffset, Long.BYTES));
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Long.BYTES);
+        }
+    }
+
+    @ExportMessage
+    void writeBufferLong(ByteOrder order, long byteOffset, long value,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            putBufferLong((ByteBuffer) obj, order, bufferIndex(byteOffset, Long.BYTES), value);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Long.BYTES);
+        } catch (ReadOnlyBufferException e) {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    @ExportMessage
+    float readBufferFloat(ByteOrder order, long byteOffset,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            return getBufferFloat((ByteBuffer) obj, order, bufferIndex(byteOffset, Float.BYTES));
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Float.BYTES);
+        }
+    }
+
+    @ExportMessage
+    void writeBufferFloat(ByteOrder order, long byteOffset, float value,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            putBufferFloat((ByteBuffer) obj, order, bufferIndex(byteOffset, Float.BYTES), value);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Float.BYTES);
+        } catch (ReadOnlyBufferException e) {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    @ExportMessage
+    double readBufferDouble(ByteOrder order, long byteOffset,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            return getBufferDouble((ByteBuffer) obj, order, bufferIndex(byteOffset, Double.BYTES));
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Double.BYTES);
+        }
+    }
+
+    @ExportMessage
+    void writeBufferDouble(ByteOrder order, long byteOffset, double value,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            putBufferDouble((ByteBuffer) obj, order, bufferIndex(byteOffset, Double.BYTES), value);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Double.BYTES);
+        } catch (ReadOnlyBufferException e) {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    @ExportMessage
+    void readBuffer(long byteOffset, byte[] destination, int destinationOffset, int length) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer()) {
+            throw UnsupportedMessageException.create();
+        }
+        if (destinationOffset < 0 || length < 0 || destinationOffset > destination.length - length) {
+            throw new IndexOutOfBoundsException();
+        }
+        try {
+            getBufferBytes((ByteBuffer) obj, bufferIndex(byteOffset, length), destination, destinationOffset, length);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, length);
+        }
+    }
+
+    @ExportMessage
+    void writeBuffer(long byteOffset, byte[] source, int sourceOffset, int length) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer()) {
+            throw UnsupportedMessageException.create();
+        }
+        if (sourceOffset < 0 || length < 0 || sourceOffset > source.length - length) {
+            throw new IndexOutOfBoundsException();
+        }
+        try {
+            putBufferBytes((ByteBuffer) obj, bufferIndex(byteOffset, length), source, sourceOffset, length);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, length);
+        } catch (ReadOnlyBufferException e) {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    /*
+     * Uncached variant of IsBufferNode for the buffer messages that are not expected on fast paths.
+     * Using the cached node for every buffer message would exceed the specialization state space of
+     * the exports of this class.
+     */
+    private boolean isBuffer() {
+        return obj instanceof ByteBuffer && getHostClassCache().isBufferAccess();
+    }
+
+    /*
+     * Byte buffers are indexed with ints. Offsets that do not fit are reported the same way as
+     * offsets beyond the limit of the buffer, as an IndexOutOfBoundsException.
+     */
+    private static int bufferIndex(long byteOffset, int length) {
+        if (byteOffset < 0 || byteOffset > Integer.MAX_VALUE - length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return (int) byteOffset;
+    }
+
+    @TruffleBoundary
+    private static boolean isReadOnlyBuffer(ByteBuffer buffer) {
+        return buffer.isReadOnly();
+    }
+
+    @TruffleBoundary
+    private static int getBufferLimit(ByteBuffer buffer) {
+        return buffer.limit();
+    }
+
+    @TruffleBoundary
+    private static byte getBufferByte(ByteBuffer buffer, int index) {
+        return buffer.get(index);
+    }
+
+    @TruffleBoundary
+    private static void putBufferByte(ByteBuffer buffer, int index, byte value) {
+        buffer.put(index, value);
+    }
+
+    /*
+     * The byte order of the buffer is a mutable property of the buffer, so values are read in the
+     * order of the buffer and swapped if needed instead of changing the order of the host object.
+     */
+    @TruffleBoundary
+    private static short getBufferShort(ByteBuffer buffer, ByteOrder order, int index) {
+        short value = buffer.getShort(index);
+        return buffer.order() == order ? value : Short.reverseBytes(value);
+    }
+
+    @TruffleBoundary
+    private static void putBufferShort(ByteBuffer buffer, ByteOrder order, int index, short value) {
+        buffer.putShort(index, buffer.order() == order ? value : Short.reverseBytes(value));
+    }
+
+    @TruffleBoundary
+    private static int getBufferInt(ByteBuffer buffer, ByteOrder order, int index) {
+        int value = buffer.getInt(index);
+        return buffer.order() == order ? value : Integer.reverseBytes(value);
+    }
+
+    @TruffleBoundary
+    private static void putBufferInt(ByteBuffer buffer, ByteOrder order, int index, int value) {
+        buffer.putInt(index, buffer.order() == order ? value : Integer.reverseBytes(value));
+    }
+
+    @TruffleBoundary
+    private static long getBufferLong(ByteBuffer buffer, ByteOrder order, int index) {
+        long value = buffer.getLong(index);
+        return buffer.order() == order ? value : Long.reverseBytes(value);
+    }
+
+    @TruffleBoundary
+    private static void putBufferLong(ByteBuffer buffer, ByteOrder order, int index, long value) {
+        buffer.putLong(index, buffer.order() == order ? value : Long.reverseBytes(value));
+    }
+
+    @TruffleBoundary
+    private static float getBufferFloat(ByteBuffer buffer, ByteOrder order, int index) {
+        return Float.intBitsToFloat(getBufferInt(buffer, order, index));
+    }
+
+    @TruffleBoundary
+    private static void putBufferFloat(ByteBuffer buffer, ByteOrder order, int index, float value) {
+        putBufferInt(buffer, order, index, Float.floatToRawIntBits(value));
+    }
+
+    @TruffleBoundary
+    private static double getBufferDouble(ByteBuffer buffer, ByteOrder order, int index) {
+        return Double.longBitsToDouble(getBufferLong(buffer, order, index));
+    }
+
+    @TruffleBoundary
+    private static void putBufferDouble(ByteBuffer buffer, ByteOrder order, int index, double value) {
+        putBufferLong(buffer, order, index, Double.doubleToRawLongBits(value));
+    }
+
+    @TruffleBoundary
+    private static void getBufferBytes(ByteBuffer buffer, int index, byte[] destination, int destinationOffset, int length) {
+        if (index > buffer.limit() - length) {
+            throw new IndexOutOfBoundsException();
+        }
+        ByteBuffer view = buffer.duplicate();
+        ((Buffer) view).position(index);
+        view.get(destination, destinationOffset, length);
+    }
+
+    @TruffleBoundary
+    private static void putBufferBytes(ByteBuffer buffer, int index, byte[] source, int sourceOffset, int length) {
+        if (index > buffer.limit() - length) {
+            throw new IndexOutOfBoundsException();
+        }
+        ByteBuffer view = buffer.duplicate();
+        ((Buffer) view).position(index);
+        view.put(source, sourceOffset, length);
+    }
+
     @ExportMessage
     boolean isNull() {
         return obj == null;
@@ -1465,6 +1808,20 @@ final class HostObject implements TruffleObject {
 
     }
 
+    @GenerateUncached
+    abstract static class IsBufferNode extends Node {
+
+        public abstract boolean execute(HostObject receiver);
+
+        @Specialization
+        public boolean doDefault(HostObject receiver,
+                        @Cached(value = "receiver.getHostClassCache().isBufferAccess()", allowUncached = true) boolean isBufferAccess) {
+            assert receiver.getHostClassCache().isBufferAccess() == isBufferAccess;
+            return isBufferAccess && receiver.obj instanceof ByteBuffer;
+        }
+
+    }
+
     @GenerateUncached
     abstract static class IsArrayNode extends Node {
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -184,6 +184,10 @@ final class PolyglotContextConfig {
         return args;
     }
 
+    boolean hasLanguageOptions() {
+        return !optionsByLanguage.isEmpty();
+    }
+
     OptionValuesImpl getOptionValues(PolyglotLanguage lang) {
         OptionValuesImpl values = optionsByLanguage.get(lang.getId());
         if (values == null) {
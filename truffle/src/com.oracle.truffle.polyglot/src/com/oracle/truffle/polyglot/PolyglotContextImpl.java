@@ -68,6 +68,7 @@ import org.graalvm.polyglot.EnvironmentAccess;
 import org.graalvm.polyglot.PolyglotAccess;
 import org.graalvm.polyglot.Value;
 import org.graalvm.polyglot.impl.AbstractPolyglotImpl.AbstractContextImpl;
+import org.graalvm.polyglot.io.FileSystem;
 
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CallTarget;
@@ -1285,24 +1286,7 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
     static PolyglotContextImpl preInitialize(final PolyglotEngineImpl engine) {
         final FileSystems.PreInitializeContextFileSystem fs = new FileSystems.PreInitializeContextFileSystem();
         final FileSystems.PreInitializeContextFileSystem internalFs = new FileSystems.PreInitializeContextFileSystem();
-        EconomicSet<String> allowedLanguages = EconomicSet.create();
-        allowedLanguages.addAll(engine.getLanguages().keySet());
-        final PolyglotContextConfig config = new PolyglotContextConfig(engine,
-                        engine.out,
-                        engine.err,
-                        engine.in,
-                        false,
-                        PolyglotAccess.ALL, // TODO change this to NONE with GR-14657
-                        false,
-                        false,
-                        false,
-                        false,
-                        null,
-                        Collections.emptyMap(),
-                        allowedLanguages,
-                        Collections.emptyMap(),
-                        fs, internalFs, engine.logHandler, false, null,
-                        EnvironmentAccess.INHERIT, null, null, null);
+        final PolyglotContextConfig config = createPreInitializationConfig(engine, fs, internalFs);
         final PolyglotContextImpl context = new PolyglotContextImpl(engine, config);
         try {
             context.sourcesToInvalidate = new ArrayList<>();
@@ -1360,6 +1344,75 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
         }
     }
 
+    /**
+     * Creates a context for the {@link PolyglotContextPool context pool} and initializes the given
+     * languages in it. Unlike {@link #preInitialize(PolyglotEngineImpl)} this runs at runtime for
+     * an engine that may already have other contexts, so no image build time state is reset.
+     */
+    static PolyglotContextImpl preInitializePooled(final PolyglotEngineImpl engine, Set<String> languages) {
+        final FileSystems.PreInitializeContextFileSystem fs = new FileSystems.PreInitializeContextFileSystem();
+        final FileSystems.PreInitializeContextFileSystem internalFs = new FileSystems.PreInitializeContextFileSystem();
+        final PolyglotContextConfig config = createPreInitializationConfig(engine, fs, internalFs);
+        final PolyglotContextImpl context;
+        synchronized (engine) {
+            engine.checkState();
+            context = new PolyglotContextImpl(engine, config);
+        }
+        boolean success = false;
+        try {
+            context.inContextPreInitialization = true;
+            try {
+                Object prev = engine.enter(context);
+                try {
+                    for (String languageId : languages) {
+                        PolyglotLanguage language = engine.findLanguage(null, languageId, null, false, true);
+                        if (language != null) {
+                            context.getContextInitialized(language, null).preInitialize();
+                        }
+                    }
+                } finally {
+                    engine.leave(prev, context);
+                }
+            } finally {
+                context.inContextPreInitialization = false;
+            }
+            synchronized (context) {
+                // the pool thread must not remain the cached thread of the context
+                context.currentThreadInfo = PolyglotThreadInfo.NULL;
+                context.constantCurrentThreadInfo = PolyglotThreadInfo.NULL;
+            }
+            success = true;
+            return context;
+        } finally {
+            fs.onPreInitializeContextEnd();
+            internalFs.onPreInitializeContextEnd();
+            if (!success) {
+                context.closeImpl(false, false, true);
+            }
+        }
+    }
+
+    private static PolyglotContextConfig createPreInitializationConfig(PolyglotEngineImpl engine, FileSystem fs, FileSystem internalFs) {
+        EconomicSet<String> allowedLanguages = EconomicSet.create();
+        allowedLanguages.addAll(engine.getLanguages().keySet());
+        return new PolyglotContextConfig(engine,
+                        engine.out,
+                        engine.err,
+                        engine.in,
+                        false,
+                        PolyglotAccess.ALL, // TODO change this to NONE with GR-14657
+                        false,
+                        false,
+                        false,
+                        false,
+                        null,
+                        Collections.emptyMap(),
+                        allowedLanguages,
+                        Collections.emptyMap(),
+                        fs, internalFs, engine.logHandler, false, null,
+                        EnvironmentAccess.INHERIT, null, null, null);
+    }
+
     synchronized long getTimeActive() {
         long timeExecuted = 0;
         Collection<PolyglotThreadInfo> polyglotThreads = getSeenThreads().values();
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.polyglot;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+
+import com.oracle.truffle.api.TruffleLogger;
+
+/**
+ * Keeps contexts of a shared engine ready in which the languages configured with
+ * {@link PolyglotEngineOptions#ContextPool engine.ContextPool} are already initialized. New
+ * contexts take a pooled context and patch it with their configuration using the same protocol
+ * as contexts pre-initialized at native image build time, see
+ * {@link com.oracle.truffle.api.TruffleLanguage#patchContext}. Guest state of a language cannot be
+ * reset generically, so a pooled context is only used once and the pool is refilled on a
+ * background thread. Languages with a shared context policy reuse the code already created by
+ * other contexts of the engine for their initialization.
+ */
+final class PolyglotContextPool {
+
+    private static final TruffleLogger LOG = TruffleLogger.getLogger(PolyglotEngineImpl.OPTION_GROUP_ENGINE, PolyglotContextPool.class);
+
+    private final PolyglotEngineImpl engine;
+    private final Set<String> languages;
+    private final int size;
+
+    private final ArrayDeque<PolyglotContextImpl> available = new ArrayDeque<>(); // guarded by this
+    private int pending; // guarded by this
+    private ExecutorService executor; // guarded by this
+    private boolean closed; // guarded by this
+
+    private PolyglotContextPool(PolyglotEngineImpl engine, Set<String> languages, int size) {
+        this.engine = engine;
+        this.languages = languages;
+        this.size = size;
+    }
+
+    /**
+     * Returns a pre-initialized context patched with the given configuration or <code>null</code>
+     * if no compatible context is available. Every call schedules the pool to be refilled.
+     */
+    PolyglotContextImpl take(PolyglotContextConfig config) {
+        if (!isCompatible(config)) {
+            return null;
+        }
+        PolyglotContextImpl context;
+        synchronized (this) {
+            context = available.pollFirst();
+            fill();
+        }
+        if (context == null) {
+            return null;
+        }
+        if (PolyglotEngineImpl.patchPreinitializedContext(context, config)) {
+            LOG.log(Level.FINE, "Using pooled context for languages: {0}", languages);
+            return context;
+        }
+        LOG.log(Level.FINE, "Failed to patch pooled context for languages: {0}", languages);
+        context.closeImpl(false, false, true);
+        return null;
+    }
+
+    /**
+     * Pooled contexts cannot be patched with language options or limits, see
+     * {@link PolyglotLanguageContext#patch(PolyglotContextConfig)}, and must not contain
+     * initialized languages the new context does not permit.
+     */
+    private boolean isCompatible(PolyglotContextConfig config) {
+        if (config.limits != null || config.hasLanguageOptions()) {
+            return false;
+        }
+        for (String languageId : languages) {
+            if (!config.allowedPublicLanguages.contains(languageId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void fill() {
+        assert Thread.holdsLock(this);
+        if (closed) {
+            return;
+        }
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor((r) -> {
+                Thread thread = new Thread(r, "Polyglot Context Pool");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        try {
+            while (available.size() + pending < size) {
+                executor.execute(this::preInitializeContext);
+                pending++;
+            }
+        } catch (RejectedExecutionException e) {
+            // engine closed concurrently
+        }
+    }
+
+    private void preInitializeContext() {
+        PolyglotContextImpl context = null;
+        try {
+            if (!isClosed()) {
+                context = PolyglotContextImpl.preInitializePooled(engine, languages);
+            }
+        } catch (Throwable t) {
+            LOG.log(Level.FINE, "Failed to pre-initialize pooled context.", t);
+        }
+        boolean discard;
+        synchronized (this) {
+            discard = closed;
+            if (context != null && !discard) {
+                available.addLast(context);
+            }
+        }
+        if (context != null && discard) {
+            closeQuietly(context);
+        }
+        synchronized (this) {
+            pending--;
+        }
+        synchronized (engine) {
+            engine.notifyAll();
+        }
+    }
+
+    /**
+     * Closes all contexts that were not taken from the pool yet and waits until the contexts that
+     * are currently initialized are closed by the pool thread. Must be called with the engine lock
+     * held, which is released while waiting, as initializing languages requires the engine lock.
+     */
+    void close() {
+        assert Thread.holdsLock(engine);
+        PolyglotContextImpl[] contexts;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (executor != null) {
+                executor.shutdown();
+            }
+            contexts = available.toArray(new PolyglotContextImpl[available.size()]);
+            available.clear();
+        }
+        for (PolyglotContextImpl context : contexts) {
+            closeQuietly(context);
+        }
+        boolean interrupted = false;
+        while (hasPending()) {
+            try {
+                engine.wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized boolean hasPending() {
+        return pending > 0;
+    }
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private static void closeQuietly(PolyglotContextImpl context) {
+        try {
+            context.closeImpl(false, false, true);
+        } catch (Throwable t) {
+            LOG.log(Level.FINE, "Failed to close pooled context.", t);
+        }
+    }
+
+    synchronized int getAvailableCount() {
+        return available.size();
+    }
+
+    static PolyglotContextPool create(PolyglotEngineImpl engine) {
+        String languageIds = engine.engineOptionValues.get(PolyglotEngineOptions.ContextPool);
+        int size = engine.engineOptionValues.get(PolyglotEngineOptions.ContextPoolSize);
+        if (languageIds.isEmpty() || size <= 0) {
+            return null;
+        }
+        Set<String> languages = new LinkedHashSet<>();
+        for (String languageId : languageIds.split(",")) {
+            String id = languageId.trim();
+            if (id.isEmpty()) {
+                continue;
+            }
+            if (!engine.idToLanguage.containsKey(id)) {
+                throw new IllegalArgumentException(String.format("Invalid language '%s' for option engine.ContextPool. Installed languages are: %s.", id, engine.getLanguages().keySet()));
+            }
+            languages.add(id);
+        }
+        return new PolyglotContextPool(engine, Collections.unmodifiableSet(languages), size);
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -156,6 +156,7 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
     private final EconomicSet<ContextWeakReference> contexts = EconomicSet.create(Equivalence.IDENTITY);
     final ReferenceQueue<PolyglotContextImpl> contextsReferenceQueue = new ReferenceQueue<>();
     private final AtomicReference<PolyglotContextImpl> preInitializedContext = new AtomicReference<>();
+    private final PolyglotContextPool contextPool;
 
     PolyglotLanguage hostLanguage;
     final Assumption singleContext = Truffle.getRuntime().createAssumption("Single context per engine.");
@@ -254,6 +255,7 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
 
         this.engineOptionValues.putAll(originalEngineOptions, allowExperimentalOptions);
         this.conservativeContextReferences = engineOptionValues.get(PolyglotEngineOptions.UseConservativeContextReferences);
+        this.contextPool = boundEngine ? null : PolyglotContextPool.create(this);
 
         for (PolyglotLanguage language : languagesOptions.keySet()) {
             language.getOptionValues().putAll(languagesOptions.get(language), allowExperimentalOptions);
@@ -331,6 +333,7 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
 
         prototype.engineOptionValues.copyInto(this.engineOptionValues);
         this.conservativeContextReferences = engineOptionValues.get(PolyglotEngineOptions.UseConservativeContextReferences);
+        this.contextPool = null;
 
         for (String languageId : idToLanguage.keySet()) {
             OptionValuesImpl prototypeOptions = prototype.idToLanguage.get(languageId).getOptionValuesIfExists();
@@ -942,6 +945,10 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
                         }
                     }
                 }
+                if (contextPool != null) {
+                    // only discard the pool once closing can no longer fail early
+                    contextPool.close();
+                }
                 for (PolyglotContextImpl context : localContexts) {
                     assert !Thread.holdsLock(context);
                     boolean closeCompleted = context.closeImpl(cancelIfExecuting, cancelIfExecuting, true);
@@ -1373,6 +1380,15 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
                         allowExperimentalOptions, classFilter, arguments, allowedLanguages, options, fs, internalFs, useHandler, allowCreateProcess, useProcessHandler,
                         environmentAccess, environment, zone, polyglotLimits);
         context = loadPreinitializedContext(config, hostAccess);
+        if (context == null && contextPool != null) {
+            context = contextPool.take(config);
+            if (context != null) {
+                synchronized (this) {
+                    checkState();
+                    addContext(context);
+                }
+            }
+        }
         boolean replayEvents = false;
         if (context == null) {
             synchronized (this) {
@@ -1399,22 +1415,40 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
         return context.creatorApi;
     }
 
+    /**
+     * Patches a context created by {@link PolyglotContextImpl#preInitialize} or
+     * {@link PolyglotContextImpl#preInitializePooled} with the configuration of a new context. If
+     * patching fails the original file systems of the configuration are restored.
+     */
+    static boolean patchPreinitializedContext(PolyglotContextImpl context, PolyglotContextConfig config) {
+        FileSystems.PreInitializeContextFileSystem preInitFs = (FileSystems.PreInitializeContextFileSystem) context.config.fileSystem;
+        preInitFs.onLoadPreinitializedContext(config.fileSystem);
+        FileSystem oldFileSystem = config.fileSystem;
+        config.fileSystem = preInitFs;
+
+        preInitFs = (FileSystems.PreInitializeContextFileSystem) context.config.internalFileSystem;
+        preInitFs.onLoadPreinitializedContext(config.internalFileSystem);
+        FileSystem oldInternalFileSystem = config.internalFileSystem;
+        config.internalFileSystem = preInitFs;
+
+        boolean patchResult = false;
+        try {
+            patchResult = context.patch(config);
+        } finally {
+            if (!patchResult) {
+                config.fileSystem = oldFileSystem;
+                config.internalFileSystem = oldInternalFileSystem;
+            }
+        }
+        return patchResult;
+    }
+
     private PolyglotContextImpl loadPreinitializedContext(PolyglotContextConfig config, HostAccess hostAccess) {
         PolyglotContextImpl context = preInitializedContext.getAndSet(null);
         if (context != null) {
-            FileSystems.PreInitializeContextFileSystem preInitFs = (FileSystems.PreInitializeContextFileSystem) context.config.fileSystem;
-            preInitFs.onLoadPreinitializedContext(config.fileSystem);
-            FileSystem oldFileSystem = config.fileSystem;
-            config.fileSystem = preInitFs;
-
-            preInitFs = (FileSystems.PreInitializeContextFileSystem) context.config.internalFileSystem;
-            preInitFs.onLoadPreinitializedContext(config.internalFileSystem);
-            FileSystem oldInternalFileSystem = config.internalFileSystem;
-            config.internalFileSystem = preInitFs;
-
             boolean patchResult = false;
             try {
-                patchResult = context.patch(config);
+                patchResult = patchPreinitializedContext(context, config);
             } finally {
                 if (patchResult) {
                     synchronized (this) {
@@ -1423,8 +1457,6 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
                 } else {
                     context.closeImpl(false, false, false);
                     PolyglotContextImpl.disposeStaticContext(null);
-                    config.fileSystem = oldFileSystem;
-                    config.internalFileSystem = oldInternalFileSystem;
                     PolyglotEngineImpl engine = new PolyglotEngineImpl(this);
                     ensureClosed(true, true, false);
                     synchronized (engine) {
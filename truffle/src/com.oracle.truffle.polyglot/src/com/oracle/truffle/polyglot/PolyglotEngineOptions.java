@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -54,6 +54,13 @@ final class PolyglotEngineOptions {
     @Option(name = PREINITIALIZE_CONTEXT_NAME, category = OptionCategory.EXPERT, deprecated = true, help = "Preinitialize language contexts for given languages.")//
     static final OptionKey<String> PreinitializeContexts = new OptionKey<>("");
 
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Keeps contexts with the given comma separated languages initialized for new contexts of a shared engine. " +
+                    "Languages need to support context patching to use pooled contexts.")//
+    static final OptionKey<String> ContextPool = new OptionKey<>("");
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Number of initialized contexts kept ready by the context pool (default 2).")//
+    static final OptionKey<Integer> ContextPoolSize = new OptionKey<>(2);
+
     /**
      * When the option is set the exceptions thrown by instruments are propagated rather than logged
      * into err.
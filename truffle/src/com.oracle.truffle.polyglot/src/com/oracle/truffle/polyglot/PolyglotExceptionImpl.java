@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -420,6 +420,12 @@ final class PolyglotExceptionImpl extends AbstractExceptionImpl implements com.o
                         HOST_INTEROP_PACKAGE + "PolyglotMap",
                         HOST_INTEROP_PACKAGE + "PolyglotList",
                         HOST_INTEROP_PACKAGE + "PolyglotFunction",
+                        HOST_INTEROP_PACKAGE + "PolyglotPrimitiveFunction$IntBinary",
+                        HOST_INTEROP_PACKAGE + "PolyglotPrimitiveFunction$IntUnary",
+                        HOST_INTEROP_PACKAGE + "PolyglotPrimitiveFunction$LongBinary",
+                        HOST_INTEROP_PACKAGE + "PolyglotPrimitiveFunction$LongUnary",
+                        HOST_INTEROP_PACKAGE + "PolyglotPrimitiveFunction$DoubleBinary",
+                        HOST_INTEROP_PACKAGE + "PolyglotPrimitiveFunction$DoubleUnary",
                         HOST_INTEROP_PACKAGE + "FunctionProxyHandler",
                         HOST_INTEROP_PACKAGE + "ObjectProxyHandler"
         };
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -58,8 +58,10 @@ import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.StopIterationException;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.interop.UnknownKeyException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.library.CachedLibrary;
@@ -67,6 +69,10 @@ import com.oracle.truffle.polyglot.PolyglotLanguageContext.ToGuestValueNode;
 import com.oracle.truffle.polyglot.PolyglotMapFactory.CacheFactory.ContainsKeyNodeGen;
 import com.oracle.truffle.polyglot.PolyglotMapFactory.CacheFactory.EntrySetNodeGen;
 import com.oracle.truffle.polyglot.PolyglotMapFactory.CacheFactory.GetNodeGen;
+import com.oracle.truffle.polyglot.PolyglotMapFactory.CacheFactory.HashEntriesHasNextNodeGen;
+import com.oracle.truffle.polyglot.PolyglotMapFactory.CacheFactory.HashEntriesIteratorNodeGen;
+import com.oracle.truffle.polyglot.PolyglotMapFactory.CacheFactory.HashEntriesNextNodeGen;
+import com.oracle.truffle.polyglot.PolyglotMapFactory.CacheFactory.HashSizeNodeGen;
 import com.oracle.truffle.polyglot.PolyglotMapFactory.CacheFactory.PutNodeGen;
 import com.oracle.truffle.polyglot.PolyglotMapFactory.CacheFactory.RemoveBooleanNodeGen;
 import com.oracle.truffle.polyglot.PolyglotMapFactory.CacheFactory.RemoveNodeGen;
@@ -319,6 +325,115 @@ class PolyglotMap<K, V> extends AbstractMap<K, V> implements HostWrapper {
         }
     }
 
+    /**
+     * Entries of guest objects with {@link InteropLibrary#hasHashEntries(Object) hash entries}. The
+     * entries are streamed from the guest entries iterator without materializing the keys.
+     */
+    private final class HashEntries extends AbstractSet<Entry<K, V>> {
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return (Iterator<Entry<K, V>>) cache.hashEntriesIterator.call(languageContext, guestObject, PolyglotMap.this);
+        }
+
+        @Override
+        public int size() {
+            return (int) cache.hashSize.call(languageContext, guestObject);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            if (o instanceof Entry) {
+                Entry<Object, Object> e = (Entry<Object, Object>) o;
+                return containsKey(e.getKey()) && Objects.equals(get(e.getKey()), e.getValue());
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean remove(Object o) {
+            if (o instanceof Entry) {
+                Entry<Object, Object> e = (Entry<Object, Object>) o;
+                return (boolean) cache.removeBoolean.call(languageContext, guestObject, e.getKey(), e.getValue());
+            } else {
+                return false;
+            }
+        }
+
+    }
+
+    private final class HashEntriesIterator implements Iterator<Entry<K, V>> {
+
+        private final Object guestIterator;
+        private HashEntry current;
+
+        HashEntriesIterator(Object guestIterator) {
+            this.guestIterator = guestIterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return (boolean) cache.hashEntriesHasNext.call(languageContext, guestObject, guestIterator);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Entry<K, V> next() {
+            Object[] entry = (Object[]) cache.hashEntriesNext.call(languageContext, guestObject, guestIterator);
+            current = new HashEntry((K) entry[0], (V) entry[1]);
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            if (current != null) {
+                cache.remove.call(languageContext, guestObject, current.key);
+                current = null;
+            } else {
+                throw new IllegalStateException("No current entry.");
+            }
+        }
+
+    }
+
+    private final class HashEntry implements Entry<K, V> {
+        private final K key;
+        private V value;
+
+        HashEntry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V newValue) {
+            V prev = value;
+            cache.put.call(languageContext, guestObject, key, newValue);
+            value = newValue;
+            return prev;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry[key=" + key + ", value=" + value + "]";
+        }
+
+    }
+
     private final class EntryImpl implements Entry<K, V> {
         private final K key;
 
@@ -363,6 +478,10 @@ class PolyglotMap<K, V> extends AbstractMap<K, V> implements HostWrapper {
         final CallTarget remove;
         final CallTarget removeBoolean;
         final CallTarget containsKey;
+        final CallTarget hashSize;
+        final CallTarget hashEntriesIterator;
+        final CallTarget hashEntriesHasNext;
+        final CallTarget hashEntriesNext;
         final CallTarget apply;
 
         Cache(Class<?> receiverClass, Class<?> keyClass, Class<?> valueClass, Type valueType) {
@@ -378,6 +497,10 @@ class PolyglotMap<K, V> extends AbstractMap<K, V> implements HostWrapper {
             this.put = initializeCall(PutNodeGen.create(this));
             this.remove = initializeCall(RemoveNodeGen.create(this));
             this.removeBoolean = initializeCall(RemoveBooleanNodeGen.create(this));
+            this.hashSize = initializeCall(HashSizeNodeGen.create(this));
+            this.hashEntriesIterator = initializeCall(HashEntriesIteratorNodeGen.create(this));
+            this.hashEntriesHasNext = initializeCall(HashEntriesHasNextNodeGen.create(this));
+            this.hashEntriesNext = initializeCall(HashEntriesNextNodeGen.create(this));
             this.apply = initializeCall(new Apply(this));
         }
 
@@ -458,6 +581,10 @@ class PolyglotMap<K, V> extends AbstractMap<K, V> implements HostWrapper {
                 return cache.numberKey && cache.keyClass.isInstance(key) && key instanceof Number;
             }
 
+            protected final boolean isHashKey(Object key) {
+                return cache.keyClass.isInstance(key);
+            }
+
             protected abstract String getOperationName();
 
         }
@@ -471,9 +598,14 @@ class PolyglotMap<K, V> extends AbstractMap<K, V> implements HostWrapper {
             @Specialization(limit = "LIMIT")
             @SuppressWarnings("unused")
             protected Object doCached(PolyglotLanguageContext languageContext, Object receiver, Object[] args,
-                            @CachedLibrary("receiver") InteropLibrary interop) {
+                            @CachedLibrary("receiver") InteropLibrary interop,
+                            @Cached ToGuestValueNode toGuest) {
                 Object key = args[ARGUMENT_OFFSET];
-                if (cache.memberKey && interop.hasMembers(receiver)) {
+                if (interop.hasHashEntries(receiver)) {
+                    if (isHashKey(key)) {
+                        return interop.isHashEntryReadable(receiver, toGuest.execute(languageContext, key));
+                    }
+                } else if (cache.memberKey && interop.hasMembers(receiver)) {
                     if (isObjectKey(key)) {
                         return interop.isMemberReadable(receiver, ((String) key));
                     }
@@ -509,7 +641,9 @@ class PolyglotMap<K, V> extends AbstractMap<K, V> implements HostWrapper {
                 long elemSize = 0;
                 PolyglotMap<Object, Object> originalMap = (PolyglotMap<Object, Object>) args[ARGUMENT_OFFSET];
 
-                if (cache.memberKey && interop.hasMembers(receiver)) {
+                if (interop.hasHashEntries(receiver)) {
+                    return originalMap.new HashEntries();
+                } else if (cache.memberKey && interop.hasMembers(receiver)) {
                     Object truffleKeys;
                     try {
                         truffleKeys = interop.getMembers(receiver);
@@ -551,11 +685,18 @@ class PolyglotMap<K, V> extends AbstractMap<K, V> implements HostWrapper {
             @SuppressWarnings("unused")
             protected Object doCached(PolyglotLanguageContext languageContext, Object receiver, Object[] args,
                             @CachedLibrary("receiver") InteropLibrary interop,
+                            @Cached ToGuestValueNode toGuest,
                             @Cached ToHostNode toHost) {
                 Object key = args[ARGUMENT_OFFSET];
                 Object result;
                 try {
-                    if (cache.memberKey && interop.hasMembers(receiver)) {
+                    if (interop.hasHashEntries(receiver)) {
+                        if (isHashKey(key)) {
+                            result = interop.readHashValue(receiver, toGuest.execute(languageContext, key));
+                        } else {
+                            return null;
+                        }
+                    } else if (cache.memberKey && interop.hasMembers(receiver)) {
                         if (isObjectKey(key)) {
                             result = interop.readMember(receiver, ((String) key));
                         } else {
@@ -574,7 +715,7 @@ class PolyglotMap<K, V> extends AbstractMap<K, V> implements HostWrapper {
                 } catch (ClassCastException | NullPointerException e) {
                     // expected exceptions from casting to the host value.
                     throw e;
-                } catch (UnknownIdentifierException | InvalidArrayIndexException | UnsupportedMessageException e) {
+                } catch (UnknownIdentifierException | InvalidArrayIndexException | UnknownKeyException | UnsupportedMessageException e) {
                     return null;
                 }
             }
@@ -599,7 +740,12 @@ class PolyglotMap<K, V> extends AbstractMap<K, V> implements HostWrapper {
                 Object key = args[ARGUMENT_OFFSET];
                 Object guestValue = toGuest.execute(languageContext, args[ARGUMENT_OFFSET + 1]);
                 try {
-                    if (cache.memberKey && interop.hasMembers(receiver)) {
+                    if (interop.hasHashEntries(receiver)) {
+                        if (isHashKey(key)) {
+                            interop.writeHashEntry(receiver, toGuest.execute(languageContext, key), guestValue);
+                            return null;
+                        }
+                    } else if (cache.memberKey && interop.hasMembers(receiver)) {
                         if (isObjectKey(key)) {
                             interop.writeMember(receiver, ((String) key), guestValue);
                             return null;
@@ -616,7 +762,7 @@ class PolyglotMap<K, V> extends AbstractMap<K, V> implements HostWrapper {
                     } else {
                         throw HostInteropErrors.invalidMapIdentifier(languageContext, receiver, cache.keyClass, cache.valueType, key);
                     }
-                } catch (UnknownIdentifierException | InvalidArrayIndexException e) {
+                } catch (UnknownIdentifierException | InvalidArrayIndexException | UnknownKeyException e) {
                     CompilerDirectives.transferToInterpreter();
                     throw HostInteropErrors.invalidMapIdentifier(languageContext, receiver, cache.keyClass, cache.valueType, key);
                 } catch (UnsupportedMessageException e) {
@@ -643,10 +789,16 @@ class PolyglotMap<K, V> extends AbstractMap<K, V> implements HostWrapper {
             @Specialization(limit = "LIMIT")
             @SuppressWarnings("unused")
             protected Object doCached(PolyglotLanguageContext languageContext, Object receiver, Object[] args,
-                            @CachedLibrary("receiver") InteropLibrary interop) {
+                            @CachedLibrary("receiver") InteropLibrary interop,
+                            @Cached ToGuestValueNode toGuest) {
                 Object key = args[ARGUMENT_OFFSET];
                 try {
-                    if (cache.memberKey && interop.hasMembers(receiver)) {
+                    if (interop.hasHashEntries(receiver)) {
+                        if (isHashKey(key)) {
+                            interop.removeHashEntry(receiver, toGuest.execute(languageContext, key));
+                            return null;
+                        }
+                    } else if (cache.memberKey && interop.hasMembers(receiver)) {
                         if (isObjectKey(key)) {
                             interop.removeMember(receiver, ((String) key));
                             return null;
@@ -664,7 +816,7 @@ class PolyglotMap<K, V> extends AbstractMap<K, V> implements HostWrapper {
                     } else {
                         return null;
                     }
-                } catch (UnknownIdentifierException | InvalidArrayIndexException e) {
+                } catch (UnknownIdentifierException | InvalidArrayIndexException | UnknownKeyException e) {
                     return null;
                 } catch (UnsupportedMessageException e) {
                     CompilerDirectives.transferToInterpreter();
@@ -688,11 +840,23 @@ class PolyglotMap<K, V> extends AbstractMap<K, V> implements HostWrapper {
             @Specialization(limit = "LIMIT")
             @SuppressWarnings("unused")
             protected Object doCached(PolyglotLanguageContext languageContext, Object receiver, Object[] args,
-                            @CachedLibrary("receiver") InteropLibrary interop) {
+                            @CachedLibrary("receiver") InteropLibrary interop,
+                            @Cached ToGuestValueNode toGuest,
+                            @Cached ToHostNode toHost) {
                 Object key = args[ARGUMENT_OFFSET];
                 Object expectedValue = args[ARGUMENT_OFFSET + 1];
                 try {
-                    if (cache.memberKey && interop.hasMembers(receiver)) {
+                    if (interop.hasHashEntries(receiver)) {
+                        if (isHashKey(key)) {
+                            Object guestKey = toGuest.execute(languageContext, key);
+                            Object readValue = toHost.execute(interop.readHashValue(receiver, guestKey), cache.valueClass, cache.valueType, languageContext, true);
+                            if (!equalsBoundary(expectedValue, readValue)) {
+                                return false;
+                            }
+                            interop.removeHashEntry(receiver, guestKey);
+                            return true;
+                        }
+                    } else if (cache.memberKey && interop.hasMembers(receiver)) {
                         if (isObjectKey(key)) {
                             String member = (String) key;
                             Object readValue = interop.readMember(receiver, member);
@@ -719,7 +883,7 @@ class PolyglotMap<K, V> extends AbstractMap<K, V> implements HostWrapper {
                     } else {
                         return false;
                     }
-                } catch (UnknownIdentifierException | InvalidArrayIndexException e) {
+                } catch (UnknownIdentifierException | InvalidArrayIndexException | UnknownKeyException e) {
                     return false;
                 } catch (UnsupportedMessageException e) {
                     CompilerDirectives.transferToInterpreter();
@@ -734,6 +898,117 @@ class PolyglotMap<K, V> extends AbstractMap<K, V> implements HostWrapper {
 
         }
 
+        abstract static class HashSizeNode extends PolyglotMapNode {
+
+            HashSizeNode(Cache cache) {
+                super(cache);
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "size";
+            }
+
+            @Specialization(limit = "LIMIT")
+            @SuppressWarnings("unused")
+            protected Object doCached(PolyglotLanguageContext languageContext, Object receiver, Object[] args,
+                            @CachedLibrary("receiver") InteropLibrary interop) {
+                try {
+                    return (int) interop.getHashSize(receiver);
+                } catch (UnsupportedMessageException e) {
+                    return 0;
+                }
+            }
+
+        }
+
+        abstract static class HashEntriesIteratorNode extends PolyglotMapNode {
+
+            HashEntriesIteratorNode(Cache cache) {
+                super(cache);
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "iterator";
+            }
+
+            @Specialization(limit = "LIMIT")
+            @SuppressWarnings({"unused", "unchecked"})
+            protected Object doCached(PolyglotLanguageContext languageContext, Object receiver, Object[] args,
+                            @CachedLibrary("receiver") InteropLibrary interop) {
+                PolyglotMap<Object, Object> originalMap = (PolyglotMap<Object, Object>) args[ARGUMENT_OFFSET];
+                try {
+                    return originalMap.new HashEntriesIterator(interop.getHashEntriesIterator(receiver));
+                } catch (UnsupportedMessageException e) {
+                    CompilerDirectives.transferToInterpreter();
+                    throw HostInteropErrors.mapUnsupported(languageContext, receiver, cache.keyClass, cache.valueType, "iterator");
+                }
+            }
+
+        }
+
+        abstract static class HashEntriesHasNextNode extends PolyglotMapNode {
+
+            HashEntriesHasNextNode(Cache cache) {
+                super(cache);
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "hasNext";
+            }
+
+            @Specialization
+            @SuppressWarnings("unused")
+            protected Object doCached(PolyglotLanguageContext languageContext, Object receiver, Object[] args,
+                            @CachedLibrary(limit = "LIMIT") InteropLibrary iterators) {
+                Object iterator = args[ARGUMENT_OFFSET];
+                try {
+                    return iterators.hasIteratorNextElement(iterator);
+                } catch (UnsupportedMessageException e) {
+                    CompilerDirectives.transferToInterpreter();
+                    throw HostInteropErrors.mapUnsupported(languageContext, receiver, cache.keyClass, cache.valueType, "iterator");
+                }
+            }
+
+        }
+
+        abstract static class HashEntriesNextNode extends PolyglotMapNode {
+
+            HashEntriesNextNode(Cache cache) {
+                super(cache);
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "next";
+            }
+
+            @Specialization
+            @SuppressWarnings("unused")
+            protected Object doCached(PolyglotLanguageContext languageContext, Object receiver, Object[] args,
+                            @CachedLibrary(limit = "LIMIT") InteropLibrary iterators,
+                            @CachedLibrary(limit = "LIMIT") InteropLibrary entries,
+                            @Cached ToHostNode toHostKey,
+                            @Cached ToHostNode toHostValue) {
+                Object iterator = args[ARGUMENT_OFFSET];
+                try {
+                    Object entry = iterators.getIteratorNextElement(iterator);
+                    Object key = toHostKey.execute(entries.readArrayElement(entry, 0), cache.keyClass, null, languageContext, true);
+                    Object value = toHostValue.execute(entries.readArrayElement(entry, 1), cache.valueClass, cache.valueType, languageContext, true);
+                    return new Object[]{key, value};
+                } catch (StopIterationException e) {
+                    CompilerDirectives.transferToInterpreter();
+                    throw HostInteropErrors.iteratorStopped(languageContext, receiver);
+                } catch (UnsupportedMessageException | InvalidArrayIndexException e) {
+                    CompilerDirectives.transferToInterpreter();
+                    throw HostInteropErrors.mapUnsupported(languageContext, receiver, cache.keyClass, cache.valueType, "iterator");
+                }
+            }
+
+        }
+
         private static class Apply extends PolyglotMapNode {
 
             @Child private PolyglotExecuteNode apply = PolyglotExecuteNodeGen.create();
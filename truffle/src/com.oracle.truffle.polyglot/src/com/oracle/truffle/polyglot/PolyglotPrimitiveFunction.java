@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.polyglot;
+
+import java.util.Objects;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.interop.TruffleObject;
+
+/**
+ * Guest executables bound to one of the primitive operator interfaces of
+ * {@link java.util.function}. Unlike the generic functional interface proxies these do not go
+ * through {@link java.lang.reflect.Proxy} and reflective method dispatch, and they pass their
+ * arguments directly to a call target that is specialized for the arity and the primitive result
+ * type.
+ */
+abstract class PolyglotPrimitiveFunction implements HostWrapper {
+
+    final Object guestObject;
+    final PolyglotLanguageContext languageContext;
+    final CallTarget apply;
+
+    PolyglotPrimitiveFunction(PolyglotLanguageContext languageContext, Object function, int arity, Class<?> resultClass) {
+        this.guestObject = function;
+        this.languageContext = languageContext;
+        this.apply = Apply.lookup(languageContext, function.getClass(), arity, resultClass);
+    }
+
+    @Override
+    public PolyglotLanguageContext getLanguageContext() {
+        return languageContext;
+    }
+
+    @Override
+    public Object getGuestObject() {
+        return guestObject;
+    }
+
+    @Override
+    public PolyglotContextImpl getContext() {
+        return languageContext.context;
+    }
+
+    @Override
+    public String toString() {
+        return HostWrapper.toString(this);
+    }
+
+    @Override
+    public int hashCode() {
+        return HostWrapper.hashCode(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return HostWrapper.equals(this, o);
+    }
+
+    static boolean isSupported(Class<?> type) {
+        return type == IntBinaryOperator.class || type == IntUnaryOperator.class ||
+                        type == LongBinaryOperator.class || type == LongUnaryOperator.class ||
+                        type == DoubleBinaryOperator.class || type == DoubleUnaryOperator.class;
+    }
+
+    @TruffleBoundary
+    static Object create(Class<?> type, PolyglotLanguageContext languageContext, Object function) {
+        if (type == IntBinaryOperator.class) {
+            return new IntBinary(languageContext, function);
+        } else if (type == IntUnaryOperator.class) {
+            return new IntUnary(languageContext, function);
+        } else if (type == LongBinaryOperator.class) {
+            return new LongBinary(languageContext, function);
+        } else if (type == LongUnaryOperator.class) {
+            return new LongUnary(languageContext, function);
+        } else if (type == DoubleBinaryOperator.class) {
+            return new DoubleBinary(languageContext, function);
+        } else if (type == DoubleUnaryOperator.class) {
+            return new DoubleUnary(languageContext, function);
+        } else {
+            throw new AssertionError(type);
+        }
+    }
+
+    static final class IntBinary extends PolyglotPrimitiveFunction implements IntBinaryOperator {
+
+        IntBinary(PolyglotLanguageContext languageContext, Object function) {
+            super(languageContext, function, 2, int.class);
+        }
+
+        public int applyAsInt(int left, int right) {
+            return (int) apply.call(languageContext, guestObject, left, right);
+        }
+    }
+
+    static final class IntUnary extends PolyglotPrimitiveFunction implements IntUnaryOperator {
+
+        IntUnary(PolyglotLanguageContext languageContext, Object function) {
+            super(languageContext, function, 1, int.class);
+        }
+
+        public int applyAsInt(int operand) {
+            return (int) apply.call(languageContext, guestObject, operand);
+        }
+    }
+
+    static final class LongBinary extends PolyglotPrimitiveFunction implements LongBinaryOperator {
+
+        LongBinary(PolyglotLanguageContext languageContext, Object function) {
+            super(languageContext, function, 2, long.class);
+        }
+
+        public long applyAsLong(long left, long right) {
+            return (long) apply.call(languageContext, guestObject, left, right);
+        }
+    }
+
+    static final class LongUnary extends PolyglotPrimitiveFunction implements LongUnaryOperator {
+
+        LongUnary(PolyglotLanguageContext languageContext, Object function) {
+            super(languageContext, function, 1, long.class);
+        }
+
+        public long applyAsLong(long operand) {
+            return (long) apply.call(languageContext, guestObject, operand);
+        }
+    }
+
+    static final class DoubleBinary extends PolyglotPrimitiveFunction implements DoubleBinaryOperator {
+
+        DoubleBinary(PolyglotLanguageContext languageContext, Object function) {
+            super(languageContext, function, 2, double.class);
+        }
+
+        public double applyAsDouble(double left, double right) {
+            return (double) apply.call(languageContext, guestObject, left, right);
+        }
+    }
+
+    static final class DoubleUnary extends PolyglotPrimitiveFunction implements DoubleUnaryOperator {
+
+        DoubleUnary(PolyglotLanguageContext languageContext, Object function) {
+            super(languageContext, function, 1, double.class);
+        }
+
+        public double applyAsDouble(double operand) {
+            return (double) apply.call(languageContext, guestObject, operand);
+        }
+    }
+
+    static final class Apply extends HostToGuestRootNode {
+
+        final Class<?> receiverClass;
+        final int arity;
+        final Class<?> resultClass;
+
+        @Child private PolyglotExecuteNode apply;
+
+        Apply(Class<?> receiverType, int arity, Class<?> resultClass) {
+            this.receiverClass = receiverType;
+            this.arity = arity;
+            this.resultClass = resultClass;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        protected Class<? extends TruffleObject> getReceiverType() {
+            return (Class<? extends TruffleObject>) receiverClass;
+        }
+
+        @Override
+        public String getName() {
+            return "PolyglotPrimitiveFunction<" + receiverClass + ", " + arity + ", " + resultClass + ">.apply";
+        }
+
+        @Override
+        protected Object executeImpl(PolyglotLanguageContext languageContext, Object function, Object[] args) {
+            PolyglotExecuteNode localApply = this.apply;
+            if (localApply == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                apply = localApply = insert(PolyglotExecuteNodeGen.create());
+            }
+            Object[] functionArgs;
+            if (arity == 1) {
+                functionArgs = new Object[]{args[ARGUMENT_OFFSET]};
+            } else {
+                assert arity == 2;
+                functionArgs = new Object[]{args[ARGUMENT_OFFSET], args[ARGUMENT_OFFSET + 1]};
+            }
+            // boxed primitives are valid interop values, no conversion to guest values needed
+            return localApply.executeImpl(languageContext, function, functionArgs, resultClass, resultClass);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = 1;
+            result = 31 * result + Objects.hashCode(receiverClass);
+            result = 31 * result + arity;
+            result = 31 * result + Objects.hashCode(resultClass);
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Apply)) {
+                return false;
+            }
+            Apply other = (Apply) obj;
+            return receiverClass == other.receiverClass && arity == other.arity && resultClass == other.resultClass;
+        }
+
+        private static CallTarget lookup(PolyglotLanguageContext languageContext, Class<?> receiverClass, int arity, Class<?> resultClass) {
+            Apply apply = new Apply(receiverClass, arity, resultClass);
+            CallTarget target = lookupHostCodeCache(languageContext, apply, CallTarget.class);
+            if (target == null) {
+                target = installHostCodeCache(languageContext, apply, createTarget(apply), CallTarget.class);
+            }
+            return target;
+        }
+    }
+
+}
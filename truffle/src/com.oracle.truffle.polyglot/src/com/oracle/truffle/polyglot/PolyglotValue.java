@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -40,6 +40,7 @@
  */
 package com.oracle.truffle.polyglot;
 
+import java.nio.ByteOrder;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -70,8 +71,11 @@ import com.oracle.truffle.api.impl.Accessor.CallProfiled;
 import com.oracle.truffle.api.interop.ArityException;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.InvalidBufferOffsetException;
+import com.oracle.truffle.api.interop.StopIterationException;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.interop.UnknownKeyException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.library.CachedLibrary;
@@ -91,16 +95,29 @@ import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.CanInvokeNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetArrayElementNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetArraySizeNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetBufferSizeNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetHashEntriesIteratorNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetHashSizeNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetHashValueNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetIteratorNextElementNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetIteratorNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetMemberKeysNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetMemberNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetMetaQualifiedNameNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetMetaSimpleNameNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.HasArrayElementsNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.HasBufferElementsNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.HasHashEntriesNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.HasHashEntryNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.HasIteratorNextElementNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.HasIteratorNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.HasMemberNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.HasMembersNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.IsBufferWritableNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.IsDateNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.IsDurationNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.IsExceptionNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.IsIteratorNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.IsMetaInstanceNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.IsMetaObjectNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.IsNativePointerNodeGen;
@@ -108,11 +125,27 @@ import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.IsTimeNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.IsTimeZoneNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.NewInstanceNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.PutHashEntryNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.PutMemberNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ReadBufferByteNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ReadBufferDoubleNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ReadBufferFloatNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ReadBufferIntNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ReadBufferLongNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ReadBufferNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ReadBufferShortNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.RemoveArrayElementNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.RemoveHashEntryNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.RemoveMemberNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.SetArrayElementNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ThrowExceptionNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.WriteBufferByteNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.WriteBufferDoubleNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.WriteBufferFloatNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.WriteBufferIntNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.WriteBufferLongNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.WriteBufferNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.WriteBufferShortNodeGen;
 
 abstract class PolyglotValue extends AbstractValueImpl {
 
@@ -181,6 +214,156 @@ abstract class PolyglotValue extends AbstractValueImpl {
         throw unsupported(context, receiver, "getArraySize()", "hasArrayElements()");
     }
 
+    @Override
+    public boolean isBufferWritable(Object receiver) {
+        throw bufferUnsupported(languageContext, receiver, "isBufferWritable()");
+    }
+
+    @Override
+    public long getBufferSize(Object receiver) {
+        throw bufferUnsupported(languageContext, receiver, "getBufferSize()");
+    }
+
+    @Override
+    public byte readBufferByte(Object receiver, long byteOffset) {
+        throw bufferUnsupported(languageContext, receiver, "readBufferByte(long)");
+    }
+
+    @Override
+    public void writeBufferByte(Object receiver, long byteOffset, byte value) {
+        throw bufferWriteUnsupported(languageContext, receiver, "writeBufferByte(long, byte)");
+    }
+
+    @Override
+    public short readBufferShort(Object receiver, ByteOrder order, long byteOffset) {
+        throw bufferUnsupported(languageContext, receiver, "readBufferShort(ByteOrder, long)");
+    }
+
+    @Override
+    public void writeBufferShort(Object receiver, ByteOrder order, long byteOffset, short value) {
+        throw bufferWriteUnsupported(languageContext, receiver, "writeBufferShort(ByteOrder, long, short)");
+    }
+
+    @Override
+    public int readBufferInt(Object receiver, ByteOrder order, long byteOffset) {
+        throw bufferUnsupported(languageContext, receiver, "readBufferInt(ByteOrder, long)");
+    }
+
+    @Override
+    public void writeBufferInt(Object receiver, ByteOrder order, long byteOffset, int value) {
+        throw bufferWriteUnsupported(languageContext, receiver, "writeBufferInt(ByteOrder, long, int)");
+    }
+
+    @Override
+    public long readBufferLong(Object receiver, ByteOrder order, long byteOffset) {
+        throw bufferUnsupported(languageContext, receiver, "readBufferLong(ByteOrder, long)");
+    }
+
+    @Override
+    public void writeBufferLong(Object receiver, ByteOrder order, long byteOffset, long value) {
+        throw bufferWriteUnsupported(languageContext, receiver, "writeBufferLong(ByteOrder, long, long)");
+    }
+
+    @Override
+    public float readBufferFloat(Object receiver, ByteOrder order, long byteOffset) {
+        throw bufferUnsupported(languageContext, receiver, "readBufferFloat(ByteOrder, long)");
+    }
+
+    @Override
+    public void writeBufferFloat(Object receiver, ByteOrder order, long byteOffset, float value) {
+        throw bufferWriteUnsupported(languageContext, receiver, "writeBufferFloat(ByteOrder, long, float)");
+    }
+
+    @Override
+    public double readBufferDouble(Object receiver, ByteOrder order, long byteOffset) {
+        throw bufferUnsupported(languageContext, receiver, "readBufferDouble(ByteOrder, long)");
+    }
+
+    @Override
+    public void writeBufferDouble(Object receiver, ByteOrder order, long byteOffset, double value) {
+        throw bufferWriteUnsupported(languageContext, receiver, "writeBufferDouble(ByteOrder, long, double)");
+    }
+
+    @Override
+    public void readBuffer(Object receiver, long byteOffset, byte[] destination, int destinationOffset, int length) {
+        throw bufferUnsupported(languageContext, receiver, "readBuffer(long, byte[], int, int)");
+    }
+
+    @Override
+    public void writeBuffer(Object receiver, long byteOffset, byte[] source, int sourceOffset, int length) {
+        throw bufferWriteUnsupported(languageContext, receiver, "writeBuffer(long, byte[], int, int)");
+    }
+
+    @TruffleBoundary
+    static RuntimeException bufferUnsupported(PolyglotLanguageContext context, Object receiver, String message) {
+        throw unsupported(context, receiver, message, "hasBufferElements()");
+    }
+
+    @TruffleBoundary
+    static RuntimeException bufferWriteUnsupported(PolyglotLanguageContext context, Object receiver, String message) {
+        throw unsupported(context, receiver, message, "isBufferWritable()");
+    }
+
+    @Override
+    public Value getIterator(Object receiver) {
+        throw getIteratorUnsupported(languageContext, receiver);
+    }
+
+    @TruffleBoundary
+    static RuntimeException getIteratorUnsupported(PolyglotLanguageContext context, Object receiver) {
+        throw unsupported(context, receiver, "getIterator()", "hasIterator()");
+    }
+
+    @Override
+    public boolean hasIteratorNextElement(Object receiver) {
+        throw iteratorUnsupported(languageContext, receiver, "hasIteratorNextElement()");
+    }
+
+    @Override
+    public Value getIteratorNextElement(Object receiver) {
+        throw iteratorUnsupported(languageContext, receiver, "getIteratorNextElement()");
+    }
+
+    @TruffleBoundary
+    static RuntimeException iteratorUnsupported(PolyglotLanguageContext context, Object receiver, String message) {
+        throw unsupported(context, receiver, message, "isIterator()");
+    }
+
+    @Override
+    public long getHashSize(Object receiver) {
+        throw hashUnsupported(languageContext, receiver, "getHashSize()");
+    }
+
+    @Override
+    public boolean hasHashEntry(Object receiver, Object key) {
+        return false;
+    }
+
+    @Override
+    public Value getHashValue(Object receiver, Object key) {
+        throw hashUnsupported(languageContext, receiver, "getHashValue(Object)");
+    }
+
+    @Override
+    public void putHashEntry(Object receiver, Object key, Object value) {
+        throw hashUnsupported(languageContext, receiver, "putHashEntry(Object, Object)");
+    }
+
+    @Override
+    public boolean removeHashEntry(Object receiver, Object key) {
+        throw hashUnsupported(languageContext, receiver, "removeHashEntry(Object)");
+    }
+
+    @Override
+    public Value getHashEntriesIterator(Object receiver) {
+        throw hashUnsupported(languageContext, receiver, "getHashEntriesIterator()");
+    }
+
+    @TruffleBoundary
+    static RuntimeException hashUnsupported(PolyglotLanguageContext context, Object receiver, String message) {
+        throw unsupported(context, receiver, message, "hasHashEntries()");
+    }
+
     @Override
     public Value getMember(Object receiver, String key) {
         return getMemberUnsupported(languageContext, receiver, key);
@@ -578,6 +761,30 @@ abstract class PolyglotValue extends AbstractValueImpl {
         throw new PolyglotArrayIndexOutOfBoundsException(message);
     }
 
+    @TruffleBoundary
+    protected static RuntimeException invalidBufferOffset(PolyglotLanguageContext context, Object receiver, long byteOffset, long length) {
+        String message = String.format("Invalid buffer access of length %s at byte offset %s for buffer %s.", length, byteOffset, getValueInfo(context, receiver));
+        throw new PolyglotArrayIndexOutOfBoundsException(message);
+    }
+
+    @TruffleBoundary
+    protected static RuntimeException stopIteration(PolyglotLanguageContext context, Object receiver) {
+        String message = String.format("Iteration was stopped for iterator %s.", getValueInfo(context, receiver));
+        throw new PolyglotNoSuchElementException(message);
+    }
+
+    @TruffleBoundary
+    protected static RuntimeException invalidHashKey(PolyglotLanguageContext context, Object receiver, Object key) {
+        String message = String.format("Invalid hash key %s for object %s.", getValueInfo(context, key), getValueInfo(context, receiver));
+        throw new PolyglotIllegalArgumentException(message);
+    }
+
+    @TruffleBoundary
+    protected static RuntimeException invalidHashValue(PolyglotLanguageContext context, Object receiver, Object key, Object value) {
+        String message = String.format("Invalid hash value %s for object %s and hash key %s.", getValueInfo(context, value), getValueInfo(context, receiver), getValueInfo(context, key));
+        throw new PolyglotIllegalArgumentException(message);
+    }
+
     @TruffleBoundary
     protected static RuntimeException invalidArrayValue(PolyglotLanguageContext context, Object receiver, long identifier, Object value) {
         throw new PolyglotClassCastException(
@@ -775,6 +982,35 @@ abstract class PolyglotValue extends AbstractValueImpl {
         final CallTarget setArrayElement;
         final CallTarget removeArrayElement;
         final CallTarget getArraySize;
+        final CallTarget hasBufferElements;
+        final CallTarget isBufferWritable;
+        final CallTarget getBufferSize;
+        final CallTarget readBufferByte;
+        final CallTarget writeBufferByte;
+        final CallTarget readBufferShort;
+        final CallTarget writeBufferShort;
+        final CallTarget readBufferInt;
+        final CallTarget writeBufferInt;
+        final CallTarget readBufferLong;
+        final CallTarget writeBufferLong;
+        final CallTarget readBufferFloat;
+        final CallTarget writeBufferFloat;
+        final CallTarget readBufferDouble;
+        final CallTarget writeBufferDouble;
+        final CallTarget readBuffer;
+        final CallTarget writeBuffer;
+        final CallTarget hasIterator;
+        final CallTarget getIterator;
+        final CallTarget isIterator;
+        final CallTarget hasIteratorNextElement;
+        final CallTarget getIteratorNextElement;
+        final CallTarget hasHashEntries;
+        final CallTarget getHashSize;
+        final CallTarget hasHashEntry;
+        final CallTarget getHashValue;
+        final CallTarget putHashEntry;
+        final CallTarget removeHashEntry;
+        final CallTarget getHashEntriesIterator;
         final CallTarget hasMembers;
         final CallTarget hasMember;
         final CallTarget getMember;
@@ -829,6 +1065,35 @@ abstract class PolyglotValue extends AbstractValueImpl {
             this.setArrayElement = createTarget(SetArrayElementNodeGen.create(this));
             this.removeArrayElement = createTarget(RemoveArrayElementNodeGen.create(this));
             this.getArraySize = createTarget(GetArraySizeNodeGen.create(this));
+            this.hasBufferElements = createTarget(HasBufferElementsNodeGen.create(this));
+            this.isBufferWritable = createTarget(IsBufferWritableNodeGen.create(this));
+            this.getBufferSize = createTarget(GetBufferSizeNodeGen.create(this));
+            this.readBufferByte = createTarget(ReadBufferByteNodeGen.create(this));
+            this.writeBufferByte = createTarget(WriteBufferByteNodeGen.create(this));
+            this.readBufferShort = createTarget(ReadBufferShortNodeGen.create(this));
+            this.writeBufferShort = createTarget(WriteBufferShortNodeGen.create(this));
+            this.readBufferInt = createTarget(ReadBufferIntNodeGen.create(this));
+            this.writeBufferInt = createTarget(WriteBufferIntNodeGen.create(this));
+            this.readBufferLong = createTarget(ReadBufferLongNodeGen.create(this));
+            this.writeBufferLong = createTarget(WriteBufferLongNodeGen.create(this));
+            this.readBufferFloat = createTarget(ReadBufferFloatNodeGen.create(this));
+            this.writeBufferFloat = createTarget(WriteBufferFloatNodeGen.create(this));
+            this.readBufferDouble = createTarget(ReadBufferDoubleNodeGen.create(this));
+            this.writeBufferDouble = createTarget(WriteBufferDoubleNodeGen.create(this));
+            this.readBuffer = createTarget(ReadBufferNodeGen.create(this));
+            this.writeBuffer = createTarget(WriteBufferNodeGen.create(this));
+            this.hasIterator = createTarget(HasIteratorNodeGen.create(this));
+            this.getIterator = createTarget(GetIteratorNodeGen.create(this));
+            this.isIterator = createTarget(IsIteratorNodeGen.create(this));
+            this.hasIteratorNextElement = createTarget(HasIteratorNextElementNodeGen.create(this));
+            this.getIteratorNextElement = createTarget(GetIteratorNextElementNodeGen.create(this));
+            this.hasHashEntries = createTarget(HasHashEntriesNodeGen.create(this));
+            this.getHashSize = createTarget(GetHashSizeNodeGen.create(this));
+            this.hasHashEntry = createTarget(HasHashEntryNodeGen.create(this));
+            this.getHashValue = createTarget(GetHashValueNodeGen.create(this));
+            this.putHashEntry = createTarget(PutHashEntryNodeGen.create(this));
+            this.removeHashEntry = createTarget(RemoveHashEntryNodeGen.create(this));
+            this.getHashEntriesIterator = createTarget(GetHashEntriesIteratorNodeGen.create(this));
             this.hasMember = createTarget(HasMemberNodeGen.create(this));
             this.getMember = createTarget(GetMemberNodeGen.create(this));
             this.putMember = createTarget(PutMemberNodeGen.create(this));
@@ -1423,233 +1688,1202 @@ abstract class PolyglotValue extends AbstractValueImpl {
 
         }
 
-        abstract static class GetMemberNode extends InteropNode {
+        abstract static class HasBufferElementsNode extends InteropNode {
 
-            protected GetMemberNode(InteropCodeCache interop) {
+            protected HasBufferElementsNode(InteropCodeCache interop) {
                 super(interop);
             }
 
             @Override
             protected Class<?>[] getArgumentTypes() {
-                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, String.class};
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
             }
 
             @Override
             protected String getOperationName() {
-                return "getMember";
+                return "hasBufferElements";
             }
 
             @Specialization(limit = "CACHE_LIMIT")
             static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
-                            @CachedLibrary("receiver") InteropLibrary objects,
-                            @Cached("createToHost()") ToHostValueNode toHost,
-                            @Cached BranchProfile unsupported,
-                            @Cached BranchProfile unknown) {
-                String key = (String) args[ARGUMENT_OFFSET];
-                Object value;
-                try {
-                    assert key != null : "should be handled already";
-                    value = toHost.execute(context, objects.readMember(receiver, key));
-                } catch (UnsupportedMessageException e) {
-                    unsupported.enter();
-                    if (objects.hasMembers(receiver)) {
-                        value = null;
-                    } else {
-                        return getMemberUnsupported(context, receiver, key);
-                    }
-                } catch (UnknownIdentifierException e) {
-                    unknown.enter();
-                    value = null;
-                }
-                return value;
+                            @CachedLibrary("receiver") InteropLibrary buffers) {
+                return buffers.hasBufferElements(receiver);
             }
-
         }
 
-        abstract static class PutMemberNode extends InteropNode {
+        abstract static class IsBufferWritableNode extends InteropNode {
 
-            protected PutMemberNode(InteropCodeCache interop) {
+            protected IsBufferWritableNode(InteropCodeCache interop) {
                 super(interop);
             }
 
             @Override
-            protected String getOperationName() {
-                return "putMember";
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
             }
 
             @Override
-            protected Class<?>[] getArgumentTypes() {
-                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, String.class, null};
+            protected String getOperationName() {
+                return "isBufferWritable";
             }
 
-            @Specialization
+            @Specialization(limit = "CACHE_LIMIT")
             static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
-                            @CachedLibrary(limit = "CACHE_LIMIT") InteropLibrary objects,
-                            @Cached ToGuestValueNode toGuestValue,
-                            @Cached BranchProfile unsupported,
-                            @Cached BranchProfile invalidValue,
-                            @Cached BranchProfile unknown) {
-                String key = (String) args[ARGUMENT_OFFSET];
-                Object originalValue = args[ARGUMENT_OFFSET + 1];
-                Object value = toGuestValue.execute(context, originalValue);
-                assert key != null;
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported) {
                 try {
-                    objects.writeMember(receiver, key, value);
+                    return buffers.isBufferWritable(receiver);
                 } catch (UnsupportedMessageException e) {
                     unsupported.enter();
-                    throw putMemberUnsupported(context, receiver);
-                } catch (UnknownIdentifierException e) {
-                    unknown.enter();
-                    throw invalidMemberKey(context, receiver, key);
-                } catch (UnsupportedTypeException e) {
-                    invalidValue.enter();
-                    throw invalidMemberValue(context, receiver, key, value);
+                    throw bufferUnsupported(context, receiver, "isBufferWritable()");
                 }
-                return null;
             }
         }
 
-        abstract static class RemoveMemberNode extends InteropNode {
+        abstract static class GetBufferSizeNode extends InteropNode {
 
-            protected RemoveMemberNode(InteropCodeCache interop) {
+            protected GetBufferSizeNode(InteropCodeCache interop) {
                 super(interop);
             }
 
             @Override
-            protected String getOperationName() {
-                return "removeMember";
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
             }
 
             @Override
-            protected Class<?>[] getArgumentTypes() {
-                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, String.class};
+            protected String getOperationName() {
+                return "getBufferSize";
             }
 
             @Specialization(limit = "CACHE_LIMIT")
             static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
-                            @CachedLibrary("receiver") InteropLibrary objects,
-                            @Cached BranchProfile unsupported,
-                            @Cached BranchProfile unknown) {
-                String key = (String) args[ARGUMENT_OFFSET];
-                Object value;
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported) {
                 try {
-                    assert key != null : "should be handled already";
-                    objects.removeMember(receiver, key);
-                    value = Boolean.TRUE;
+                    return buffers.getBufferSize(receiver);
                 } catch (UnsupportedMessageException e) {
                     unsupported.enter();
-                    if (!objects.hasMembers(receiver) || objects.isMemberExisting(receiver, key)) {
-                        throw removeMemberUnsupported(context, receiver);
-                    } else {
-                        value = Boolean.FALSE;
-                    }
-                } catch (UnknownIdentifierException e) {
-                    unknown.enter();
-                    value = Boolean.FALSE;
+                    throw bufferUnsupported(context, receiver, "getBufferSize()");
                 }
-                return value;
             }
-
         }
 
-        abstract static class IsNullNode extends InteropNode {
+        abstract static class ReadBufferByteNode extends InteropNode {
 
-            protected IsNullNode(InteropCodeCache interop) {
+            protected ReadBufferByteNode(InteropCodeCache interop) {
                 super(interop);
             }
 
             @Override
             protected Class<?>[] getArgumentTypes() {
-                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, Long.class};
             }
 
             @Override
             protected String getOperationName() {
-                return "isNull";
+                return "readBufferByte";
             }
 
             @Specialization(limit = "CACHE_LIMIT")
             static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
-                            @CachedLibrary("receiver") InteropLibrary values) {
-                return values.isNull(receiver);
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidOffset) {
+                long byteOffset = (long) args[ARGUMENT_OFFSET];
+                try {
+                    return buffers.readBufferByte(receiver, byteOffset);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw bufferUnsupported(context, receiver, "readBufferByte(long)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidOffset.enter();
+                    throw invalidBufferOffset(context, receiver, e.getByteOffset(), e.getLength());
+                }
             }
-
         }
 
-        abstract static class HasMembersNode extends InteropNode {
+        abstract static class WriteBufferByteNode extends InteropNode {
 
-            protected HasMembersNode(InteropCodeCache interop) {
+            protected WriteBufferByteNode(InteropCodeCache interop) {
                 super(interop);
             }
 
             @Override
             protected Class<?>[] getArgumentTypes() {
-                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, Long.class, Byte.class};
             }
 
             @Override
             protected String getOperationName() {
-                return "hasMembers";
+                return "writeBufferByte";
             }
 
             @Specialization(limit = "CACHE_LIMIT")
             static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
-                            @CachedLibrary("receiver") InteropLibrary objects) {
-                return objects.hasMembers(receiver);
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidOffset) {
+                long byteOffset = (long) args[ARGUMENT_OFFSET];
+                byte value = (byte) args[ARGUMENT_OFFSET + 1];
+                try {
+                    buffers.writeBufferByte(receiver, byteOffset, value);
+                    return null;
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw bufferWriteUnsupported(context, receiver, "writeBufferByte(long, byte)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidOffset.enter();
+                    throw invalidBufferOffset(context, receiver, e.getByteOffset(), e.getLength());
+                }
             }
-
         }
 
-        private abstract static class AbstractMemberInfoNode extends InteropNode {
+        abstract static class ReadBufferShortNode extends InteropNode {
 
-            protected AbstractMemberInfoNode(InteropCodeCache interop) {
+            protected ReadBufferShortNode(InteropCodeCache interop) {
                 super(interop);
             }
 
             @Override
-            protected final Class<?>[] getArgumentTypes() {
-                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, String.class};
-            }
-
-        }
-
-        abstract static class HasMemberNode extends AbstractMemberInfoNode {
-
-            protected HasMemberNode(InteropCodeCache interop) {
-                super(interop);
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class};
             }
 
             @Override
             protected String getOperationName() {
-                return "hasMember";
+                return "readBufferShort";
             }
 
             @Specialization(limit = "CACHE_LIMIT")
             static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
-                            @CachedLibrary("receiver") InteropLibrary objects) {
-                String key = (String) args[ARGUMENT_OFFSET];
-                return objects.isMemberExisting(receiver, key);
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidOffset) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                try {
+                    return buffers.readBufferShort(receiver, order, byteOffset);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw bufferUnsupported(context, receiver, "readBufferShort(ByteOrder, long)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidOffset.enter();
+                    throw invalidBufferOffset(context, receiver, e.getByteOffset(), e.getLength());
+                }
             }
         }
 
-        abstract static class CanInvokeNode extends AbstractMemberInfoNode {
+        abstract static class WriteBufferShortNode extends InteropNode {
 
-            protected CanInvokeNode(InteropCodeCache interop) {
+            protected WriteBufferShortNode(InteropCodeCache interop) {
                 super(interop);
             }
 
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class, Short.class};
+            }
+
             @Override
             protected String getOperationName() {
-                return "canInvoke";
+                return "writeBufferShort";
             }
 
             @Specialization(limit = "CACHE_LIMIT")
             static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
-                            @CachedLibrary("receiver") InteropLibrary objects) {
-                String key = (String) args[ARGUMENT_OFFSET];
-                return objects.isMemberInvocable(receiver, key);
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidOffset) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                short value = (short) args[ARGUMENT_OFFSET + 2];
+                try {
+                    buffers.writeBufferShort(receiver, order, byteOffset, value);
+                    return null;
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw bufferWriteUnsupported(context, receiver, "writeBufferShort(ByteOrder, long, short)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidOffset.enter();
+                    throw invalidBufferOffset(context, receiver, e.getByteOffset(), e.getLength());
+                }
             }
-
+        }
+
+        abstract static class ReadBufferIntNode extends InteropNode {
+
+            protected ReadBufferIntNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "readBufferInt";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidOffset) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                try {
+                    return buffers.readBufferInt(receiver, order, byteOffset);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw bufferUnsupported(context, receiver, "readBufferInt(ByteOrder, long)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidOffset.enter();
+                    throw invalidBufferOffset(context, receiver, e.getByteOffset(), e.getLength());
+                }
+            }
+        }
+
+        abstract static class WriteBufferIntNode extends InteropNode {
+
+            protected WriteBufferIntNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class, Integer.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "writeBufferInt";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidOffset) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                int value = (int) args[ARGUMENT_OFFSET + 2];
+                try {
+                    buffers.writeBufferInt(receiver, order, byteOffset, value);
+                    return null;
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw bufferWriteUnsupported(context, receiver, "writeBufferInt(ByteOrder, long, int)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidOffset.enter();
+                    throw invalidBufferOffset(context, receiver, e.getByteOffset(), e.getLength());
+                }
+            }
+        }
+
+        abstract static class ReadBufferLongNode extends InteropNode {
+
+            protected ReadBufferLongNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "readBufferLong";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidOffset) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                try {
+                    return buffers.readBufferLong(receiver, order, byteOffset);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw bufferUnsupported(context, receiver, "readBufferLong(ByteOrder, long)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidOffset.enter();
+                    throw invalidBufferOffset(context, receiver, e.getByteOffset(), e.getLength());
+                }
+            }
+        }
+
+        abstract static class WriteBufferLongNode extends InteropNode {
+
+            protected WriteBufferLongNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class, Long.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "writeBufferLong";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidOffset) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                long value = (long) args[ARGUMENT_OFFSET + 2];
+                try {
+                    buffers.writeBufferLong(receiver, order, byteOffset, value);
+                    return null;
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw bufferWriteUnsupported(context, receiver, "writeBufferLong(ByteOrder, long, long)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidOffset.enter();
+                    throw invalidBufferOffset(context, receiver, e.getByteOffset(), e.getLength());
+                }
+            }
+        }
+
+        abstract static class ReadBufferFloatNode extends InteropNode {
+
+            protected ReadBufferFloatNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "readBufferFloat";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidOffset) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                try {
+                    return buffers.readBufferFloat(receiver, order, byteOffset);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw bufferUnsupported(context, receiver, "readBufferFloat(ByteOrder, long)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidOffset.enter();
+                    throw invalidBufferOffset(context, receiver, e.getByteOffset(), e.getLength());
+                }
+            }
+        }
+
+        abstract static class WriteBufferFloatNode extends InteropNode {
+
+            protected WriteBufferFloatNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class, Float.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "writeBufferFloat";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidOffset) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                float value = (float) args[ARGUMENT_OFFSET + 2];
+                try {
+                    buffers.writeBufferFloat(receiver, order, byteOffset, value);
+                    return null;
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw bufferWriteUnsupported(context, receiver, "writeBufferFloat(ByteOrder, long, float)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidOffset.enter();
+                    throw invalidBufferOffset(context, receiver, e.getByteOffset(), e.getLength());
+                }
+            }
+        }
+
+        abstract static class ReadBufferDoubleNode extends InteropNode {
+
+            protected ReadBufferDoubleNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "readBufferDouble";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidOffset) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                try {
+                    return buffers.readBufferDouble(receiver, order, byteOffset);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw bufferUnsupported(context, receiver, "readBufferDouble(ByteOrder, long)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidOffset.enter();
+                    throw invalidBufferOffset(context, receiver, e.getByteOffset(), e.getLength());
+                }
+            }
+        }
+
+        abstract static class WriteBufferDoubleNode extends InteropNode {
+
+            protected WriteBufferDoubleNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class, Double.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "writeBufferDouble";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidOffset) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                double value = (double) args[ARGUMENT_OFFSET + 2];
+                try {
+                    buffers.writeBufferDouble(receiver, order, byteOffset, value);
+                    return null;
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw bufferWriteUnsupported(context, receiver, "writeBufferDouble(ByteOrder, long, double)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidOffset.enter();
+                    throw invalidBufferOffset(context, receiver, e.getByteOffset(), e.getLength());
+                }
+            }
+        }
+
+        abstract static class ReadBufferNode extends InteropNode {
+
+            protected ReadBufferNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, Long.class, byte[].class, Integer.class, Integer.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "readBuffer";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidOffset) {
+                long byteOffset = (long) args[ARGUMENT_OFFSET];
+                byte[] destination = (byte[]) args[ARGUMENT_OFFSET + 1];
+                int destinationOffset = (int) args[ARGUMENT_OFFSET + 2];
+                int length = (int) args[ARGUMENT_OFFSET + 3];
+                try {
+                    buffers.readBuffer(receiver, byteOffset, destination, destinationOffset, length);
+                    return null;
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw bufferUnsupported(context, receiver, "readBuffer(long, byte[], int, int)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidOffset.enter();
+                    throw invalidBufferOffset(context, receiver, e.getByteOffset(), e.getLength());
+                }
+            }
+        }
+
+        abstract static class WriteBufferNode extends InteropNode {
+
+            protected WriteBufferNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, Long.class, byte[].class, Integer.class, Integer.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "writeBuffer";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidOffset) {
+                long byteOffset = (long) args[ARGUMENT_OFFSET];
+                byte[] source = (byte[]) args[ARGUMENT_OFFSET + 1];
+                int sourceOffset = (int) args[ARGUMENT_OFFSET + 2];
+                int length = (int) args[ARGUMENT_OFFSET + 3];
+                try {
+                    buffers.writeBuffer(receiver, byteOffset, source, sourceOffset, length);
+                    return null;
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw bufferWriteUnsupported(context, receiver, "writeBuffer(long, byte[], int, int)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidOffset.enter();
+                    throw invalidBufferOffset(context, receiver, e.getByteOffset(), e.getLength());
+                }
+            }
+        }
+
+        abstract static class HasIteratorNode extends InteropNode {
+
+            protected HasIteratorNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "hasIterator";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary iterables) {
+                return iterables.hasIterator(receiver);
+            }
+
+        }
+
+        abstract static class GetIteratorNode extends InteropNode {
+
+            protected GetIteratorNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "getIterator";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary iterables,
+                            @Cached("createToHost()") ToHostValueNode toHost,
+                            @Cached BranchProfile unsupported) {
+                try {
+                    return toHost.execute(context, iterables.getIterator(receiver));
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw getIteratorUnsupported(context, receiver);
+                }
+            }
+
+        }
+
+        abstract static class IsIteratorNode extends InteropNode {
+
+            protected IsIteratorNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "isIterator";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary iterators) {
+                return iterators.isIterator(receiver);
+            }
+
+        }
+
+        abstract static class HasIteratorNextElementNode extends InteropNode {
+
+            protected HasIteratorNextElementNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "hasIteratorNextElement";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary iterators,
+                            @Cached BranchProfile unsupported) {
+                try {
+                    return iterators.hasIteratorNextElement(receiver);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw iteratorUnsupported(context, receiver, "hasIteratorNextElement()");
+                }
+            }
+
+        }
+
+        abstract static class GetIteratorNextElementNode extends InteropNode {
+
+            protected GetIteratorNextElementNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "getIteratorNextElement";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary iterators,
+                            @Cached("createToHost()") ToHostValueNode toHost,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile stop) {
+                try {
+                    return toHost.execute(context, iterators.getIteratorNextElement(receiver));
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw iteratorUnsupported(context, receiver, "getIteratorNextElement()");
+                } catch (StopIterationException e) {
+                    stop.enter();
+                    throw stopIteration(context, receiver);
+                }
+            }
+
+        }
+
+        abstract static class HasHashEntriesNode extends InteropNode {
+
+            protected HasHashEntriesNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "hasHashEntries";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary hashes) {
+                return hashes.hasHashEntries(receiver);
+            }
+
+        }
+
+        abstract static class GetHashSizeNode extends InteropNode {
+
+            protected GetHashSizeNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "getHashSize";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary hashes,
+                            @Cached BranchProfile unsupported) {
+                try {
+                    return hashes.getHashSize(receiver);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw hashUnsupported(context, receiver, "getHashSize()");
+                }
+            }
+
+        }
+
+        abstract static class HasHashEntryNode extends InteropNode {
+
+            protected HasHashEntryNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, null};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "hasHashEntry";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary hashes,
+                            @Cached ToGuestValueNode toGuestKey) {
+                Object key = toGuestKey.execute(context, args[ARGUMENT_OFFSET]);
+                return hashes.isHashEntryExisting(receiver, key);
+            }
+
+        }
+
+        abstract static class GetHashValueNode extends InteropNode {
+
+            protected GetHashValueNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, null};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "getHashValue";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary hashes,
+                            @Cached ToGuestValueNode toGuestKey,
+                            @Cached("createToHost()") ToHostValueNode toHost,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile unknown) {
+                Object key = toGuestKey.execute(context, args[ARGUMENT_OFFSET]);
+                try {
+                    return toHost.execute(context, hashes.readHashValue(receiver, key));
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    if (hashes.hasHashEntries(receiver) && !hashes.isHashEntryExisting(receiver, key)) {
+                        return null;
+                    } else {
+                        throw hashUnsupported(context, receiver, "getHashValue(Object)");
+                    }
+                } catch (UnknownKeyException e) {
+                    unknown.enter();
+                    return null;
+                }
+            }
+
+        }
+
+        abstract static class PutHashEntryNode extends InteropNode {
+
+            protected PutHashEntryNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, null, null};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "putHashEntry";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary hashes,
+                            @Cached ToGuestValueNode toGuestKey,
+                            @Cached ToGuestValueNode toGuestValue,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidKey,
+                            @Cached BranchProfile invalidValue) {
+                Object key = toGuestKey.execute(context, args[ARGUMENT_OFFSET]);
+                Object value = toGuestValue.execute(context, args[ARGUMENT_OFFSET + 1]);
+                try {
+                    hashes.writeHashEntry(receiver, key, value);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw hashUnsupported(context, receiver, "putHashEntry(Object, Object)");
+                } catch (UnknownKeyException e) {
+                    invalidKey.enter();
+                    throw invalidHashKey(context, receiver, key);
+                } catch (UnsupportedTypeException e) {
+                    invalidValue.enter();
+                    throw invalidHashValue(context, receiver, key, value);
+                }
+                return null;
+            }
+
+        }
+
+        abstract static class RemoveHashEntryNode extends InteropNode {
+
+            protected RemoveHashEntryNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, null};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "removeHashEntry";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary hashes,
+                            @Cached ToGuestValueNode toGuestKey,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile unknown) {
+                Object key = toGuestKey.execute(context, args[ARGUMENT_OFFSET]);
+                Object result;
+                try {
+                    hashes.removeHashEntry(receiver, key);
+                    result = Boolean.TRUE;
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    if (!hashes.hasHashEntries(receiver) || hashes.isHashEntryExisting(receiver, key)) {
+                        throw hashUnsupported(context, receiver, "removeHashEntry(Object)");
+                    } else {
+                        result = Boolean.FALSE;
+                    }
+                } catch (UnknownKeyException e) {
+                    unknown.enter();
+                    result = Boolean.FALSE;
+                }
+                return result;
+            }
+
+        }
+
+        abstract static class GetHashEntriesIteratorNode extends InteropNode {
+
+            protected GetHashEntriesIteratorNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "getHashEntriesIterator";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary hashes,
+                            @Cached("createToHost()") ToHostValueNode toHost,
+                            @Cached BranchProfile unsupported) {
+                try {
+                    return toHost.execute(context, hashes.getHashEntriesIterator(receiver));
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw hashUnsupported(context, receiver, "getHashEntriesIterator()");
+                }
+            }
+
+        }
+
+        abstract static class GetMemberNode extends InteropNode {
+
+            protected GetMemberNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, String.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "getMember";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary objects,
+                            @Cached("createToHost()") ToHostValueNode toHost,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile unknown) {
+                String key = (String) args[ARGUMENT_OFFSET];
+                Object value;
+                try {
+                    assert key != null : "should be handled already";
+                    value = toHost.execute(context, objects.readMember(receiver, key));
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    if (objects.hasMembers(receiver)) {
+                        value = null;
+                    } else {
+                        return getMemberUnsupported(context, receiver, key);
+                    }
+                } catch (UnknownIdentifierException e) {
+                    unknown.enter();
+                    value = null;
+                }
+                return value;
+            }
+
+        }
+
+        abstract static class PutMemberNode extends InteropNode {
+
+            protected PutMemberNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "putMember";
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, String.class, null};
+            }
+
+            @Specialization
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary(limit = "CACHE_LIMIT") InteropLibrary objects,
+                            @Cached ToGuestValueNode toGuestValue,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidValue,
+                            @Cached BranchProfile unknown) {
+                String key = (String) args[ARGUMENT_OFFSET];
+                Object originalValue = args[ARGUMENT_OFFSET + 1];
+                Object value = toGuestValue.execute(context, originalValue);
+                assert key != null;
+                try {
+                    objects.writeMember(receiver, key, value);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw putMemberUnsupported(context, receiver);
+                } catch (UnknownIdentifierException e) {
+                    unknown.enter();
+                    throw invalidMemberKey(context, receiver, key);
+                } catch (UnsupportedTypeException e) {
+                    invalidValue.enter();
+                    throw invalidMemberValue(context, receiver, key, value);
+                }
+                return null;
+            }
+        }
+
+        abstract static class RemoveMemberNode extends InteropNode {
+
+            protected RemoveMemberNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "removeMember";
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, String.class};
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary objects,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile unknown) {
+                String key = (String) args[ARGUMENT_OFFSET];
+                Object value;
+                try {
+                    assert key != null : "should be handled already";
+                    objects.removeMember(receiver, key);
+                    value = Boolean.TRUE;
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    if (!objects.hasMembers(receiver) || objects.isMemberExisting(receiver, key)) {
+                        throw removeMemberUnsupported(context, receiver);
+                    } else {
+                        value = Boolean.FALSE;
+                    }
+                } catch (UnknownIdentifierException e) {
+                    unknown.enter();
+                    value = Boolean.FALSE;
+                }
+                return value;
+            }
+
+        }
+
+        abstract static class IsNullNode extends InteropNode {
+
+            protected IsNullNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "isNull";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary values) {
+                return values.isNull(receiver);
+            }
+
+        }
+
+        abstract static class HasMembersNode extends InteropNode {
+
+            protected HasMembersNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "hasMembers";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary objects) {
+                return objects.hasMembers(receiver);
+            }
+
+        }
+
+        private abstract static class AbstractMemberInfoNode extends InteropNode {
+
+            protected AbstractMemberInfoNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected final Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, String.class};
+            }
+
+        }
+
+        abstract static class HasMemberNode extends AbstractMemberInfoNode {
+
+            protected HasMemberNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "hasMember";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary objects) {
+                String key = (String) args[ARGUMENT_OFFSET];
+                return objects.isMemberExisting(receiver, key);
+            }
+        }
+
+        abstract static class CanInvokeNode extends AbstractMemberInfoNode {
+
+            protected CanInvokeNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "canInvoke";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary objects) {
+                String key = (String) args[ARGUMENT_OFFSET];
+                return objects.isMemberInvocable(receiver, key);
+            }
+
         }
 
         abstract static class CanExecuteNode extends InteropNode {
@@ -2470,6 +3704,159 @@ abstract class PolyglotValue extends AbstractValueImpl {
             return (long) CALL_PROFILED.call(cache.getArraySize, languageContext, receiver);
         }
 
+        @Override
+        public boolean hasBufferElements(Object receiver) {
+            return (boolean) CALL_PROFILED.call(cache.hasBufferElements, languageContext, receiver);
+        }
+
+        @Override
+        public boolean isBufferWritable(Object receiver) {
+            return (boolean) CALL_PROFILED.call(cache.isBufferWritable, languageContext, receiver);
+        }
+
+        @Override
+        public long getBufferSize(Object receiver) {
+            return (long) CALL_PROFILED.call(cache.getBufferSize, languageContext, receiver);
+        }
+
+        @Override
+        public byte readBufferByte(Object receiver, long byteOffset) {
+            return (byte) CALL_PROFILED.call(cache.readBufferByte, languageContext, receiver, byteOffset);
+        }
+
+        @Override
+        public void writeBufferByte(Object receiver, long byteOffset, byte value) {
+            CALL_PROFILED.call(cache.writeBufferByte, languageContext, receiver, byteOffset, value);
+        }
+
+        @Override
+        public short readBufferShort(Object receiver, ByteOrder order, long byteOffset) {
+            return (short) CALL_PROFILED.call(cache.readBufferShort, languageContext, receiver, order, byteOffset);
+        }
+
+        @Override
+        public void writeBufferShort(Object receiver, ByteOrder order, long byteOffset, short value) {
+            CALL_PROFILED.call(cache.writeBufferShort, languageContext, receiver, order, byteOffset, value);
+        }
+
+        @Override
+        public int readBufferInt(Object receiver, ByteOrder order, long byteOffset) {
+            return (int) CALL_PROFILED.call(cache.readBufferInt, languageContext, receiver, order, byteOffset);
+        }
+
+        @Override
+        public void writeBufferInt(Object receiver, ByteOrder order, long byteOffset, int value) {
+            CALL_PROFILED.call(cache.writeBufferInt, languageContext, receiver, order, byteOffset, value);
+        }
+
+        @Override
+        public long readBufferLong(Object receiver, ByteOrder order, long byteOffset) {
+            return (long) CALL_PROFILED.call(cache.readBufferLong, languageContext, receiver, order, byteOffset);
+        }
+
+        @Override
+        public void writeBufferLong(Object receiver, ByteOrder order, long byteOffset, long value) {
+            CALL_PROFILED.call(cache.writeBufferLong, languageContext, receiver, order, byteOffset, value);
+        }
+
+        @Override
+        public float readBufferFloat(Object receiver, ByteOrder order, long byteOffset) {
+            return (float) CALL_PROFILED.call(cache.readBufferFloat, languageContext, receiver, order, byteOffset);
+        }
+
+        @Override
+        public void writeBufferFloat(Object receiver, ByteOrder order, long byteOffset, float value) {
+            CALL_PROFILED.call(cache.writeBufferFloat, languageContext, receiver, order, byteOffset, value);
+        }
+
+        @Override
+        public double readBufferDouble(Object receiver, ByteOrder order, long byteOffset) {
+            return (double) CALL_PROFILED.call(cache.readBufferDouble, languageContext, receiver, order, byteOffset);
+        }
+
+        @Override
+        public void writeBufferDouble(Object receiver, ByteOrder order, long byteOffset, double value) {
+            CALL_PROFILED.call(cache.writeBufferDouble, languageContext, receiver, order, byteOffset, value);
+        }
+
+        @Override
+        public void readBuffer(Object receiver, long byteOffset, byte[] destination, int destinationOffset, int length) {
+            checkBufferCopyRange(destination, destinationOffset, length);
+            CALL_PROFILED.call(cache.readBuffer, languageContext, receiver, byteOffset, destination, destinationOffset, length);
+        }
+
+        @Override
+        public void writeBuffer(Object receiver, long byteOffset, byte[] source, int sourceOffset, int length) {
+            checkBufferCopyRange(source, sourceOffset, length);
+            CALL_PROFILED.call(cache.writeBuffer, languageContext, receiver, byteOffset, source, sourceOffset, length);
+        }
+
+        private static void checkBufferCopyRange(byte[] array, int offset, int length) {
+            if (offset < 0 || length < 0 || offset > array.length - length) {
+                throw new IndexOutOfBoundsException(String.format("Invalid range [%s, %s) for byte array of length %s.", offset, (long) offset + length, array.length));
+            }
+        }
+
+        @Override
+        public boolean hasIterator(Object receiver) {
+            return (boolean) CALL_PROFILED.call(cache.hasIterator, languageContext, receiver);
+        }
+
+        @Override
+        public Value getIterator(Object receiver) {
+            return (Value) CALL_PROFILED.call(cache.getIterator, languageContext, receiver);
+        }
+
+        @Override
+        public boolean isIterator(Object receiver) {
+            return (boolean) CALL_PROFILED.call(cache.isIterator, languageContext, receiver);
+        }
+
+        @Override
+        public boolean hasIteratorNextElement(Object receiver) {
+            return (boolean) CALL_PROFILED.call(cache.hasIteratorNextElement, languageContext, receiver);
+        }
+
+        @Override
+        public Value getIteratorNextElement(Object receiver) {
+            return (Value) CALL_PROFILED.call(cache.getIteratorNextElement, languageContext, receiver);
+        }
+
+        @Override
+        public boolean hasHashEntries(Object receiver) {
+            return (boolean) CALL_PROFILED.call(cache.hasHashEntries, languageContext, receiver);
+        }
+
+        @Override
+        public long getHashSize(Object receiver) {
+            return (long) CALL_PROFILED.call(cache.getHashSize, languageContext, receiver);
+        }
+
+        @Override
+        public boolean hasHashEntry(Object receiver, Object key) {
+            return (boolean) CALL_PROFILED.call(cache.hasHashEntry, languageContext, receiver, key);
+        }
+
+        @Override
+        public Value getHashValue(Object receiver, Object key) {
+            return (Value) CALL_PROFILED.call(cache.getHashValue, languageContext, receiver, key);
+        }
+
+        @Override
+        public void putHashEntry(Object receiver, Object key, Object value) {
+            CALL_PROFILED.call(cache.putHashEntry, languageContext, receiver, key, value);
+        }
+
+        @Override
+        public boolean removeHashEntry(Object receiver, Object key) {
+            return (boolean) CALL_PROFILED.call(cache.removeHashEntry, languageContext, receiver, key);
+        }
+
+        @Override
+        public Value getHashEntriesIterator(Object receiver) {
+            return (Value) CALL_PROFILED.call(cache.getHashEntriesIterator, languageContext, receiver);
+        }
+
         @Override
         public boolean hasMembers(Object receiver) {
             return (boolean) cache.hasMembers.call(languageContext, receiver);
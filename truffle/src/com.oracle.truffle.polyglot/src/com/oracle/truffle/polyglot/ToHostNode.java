@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -273,7 +273,7 @@ abstract class ToHostNode extends Node {
             } else if (targetType == List.class) {
                 return interop.hasArrayElements(value);
             } else if (targetType == Map.class) {
-                return interop.hasMembers(value);
+                return interop.hasMembers(value) || interop.hasHashEntries(value);
             } else if (targetType.isArray()) {
                 return interop.hasArrayElements(value);
             } else if (targetType == LocalDate.class) {
@@ -349,7 +349,7 @@ abstract class ToHostNode extends Node {
                     return result;
                 }
                 // fallthrough
-            } else if (interop.hasMembers(value)) {
+            } else if (interop.hasMembers(value) || interop.hasHashEntries(value)) {
                 return asJavaObject(value, Map.class, null, false, languageContext);
             } else if (interop.hasArrayElements(value)) {
                 return asJavaObject(value, List.class, null, false, languageContext);
@@ -414,7 +414,8 @@ abstract class ToHostNode extends Node {
             }
             boolean hasSize = (Number.class.isAssignableFrom(keyClazz)) && interop.hasArrayElements(value);
             boolean hasKeys = (keyClazz == Object.class || keyClazz == String.class) && interop.hasMembers(value);
-            if (hasKeys || hasSize) {
+            boolean hasHashEntries = interop.hasHashEntries(value);
+            if (hasKeys || hasSize || hasHashEntries) {
                 boolean implementsFunction = shouldImplementFunction(value, interop);
                 obj = PolyglotMap.create(languageContext, value, implementsFunction, keyClazz, valueType.clazz, valueType.type);
             } else {
@@ -528,7 +529,9 @@ abstract class ToHostNode extends Node {
                 throw HostInteropErrors.cannotConvert(languageContext, value, targetType, "Value must be an exception.");
             }
         } else if (allowsImplementation && targetType.isInterface()) {
-            if (HostInteropReflect.isFunctionalInterface(targetType) && (interop.isExecutable(value) || interop.isInstantiable(value))) {
+            if (PolyglotPrimitiveFunction.isSupported(targetType) && (interop.isExecutable(value) || interop.isInstantiable(value))) {
+                obj = PolyglotPrimitiveFunction.create(targetType, languageContext, value);
+            } else if (HostInteropReflect.isFunctionalInterface(targetType) && (interop.isExecutable(value) || interop.isInstantiable(value))) {
                 obj = HostInteropReflect.asJavaFunction(targetType, value, languageContext);
             } else if (interop.hasMembers(value)) {
                 obj = HostInteropReflect.newProxyInstance(targetType, value, languageContext);
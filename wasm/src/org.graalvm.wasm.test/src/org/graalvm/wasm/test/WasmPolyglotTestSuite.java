@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -44,8 +44,11 @@ import org.graalvm.wasm.utils.Assert;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
 import org.graalvm.polyglot.io.ByteSequence;
@@ -65,6 +68,115 @@ public class WasmPolyglotTestSuite {
         Assert.assertEquals("Should be equal: ", 42, result.asInt());
     }
 
+    @Test
+    public void testModuleCache() throws IOException {
+        Source source = Source.newBuilder("wasm", ByteSequence.create(binary), "main").build();
+        try (Engine engine = Engine.create()) {
+            for (int i = 0; i < 3; i++) {
+                Context context = Context.newBuilder("wasm").engine(engine).allowExperimentalOptions(true).option("wasm.ModuleCache", "true").build();
+                context.eval(source);
+                Value mainFunction = context.getBindings("wasm").getMember("main");
+                Assert.assertEquals("Should be equal: ", 42, mainFunction.execute().asInt());
+                context.close();
+            }
+        }
+        try (Context context = Context.newBuilder("wasm").allowExperimentalOptions(true).option("wasm.ModuleCache", "true").build()) {
+            context.eval(source);
+            Value mainFunction = context.getBindings("wasm").getMember("main");
+            Assert.assertEquals("Should be equal: ", 42, mainFunction.execute().asInt());
+        }
+    }
+
+    @Test
+    public void testMemoryBuffer() throws IOException {
+        Source source = Source.newBuilder("wasm", ByteSequence.create(memoryBinary), "memory-module").build();
+        try (Context context = Context.create("wasm")) {
+            context.eval(source);
+            Value memory = context.getBindings("wasm").getMember("memory");
+            Assert.assertTrue("Should have buffer elements: ", memory.hasBufferElements());
+            Assert.assertTrue("Should be writable: ", memory.isBufferWritable());
+            Assert.assertEquals("Should be equal: ", 65536L, memory.getBufferSize());
+
+            // WebAssembly memory is little-endian.
+            memory.writeBufferInt(ByteOrder.LITTLE_ENDIAN, 0, 0x01020304);
+            Assert.assertEquals("Should be equal: ", (byte) 0x04, memory.readBufferByte(0));
+            Assert.assertEquals("Should be equal: ", (byte) 0x01, memory.readBufferByte(3));
+            Assert.assertEquals("Should be equal: ", 0x04030201, memory.readBufferInt(ByteOrder.BIG_ENDIAN, 0));
+            Assert.assertEquals("Should be equal: ", (short) 0x0304, memory.readBufferShort(ByteOrder.LITTLE_ENDIAN, 0));
+            Assert.assertEquals("Should be equal: ", (short) 0x0403, memory.readBufferShort(ByteOrder.BIG_ENDIAN, 0));
+
+            memory.writeBufferLong(ByteOrder.BIG_ENDIAN, 8, 0x0102030405060708L);
+            Assert.assertEquals("Should be equal: ", (byte) 0x01, memory.readBufferByte(8));
+            Assert.assertEquals("Should be equal: ", 0x0807060504030201L, memory.readBufferLong(ByteOrder.LITTLE_ENDIAN, 8));
+            memory.writeBufferShort(ByteOrder.BIG_ENDIAN, 16, (short) 0x0102);
+            Assert.assertEquals("Should be equal: ", (byte) 0x01, memory.readBufferByte(16));
+            memory.writeBufferByte(18, (byte) -1);
+            Assert.assertEquals("Should be equal: ", (byte) -1, memory.readBufferByte(18));
+            memory.writeBufferFloat(ByteOrder.BIG_ENDIAN, 20, 1.5f);
+            Assert.assertEquals("Should be equal: ", Float.floatToRawIntBits(1.5f), memory.readBufferInt(ByteOrder.BIG_ENDIAN, 20));
+            Assert.assertEquals("Should be equal: ", 1.5f, memory.readBufferFloat(ByteOrder.BIG_ENDIAN, 20));
+            memory.writeBufferDouble(ByteOrder.LITTLE_ENDIAN, 24, 2.25);
+            Assert.assertEquals("Should be equal: ", Double.doubleToRawLongBits(2.25), memory.readBufferLong(ByteOrder.LITTLE_ENDIAN, 24));
+            Assert.assertEquals("Should be equal: ", 2.25, memory.readBufferDouble(ByteOrder.LITTLE_ENDIAN, 24));
+
+            byte[] bytes = new byte[]{1, 2, 3, 4, 5, 6};
+            memory.writeBuffer(65530, bytes, 0, bytes.length);
+            Assert.assertEquals("Should be equal: ", 0x06050403, memory.readBufferInt(ByteOrder.LITTLE_ENDIAN, 65532));
+            byte[] copy = new byte[8];
+            memory.readBuffer(65531, copy, 2, 5);
+            Assert.assertEquals("Should be equal: ", "[0, 0, 2, 3, 4, 5, 6, 0]", Arrays.toString(copy));
+
+            // The last byte is accessible, anything past it is out of bounds.
+            Assert.assertEquals("Should be equal: ", (byte) 6, memory.readBufferByte(65535));
+            assertOutOfBounds(() -> memory.readBufferByte(65536));
+            assertOutOfBounds(() -> memory.readBufferByte(-1));
+            assertOutOfBounds(() -> memory.readBufferShort(ByteOrder.LITTLE_ENDIAN, 65535));
+            assertOutOfBounds(() -> memory.readBufferInt(ByteOrder.LITTLE_ENDIAN, 65533));
+            assertOutOfBounds(() -> memory.writeBufferLong(ByteOrder.LITTLE_ENDIAN, 65529, 0L));
+            assertOutOfBounds(() -> memory.writeBufferDouble(ByteOrder.BIG_ENDIAN, Long.MAX_VALUE, 0.0));
+            assertOutOfBounds(() -> memory.readBuffer(65530, new byte[8], 0, 7));
+            assertOutOfBounds(() -> memory.writeBuffer(0, bytes, 2, bytes.length));
+            Assert.assertEquals("Out of bounds writes should not modify the memory: ", (byte) 0, memory.readBufferByte(65529));
+        }
+    }
+
+    private static void assertOutOfBounds(Runnable access) {
+        try {
+            access.run();
+            Assert.fail("Should have thrown IndexOutOfBoundsException.");
+        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+
+    // A module that only exports one page of memory.
+    private static final byte[] memoryBinary = new byte[]{
+                    (byte) 0x00,
+                    (byte) 0x61,
+                    (byte) 0x73,
+                    (byte) 0x6d,
+                    (byte) 0x01,
+                    (byte) 0x00,
+                    (byte) 0x00,
+                    (byte) 0x00,
+                    (byte) 0x05,
+                    (byte) 0x03,
+                    (byte) 0x01,
+                    (byte) 0x00,
+                    (byte) 0x01,
+                    (byte) 0x07,
+                    (byte) 0x0a,
+                    (byte) 0x01,
+                    (byte) 0x06,
+                    (byte) 0x6d,
+                    (byte) 0x65,
+                    (byte) 0x6d,
+                    (byte) 0x6f,
+                    (byte) 0x72,
+                    (byte) 0x79,
+                    (byte) 0x02,
+                    (byte) 0x00
+    };
+
     private static final byte[] binary = new byte[]{
                     (byte) 0x00,
                     (byte) 0x61,
@@ -82,6 +82,7 @@ public class BinaryParser extends BinaryStreamParser {
 
     private WasmLanguage language;
     private WasmModule module;
+    private ModuleCache.Entry cacheEntry;
     private byte[] bytesConsumed;
     private int[] limitsResult;
 
@@ -96,9 +97,14 @@ public class BinaryParser extends BinaryStreamParser {
     private int moduleFunctionIndex;
 
     BinaryParser(WasmLanguage language, WasmModule module, byte[] data) {
+        this(language, module, data, null);
+    }
+
+    BinaryParser(WasmLanguage language, WasmModule module, byte[] data, ModuleCache.Entry cacheEntry) {
         super(data);
         this.language = language;
         this.module = module;
+        this.cacheEntry = cacheEntry;
         this.bytesConsumed = new byte[1];
         this.limitsResult = new int[2];
         this.moduleFunctionIndex = 0;
@@ -125,7 +131,14 @@ public class BinaryParser extends BinaryStreamParser {
                     readCustomSection(size);
                     break;
                 case Section.TYPE:
-                    readTypeSection();
+                    if (cacheEntry != null && module.symbolTable().typeCount() == 0 && cacheEntry.hasTypeSection(startOffset)) {
+                        offset = cacheEntry.installTypeSection(module.symbolTable());
+                    } else {
+                        readTypeSection();
+                        if (cacheEntry != null) {
+                            cacheEntry.recordTypeSection(module.symbolTable(), startOffset, offset);
+                        }
+                    }
                     break;
                 case Section.IMPORT:
                     readImportSection(context);
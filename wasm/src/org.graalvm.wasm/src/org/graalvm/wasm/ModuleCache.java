@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleLanguage.Env;
+import com.oracle.truffle.api.nodes.LanguageInfo;
+
+/**
+ * Engine-wide cache of the context-independent parts of WebAssembly binaries.
+ *
+ * The language uses the {@link com.oracle.truffle.api.TruffleLanguage.ContextPolicy#EXCLUSIVE
+ * exclusive} context policy, so every context parses its modules with a separate
+ * {@link BinaryParser}. When the same binary is loaded into many contexts, this cache ensures that
+ * all the {@link WasmModule} instances share a single copy of the binary, and that the type
+ * section, which was validated the first time the binary was parsed, is installed into the
+ * {@link SymbolTable} without being decoded again. All other sections are still decoded and
+ * validated by every context, since they create context-specific state such as the function
+ * nodes, globals, memories and tables.
+ *
+ * Since every context has its own {@link WasmLanguage} instance, the cache of an engine is
+ * associated with the {@link LanguageInfo} of the language in that engine, and is released
+ * together with the engine.
+ *
+ * Entries are keyed by the length and a sampled hash of the binary, and a lookup compares the
+ * complete binary only when the key matches, so a hit costs one pass over the binary in addition to
+ * the parsing. The least recently used entries are evicted once the cache holds more than the
+ * number of modules specified with {@link WasmOptions#ModuleCacheSize}.
+ */
+final class ModuleCache {
+    private static final int HASH_SAMPLES = 64;
+
+    private static final Map<LanguageInfo, ModuleCache> ENGINE_CACHES = new WeakHashMap<>();
+
+    /**
+     * The key of a binary. The hash covers the length of the binary and at most
+     * {@link #HASH_SAMPLES} of its bytes, so that computing it does not require a pass over the
+     * complete binary.
+     */
+    private static final class Key {
+        private final byte[] data;
+        private final int hash;
+
+        Key(byte[] data) {
+            this.data = data;
+            this.hash = sampledHash(data);
+        }
+
+        private static int sampledHash(byte[] data) {
+            final int step = Math.max(1, data.length / HASH_SAMPLES);
+            int result = data.length;
+            for (int i = 0; i < data.length; i += step) {
+                result = 31 * result + data[i];
+            }
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return hash == other.hash && Arrays.equals(data, other.data);
+        }
+    }
+
+    /**
+     * The immutable, validated data of a single binary.
+     */
+    static final class Entry {
+        private final byte[] data;
+        private int[] typeData;
+        private int[] typeOffsets;
+        private int typeCount;
+        private int typeSectionStartOffset;
+        private int typeSectionEndOffset;
+
+        Entry(byte[] data) {
+            this.data = data;
+            this.typeSectionStartOffset = -1;
+            this.typeSectionEndOffset = -1;
+        }
+
+        byte[] data() {
+            return data;
+        }
+
+        /**
+         * Returns whether the type section that starts at the specified offset was already
+         * decoded and validated.
+         */
+        synchronized boolean hasTypeSection(int startOffset) {
+            return typeSectionStartOffset == startOffset;
+        }
+
+        synchronized void recordTypeSection(SymbolTable symbolTable, int startOffset, int endOffset) {
+            if (typeSectionStartOffset != -1) {
+                return;
+            }
+            this.typeData = symbolTable.typeDataSnapshot();
+            this.typeOffsets = symbolTable.typeOffsetsSnapshot();
+            this.typeCount = symbolTable.typeCount();
+            this.typeSectionStartOffset = startOffset;
+            this.typeSectionEndOffset = endOffset;
+        }
+
+        synchronized int installTypeSection(SymbolTable symbolTable) {
+            assert typeSectionStartOffset != -1;
+            symbolTable.initializeFunctionTypes(typeData, typeOffsets, typeCount);
+            return typeSectionEndOffset;
+        }
+    }
+
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private ModuleCache() {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the module cache of the engine that the specified environment belongs to.
+     */
+    @TruffleBoundary
+    static ModuleCache forEngine(Env env) {
+        final LanguageInfo engineLanguage = env.getInternalLanguages().get("wasm");
+        synchronized (ENGINE_CACHES) {
+            ModuleCache cache = ENGINE_CACHES.get(engineLanguage);
+            if (cache == null) {
+                cache = new ModuleCache();
+                ENGINE_CACHES.put(engineLanguage, cache);
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Returns the cache entry for the specified binary, creating it if the binary was not seen
+     * before. The {@link Entry#data()} of the returned entry is equal to, but not necessarily
+     * identical to the {@code data} argument.
+     */
+    @TruffleBoundary
+    Entry lookup(byte[] data, int maxSize) {
+        final Key key = new Key(data);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                return entry;
+            }
+            entry = new Entry(data);
+            entries.put(key, entry);
+            evict(maxSize);
+            return entry;
+        }
+    }
+
+    private void evict(int maxSize) {
+        while (entries.size() > maxSize) {
+            final Key eldest = entries.keySet().iterator().next();
+            entries.remove(eldest);
+        }
+    }
+}
@@ -385,6 +385,30 @@ public class SymbolTable {
         typeData[idx] = type;
     }
 
+    /**
+     * Installs the function types of a previously validated type section, as recorded by the
+     * {@link ModuleCache}. The arrays are copied, since the symbol table may still grow them.
+     */
+    void initializeFunctionTypes(int[] data, int[] offsets, int count) {
+        checkNotLinked();
+        if (typeCount != 0) {
+            throw new WasmValidationException("Function types can only be initialized in an empty symbol table.");
+        }
+        typeData = Arrays.copyOf(data, Math.max(data.length, INITIAL_DATA_SIZE));
+        typeDataSize = data.length;
+        typeOffsets = Arrays.copyOf(offsets, Math.max(count, INITIAL_TYPE_SIZE));
+        typeEquivalenceClasses = new int[typeOffsets.length];
+        typeCount = count;
+    }
+
+    int[] typeDataSnapshot() {
+        return Arrays.copyOf(typeData, typeDataSize);
+    }
+
+    int[] typeOffsetsSnapshot() {
+        return Arrays.copyOf(typeOffsets, typeCount);
+    }
+
     public int equivalenceClass(int typeIndex) {
         return typeEquivalenceClasses[typeIndex];
     }
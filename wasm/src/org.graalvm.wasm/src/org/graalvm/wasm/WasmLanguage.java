@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -63,23 +63,33 @@ public final class WasmLanguage extends TruffleLanguage<WasmContext> {
     protected CallTarget parse(ParsingRequest request) {
         final WasmContext context = getCurrentContext();
         final String moduleName = request.getSource().getName();
-        final byte[] data = request.getSource().getBytes().toByteArray();
+        final byte[] sourceData = request.getSource().getBytes().toByteArray();
+        final ModuleCache.Entry cacheEntry = lookupCacheEntry(context, sourceData);
+        final byte[] data = cacheEntry != null ? cacheEntry.data() : sourceData;
         final WasmModule module = new WasmModule(moduleName, data);
-        readModule(context, module, data);
+        readModule(context, module, data, cacheEntry);
         context.registerModule(module);
         return Truffle.getRuntime().createCallTarget(new WasmEmptyRootNode(this));
     }
 
-    private void readModule(WasmContext context, WasmModule module, byte[] data) {
+    private static ModuleCache.Entry lookupCacheEntry(WasmContext context, byte[] data) {
+        if (!WasmOptions.ModuleCache.getValue(context.environment().getOptions())) {
+            return null;
+        }
+        final int maxSize = WasmOptions.ModuleCacheSize.getValue(context.environment().getOptions());
+        return ModuleCache.forEngine(context.environment()).lookup(data, maxSize);
+    }
+
+    private void readModule(WasmContext context, WasmModule module, byte[] data, ModuleCache.Entry cacheEntry) {
         int binarySize = data.length;
         final int asyncParsingBinarySize = WasmOptions.AsyncParsingBinarySize.getValue(context.environment().getOptions());
         if (binarySize < asyncParsingBinarySize) {
-            readModuleSynchronously(context, module, data);
+            readModuleSynchronously(context, module, data, cacheEntry);
         } else {
             final Runnable parsing = new Runnable() {
                 @Override
                 public void run() {
-                    readModuleSynchronously(context, module, data);
+                    readModuleSynchronously(context, module, data, cacheEntry);
                 }
             };
             final String name = "wasm-parsing-thread(" + module.name() + ")";
@@ -101,8 +111,8 @@ public final class WasmLanguage extends TruffleLanguage<WasmContext> {
         }
     }
 
-    private void readModuleSynchronously(WasmContext context, WasmModule module, byte[] data) {
-        final BinaryParser reader = new BinaryParser(this, module, data);
+    private void readModuleSynchronously(WasmContext context, WasmModule module, byte[] data, ModuleCache.Entry cacheEntry) {
+        final BinaryParser reader = new BinaryParser(this, module, data, cacheEntry);
         reader.readModule(context);
     }
 
@@ -55,4 +55,10 @@ public class WasmOptions {
 
     @Option(help = "The stack size in kilobytes to use during async parsing, or zero to use defaults.", category = OptionCategory.USER, stability = OptionStability.STABLE)//
     public static final OptionKey<Integer> AsyncParsingStackSize = new OptionKey<>(0);
+
+    @Option(help = "Share the binaries and the validated type sections of modules that are loaded into multiple contexts.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Boolean> ModuleCache = new OptionKey<>(false);
+
+    @Option(help = "The maximum number of distinct binaries kept in the module cache.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Integer> ModuleCacheSize = new OptionKey<>(64);
 }
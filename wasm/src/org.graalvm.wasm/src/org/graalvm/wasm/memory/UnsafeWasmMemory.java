@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -92,6 +92,20 @@ public class UnsafeWasmMemory extends WasmMemory {
         unsafe.copyMemory(startAddress + src, startAddress + dst, n);
     }
 
+    @Override
+    public void copyToArray(Node node, long address, byte[] destination, int destinationOffset, int length) {
+        WasmTracing.trace("memcopy from = %d, to array, n = %d", address, length);
+        validateAddress(node, address, length);
+        unsafe.copyMemory(null, startAddress + address, destination, Unsafe.ARRAY_BYTE_BASE_OFFSET + destinationOffset, length);
+    }
+
+    @Override
+    public void copyFromArray(Node node, long address, byte[] source, int sourceOffset, int length) {
+        WasmTracing.trace("memcopy from array, to = %d, n = %d", address, length);
+        validateAddress(node, address, length);
+        unsafe.copyMemory(source, Unsafe.ARRAY_BYTE_BASE_OFFSET + sourceOffset, null, startAddress + address, length);
+    }
+
     @Override
     public void clear() {
         unsafe.setMemory(startAddress, byteSize(), (byte) 0);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -40,8 +40,11 @@
  */
 package org.graalvm.wasm.memory;
 
+import java.nio.ByteOrder;
+
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.InvalidBufferOffsetException;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
@@ -129,6 +132,16 @@ public abstract class WasmMemory implements TruffleObject {
     public abstract void store_i64_32(Node node, long address, int value);
     // Checkstyle: resume
 
+    /**
+     * Copies {@code length} bytes starting at {@code address} into the given array.
+     */
+    public abstract void copyToArray(Node node, long address, byte[] destination, int destinationOffset, int length);
+
+    /**
+     * Copies {@code length} bytes of the given array into the memory starting at {@code address}.
+     */
+    public abstract void copyFromArray(Node node, long address, byte[] source, int sourceOffset, int length);
+
     public abstract void clear();
 
     public abstract WasmMemory duplicate();
@@ -237,4 +250,120 @@ public abstract class WasmMemory implements TruffleObject {
         }
         store_i32_8(null, address, rawValue);
     }
+
+    @ExportMessage
+    boolean hasBufferElements() {
+        return true;
+    }
+
+    @ExportMessage
+    boolean isBufferWritable() {
+        return true;
+    }
+
+    @ExportMessage
+    long getBufferSize() {
+        return byteSize();
+    }
+
+    private void checkBufferOffset(long byteOffset, int length) throws InvalidBufferOffsetException {
+        if (byteOffset < 0 || byteOffset > byteSize() - length) {
+            transferToInterpreter();
+            throw InvalidBufferOffsetException.create(byteOffset, length);
+        }
+    }
+
+    /*
+     * WebAssembly memory is always little-endian, values accessed in big-endian order are swapped.
+     */
+    @ExportMessage
+    byte readBufferByte(long byteOffset) throws InvalidBufferOffsetException {
+        checkBufferOffset(byteOffset, Byte.BYTES);
+        return (byte) load_i32_8s(null, byteOffset);
+    }
+
+    @ExportMessage
+    void writeBufferByte(long byteOffset, byte value) throws InvalidBufferOffsetException {
+        checkBufferOffset(byteOffset, Byte.BYTES);
+        store_i32_8(null, byteOffset, value);
+    }
+
+    @ExportMessage
+    short readBufferShort(ByteOrder order, long byteOffset) throws InvalidBufferOffsetException {
+        checkBufferOffset(byteOffset, Short.BYTES);
+        short value = (short) load_i32_16s(null, byteOffset);
+        return order == ByteOrder.LITTLE_ENDIAN ? value : Short.reverseBytes(value);
+    }
+
+    @ExportMessage
+    void writeBufferShort(ByteOrder order, long byteOffset, short value) throws InvalidBufferOffsetException {
+        checkBufferOffset(byteOffset, Short.BYTES);
+        store_i32_16(null, byteOffset, order == ByteOrder.LITTLE_ENDIAN ? value : Short.reverseBytes(value));
+    }
+
+    @ExportMessage
+    int readBufferInt(ByteOrder order, long byteOffset) throws InvalidBufferOffsetException {
+        checkBufferOffset(byteOffset, Integer.BYTES);
+        int value = load_i32(null, byteOffset);
+        return order == ByteOrder.LITTLE_ENDIAN ? value : Integer.reverseBytes(value);
+    }
+
+    @ExportMessage
+    void writeBufferInt(ByteOrder order, long byteOffset, int value) throws InvalidBufferOffsetException {
+        checkBufferOffset(byteOffset, Integer.BYTES);
+        store_i32(null, byteOffset, order == ByteOrder.LITTLE_ENDIAN ? value : Integer.reverseBytes(value));
+    }
+
+    @ExportMessage
+    long readBufferLong(ByteOrder order, long byteOffset) throws InvalidBufferOffsetException {
+        checkBufferOffset(byteOffset, Long.BYTES);
+        long value = load_i64(null, byteOffset);
+        return order == ByteOrder.LITTLE_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
+    @ExportMessage
+    void writeBufferLong(ByteOrder order, long byteOffset, long value) throws InvalidBufferOffsetException {
+        checkBufferOffset(byteOffset, Long.BYTES);
+        store_i64(null, byteOffset, order == ByteOrder.LITTLE_ENDIAN ? value : Long.reverseBytes(value));
+    }
+
+    @ExportMessage
+    float readBufferFloat(ByteOrder order, long byteOffset) throws InvalidBufferOffsetException {
+        return Float.intBitsToFloat(readBufferInt(order, byteOffset));
+    }
+
+    @ExportMessage
+    void writeBufferFloat(ByteOrder order, long byteOffset, float value) throws InvalidBufferOffsetException {
+        writeBufferInt(order, byteOffset, Float.floatToRawIntBits(value));
+    }
+
+    @ExportMessage
+    double readBufferDouble(ByteOrder order, long byteOffset) throws InvalidBufferOffsetException {
+        return Double.longBitsToDouble(readBufferLong(order, byteOffset));
+    }
+
+    @ExportMessage
+    void writeBufferDouble(ByteOrder order, long byteOffset, double value) throws InvalidBufferOffsetException {
+        writeBufferLong(order, byteOffset, Double.doubleToRawLongBits(value));
+    }
+
+    @ExportMessage
+    void readBuffer(long byteOffset, byte[] destination, int destinationOffset, int length) throws InvalidBufferOffsetException {
+        if (destinationOffset < 0 || length < 0 || destinationOffset > destination.length - length) {
+            transferToInterpreter();
+            throw new IndexOutOfBoundsException();
+        }
+        checkBufferOffset(byteOffset, length);
+        copyToArray(null, byteOffset, destination, destinationOffset, length);
+    }
+
+    @ExportMessage
+    void writeBuffer(long byteOffset, byte[] source, int sourceOffset, int length) throws InvalidBufferOffsetException {
+        if (sourceOffset < 0 || length < 0 || sourceOffset > source.length - length) {
+            transferToInterpreter();
+            throw new IndexOutOfBoundsException();
+        }
+        checkBufferOffset(byteOffset, length);
+        copyFromArray(null, byteOffset, source, sourceOffset, length);
+    }
 }